@@ -0,0 +1,18 @@
+package com.chatter.chatter.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheGenerationMessage {
+
+    public static final String CHANNEL = "cache-generation-invalidation";
+
+    private List<String> namespaces;
+
+}
@@ -0,0 +1,28 @@
+package com.chatter.chatter.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationMessage {
+
+    public static final String CHANNEL = "cache-invalidation";
+
+    private String origin;
+
+    private String cacheName;
+
+    private String key;
+
+    public static CacheInvalidationMessage key(String origin, String cacheName, Object key) {
+        return new CacheInvalidationMessage(origin, cacheName, String.valueOf(key));
+    }
+
+    public static CacheInvalidationMessage clear(String origin, String cacheName) {
+        return new CacheInvalidationMessage(origin, cacheName, null);
+    }
+
+}
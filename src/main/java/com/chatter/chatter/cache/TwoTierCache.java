@@ -0,0 +1,113 @@
+package com.chatter.chatter.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final Cache<Object, Object> localCache;
+    private final org.springframework.cache.Cache remoteCache;
+    private final TwoTierCacheManager cacheManager;
+
+    public TwoTierCache(String name, Cache<Object, Object> localCache, org.springframework.cache.Cache remoteCache, TwoTierCacheManager cacheManager) {
+        super(false);
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remoteCache.getNativeCache();
+    }
+
+    public Cache<Object, Object> getLocalCache() {
+        return localCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = localCache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        ValueWrapper wrapper = remoteCache.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            return null;
+        }
+        localCache.put(key, wrapper.get());
+        return wrapper.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) value;
+        }
+        T loaded = remoteCache.get(key, valueLoader);
+        if (loaded != null) {
+            localCache.put(key, loaded);
+            cacheManager.publish(CacheInvalidationMessage.key(cacheManager.getNodeId(), name, key));
+        }
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remoteCache.put(key, value);
+        if (value != null) {
+            localCache.put(key, value);
+        }
+        else {
+            localCache.invalidate(key);
+        }
+        cacheManager.publish(CacheInvalidationMessage.key(cacheManager.getNodeId(), name, key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remoteCache.putIfAbsent(key, value);
+        if (existing != null && existing.get() != null) {
+            localCache.put(key, existing.get());
+            return new SimpleValueWrapper(existing.get());
+        }
+        localCache.invalidate(key);
+        cacheManager.publish(CacheInvalidationMessage.key(cacheManager.getNodeId(), name, key));
+        return null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        localCache.invalidate(key);
+        cacheManager.publish(CacheInvalidationMessage.key(cacheManager.getNodeId(), name, key));
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        localCache.invalidateAll();
+        cacheManager.publish(CacheInvalidationMessage.clear(cacheManager.getNodeId(), name));
+    }
+
+    public void evictLocal(Object key) {
+        localCache.invalidate(key);
+    }
+
+    public void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.chatter.chatter.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Slf4j
+public class TwoTierCacheManager implements CacheManager {
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+    private final CacheManager remoteCacheManager;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long localMaximumSize;
+    private final Duration localTimeToLive;
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager, RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry, long localMaximumSize, Duration localTimeToLive) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.localMaximumSize = localMaximumSize;
+        this.localTimeToLive = localTimeToLive;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void publish(CacheInvalidationMessage message) {
+        try {
+            redisTemplate.convertAndSend(CacheInvalidationMessage.CHANNEL, message);
+        }
+        catch (RuntimeException e) {
+            log.warn("Failed to publish cache invalidation for {}: {}", message.getCacheName(), e.getMessage());
+        }
+    }
+
+    public void handleInvalidation(CacheInvalidationMessage message) {
+        if (nodeId.equals(message.getOrigin())) return;
+        TwoTierCache cache = caches.get(message.getCacheName());
+        if (cache == null) return;
+        if (message.getKey() != null) {
+            cache.evictLocal(message.getKey());
+        }
+        else {
+            cache.clearLocal();
+        }
+    }
+
+    private TwoTierCache createCache(String name) {
+        Cache remoteCache = remoteCacheManager.getCache(name);
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTimeToLive)
+                .recordStats()
+                .build();
+        // Caches are created on first use, after the actuator registrar has bound the startup caches,
+        // so the local tier registers its own meters here
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, name, Tags.of("cache.manager", "cacheManager"));
+        return new TwoTierCache(name, localCache, remoteCache, this);
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.chatter.chatter.config;
+
+import org.springframework.amqp.core.Queue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MediaVariantsConfig {
+
+    public static final String MEDIA_VARIANTS = "media-variants";
+
+    @Bean
+    public Queue mediaVariantsQueue() {
+        return new Queue(MEDIA_VARIANTS, true);
+    }
+
+}
@@ -1,21 +1,31 @@
 package com.chatter.chatter.config;
 
+import com.chatter.chatter.cache.CacheGenerationMessage;
+import com.chatter.chatter.cache.CacheInvalidationMessage;
+import com.chatter.chatter.cache.TwoTierCacheManager;
+import com.chatter.chatter.service.CacheService;
+import com.chatter.chatter.service.EphemeralEventBus;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -35,14 +45,61 @@ public class RedisConfig {
     @Value("${spring.cache.redis.time-to-live}")
     private Duration timeToLive;
 
+    @Value("${app.cache.local.maximum-size}")
+    private long localMaximumSize;
+
+    @Value("${app.cache.local.time-to-live}")
+    private Duration localTimeToLive;
+
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory, RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry) {
         RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager
                 .RedisCacheManagerBuilder
                 .fromConnectionFactory(redisConnectionFactory)
                 .cacheDefaults(cacheConfiguration());
 
-        return builder.build();
+        RedisCacheManager redisCacheManager = builder.build();
+        redisCacheManager.afterPropertiesSet();
+        return new TwoTierCacheManager(redisCacheManager, redisTemplate, meterRegistry, localMaximumSize, localTimeToLive);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory redisConnectionFactory, TwoTierCacheManager cacheManager) {
+        GenericJackson2JsonRedisSerializer serializer = jacksonSerializer();
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            if (serializer.deserialize(message.getBody()) instanceof CacheInvalidationMessage invalidationMessage) {
+                cacheManager.handleInvalidation(invalidationMessage);
+            }
+        }, new ChannelTopic(CacheInvalidationMessage.CHANNEL));
+        return container;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheGenerationListenerContainer(RedisConnectionFactory redisConnectionFactory, CacheService cacheService) {
+        GenericJackson2JsonRedisSerializer serializer = jacksonSerializer();
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener((message, _) -> {
+            if (serializer.deserialize(message.getBody()) instanceof CacheGenerationMessage generationMessage) {
+                cacheService.handleInvalidation(generationMessage);
+            }
+        }, new ChannelTopic(CacheGenerationMessage.CHANNEL));
+        return container;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer ephemeralEventListenerContainer(RedisConnectionFactory redisConnectionFactory, EphemeralEventBus ephemeralEventBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        // Hand events over in arrival order, the bus queues them per destination
+        container.setTaskExecutor(new SyncTaskExecutor());
+        container.addMessageListener(
+                (message, _) -> ephemeralEventBus.handleMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(EphemeralEventBus.CHANNEL)
+        );
+        return container;
     }
 
     @Bean
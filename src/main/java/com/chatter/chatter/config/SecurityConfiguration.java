@@ -1,6 +1,7 @@
 package com.chatter.chatter.config;
 
 import com.chatter.chatter.filter.JwtFilter;
+import com.chatter.chatter.filter.UploadBulkheadFilter;
 import com.chatter.chatter.service.OAuth2Service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -25,6 +26,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -40,6 +42,7 @@ public class SecurityConfiguration {
 
     private final UserDetailsService userDetailsService;
     private final JwtFilter jwtFilter;
+    private final UploadBulkheadFilter uploadBulkheadFilter;
     private final SimpleUrlAuthenticationSuccessHandler successHandler;
     private final OAuth2Service oAuth2Service;
     private final PasswordEncoder passwordEncoder;
@@ -57,6 +60,7 @@ public class SecurityConfiguration {
             request.requestMatchers(HttpMethod.POST, "/api/users").permitAll();
             request.requestMatchers("/api/auth/logout").authenticated();
             request.requestMatchers("/api/auth/**").permitAll();
+            request.requestMatchers("/files/**").permitAll();
             request.anyRequest().authenticated();
         });
         http.oauth2Login(oauth -> {
@@ -70,6 +74,7 @@ public class SecurityConfiguration {
         });
         http.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
         http.addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterAfter(uploadBulkheadFilter, AuthorizationFilter.class);
         return http.build();
     }
 
@@ -1,10 +1,14 @@
 package com.chatter.chatter.config;
 
+import com.chatter.chatter.model.UserPrincipal;
+import com.chatter.chatter.service.EphemeralEventBus;
 import com.chatter.chatter.service.JwtService;
+import com.chatter.chatter.service.OnlineUserService;
 import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Profile;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
@@ -30,6 +34,8 @@ public class WebsocketConfiguration implements WebSocketMessageBrokerConfigurer
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final OnlineUserService onlineUserService;
+    private final EphemeralEventBus ephemeralEventBus;
 
     @Value("${spring.rabbitmq.host}")
     private String relayHost;
@@ -43,10 +49,14 @@ public class WebsocketConfiguration implements WebSocketMessageBrokerConfigurer
     @Autowired
     public WebsocketConfiguration(
             JwtService jwtService,
-            UserDetailsService userDetailsService
+            UserDetailsService userDetailsService,
+            @Lazy OnlineUserService onlineUserService,
+            @Lazy EphemeralEventBus ephemeralEventBus
     ) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.onlineUserService = onlineUserService;
+        this.ephemeralEventBus = ephemeralEventBus;
     }
 
     @Override
@@ -97,9 +107,30 @@ public class WebsocketConfiguration implements WebSocketMessageBrokerConfigurer
                         throw new MessageDeliveryException("Authentication failed: " + e.getMessage());
                     }
                 }
+                else if (accessor != null && accessor.getSessionId() != null && getUserId(accessor) != null) {
+                    onlineUserService.sessionHeartbeat(getUserId(accessor), accessor.getSessionId());
+                }
+                if (accessor != null && StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                        && ephemeralEventBus.subscribe(accessor.getSessionId(), accessor.getSubscriptionId(), accessor.getDestination(), getUserId(accessor))) {
+                    ephemeralEventBus.sendReceipt(accessor.getSessionId(), accessor.getReceipt());
+                    return null;
+                }
+                if (accessor != null && StompCommand.UNSUBSCRIBE.equals(accessor.getCommand())
+                        && ephemeralEventBus.unsubscribe(accessor.getSessionId(), accessor.getSubscriptionId())) {
+                    ephemeralEventBus.sendReceipt(accessor.getSessionId(), accessor.getReceipt());
+                    return null;
+                }
 
                 return message;
             }
         });
     }
+
+    private Long getUserId(StompHeaderAccessor accessor) {
+        if (accessor.getUser() instanceof UsernamePasswordAuthenticationToken authToken
+                && authToken.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            return userPrincipal.getUser().getId();
+        }
+        return null;
+    }
 }
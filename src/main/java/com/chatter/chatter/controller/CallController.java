@@ -0,0 +1,58 @@
+package com.chatter.chatter.controller;
+
+import com.chatter.chatter.dto.CallDto;
+import com.chatter.chatter.model.UserPrincipal;
+import com.chatter.chatter.request.CallPostRequest;
+import com.chatter.chatter.request.CallSignalRequest;
+import com.chatter.chatter.service.CallService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/calls")
+public class CallController {
+
+    private final CallService callService;
+
+    @PostMapping
+    public ResponseEntity<CallDto> createCall(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @Valid @RequestBody CallPostRequest request
+    ) {
+        CallDto callDto = callService.createCall(principal.getUser().getId(), principal.getUsername(), request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(callDto);
+    }
+
+    @GetMapping("/{callId}")
+    public ResponseEntity<CallDto> getCall(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable String callId
+    ) {
+        return ResponseEntity.ok(callService.getCall(principal.getUser().getId(), callId));
+    }
+
+    @PostMapping("/{callId}/signals")
+    public ResponseEntity<Void> signal(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable String callId,
+            @Valid @RequestBody CallSignalRequest request
+    ) {
+        callService.signal(principal.getUser().getId(), callId, request);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{callId}")
+    public ResponseEntity<Void> endCall(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable String callId
+    ) {
+        callService.endCall(principal.getUser().getId(), callId);
+        return ResponseEntity.noContent().build();
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.chatter.chatter.controller;
+
+import com.chatter.chatter.dto.MediaStreamResult;
+import com.chatter.chatter.service.LocalFileUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/files")
+@RequiredArgsConstructor
+@Profile("local-storage")
+public class LocalFileController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final LocalFileUploadService localFileUploadService;
+
+    @GetMapping("/{*filename}")
+    public void getFile(
+            @PathVariable String filename,
+            @RequestParam Long expires,
+            @RequestParam String signature,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        MediaStreamResult result = localFileUploadService.streamFile(filename.substring(1), expires, signature, range, ifNoneMatch);
+        response.setHeader(HttpHeaders.ETAG, result.getETag());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=3600");
+        if (result.isNotModified()) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        if (result.isRangeNotSatisfiable()) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + result.getTotalLength());
+            return;
+        }
+        response.setContentType(result.getContentType().toString());
+        response.setContentLengthLong(result.getContentLength());
+        if (result.isPartialContent()) {
+            long end = result.getRangeStart() + result.getContentLength() - 1;
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + result.getRangeStart() + "-" + end + "/" + result.getTotalLength());
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, result.getResource().getFile().getAbsolutePath());
+            request.setAttribute(SENDFILE_START, result.getRangeStart());
+            request.setAttribute(SENDFILE_END, result.getRangeStart() + result.getContentLength());
+            return;
+        }
+        localFileUploadService.writeFile(result, response.getOutputStream());
+    }
+
+    @PutMapping("/{*filename}")
+    public ResponseEntity<Void> putFile(
+            @PathVariable String filename,
+            @RequestParam Long expires,
+            @RequestParam String signature,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(HttpHeaders.CONTENT_LENGTH) Long contentLength,
+            HttpServletRequest request
+    ) throws IOException {
+        try (InputStream inputStream = request.getInputStream()) {
+            localFileUploadService.storeFile(filename.substring(1), expires, signature, contentType, contentLength, inputStream);
+        }
+        return ResponseEntity.ok().build();
+    }
+
+}
@@ -29,6 +29,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MessageController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final MessageService messageService;
     private final MessageMapper messageMapper;
 
@@ -55,6 +57,21 @@ public class MessageController {
         return ResponseEntity.ok(cursorResponseDto);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<CursorResponseDto<MessageDto>> searchMessages(
+            @RequestParam String query,
+            @RequestParam(required = false) MessageType messageType,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false, defaultValue = "20") int size,
+            Principal principal
+    ) {
+        List<MessageDto> messages = messageService.searchMessages(principal.getName(), query, messageType, before, Math.clamp(size, 1, MAX_PAGE_SIZE));
+
+        Long nextCursor = messages.isEmpty() ? null : messages.getLast().getId();
+        Long previousCursor = messages.isEmpty() ? null : messages.getFirst().getId();
+        return ResponseEntity.ok(new CursorResponseDto<>(messages, nextCursor, previousCursor));
+    }
+
     @GetMapping("/{messageId}")
     public ResponseEntity<MessageDto> getMessage(Principal principal, @PathVariable Long messageId) {
         Message message = messageService.getMessageEntity(principal.getName(), messageId);
@@ -75,6 +92,15 @@ public class MessageController {
         return ResponseEntity.status(HttpStatus.CREATED).body(messageMapper.toDto(new MessageProjection(message, false, false), principal.getName(), true));
     }
 
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MessageDto> createMessageFromUploads(
+            Principal principal,
+            @RequestBody @Valid SingleMessageRequest request
+    ) {
+        Message message = messageService.createMessage(principal.getName(), request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(messageMapper.toDto(new MessageProjection(message, false, false), principal.getName(), true));
+    }
+
     @PatchMapping("/{messageId}/pin")
     public ResponseEntity<MessageDto> pinMessage(
             Principal principal,
@@ -1,8 +1,6 @@
 package com.chatter.chatter.controller;
 
 import com.chatter.chatter.dto.MessageReadDto;
-import com.chatter.chatter.mapper.MessageReadMapper;
-import com.chatter.chatter.model.MessageRead;
 import com.chatter.chatter.request.MarkChatMessagesAsReadRequest;
 import com.chatter.chatter.request.MessageReadBatchPostRequest;
 import com.chatter.chatter.request.MessageReadPostRequest;
@@ -20,14 +18,9 @@ import java.util.List;
 public class MessageReadController {
 
     private final MessageReadService messageReadService;
-    private final MessageReadMapper messageReadMapper;
 
-    public MessageReadController(
-            MessageReadService messageReadService,
-            MessageReadMapper messageReadMapper
-    ) {
+    public MessageReadController(MessageReadService messageReadService) {
         this.messageReadService = messageReadService;
-        this.messageReadMapper = messageReadMapper;
     }
 
     @GetMapping
@@ -43,8 +36,7 @@ public class MessageReadController {
             Principal principal,
             @Valid @RequestBody MessageReadPostRequest request
     ) {
-        MessageRead messageRead = messageReadService.createMessageRead(principal.getName(), request.getMessageId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(messageReadMapper.toDto(messageRead));
+        return ResponseEntity.status(HttpStatus.CREATED).body(messageReadService.createMessageRead(principal.getName(), request.getMessageId()));
     }
 
     @PostMapping("/chat")
@@ -52,8 +44,7 @@ public class MessageReadController {
             Principal principal,
             @Valid @RequestBody MarkChatMessagesAsReadRequest request
     ) {
-        List<MessageRead> messageReads = messageReadService.readChatMessages(principal.getName(), request.getChatId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(messageReadMapper.toDtoList(messageReads));
+        return ResponseEntity.status(HttpStatus.CREATED).body(messageReadService.readChatMessages(principal.getName(), request.getChatId()));
     }
 
     @PostMapping("/batch")
@@ -61,8 +52,7 @@ public class MessageReadController {
             Principal principal,
             @Valid @RequestBody MessageReadBatchPostRequest request
     ) {
-       List<MessageRead> messageReads = messageReadService.batchCreateMessageReads(principal.getName(), request.getMessagesIds());
-        return ResponseEntity.status(HttpStatus.CREATED).body(messageReadMapper.toDtoList(messageReads));
+        return ResponseEntity.status(HttpStatus.CREATED).body(messageReadService.batchCreateMessageReads(principal.getName(), request.getMessagesIds()));
     }
 
 }
@@ -0,0 +1,70 @@
+package com.chatter.chatter.controller;
+
+import com.chatter.chatter.dto.UploadSessionDto;
+import com.chatter.chatter.request.UploadSessionPostRequest;
+import com.chatter.chatter.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private final UploadSessionService uploadSessionService;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionDto> createUploadSession(
+            @RequestBody @Valid UploadSessionPostRequest request,
+            Principal principal
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(uploadSessionService.createSession(principal.getName(), request));
+    }
+
+    @PostMapping("/direct")
+    public ResponseEntity<UploadSessionDto> createDirectUploadSession(
+            @RequestBody @Valid UploadSessionPostRequest request,
+            Principal principal
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(uploadSessionService.createDirectSession(principal.getName(), request));
+    }
+
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<UploadSessionDto> getUploadSession(
+            @PathVariable String sessionId,
+            Principal principal
+    ) {
+        return ResponseEntity.ok(uploadSessionService.getSession(principal.getName(), sessionId));
+    }
+
+    @PutMapping(value = "/{sessionId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionDto> uploadChunk(
+            @PathVariable String sessionId,
+            @RequestHeader("Upload-Offset") Long offset,
+            HttpServletRequest request,
+            Principal principal
+    ) throws IOException {
+        try (InputStream inputStream = request.getInputStream()) {
+            return ResponseEntity.ok(uploadSessionService.uploadChunk(principal.getName(), sessionId, offset, inputStream));
+        }
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Void> deleteUploadSession(
+            @PathVariable String sessionId,
+            Principal principal
+    ) {
+        uploadSessionService.abortSession(principal.getName(), sessionId);
+        return ResponseEntity.noContent().build();
+    }
+
+}
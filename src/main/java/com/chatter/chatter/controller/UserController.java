@@ -10,6 +10,7 @@ import com.chatter.chatter.request.UserPatchRequest;
 import com.chatter.chatter.mapper.UserMapper;
 import com.chatter.chatter.model.User;
 import com.chatter.chatter.request.UserVerificationRequest;
+import com.chatter.chatter.service.OnlineUserService;
 import com.chatter.chatter.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -34,6 +35,7 @@ public class UserController {
 
     private final UserService userService;
     private final UserMapper userMapper;
+    private final OnlineUserService onlineUserService;
 
     @PostMapping
     public ResponseEntity<UserDto> createUser(@Valid @RequestBody UserRegisterRequest userRegisterDto) {
@@ -52,6 +54,11 @@ public class UserController {
         return ResponseEntity.ok(usersPage);
     }
 
+    @PostMapping("/status")
+    public ResponseEntity<Map<Long, Boolean>> getOnlineStatuses(@RequestBody List<Long> userIds) {
+        return ResponseEntity.ok(onlineUserService.getOnlineStatuses(userIds));
+    }
+
     @GetMapping("/{userId}")
     public ResponseEntity<UserDto> getUser(@PathVariable Long userId) {
         return ResponseEntity.ok(userService.getUser(userId));
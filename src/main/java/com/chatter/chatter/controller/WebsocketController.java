@@ -1,20 +1,29 @@
 package com.chatter.chatter.controller;
 
 import com.chatter.chatter.dto.UserDto;
-import com.chatter.chatter.mapper.UserMapper;
+import com.chatter.chatter.model.UserPrincipal;
+import com.chatter.chatter.request.CallSignalRequest;
+import com.chatter.chatter.request.SocketMessageRequest;
+import com.chatter.chatter.service.CallService;
 import com.chatter.chatter.service.OnlineUserService;
+import com.chatter.chatter.service.SocketMessageService;
 import com.chatter.chatter.service.TypingUserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.handler.annotation.support.MethodArgumentNotValidException;
 import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 import java.security.Principal;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @CrossOrigin
@@ -23,23 +32,49 @@ public class WebsocketController {
 
     private final OnlineUserService onlineUserService;
     private final TypingUserService typingUserService;
-    private final UserMapper userMapper;
+    private final CallService callService;
+    private final SocketMessageService socketMessageService;
 
     @SubscribeMapping("/users.{userId}.status")
     public Boolean sendUserOnline(@DestinationVariable Long userId) {
         return onlineUserService.isOnline(userId);
     }
 
-    @MessageMapping("/signal")
-    @SendTo("/topic/signal")
-    public String handleSignal(String signal) {
-       return signal;
+    @SubscribeMapping("/users.status.{userIds}")
+    public Map<Long, Boolean> sendUsersOnline(@DestinationVariable List<Long> userIds) {
+        return onlineUserService.getOnlineStatuses(userIds);
+    }
+
+    @MessageMapping("/calls.{callId}.signal")
+    public void handleSignal(@DestinationVariable String callId, @Payload CallSignalRequest request, Principal principal) {
+        if (principal instanceof UsernamePasswordAuthenticationToken authToken
+                && authToken.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            callService.handleSignal(userPrincipal.getUser().getId(), callId, request);
+        }
+    }
+
+    @MessageMapping("/messages.send")
+    public void sendMessage(@Validated @Payload SocketMessageRequest request, Principal principal) {
+        if (principal instanceof UsernamePasswordAuthenticationToken authToken
+                && authToken.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            socketMessageService.sendMessage(userPrincipal.getUser().getId(), userPrincipal.getUsername(), request);
+        }
+    }
+
+    @MessageExceptionHandler(MethodArgumentNotValidException.class)
+    public void handleInvalidMessage(MethodArgumentNotValidException exception, Principal principal) {
+        if (principal instanceof UsernamePasswordAuthenticationToken authToken
+                && authToken.getPrincipal() instanceof UserPrincipal userPrincipal
+                && exception.getBindingResult() != null
+                && exception.getBindingResult().getTarget() instanceof SocketMessageRequest request) {
+            socketMessageService.rejectMessage(userPrincipal.getUser().getId(), request, exception.getBindingResult());
+        }
     }
 
     @SubscribeMapping("/chat.{chatId}.typing-users")
     public List<UserDto> getTypingUsers(@DestinationVariable Long chatId, Principal principal) {
         if (principal.getName() == null) return Collections.emptyList();
-        return userMapper.toDtoList(typingUserService.getTypingUsers(chatId, principal.getName()));
+        return typingUserService.getTypingUsers(chatId, principal.getName());
     }
 
     @MessageMapping("/chat.{chatId}.add-typing-users")
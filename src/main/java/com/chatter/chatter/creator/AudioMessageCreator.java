@@ -6,7 +6,8 @@ import com.chatter.chatter.exception.BadRequestException;
 import com.chatter.chatter.model.AudioMessage;
 import com.chatter.chatter.model.Message;
 import com.chatter.chatter.model.MessageType;
-import com.chatter.chatter.service.FileUploadService;
+import com.chatter.chatter.service.AudioWaveformService;
+import com.chatter.chatter.service.BlobService;
 import com.chatter.chatter.service.FileValidationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,7 +25,8 @@ public class AudioMessageCreator implements MessageCreator  {
     @Value("${app.upload.max-file-size}")
     private Long maxFileSize;
 
-    private final FileUploadService fileUploadService;
+    private final BlobService blobService;
+    private final AudioWaveformService audioWaveformService;
     private final FileValidationService fileValidationService;
 
     @Override
@@ -34,22 +36,29 @@ public class AudioMessageCreator implements MessageCreator  {
 
     @Override
     public Message createMessage(BaseMessageRequest request, String email) {
-        validateRequest(request);
-        return AudioMessage.builder()
-                .fileUrl(fileUploadService.uploadFile(request.getFile()))
+        String mimeType = validateFile(request.getFile());
+        AudioMessage audioMessage = AudioMessage.builder()
+                .fileUrl(blobService.uploadFile(request.getFile()))
                 .messageType(MessageType.AUDIO)
                 .build();
+        audioWaveformService.analyze(request.getFile(), mimeType, audioMessage);
+        return audioMessage;
     }
 
     @Override
     public void validateRequest(BaseMessageRequest request) {
-        MultipartFile file = request.getFile();
+        validateFile(request.getFile());
+    }
+
+    private String validateFile(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new BadRequestException("file", "File is required");
         }
-        if (!fileValidationService.isAudio(file)) {
+        String mimeType = fileValidationService.detectMimeType(file);
+        if (!fileValidationService.isAudio(mimeType)) {
             throw new BadRequestException("file", file.getOriginalFilename() + " exceeds the maximum allowed size of " + (maxFileSize / (1024 * 1024)) + " MB.");
         }
+        return mimeType;
     }
 
 }
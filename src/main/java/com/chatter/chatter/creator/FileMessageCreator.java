@@ -1,14 +1,16 @@
 package com.chatter.chatter.creator;
 
 
+import com.chatter.chatter.dto.UploadedFile;
 import com.chatter.chatter.request.BaseMessageRequest;
 import com.chatter.chatter.request.SingleMessageRequest;
 import com.chatter.chatter.exception.BadRequestException;
 import com.chatter.chatter.model.FileMessage;
 import com.chatter.chatter.model.Message;
 import com.chatter.chatter.model.MessageType;
-import com.chatter.chatter.service.FileUploadService;
+import com.chatter.chatter.service.BlobService;
 import com.chatter.chatter.service.FileValidationService;
+import com.chatter.chatter.service.UploadSessionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,6 +19,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.security.Principal;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -25,8 +28,9 @@ public class FileMessageCreator implements MessageCreator {
     @Value("${app.upload.max-file-size}")
     private Long maxFileSize;
 
-    private final FileUploadService fileUploadService;
+    private final BlobService blobService;
     private final FileValidationService fileValidationService;
+    private final UploadSessionService uploadSessionService;
 
     @Override
     public boolean supports(MessageType messageType) {
@@ -37,10 +41,19 @@ public class FileMessageCreator implements MessageCreator {
     public Message createMessage(BaseMessageRequest request, String email) {
         validateRequest(request);
         MultipartFile file = request.getFile();
+        if (file == null || file.isEmpty()) {
+            UploadedFile uploadedFile = uploadSessionService.completeSession(email, request.getUploadSessionIds().getFirst());
+            return FileMessage.builder()
+                    .originalFileName(uploadedFile.getFileName())
+                    .fileSize(uploadedFile.getFileSize())
+                    .filePath(uploadedFile.getFilePath())
+                    .messageType(MessageType.FILE)
+                    .build();
+        }
         return FileMessage.builder()
                 .originalFileName(file.getOriginalFilename())
                 .fileSize(file.getSize())
-                .filePath(fileUploadService.uploadFile(file))
+                .filePath(blobService.uploadFile(file))
                 .messageType(MessageType.FILE)
                 .build();
     }
@@ -49,7 +62,11 @@ public class FileMessageCreator implements MessageCreator {
     public void validateRequest(BaseMessageRequest request) {
         MultipartFile file = request.getFile();
         if (file == null || file.isEmpty()) {
-            throw new BadRequestException("file", "File is required");
+            List<String> uploadSessionIds = request.getUploadSessionIds();
+            if (uploadSessionIds == null || uploadSessionIds.size() != 1) {
+                throw new BadRequestException("file", "File is required");
+            }
+            return;
         }
         if (!fileValidationService.isSizeValid(file, maxFileSize)) {
             throw new BadRequestException("file", file.getOriginalFilename() + " exceeds the maximum allowed size of " + (maxFileSize / (1024 * 1024)) + " MB.");
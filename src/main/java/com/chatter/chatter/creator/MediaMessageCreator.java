@@ -3,28 +3,34 @@ package com.chatter.chatter.creator;
 import com.chatter.chatter.request.BaseMessageRequest;
 import com.chatter.chatter.request.SingleMessageRequest;
 import com.chatter.chatter.exception.BadRequestException;
+import com.chatter.chatter.model.Attachment;
 import com.chatter.chatter.model.MediaMessage;
 import com.chatter.chatter.model.Message;
 import com.chatter.chatter.model.MessageType;
 import com.chatter.chatter.service.AttachmentService;
+import com.chatter.chatter.service.UploadSessionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.List;
 
 @Component
 public class MediaMessageCreator implements MessageCreator {
 
     private final AttachmentService attachmentService;
+    private final UploadSessionService uploadSessionService;
 
     @Autowired
     public MediaMessageCreator(
-            AttachmentService attachmentService
+            AttachmentService attachmentService,
+            UploadSessionService uploadSessionService
     ) {
         this.attachmentService = attachmentService;
+        this.uploadSessionService = uploadSessionService;
     }
 
     @Override
@@ -37,7 +43,18 @@ public class MediaMessageCreator implements MessageCreator {
     public Message createMessage(BaseMessageRequest request, String email) {
         validateRequest(request);
         MediaMessage mediaMessage = new MediaMessage();
-        mediaMessage.setAttachments(attachmentService.createAttachments(mediaMessage, request.getMediaFiles()));
+        List<Attachment> attachments = new ArrayList<>();
+        if (request.getMediaFiles() != null) {
+            attachments.addAll(attachmentService.createAttachments(mediaMessage, request.getMediaFiles()));
+        }
+        if (request.getUploadSessionIds() != null) {
+            for (String uploadSessionId : request.getUploadSessionIds()) {
+                Attachment attachment = attachmentService.createAttachment(uploadSessionService.completeSession(email, uploadSessionId));
+                attachment.setMessage(mediaMessage);
+                attachments.add(attachment);
+            }
+        }
+        mediaMessage.setAttachments(attachments);
         mediaMessage.setMessageType(MessageType.MEDIA);
         return mediaMessage;
     }
@@ -45,7 +62,8 @@ public class MediaMessageCreator implements MessageCreator {
     @Override
     public void validateRequest(BaseMessageRequest request) {
         List<MultipartFile> files = request.getMediaFiles();
-        if (files == null || files.isEmpty()) {
+        List<String> uploadSessionIds = request.getUploadSessionIds();
+        if ((files == null || files.isEmpty()) && (uploadSessionIds == null || uploadSessionIds.isEmpty())) {
             throw new BadRequestException("mediaFiles", "At least 1 file is required");
         }
     }
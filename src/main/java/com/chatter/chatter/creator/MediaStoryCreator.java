@@ -1,17 +1,23 @@
 package com.chatter.chatter.creator;
 
+import com.chatter.chatter.dto.MediaMetadata;
+import com.chatter.chatter.dto.MediaVariants;
 import com.chatter.chatter.request.StoryPostRequest;
 import com.chatter.chatter.exception.BadRequestException;
 import com.chatter.chatter.model.MediaStory;
 import com.chatter.chatter.model.Story;
 import com.chatter.chatter.model.StoryType;
-import com.chatter.chatter.service.FileUploadService;
+import com.chatter.chatter.service.BlobService;
 import com.chatter.chatter.service.FileValidationService;
+import com.chatter.chatter.service.MediaMetadataService;
+import com.chatter.chatter.service.MediaVariantService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
+
 @Component
 @RequiredArgsConstructor
 public class MediaStoryCreator implements StoryCreator {
@@ -22,15 +28,43 @@ public class MediaStoryCreator implements StoryCreator {
     @Value("${app.story.max-image-size}")
     private Long maxImageSize;
 
+    @Value("${app.story.max-video-duration}")
+    private Duration maxVideoDuration;
+
     private final FileValidationService fileValidationService;
-    private final FileUploadService fileUploadService;
+    private final BlobService blobService;
+    private final MediaMetadataService mediaMetadataService;
+    private final MediaVariantService mediaVariantService;
 
     @Override
     public Story createStory(StoryPostRequest request) {
-        validateRequest(request);
-        String filePath = fileUploadService.uploadFile(request.getFile());
+        MultipartFile file = request.getFile();
+        if (file == null) {
+            throw new BadRequestException("file", "File is required");
+        }
+        String mimeType = fileValidationService.detectMimeType(file);
+        validateRequest(request, mimeType);
+        MediaMetadata metadata = mediaMetadataService.extract(file, mimeType);
+        if (request.getStoryType().equals(StoryType.VIDEO)) {
+            if (metadata.getDurationMillis() == null) {
+                throw new BadRequestException("file", "Video duration could not be determined, only MP4 and QuickTime videos can be posted as stories.");
+            }
+            if (Duration.ofMillis(metadata.getDurationMillis()).compareTo(maxVideoDuration) > 0) {
+                throw new BadRequestException("file", "Video exceeds the maximum allowed duration of " + maxVideoDuration.toSeconds() + " seconds.");
+            }
+        }
+        String filePath = blobService.uploadFile(file);
+        MediaVariants variants = request.getStoryType().equals(StoryType.IMAGE)
+                ? mediaVariantService.findVariants(filePath).orElse(null)
+                : null;
         return MediaStory.builder()
                 .filePath(filePath)
+                .thumbnailPath(variants != null ? variants.getThumbnailPath() : null)
+                .mediumPath(variants != null ? variants.getMediumPath() : null)
+                .width(metadata.getWidth())
+                .height(metadata.getHeight())
+                .duration(metadata.getDurationMillis() != null ? Math.round(metadata.getDurationMillis() / 1000.0) : null)
+                .placeholder(metadata.getPlaceholder())
                 .content(request.getContent())
                 .storyType(request.getStoryType())
                 .build();
@@ -41,20 +75,17 @@ public class MediaStoryCreator implements StoryCreator {
         return storyType.equals(StoryType.VIDEO) || storyType.equals(StoryType.IMAGE);
     }
 
-    private void validateRequest(StoryPostRequest request) {
+    private void validateRequest(StoryPostRequest request, String mimeType) {
         MultipartFile file = request.getFile();
-        if (file == null) {
-            throw new BadRequestException("file", "File is required");
-        }
         if (request.getStoryType().equals(StoryType.IMAGE)) {
-            if (!fileValidationService.isImage(file)) {
+            if (!fileValidationService.isImage(mimeType)) {
                 throw new BadRequestException("file", "Provided file is not a valid image");
             }
             if (!fileValidationService.isSizeValid(file, maxImageSize)) {
                 throw new BadRequestException("file", file.getOriginalFilename() + " exceeds the maximum allowed size of " + (maxImageSize / (1024 * 1024)) + " MB.");}
         }
         if (request.getStoryType().equals(StoryType.VIDEO)) {
-            if (!fileValidationService.isVideo(file)) {
+            if (!fileValidationService.isVideo(mimeType)) {
                 throw new BadRequestException("file", "Provided file is not a valid video");
             }
             if (!fileValidationService.isSizeValid(file, maxVideoSize)) {
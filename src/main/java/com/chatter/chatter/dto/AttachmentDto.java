@@ -19,6 +19,18 @@ public class AttachmentDto {
     @NotBlank
     private String filePath;
 
+    private String thumbnailPath;
+
+    private String mediumPath;
+
+    private Integer width;
+
+    private Integer height;
+
+    private Long duration;
+
+    private String placeholder;
+
     @NotNull
     private AttachmentType attachmentType;
 
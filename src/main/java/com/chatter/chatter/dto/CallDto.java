@@ -0,0 +1,33 @@
+package com.chatter.chatter.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class CallDto {
+
+    @NotNull
+    private String id;
+
+    @NotNull
+    private Long chatId;
+
+    @NotNull
+    private Long callerId;
+
+    @NotNull
+    private List<Long> participantsIds;
+
+    @NotNull
+    private Instant createdAt;
+
+    private Instant answeredAt;
+
+}
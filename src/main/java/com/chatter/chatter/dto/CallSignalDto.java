@@ -0,0 +1,27 @@
+package com.chatter.chatter.dto;
+
+import com.chatter.chatter.model.CallSignalType;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class CallSignalDto {
+
+    @NotNull
+    private String callId;
+
+    @NotNull
+    private Long chatId;
+
+    @NotNull
+    private CallSignalType type;
+
+    private Long fromUserId;
+
+    private String payload;
+
+}
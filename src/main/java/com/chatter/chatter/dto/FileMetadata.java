@@ -0,0 +1,18 @@
+package com.chatter.chatter.dto;
+
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class FileMetadata {
+
+    private Long contentLength;
+
+    private String contentType;
+
+    private String eTag;
+
+}
@@ -0,0 +1,20 @@
+package com.chatter.chatter.dto;
+
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class MediaMetadata {
+
+    private Integer width;
+
+    private Integer height;
+
+    private Long durationMillis;
+
+    private String placeholder;
+
+}
@@ -19,6 +19,16 @@ public class MediaStreamResult {
 
     private long contentLength;
 
+    private long rangeStart;
+
+    private long totalLength;
+
+    private String eTag;
+
     private boolean isPartialContent;
 
+    private boolean notModified;
+
+    private boolean rangeNotSatisfiable;
+
 }
@@ -0,0 +1,16 @@
+package com.chatter.chatter.dto;
+
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class MediaVariants {
+
+    private String thumbnailPath;
+
+    private String mediumPath;
+
+}
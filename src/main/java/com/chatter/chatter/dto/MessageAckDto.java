@@ -0,0 +1,24 @@
+package com.chatter.chatter.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.util.Map;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class MessageAckDto {
+
+    @NotNull
+    private String clientMessageId;
+
+    private MessageDto message;
+
+    private Boolean pending;
+
+    private Map<String, String> errors;
+
+}
@@ -54,9 +54,13 @@ public class MessageDto {
 
     private Long duration;
 
+    private Long durationMillis;
+
     @NotBlank
     private String fileUrl;
 
+    private List<Integer> waveform;
+
     private Long fileSize;
 
     @NotBlank
@@ -0,0 +1,21 @@
+package com.chatter.chatter.dto;
+
+import com.chatter.chatter.model.MessageType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class MessageSearchDocument {
+
+    private Long id;
+
+    private Long chatId;
+
+    private MessageType messageType;
+
+    private String content;
+
+}
@@ -31,6 +31,18 @@ public class StoryDto {
     @NotBlank
     private String filePath;
 
+    private String thumbnailPath;
+
+    private String mediumPath;
+
+    private Integer width;
+
+    private Integer height;
+
+    private Long duration;
+
+    private String placeholder;
+
     @NotNull
     private Instant createdAt;
 
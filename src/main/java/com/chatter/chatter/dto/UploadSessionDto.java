@@ -0,0 +1,33 @@
+package com.chatter.chatter.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class UploadSessionDto {
+
+    @NotNull
+    private String id;
+
+    @NotNull
+    private String fileName;
+
+    @NotNull
+    private Long fileSize;
+
+    @NotNull
+    private Long uploadedBytes;
+
+    @NotNull
+    private Long partSize;
+
+    @NotNull
+    private Boolean completed;
+
+    private String uploadUrl;
+
+}
@@ -0,0 +1,20 @@
+package com.chatter.chatter.dto;
+
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class UploadedFile {
+
+    private String fileName;
+
+    private String filePath;
+
+    private Long fileSize;
+
+    private String contentType;
+
+}
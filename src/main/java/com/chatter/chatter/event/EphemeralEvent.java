@@ -0,0 +1,22 @@
+package com.chatter.chatter.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class EphemeralEvent {
+
+    private String origin;
+
+    private String destination;
+
+    private String contentType;
+
+    private String payload;
+
+}
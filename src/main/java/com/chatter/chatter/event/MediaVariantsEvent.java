@@ -0,0 +1,18 @@
+package com.chatter.chatter.event;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class MediaVariantsEvent {
+
+    @NotBlank(message = "filePath is required")
+    private String filePath;
+
+}
@@ -0,0 +1,68 @@
+package com.chatter.chatter.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+
+@Component
+@RequiredArgsConstructor
+public class UploadBulkheadFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.upload.bulkhead.max-concurrent}")
+    private int maxConcurrent;
+
+    private Semaphore permits;
+
+    private Counter rejectedRequests;
+
+    @PostConstruct
+    public void start() {
+        permits = new Semaphore(maxConcurrent);
+        Gauge.builder("upload.bulkhead.active", permits, semaphore -> maxConcurrent - semaphore.availablePermits())
+                .register(meterRegistry);
+        rejectedRequests = meterRegistry.counter("upload.bulkhead.rejected");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return !request.getRequestURI().startsWith("/api/")
+                || contentType == null
+                || !(contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE) || contentType.startsWith(MediaType.APPLICATION_OCTET_STREAM_VALUE));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (!permits.tryAcquire()) {
+            rejectedRequests.increment();
+            response.setContentType("application/json");
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "5");
+            response.getWriter().write("{\"error\": \"Too many uploads in progress\"}");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        }
+        finally {
+            permits.release();
+        }
+    }
+
+}
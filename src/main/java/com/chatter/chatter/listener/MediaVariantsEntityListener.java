@@ -0,0 +1,33 @@
+package com.chatter.chatter.listener;
+
+import com.chatter.chatter.event.MediaVariantsEvent;
+import com.chatter.chatter.model.Attachment;
+import com.chatter.chatter.model.AttachmentType;
+import com.chatter.chatter.model.MediaStory;
+import com.chatter.chatter.model.StoryType;
+import jakarta.persistence.PostPersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class MediaVariantsEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void handleMediaCreate(Object entity) {
+        if (entity instanceof Attachment attachment
+                && AttachmentType.IMAGE.equals(attachment.getAttachmentType())
+                && attachment.getThumbnailPath() == null) {
+            eventPublisher.publishEvent(new MediaVariantsEvent(attachment.getFilePath()));
+        }
+        else if (entity instanceof MediaStory mediaStory
+                && StoryType.IMAGE.equals(mediaStory.getStoryType())
+                && mediaStory.getThumbnailPath() == null) {
+            eventPublisher.publishEvent(new MediaVariantsEvent(mediaStory.getFilePath()));
+        }
+    }
+
+}
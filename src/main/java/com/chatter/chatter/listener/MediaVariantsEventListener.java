@@ -0,0 +1,41 @@
+package com.chatter.chatter.listener;
+
+import com.chatter.chatter.config.MediaVariantsConfig;
+import com.chatter.chatter.event.MediaVariantsEvent;
+import com.chatter.chatter.service.MediaVariantService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MediaVariantsEventListener {
+
+    private final MediaVariantService mediaVariantService;
+    private final RabbitTemplate rabbitTemplate;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void publishEvent(MediaVariantsEvent event) {
+        rabbitTemplate.convertAndSend(MediaVariantsConfig.MEDIA_VARIANTS, event);
+    }
+
+    @RabbitListener(queues = MediaVariantsConfig.MEDIA_VARIANTS)
+    public void handleEvent(@Payload @Valid MediaVariantsEvent event) {
+        try {
+            mediaVariantService.createVariants(event.getFilePath());
+        }
+        catch (Exception e) {
+            log.error("Error creating media variants for {}", event.getFilePath(), e);
+            throw new AmqpRejectAndDontRequeueException(e);
+        }
+    }
+
+}
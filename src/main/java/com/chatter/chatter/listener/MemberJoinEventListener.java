@@ -25,7 +25,7 @@ public class MemberJoinEventListener {
     public void handleEvent(MemberJoinEvent event) {
         Member member = event.getMember();
         if (member.getChat().getChatType().equals(ChatType.GROUP)) {
-            messageReadService.readChatMessages(member.getUser().getEmail(), member.getChat().getId());
+            messageReadService.markChatAsRead(member.getUser().getEmail(), member.getChat().getId());
         }
         chatService.evictChatCacheForUser(member.getUser().getEmail());
     }
@@ -9,7 +9,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 @RequiredArgsConstructor
@@ -19,17 +22,38 @@ public class AttachmentMapper {
 
     public AttachmentDto toDto(Attachment attachment) {
         if (attachment == null) return null;
+        return toDto(attachment, fileUploadService.getFileUrls(getFileNames(attachment).toList()));
+    }
+
+    private AttachmentDto toDto(Attachment attachment, Map<String, String> fileUrls) {
         return AttachmentDto.builder()
                 .id(attachment.getId())
                 .messageId(attachment.getMessage().getId())
-                .filePath(fileUploadService.getFileUrl(attachment.getFilePath()))
+                .filePath(getFileUrl(fileUrls, attachment.getFilePath()))
+                .thumbnailPath(getFileUrl(fileUrls, attachment.getThumbnailPath()))
+                .mediumPath(getFileUrl(fileUrls, attachment.getMediumPath()))
+                .width(attachment.getWidth())
+                .height(attachment.getHeight())
+                .duration(attachment.getDuration())
+                .placeholder(attachment.getPlaceholder())
                 .attachmentType(attachment.getAttachmentType())
                 .build();
     }
 
     public List<AttachmentDto> toDtoList(List<Attachment> attachments) {
         if (attachments == null) return null;
-        return attachments.stream().map(this::toDto).collect(Collectors.toList());
+        Map<String, String> fileUrls = fileUploadService.getFileUrls(attachments.stream().flatMap(this::getFileNames).toList());
+        return attachments.stream()
+                .map(attachment -> toDto(attachment, fileUrls))
+                .collect(Collectors.toList());
+    }
+
+    private Stream<String> getFileNames(Attachment attachment) {
+        return Stream.of(attachment.getFilePath(), attachment.getThumbnailPath(), attachment.getMediumPath()).filter(Objects::nonNull);
+    }
+
+    private String getFileUrl(Map<String, String> fileUrls, String fileName) {
+        return fileName != null ? fileUrls.get(fileName) : null;
     }
 
 }
@@ -7,6 +7,7 @@ import com.chatter.chatter.service.FileUploadService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -51,6 +52,9 @@ public class ChatMapper {
 
     public List<ChatDto> toDtoList(List<Chat> chats, List<ChatStatusProjection> projections, String email) {
         if (chats == null) return null;
+        fileUploadService.getFileUrls(chats.stream()
+                .flatMap(chat -> getFileNames(chat, email).stream())
+                .collect(Collectors.toSet()));
         if (projections != null) {
             Map<Long, ChatStatusProjection> projectionMap = projections.stream().collect(Collectors.toMap(ChatStatusProjection::getId, projection -> projection));
             return chats.stream().map(chat -> toDto(chat, projectionMap.get(chat.getId()), email)).collect(Collectors.toList());
@@ -58,4 +62,19 @@ public class ChatMapper {
         return chats.stream().map(chat -> toDto(chat, null, email)).collect(Collectors.toList());
     }
 
+    private List<String> getFileNames(Chat chat, String email) {
+        List<String> fileNames = new ArrayList<>();
+        if (chat instanceof GroupChat groupChat) {
+            fileNames.add(groupChat.getImage());
+        }
+        User otherUser = chat.getOtherUser(email);
+        if (otherUser != null) {
+            fileNames.add(otherUser.getImage());
+        }
+        if (chat.getLastMessage() != null && chat.getLastMessage().getUser() != null) {
+            fileNames.add(chat.getLastMessage().getUser().getImage());
+        }
+        return fileNames;
+    }
+
 }
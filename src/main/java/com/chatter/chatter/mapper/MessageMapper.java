@@ -84,8 +84,39 @@ public class MessageMapper {
     }
 
     public List<MessageDto> toDtoListFromProjections(List<MessageProjection> messageProjections, String email) {
+        // Sign every URL the page needs in one pass so the per-message lookups below are cache hits.
+        fileUploadService.getFileUrls(messageProjections.stream()
+                .flatMap(mp -> getFileNames(mp.getMessage()).stream())
+                .collect(Collectors.toSet()));
         return messageProjections.stream().map(mp -> toDto(mp, email, true)).collect(Collectors.toList());
     }
+
+    private List<String> getFileNames(Message message) {
+        List<String> fileNames = new ArrayList<>();
+        if (message.getUser() != null) fileNames.add(message.getUser().getImage());
+        message.getReacts().forEach(react -> fileNames.add(react.getUser().getImage()));
+        message.getMentions().forEach(mention -> fileNames.add(mention.getUser().getImage()));
+        if (message.getReplyMessage() != null && message.getReplyMessage().getUser() != null) {
+            fileNames.add(message.getReplyMessage().getUser().getImage());
+        }
+        if (message instanceof MediaMessage mediaMessage) {
+            mediaMessage.getAttachments().forEach(attachment -> {
+                fileNames.add(attachment.getFilePath());
+                fileNames.add(attachment.getThumbnailPath());
+                fileNames.add(attachment.getMediumPath());
+            });
+        }
+        else if (message instanceof FileMessage fileMessage) {
+            fileNames.add(fileMessage.getFilePath());
+        }
+        else if (message instanceof AudioMessage audioMessage) {
+            fileNames.add(audioMessage.getFileUrl());
+        }
+        else if (message instanceof StoryMessage storyMessage && storyMessage.getStory() instanceof MediaStory mediaStory) {
+            fileNames.add(mediaStory.getFilePath());
+        }
+        return fileNames;
+    }
     
     private MessageDto toDtoCommon(
             Long id,
@@ -148,6 +179,8 @@ public class MessageMapper {
         } else if (messageType.equals(MessageType.AUDIO)) {
             AudioMessage audioMessage = (AudioMessage) originalMessage;
             messageDto.setFileUrl(fileUploadService.getFileUrl(audioMessage.getFileUrl()));
+            messageDto.setDurationMillis(audioMessage.getDurationMillis());
+            messageDto.setWaveform(toWaveform(audioMessage.getWaveform()));
         } else if (messageType.equals(MessageType.POLL)) {
             PollMessage pollMessage = (PollMessage) originalMessage;
             messageDto.setOptions(optionMapper.toDtoList(pollMessage.getOptions()));
@@ -161,4 +194,13 @@ public class MessageMapper {
 
         return messageDto;
     }
+
+    private List<Integer> toWaveform(byte[] waveform) {
+        if (waveform == null) return null;
+        List<Integer> peaks = new ArrayList<>(waveform.length);
+        for (byte peak : waveform) {
+            peaks.add(peak & 0xff);
+        }
+        return peaks;
+    }
 }
@@ -13,6 +13,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 @RequiredArgsConstructor
@@ -36,6 +37,12 @@ public class StoryMapper {
         }
         else if (story instanceof MediaStory mediaStory) {
             storyDto.setFilePath(fileUploadService.getFileUrl(mediaStory.getFilePath()));
+            storyDto.setThumbnailPath(fileUploadService.getFileUrl(mediaStory.getThumbnailPath()));
+            storyDto.setMediumPath(fileUploadService.getFileUrl(mediaStory.getMediumPath()));
+            storyDto.setWidth(mediaStory.getWidth());
+            storyDto.setHeight(mediaStory.getHeight());
+            storyDto.setDuration(mediaStory.getDuration());
+            storyDto.setPlaceholder(mediaStory.getPlaceholder());
         }
         if (email.equals(story.getUser().getEmail())) {
             storyDto.setExcludedUsersIds(story.getExcludedUsers().stream().map(User::getId).collect(Collectors.toSet()));
@@ -48,6 +55,11 @@ public class StoryMapper {
 
     public List<StoryDto> toDtoList(List<Story> stories, List<StoryStatusProjection> projections, String email) {
         if (stories == null) return null;
+        fileUploadService.getFileUrls(stories.stream()
+                .flatMap(story -> story instanceof MediaStory mediaStory
+                        ? Stream.of(story.getUser().getImage(), mediaStory.getFilePath(), mediaStory.getThumbnailPath(), mediaStory.getMediumPath())
+                        : Stream.of(story.getUser().getImage()))
+                .collect(Collectors.toSet()));
         Map<Long, StoryStatusProjection> statusProjectionMap = projections.stream().collect(Collectors.toMap(StoryStatusProjection::getId, p -> p));
         return stories.stream().map(story -> toDto(story, statusProjectionMap.get(story.getId()), email)).collect(Collectors.toList());
     }
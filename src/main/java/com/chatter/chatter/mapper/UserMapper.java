@@ -7,6 +7,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Component
@@ -17,7 +19,10 @@ public class UserMapper {
 
     public UserDto toDto(User user) {
         if (user == null) return null;
+        return toDto(user, fileUploadService.getFileUrl(user.getImage()));
+    }
 
+    private UserDto toDto(User user, String image) {
         return UserDto.builder()
                 .id(user.getId())
                 .email(user.getEmail())
@@ -27,13 +32,16 @@ public class UserMapper {
                 .lastOnline(user.getLastOnline())
                 .showOnlineStatus(user.getShowOnlineStatus())
                 .showMessageReads(user.getShowMessageReads())
-                .image(fileUploadService.getFileUrl(user.getImage()))
+                .image(image)
                 .build();
     }
 
     public List<UserDto> toDtoList(List<User> users) {
         if (users == null) return null;
-        return users.stream().map(this::toDto).collect(Collectors.toList());
+        Map<String, String> imageUrls = fileUploadService.getFileUrls(users.stream().map(User::getImage).filter(Objects::nonNull).toList());
+        return users.stream()
+                .map(user -> user == null ? null : toDto(user, user.getImage() != null ? imageUrls.get(user.getImage()) : null))
+                .collect(Collectors.toList());
     }
 
 }
@@ -1,6 +1,7 @@
 package com.chatter.chatter.model;
 
 
+import com.chatter.chatter.listener.MediaVariantsEntityListener;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.*;
@@ -11,6 +12,7 @@ import lombok.*;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
+@EntityListeners(MediaVariantsEntityListener.class)
 @Table(name = "attachments")
 @Builder
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
@@ -24,6 +26,19 @@ public class Attachment {
     @Column(nullable = false)
     private String filePath;
 
+    private String thumbnailPath;
+
+    private String mediumPath;
+
+    private Integer width;
+
+    private Integer height;
+
+    private Long duration;
+
+    @Column(length = 64)
+    private String placeholder;
+
     @Column(nullable = false)
     private AttachmentType attachmentType;
 
@@ -26,4 +26,9 @@ public class AudioMessage extends Message {
     @Column(nullable = false, updatable = false)
     private String fileUrl;
 
+    private Long durationMillis;
+
+    @Column(length = 255)
+    private byte[] waveform;
+
 }
@@ -0,0 +1,43 @@
+package com.chatter.chatter.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@EntityListeners(AuditingEntityListener.class)
+@Table(name = "blobs")
+public class Blob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "blob_id")
+    private Long id;
+
+    @Column(nullable = false, updatable = false, unique = true, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, updatable = false, unique = true)
+    private String filePath;
+
+    @Column(nullable = false, updatable = false)
+    private Long fileSize;
+
+    private String contentType;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant lastUploadedAt;
+
+}
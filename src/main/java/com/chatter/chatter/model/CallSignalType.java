@@ -0,0 +1,12 @@
+package com.chatter.chatter.model;
+
+public enum CallSignalType {
+    RING,
+    ACCEPT,
+    DECLINE,
+    OFFER,
+    ANSWER,
+    CANDIDATE,
+    END,
+    ERROR
+}
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.*;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -36,6 +38,13 @@ public class Chat {
     @OrderBy("createdAt ASC")
     private List<Message> messages = new ArrayList<>();
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_message_id", referencedColumnName = "message_id")
+    @OnDelete(action = OnDeleteAction.SET_NULL)
+    private Message lastMessage;
+
+    private Instant lastActivityAt;
+
     @Column(nullable = false, updatable = false)
     @Enumerated(EnumType.STRING)
     @Builder.Default
@@ -45,11 +54,6 @@ public class Chat {
     @CreatedDate
     private Instant createdAt;
 
-    public Message getLastMessage() {
-        if (messages.isEmpty()) return null;
-        return messages.getLast();
-    }
-
     public User getOtherUser(String email) {
         if (ChatType.GROUP.equals(chatType)) return null;
         for (Member member : members) {
@@ -66,6 +70,12 @@ public class Chat {
 
     public void addMessage(Message message) {
         messages.add(message);
+        updateLastMessage(message);
+    }
+
+    public void updateLastMessage(Message message) {
+        lastMessage = message;
+        lastActivityAt = message != null ? message.getCreatedAt() : null;
     }
 
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.chatter.chatter.model;
 
+import com.chatter.chatter.listener.MediaVariantsEntityListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Table;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
@@ -13,10 +15,24 @@ import lombok.experimental.SuperBuilder;
 @Getter
 @Setter
 @SuperBuilder(toBuilder = true)
+@EntityListeners(MediaVariantsEntityListener.class)
 @Table(name = "media_stories")
 public class MediaStory extends Story {
 
     @Column(nullable = false)
     private String filePath;
 
+    private String thumbnailPath;
+
+    private String mediumPath;
+
+    private Integer width;
+
+    private Integer height;
+
+    private Long duration;
+
+    @Column(length = 64)
+    private String placeholder;
+
 }
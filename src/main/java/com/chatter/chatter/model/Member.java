@@ -4,6 +4,7 @@ import com.chatter.chatter.listener.MemberEntityListener;
 import com.fasterxml.jackson.annotation.*;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 import org.springframework.data.annotation.CreatedDate;
@@ -17,6 +18,7 @@ import java.time.Instant;
 @Getter
 @Setter
 @Builder
+@DynamicUpdate
 @EntityListeners({AuditingEntityListener.class, MemberEntityListener.class})
 @Table(name = "members", uniqueConstraints = { @UniqueConstraint(columnNames = { "user_id", "chat_id" }) })
 public class Member {
@@ -44,6 +46,18 @@ public class Member {
     @Builder.Default
     private MemberRole memberRole = MemberRole.MEMBER;
 
+    private Long lastReadMessageId;
+
+    private Instant lastReadAt;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Long unreadMessagesCount = 0L;
+
+    private Long firstUnreadMessageId;
+
+    private Long lastMentionedMessageId;
+
     public boolean isAdmin() {
         return memberRole.equals(MemberRole.ADMIN) || memberRole.equals(MemberRole.OWNER);
     }
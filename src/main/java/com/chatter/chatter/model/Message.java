@@ -16,7 +16,15 @@ import java.util.*;
 @Setter
 @SuperBuilder(toBuilder = true)
 @EntityListeners(AuditingEntityListener.class)
-@Table(name = "messages")
+@Table(
+    name = "messages",
+    indexes = {
+        @Index(name = "idx_messages_chat_id_message_id", columnList = "chat_id, message_id")
+    },
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uc_messages_user_id_client_message_id", columnNames = { "user_id", "client_message_id" })
+    }
+)
 @Inheritance(strategy = InheritanceType.JOINED)
 @Entity
 @NamedEntityGraph(
@@ -26,8 +34,7 @@ import java.util.*;
                 @NamedAttributeNode("chat"),
                 @NamedAttributeNode("reacts"),
                 @NamedAttributeNode("mentions"),
-                @NamedAttributeNode("replyMessage"),
-                @NamedAttributeNode("messageReads")
+                @NamedAttributeNode("replyMessage")
         },
         subgraphs = {
                 @NamedSubgraph(
@@ -84,16 +91,15 @@ public class Message {
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
 
+    @Column(length = 64, updatable = false)
+    private String clientMessageId;
+
     @Builder.Default
     private boolean isForwarded = false;
 
     @Builder.Default
     private boolean isEdited = false;
 
-    @Builder.Default
-    @OneToMany(mappedBy = "message", orphanRemoval = true, cascade = CascadeType.ALL)
-    private Set<MessageRead> messageReads = new HashSet<>();
-
     @Builder.Default
     @OneToMany(mappedBy = "message", orphanRemoval = true, cascade = CascadeType.ALL)
     private Set<StarredMessage> starredMessages = new HashSet<>();
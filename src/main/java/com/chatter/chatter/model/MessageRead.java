@@ -1,42 +0,0 @@
-package com.chatter.chatter.model;
-
-import jakarta.persistence.*;
-import lombok.*;
-import org.hibernate.annotations.OnDelete;
-import org.hibernate.annotations.OnDeleteAction;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
-
-import java.time.Instant;
-
-@Entity
-@Builder
-@Getter
-@Setter
-@AllArgsConstructor
-@NoArgsConstructor
-@EntityListeners(AuditingEntityListener.class)
-@Table(name = "message_reads", uniqueConstraints = @UniqueConstraint(columnNames = { "message_id", "user_id" }))
-public class MessageRead {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    @ManyToOne
-    @JoinColumn(name = "user_id", referencedColumnName = "user_id")
-    @OnDelete(action = OnDeleteAction.SET_NULL)
-    private User user;
-
-    @ManyToOne(optional = false)
-    @JoinColumn(name = "message_id", referencedColumnName = "message_id")
-    @OnDelete(action = OnDeleteAction.CASCADE)
-    private Message message;
-
-    @Builder.Default
-    private Boolean showRead = true;
-
-    @CreatedDate
-    @Column(updatable = false, nullable = false)
-    private Instant createdAt;
-}
@@ -1,9 +1,36 @@
 package com.chatter.chatter.repository;
 
+import com.chatter.chatter.dto.MediaVariants;
 import com.chatter.chatter.model.Attachment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Repository
 public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+
+    @Query("""
+        SELECT new com.chatter.chatter.dto.MediaVariants(a.thumbnailPath, a.mediumPath)
+        FROM Attachment a
+        WHERE a.filePath = :filePath
+        AND a.thumbnailPath IS NOT NULL
+    """)
+    List<MediaVariants> findVariants(@Param("filePath") String filePath, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Attachment a
+        SET a.thumbnailPath = :thumbnailPath, a.mediumPath = :mediumPath
+        WHERE a.filePath = :filePath
+        AND a.thumbnailPath IS NULL
+    """)
+    int updateVariants(@Param("filePath") String filePath, @Param("thumbnailPath") String thumbnailPath, @Param("mediumPath") String mediumPath);
+
 }
@@ -0,0 +1,54 @@
+package com.chatter.chatter.repository;
+
+import com.chatter.chatter.model.Blob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BlobRepository extends JpaRepository<Blob, Long> {
+
+    String UNREFERENCED_BLOBS = """
+        SELECT b FROM Blob b
+        WHERE b.id > :after
+        AND b.lastUploadedAt < :before
+        AND NOT EXISTS (SELECT 1 FROM Attachment a WHERE a.filePath = b.filePath)
+        AND NOT EXISTS (SELECT 1 FROM Attachment a WHERE a.thumbnailPath = b.filePath)
+        AND NOT EXISTS (SELECT 1 FROM Attachment a WHERE a.mediumPath = b.filePath)
+        AND NOT EXISTS (SELECT 1 FROM FileMessage fm WHERE fm.filePath = b.filePath)
+        AND NOT EXISTS (SELECT 1 FROM AudioMessage am WHERE am.fileUrl = b.filePath)
+        AND NOT EXISTS (SELECT 1 FROM MediaStory ms WHERE ms.filePath = b.filePath)
+        AND NOT EXISTS (SELECT 1 FROM MediaStory ms WHERE ms.thumbnailPath = b.filePath)
+        AND NOT EXISTS (SELECT 1 FROM MediaStory ms WHERE ms.mediumPath = b.filePath)
+        AND NOT EXISTS (SELECT 1 FROM User u WHERE u.image = b.filePath)
+        AND NOT EXISTS (SELECT 1 FROM GroupChat g WHERE g.image = b.filePath)
+        ORDER BY b.id ASC
+    """;
+
+    Optional<Blob> findByContentHash(String contentHash);
+
+    Optional<Blob> findByFilePath(String filePath);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Blob b SET b.lastUploadedAt = :uploadedAt WHERE b.id = :id")
+    int touch(@Param("id") Long id, @Param("uploadedAt") Instant uploadedAt);
+
+    @Query(UNREFERENCED_BLOBS)
+    List<Blob> findUnreferencedBlobs(@Param("before") Instant before, @Param("after") Long after, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(UNREFERENCED_BLOBS)
+    List<Blob> findUnreferencedBlobsForUpdate(@Param("before") Instant before, @Param("after") Long after, Pageable pageable);
+
+}
@@ -4,6 +4,7 @@ import com.chatter.chatter.dto.ChatStatusProjection;
 import com.chatter.chatter.model.Chat;
 import com.chatter.chatter.model.ChatType;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -28,6 +29,7 @@ public interface ChatRepository extends JpaRepository<Chat, Long>, JpaSpecificat
     """)
     Optional<Chat> findByUsers(@Param("size") Long size, @Param("chatType") ChatType chatType, @Param("userIds") Iterable<Long> userIds);
 
+    @EntityGraph(attributePaths = {"lastMessage", "lastMessage.user"})
     List<Chat> findAll(Specification<Chat> specification);
 
         @Query("""
@@ -36,29 +38,14 @@ public interface ChatRepository extends JpaRepository<Chat, Long>, JpaSpecificat
                 c.id,
                 u.id,
                 u.email,
-                (SELECT COUNT(msg) FROM Message msg
-                 WHERE msg.chat = c
-                 AND msg.user != u
-                 AND NOT EXISTS (
-                     SELECT 1 FROM MessageRead mr
-                     WHERE mr.message = msg AND mr.user = u
-                 )),
+                COALESCE((SELECT mem.unreadMessagesCount FROM Member mem
+                 WHERE mem.chat = c AND mem.user = u), 0),
                 CAST((SELECT COUNT(mem) FROM c.members mem) as LONG),
-                (SELECT MIN(msg.id) FROM Message msg
-                 WHERE msg.chat = c
-                 AND msg.user != u
-                 AND NOT EXISTS (
-                     SELECT 1 FROM MessageRead mr
-                     WHERE mr.message = msg AND mr.user = u
-                 )),
-                CASE WHEN EXISTS(SELECT 1 FROM Mention m
-                 WHERE m.message.chat = c
-                 AND m.message.user != u
-                 AND (m.user = u OR m.message.isEveryoneMentioned)
-                 AND NOT EXISTS (
-                     SELECT 1 FROM MessageRead mr
-                     WHERE mr.message = m.message AND mr.user = u
-                 )) THEN TRUE ELSE FALSE END
+                (SELECT mem.firstUnreadMessageId FROM Member mem
+                 WHERE mem.chat = c AND mem.user = u),
+                CASE WHEN EXISTS(SELECT 1 FROM Member mem
+                 WHERE mem.chat = c AND mem.user = u
+                 AND mem.lastMentionedMessageId > COALESCE(mem.lastReadMessageId, 0)) THEN TRUE ELSE FALSE END
             )
             FROM Chat c, User u
             WHERE c.id IN :chatIds
@@ -2,14 +2,21 @@ package com.chatter.chatter.repository;
 
 import com.chatter.chatter.model.Member;
 import com.chatter.chatter.model.MemberRole;
-import io.lettuce.core.dynamic.annotation.Param;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface MemberRepository extends JpaRepository<Member, Long>, JpaSpecificationExecutor<Member> {
@@ -33,4 +40,148 @@ public interface MemberRepository extends JpaRepository<Member, Long>, JpaSpecif
     """)
     Optional<Member> findFirstMemberExcludingMember(@Param("chatId") Long chatId,@Param("memberId") Long memberId, @Param("role") MemberRole role);
 
-}
\ No newline at end of file
+    @Query("""
+        SELECT m.chat.id FROM Member m
+        WHERE m.user.email = :email
+    """)
+    Set<Long> findChatIdsByUserEmail(@Param("email") String email);
+
+    String UNREAD_COUNTERS_RECOUNT = """
+        UPDATE Member m
+        SET m.unreadMessagesCount = (
+                SELECT COUNT(msg) FROM Message msg
+                WHERE msg.chat = m.chat
+                AND (msg.user IS NULL OR msg.user != m.user)
+                AND msg.createdAt >= m.joinedAt
+                AND msg.id > COALESCE(m.lastReadMessageId, 0)
+            ),
+            m.firstUnreadMessageId = (
+                SELECT MIN(msg.id) FROM Message msg
+                WHERE msg.chat = m.chat
+                AND (msg.user IS NULL OR msg.user != m.user)
+                AND msg.createdAt >= m.joinedAt
+                AND msg.id > COALESCE(m.lastReadMessageId, 0)
+            ),
+            m.lastMentionedMessageId = (
+                SELECT MAX(msg.id) FROM Message msg
+                WHERE msg.chat = m.chat
+                AND (msg.user IS NULL OR msg.user != m.user)
+                AND msg.createdAt >= m.joinedAt
+                AND msg.id > COALESCE(m.lastReadMessageId, 0)
+                AND (msg.isEveryoneMentioned OR EXISTS (
+                    SELECT 1 FROM Mention mn
+                    WHERE mn.message = msg AND mn.user = m.user
+                ))
+            )
+    """;
+
+    @Modifying
+    @Query("""
+        UPDATE Member m
+        SET m.lastReadMessageId = :messageId,
+            m.lastReadAt = :readAt,
+            m.unreadMessagesCount = (
+                SELECT COUNT(msg) FROM Message msg
+                WHERE msg.chat = m.chat
+                AND (msg.user IS NULL OR msg.user != m.user)
+                AND msg.createdAt >= m.joinedAt
+                AND msg.id > :messageId
+            ),
+            m.firstUnreadMessageId = (
+                SELECT MIN(msg.id) FROM Message msg
+                WHERE msg.chat = m.chat
+                AND (msg.user IS NULL OR msg.user != m.user)
+                AND msg.createdAt >= m.joinedAt
+                AND msg.id > :messageId
+            )
+        WHERE m.chat.id = :chatId
+        AND m.user.id = (SELECT u.id FROM User u WHERE u.email = :email)
+        AND (m.lastReadMessageId IS NULL OR m.lastReadMessageId < :messageId)
+    """)
+    int advanceReadWatermark(@Param("email") String email, @Param("chatId") Long chatId, @Param("messageId") Long messageId, @Param("readAt") Instant readAt);
+
+    @Query("""
+        SELECT m FROM Member m
+        JOIN FETCH m.user u
+        WHERE m.chat.id = :chatId
+        AND m.lastReadMessageId >= :messageId
+        AND (:senderId IS NULL OR u.id != :senderId)
+        ORDER BY m.lastReadAt ASC
+    """)
+    List<Member> findReaders(@Param("chatId") Long chatId, @Param("messageId") Long messageId, @Param("senderId") Long senderId);
+
+    @Modifying
+    @Query("""
+        UPDATE Member m
+        SET m.unreadMessagesCount = m.unreadMessagesCount + 1,
+            m.firstUnreadMessageId = COALESCE(m.firstUnreadMessageId, :messageId)
+        WHERE m.chat.id = :chatId
+        AND (:senderId IS NULL OR m.user.id != :senderId)
+        AND m.joinedAt <= :createdAt
+        AND (m.lastReadMessageId IS NULL OR m.lastReadMessageId < :messageId)
+    """)
+    int incrementUnreadCounters(@Param("chatId") Long chatId, @Param("senderId") Long senderId, @Param("messageId") Long messageId, @Param("createdAt") Instant createdAt);
+
+    @Modifying
+    @Query("""
+        UPDATE Member m
+        SET m.lastMentionedMessageId = :messageId
+        WHERE m.chat.id = :chatId
+        AND (:senderId IS NULL OR m.user.id != :senderId)
+        AND m.joinedAt <= :createdAt
+        AND m.user.id IN :usersIds
+    """)
+    int markMentioned(@Param("chatId") Long chatId, @Param("senderId") Long senderId, @Param("messageId") Long messageId, @Param("createdAt") Instant createdAt, @Param("usersIds") Collection<Long> usersIds);
+
+    @Modifying
+    @Query("""
+        UPDATE Member m
+        SET m.lastMentionedMessageId = :messageId
+        WHERE m.chat.id = :chatId
+        AND (:senderId IS NULL OR m.user.id != :senderId)
+        AND m.joinedAt <= :createdAt
+    """)
+    int markEveryoneMentioned(@Param("chatId") Long chatId, @Param("senderId") Long senderId, @Param("messageId") Long messageId, @Param("createdAt") Instant createdAt);
+
+    @Modifying
+    @Query("""
+        UPDATE Member m
+        SET m.unreadMessagesCount = CASE WHEN m.unreadMessagesCount > 0 THEN m.unreadMessagesCount - 1 ELSE 0 END,
+            m.firstUnreadMessageId = CASE WHEN m.firstUnreadMessageId = :messageId THEN (
+                SELECT MIN(msg.id) FROM Message msg
+                WHERE msg.chat = m.chat
+                AND (msg.user IS NULL OR msg.user != m.user)
+                AND msg.createdAt >= m.joinedAt
+                AND msg.id > :messageId
+            ) ELSE m.firstUnreadMessageId END,
+            m.lastMentionedMessageId = CASE WHEN m.lastMentionedMessageId = :messageId THEN (
+                SELECT MAX(msg.id) FROM Message msg
+                WHERE msg.chat = m.chat
+                AND (msg.user IS NULL OR msg.user != m.user)
+                AND msg.createdAt >= m.joinedAt
+                AND msg.id > COALESCE(m.lastReadMessageId, 0)
+                AND (msg.isEveryoneMentioned OR EXISTS (
+                    SELECT 1 FROM Mention mn
+                    WHERE mn.message = msg AND mn.user = m.user
+                ))
+            ) ELSE m.lastMentionedMessageId END
+        WHERE m.chat.id = :chatId
+        AND (:senderId IS NULL OR m.user.id != :senderId)
+        AND m.joinedAt <= :createdAt
+        AND (m.lastReadMessageId IS NULL OR m.lastReadMessageId < :messageId)
+    """)
+    int decrementUnreadCounters(@Param("chatId") Long chatId, @Param("senderId") Long senderId, @Param("messageId") Long messageId, @Param("createdAt") Instant createdAt);
+
+    @Modifying
+    @Query(UNREAD_COUNTERS_RECOUNT + "WHERE m.chat.id = :chatId")
+    int recountUnreadCounters(@Param("chatId") Long chatId);
+
+    @Transactional
+    @Modifying
+    @Query(UNREAD_COUNTERS_RECOUNT + "WHERE m.id IN :membersIds")
+    int recountUnreadCounters(@Param("membersIds") Collection<Long> membersIds);
+
+    @Query("SELECT m.id FROM Member m WHERE m.id > :after ORDER BY m.id ASC")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+}
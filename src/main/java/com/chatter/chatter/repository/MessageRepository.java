@@ -24,6 +24,13 @@
 //    Optional<Message> findByIdAndUserEmail(Long id, String email);
 //
 //    Optional<Message> findByIdAndChat(Long id, Chat chat);
+
+    @Query("""
+        SELECT m.id FROM Message m
+        WHERE m.user.id = :userId
+        AND m.clientMessageId = :clientMessageId
+    """)
+    Optional<Long> findIdByUserIdAndClientMessageId(@Param("userId") Long userId, @Param("clientMessageId") String clientMessageId);
 //
 //    @Query("""
 //            SELECT m FROM Message m
@@ -65,11 +72,13 @@
 package com.chatter.chatter.repository;
 
 import com.chatter.chatter.dto.MessageProjection;
+import com.chatter.chatter.dto.MessageSearchDocument;
 import com.chatter.chatter.dto.MessageStatusProjection;
 import com.chatter.chatter.model.Chat;
 import com.chatter.chatter.model.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -78,6 +87,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -95,9 +105,19 @@ public interface MessageRepository extends JpaRepository<Message, Long>, JpaSpec
                 u.id,
                 u.email,
                 CASE WHEN EXISTS (
-                        SELECT 1 FROM MessageRead mr
-                        WHERE mr.message = m
-                        AND (mr.user = u OR mr.showRead IS TRUE)
+                        SELECT 1 FROM Member mem
+                        WHERE mem.chat = m.chat
+                        AND mem.lastReadMessageId >= m.id
+                        AND (m.user IS NULL OR mem.user != m.user)
+                        AND (
+                            mem.user = u
+                            OR mem.chat.chatType = com.chatter.chatter.model.ChatType.GROUP
+                            OR (mem.user.showMessageReads IS TRUE AND NOT EXISTS (
+                                SELECT 1 FROM User sender
+                                WHERE sender = m.user
+                                AND sender.showMessageReads IS FALSE
+                            ))
+                        )
                 ) THEN TRUE ELSE FALSE END,
                 CASE WHEN EXISTS(
                     SELECT 1 FROM StarredMessage sm
@@ -112,23 +132,60 @@ public interface MessageRepository extends JpaRepository<Message, Long>, JpaSpec
 
     @Query("""
             SELECT m FROM Message m
-            WHERE m.chat.id = :chatId AND m.user.email != :email
-            AND EXISTS (
-                SELECT 1 FROM Member mem
-                WHERE mem.chat.id = :chatId
-                AND mem.user.email = :email
-            )
-            AND NOT EXISTS (
-                SELECT 1 FROM MessageRead r
-                WHERE r.message = m
-                AND r.user.email = :email
-            )
+            LEFT JOIN m.user u
+            WHERE m.chat.id = :chatId
+            AND m.id > :after
+            AND m.id <= :upTo
+            AND (u IS NULL OR u.email != :email)
+            ORDER BY m.id ASC
     """)
-    List<Message> findUnreadMessages(@Param("email") String email, @Param("chatId") Long chatId);
+    List<Message> findMessagesReadBetween(@Param("email") String email, @Param("chatId") Long chatId, @Param("after") Long after, @Param("upTo") Long upTo);
+
+    @Query("SELECT MAX(m.id) FROM Message m WHERE m.chat.id = :chatId")
+    Optional<Long> findLastMessageId(@Param("chatId") Long chatId);
+
+    Optional<Message> findFirstByChatIdAndIdLessThanOrderByIdDesc(Long chatId, Long id);
 
     @EntityGraph(value = "graph.messages")
     Page<Message> findAll(Specification<Message> spec, Pageable pageable);
 
+    @Query("""
+        SELECT m.id FROM Message m
+        WHERE m.chat.id = :chatId
+        AND m.id < :before
+        AND EXISTS (
+            SELECT 1 FROM Member mem
+            WHERE mem.chat.id = :chatId
+            AND mem.user.email = :email
+        )
+        ORDER BY m.id DESC
+    """)
+    Slice<Long> findTimelineIdsBefore(@Param("email") String email, @Param("chatId") Long chatId, @Param("before") Long before, Pageable pageable);
+
+    @Query("""
+        SELECT m.id FROM Message m
+        WHERE m.chat.id = :chatId
+        AND m.id > :after
+        AND EXISTS (
+            SELECT 1 FROM Member mem
+            WHERE mem.chat.id = :chatId
+            AND mem.user.email = :email
+        )
+        ORDER BY m.id ASC
+    """)
+    Slice<Long> findTimelineIdsAfter(@Param("email") String email, @Param("chatId") Long chatId, @Param("after") Long after, Pageable pageable);
+
+    @EntityGraph(value = "graph.messages")
+    List<Message> findByIdIn(Collection<Long> ids);
+
+    @Query("""
+        SELECT new com.chatter.chatter.dto.MessageSearchDocument(m.id, m.chat.id, m.messageType, m.content)
+        FROM Message m
+        WHERE m.id > :after
+        ORDER BY m.id ASC
+    """)
+    List<MessageSearchDocument> findSearchDocuments(@Param("after") Long after, Pageable pageable);
+
     @Query("""
         SELECT DISTINCT m FROM Message m
         LEFT JOIN m.user u
@@ -138,11 +195,7 @@ public interface MessageRepository extends JpaRepository<Message, Long>, JpaSpec
             SELECT 1 FROM Member mem
             WHERE mem.chat = m.chat
             AND mem.user.email = :email
-        )
-        AND NOT EXISTS (
-            SELECT 1 FROM MessageRead r
-            WHERE r.message = m
-            AND r.user.email = :email
+            AND (mem.lastReadMessageId IS NULL OR mem.lastReadMessageId < m.id)
         )
     """)
     List<Message> findUnreadMessagesByIds(@Param("email") String email, @Param("messagesIds") Iterable<Long> messagesIds);
@@ -7,6 +7,7 @@
 //import org.springframework.data.jpa.repository.Query;
 //import org.springframework.data.repository.query.Param;
 //import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 //
 //import java.time.Instant;
 //import java.util.List;
@@ -61,11 +62,14 @@
 
 package com.chatter.chatter.repository;
 
+import com.chatter.chatter.dto.MediaVariants;
 import com.chatter.chatter.dto.StoryStatusProjection;
 import com.chatter.chatter.model.ChatType;
 import com.chatter.chatter.model.Story;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -200,4 +204,23 @@ public interface StoryRepository extends JpaRepository<Story, Long> {
 
     @EntityGraph(attributePaths = { "user", "excludedUsers" })
     List<Story> findByCreatedAtBefore(Instant data);
+
+    @Query("""
+        SELECT new com.chatter.chatter.dto.MediaVariants(s.thumbnailPath, s.mediumPath)
+        FROM MediaStory s
+        WHERE s.filePath = :filePath
+        AND s.thumbnailPath IS NOT NULL
+    """)
+    List<MediaVariants> findVariants(@Param("filePath") String filePath, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE MediaStory s
+        SET s.thumbnailPath = :thumbnailPath, s.mediumPath = :mediumPath
+        WHERE s.filePath = :filePath
+        AND s.thumbnailPath IS NULL
+    """)
+    int updateVariants(@Param("filePath") String filePath, @Param("thumbnailPath") String thumbnailPath, @Param("mediumPath") String mediumPath);
+
 }
@@ -30,6 +30,8 @@ public class BaseMessageRequest {
 
     private MultipartFile file;
 
+    private List<String> uploadSessionIds;
+
     private Long duration;
 
     private Boolean missed;
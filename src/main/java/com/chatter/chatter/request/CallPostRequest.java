@@ -0,0 +1,16 @@
+package com.chatter.chatter.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class CallPostRequest {
+
+    @NotNull(message = "chatId is required")
+    private Long chatId;
+
+}
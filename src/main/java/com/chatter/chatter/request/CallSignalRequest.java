@@ -0,0 +1,21 @@
+package com.chatter.chatter.request;
+
+import com.chatter.chatter.model.CallSignalType;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class CallSignalRequest {
+
+    @NotNull(message = "type is required")
+    private CallSignalType type;
+
+    private Long targetUserId;
+
+    private String payload;
+
+}
@@ -26,4 +26,6 @@ public class SingleMessageRequest extends BaseMessageRequest {
 
     private Set<Long> mentionedUsersIds;
 
+    private String clientMessageId;
+
 }
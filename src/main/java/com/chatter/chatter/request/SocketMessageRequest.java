@@ -0,0 +1,49 @@
+package com.chatter.chatter.request;
+
+import com.chatter.chatter.model.MessageType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class SocketMessageRequest {
+
+    @NotBlank(message = "clientMessageId is required")
+    @Size(max = 64, message = "clientMessageId must be at most 64 characters")
+    private String clientMessageId;
+
+    private Long userId;
+
+    private Long chatId;
+
+    @NotNull(message = "messageType is required")
+    private MessageType messageType;
+
+    private String content;
+
+    private String contentJson;
+
+    private Long replyMessageId;
+
+    private Boolean isEveryoneMentioned;
+
+    private Set<Long> mentionedUsersIds;
+
+    private String title;
+
+    private List<String> options;
+
+    private Instant endsAt;
+
+    private Boolean multiple = false;
+
+}
@@ -0,0 +1,25 @@
+package com.chatter.chatter.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class UploadSessionPostRequest {
+
+    @NotBlank(message = "fileName is required")
+    @NotNull(message = "fileName is required")
+    private String fileName;
+
+    private String contentType;
+
+    @NotNull(message = "fileSize is required")
+    @Positive(message = "fileSize must be positive")
+    private Long fileSize;
+
+}
@@ -1,5 +1,7 @@
 package com.chatter.chatter.service;
 
+import com.chatter.chatter.dto.MediaMetadata;
+import com.chatter.chatter.dto.UploadedFile;
 import com.chatter.chatter.exception.BadRequestException;
 import com.chatter.chatter.model.Attachment;
 import com.chatter.chatter.model.AttachmentType;
@@ -26,7 +28,9 @@ public class AttachmentService {
 
     private final AttachmentRepository attachmentRepository;
     private final FileValidationService fileValidationService;
-    private final FileUploadService fileUploadService;
+    private final BlobService blobService;
+    private final MediaMetadataService mediaMetadataService;
+    private final MediaVariantService mediaVariantService;
 
     @Transactional
     public List<Attachment> createAttachments(MediaMessage mediaMessage, Iterable<MultipartFile> files) {
@@ -41,12 +45,13 @@ public class AttachmentService {
 
     public Attachment createAttachment(MultipartFile file) {
         Attachment attachment = new Attachment();
-        if (fileValidationService.isImage(file)) {
+        String mimeType = fileValidationService.detectMimeType(file);
+        if (fileValidationService.isImage(mimeType)) {
             if (!fileValidationService.isSizeValid(file, maxImageSize)) {
                 throw new BadRequestException("mediaFiles", file.getOriginalFilename() + " exceeds the maximum allowed size of " + (maxImageSize / (1024 * 1024)) + " MB.");            }
             attachment.setAttachmentType(AttachmentType.IMAGE);
         }
-        else if (fileValidationService.isVideo(file)) {
+        else if (fileValidationService.isVideo(mimeType)) {
             if (!fileValidationService.isSizeValid(file, maxVideoSize)) {
                 throw new BadRequestException("mediaFiles", file.getOriginalFilename() + " exceeds the maximum allowed size of " + (maxVideoSize / (1024 * 1024)) + " MB.");
             }
@@ -55,16 +60,68 @@ public class AttachmentService {
         else {
             throw new BadRequestException("mediaFiles", file.getOriginalFilename() + " is not a supported file type. Only images and videos are allowed.");
         }
-        attachment.setFilePath(fileUploadService.uploadFile(file));
+        setMetadata(attachment, mediaMetadataService.extract(file, mimeType));
+        attachment.setFilePath(blobService.uploadFile(file));
+        copyExistingVariants(attachment);
+        return attachment;
+    }
+
+    public Attachment createAttachment(UploadedFile uploadedFile) {
+        Attachment attachment = new Attachment();
+        String mimeType = uploadedFile.getContentType();
+        if (fileValidationService.isImage(mimeType)) {
+            if (uploadedFile.getFileSize() > maxImageSize) {
+                throw new BadRequestException("uploadSessionIds", uploadedFile.getFileName() + " exceeds the maximum allowed size of " + (maxImageSize / (1024 * 1024)) + " MB.");
+            }
+            attachment.setAttachmentType(AttachmentType.IMAGE);
+        }
+        else if (fileValidationService.isVideo(mimeType)) {
+            if (uploadedFile.getFileSize() > maxVideoSize) {
+                throw new BadRequestException("uploadSessionIds", uploadedFile.getFileName() + " exceeds the maximum allowed size of " + (maxVideoSize / (1024 * 1024)) + " MB.");
+            }
+            attachment.setAttachmentType(AttachmentType.VIDEO);
+        }
+        else {
+            throw new BadRequestException("uploadSessionIds", uploadedFile.getFileName() + " is not a supported file type. Only images and videos are allowed.");
+        }
+        setMetadata(attachment, mediaMetadataService.extract(uploadedFile.getFilePath(), mimeType));
+        attachment.setFilePath(uploadedFile.getFilePath());
+        copyExistingVariants(attachment);
         return attachment;
     }
 
     public Attachment createAttachment(Attachment attachment, MediaMessage mediaMessage) {
         Attachment createdAttachment = Attachment.builder()
                 .filePath(attachment.getFilePath())
+                .thumbnailPath(attachment.getThumbnailPath())
+                .mediumPath(attachment.getMediumPath())
+                .width(attachment.getWidth())
+                .height(attachment.getHeight())
+                .duration(attachment.getDuration())
+                .placeholder(attachment.getPlaceholder())
                 .attachmentType(attachment.getAttachmentType())
                 .message(mediaMessage)
                 .build();
         return attachmentRepository.save(createdAttachment);
     }
+
+    private void setMetadata(Attachment attachment, MediaMetadata metadata) {
+        attachment.setWidth(metadata.getWidth());
+        attachment.setHeight(metadata.getHeight());
+        attachment.setDuration(toSeconds(metadata.getDurationMillis()));
+        attachment.setPlaceholder(metadata.getPlaceholder());
+    }
+
+    private void copyExistingVariants(Attachment attachment) {
+        if (!AttachmentType.IMAGE.equals(attachment.getAttachmentType())) return;
+        mediaVariantService.findVariants(attachment.getFilePath()).ifPresent(variants -> {
+            attachment.setThumbnailPath(variants.getThumbnailPath());
+            attachment.setMediumPath(variants.getMediumPath());
+        });
+    }
+
+    private Long toSeconds(Long durationMillis) {
+        return durationMillis != null ? Math.round(durationMillis / 1000.0) : null;
+    }
+
 }
@@ -0,0 +1,97 @@
+package com.chatter.chatter.service;
+
+import com.chatter.chatter.model.AudioMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@Slf4j
+public class AudioWaveformService {
+
+    private static final int PEAK_WINDOWS_PER_SECOND = 100;
+
+    // javax.sound only decodes PCM containers, compressed voice notes (mpeg, ogg, aac, flac, webm)
+    // are stored without a waveform or duration and clients fall back to the media element.
+    // Tika reports WAV as audio/vnd.wave, the other names are its registered aliases
+    private static final Set<String> SUPPORTED_MIME_TYPES = Set.of(
+            "audio/vnd.wave", "audio/wav", "audio/wave", "audio/x-wav",
+            "audio/x-aiff", "audio/aiff",
+            "audio/basic"
+    );
+
+    @Value("${app.audio.waveform-buckets}")
+    private int waveformBuckets;
+
+    public boolean supports(String mimeType) {
+        return mimeType != null && SUPPORTED_MIME_TYPES.contains(mimeType);
+    }
+
+    public void analyze(MultipartFile file, String mimeType, AudioMessage audioMessage) {
+        if (!supports(mimeType)) {
+            log.debug("Skipping waveform for {}, {} is not decoded", file.getOriginalFilename(), mimeType);
+            return;
+        }
+        try (InputStream inputStream = new BufferedInputStream(file.getInputStream());
+             AudioInputStream sourceStream = AudioSystem.getAudioInputStream(inputStream)) {
+            AudioFormat sourceFormat = sourceStream.getFormat();
+            AudioFormat pcmFormat = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, sourceFormat.getSampleRate(), 16, sourceFormat.getChannels(), sourceFormat.getChannels() * 2, sourceFormat.getSampleRate(), false);
+            try (AudioInputStream pcmStream = sourceFormat.matches(pcmFormat) ? sourceStream : AudioSystem.getAudioInputStream(pcmFormat, sourceStream)) {
+                analyze(pcmStream, pcmFormat, audioMessage);
+            }
+        }
+        catch (UnsupportedAudioFileException | IllegalArgumentException e) {
+            log.debug("Skipping waveform for {}, audio format is not supported", file.getOriginalFilename());
+        }
+        catch (IOException e) {
+            log.warn("Failed to compute waveform for {}", file.getOriginalFilename(), e);
+        }
+    }
+
+    private void analyze(AudioInputStream pcmStream, AudioFormat pcmFormat, AudioMessage audioMessage) throws IOException {
+        int frameSize = pcmFormat.getFrameSize();
+        int framesPerWindow = Math.max(1, Math.round(pcmFormat.getFrameRate() / PEAK_WINDOWS_PER_SECOND));
+        byte[] window = new byte[framesPerWindow * frameSize];
+        List<Integer> peaks = new ArrayList<>();
+        long frames = 0;
+        int read;
+        while ((read = pcmStream.readNBytes(window, 0, window.length)) > 0) {
+            int peak = 0;
+            for (int i = 0; i + 1 < read; i += 2) {
+                int sample = Math.abs((short) ((window[i + 1] << 8) | (window[i] & 0xff)));
+                peak = Math.max(peak, sample);
+            }
+            peaks.add(peak);
+            frames += read / frameSize;
+        }
+        if (peaks.isEmpty()) return;
+
+        int buckets = Math.min(waveformBuckets, peaks.size());
+        int[] bucketPeaks = new int[buckets];
+        int maxPeak = 0;
+        for (int i = 0; i < peaks.size(); i++) {
+            int bucket = (int) ((long) i * buckets / peaks.size());
+            bucketPeaks[bucket] = Math.max(bucketPeaks[bucket], peaks.get(i));
+            maxPeak = Math.max(maxPeak, peaks.get(i));
+        }
+        byte[] waveform = new byte[buckets];
+        for (int i = 0; i < buckets; i++) {
+            waveform[i] = (byte) (maxPeak == 0 ? 0 : Math.round(bucketPeaks[i] * 255f / maxPeak));
+        }
+        audioMessage.setWaveform(waveform);
+        audioMessage.setDurationMillis(Math.round(frames * 1000 / (double) pcmFormat.getFrameRate()));
+    }
+
+}
@@ -64,7 +64,7 @@ public class AuthenticationService {
         if (!jwtService.isRefreshTokenValid(token, userDetails)) {
             throw new BadRequestException("refreshToken", "Invalid token");
         }
-        onlineUserService.userDisconnected(email);
+        onlineUserService.userDisconnected(refreshToken.getUser().getId());
         refreshTokenRepository.delete(refreshToken);
     }
 
@@ -1,64 +1,407 @@
 package com.chatter.chatter.service;
 
+import com.chatter.chatter.dto.FileMetadata;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Primary
+@Profile("!local-storage")
 public class BackblazeUploadService implements FileUploadService {
 
     private final FileValidationService fileValidationService;
     private final S3Client s3Client;
     private final S3Presigner s3Presigner;
+    private final MeterRegistry meterRegistry;
 
     @Value("${b2.bucket.name}")
     private String bucketName;
 
+    @Value("${b2.presigned-url.signature-duration}")
+    private Duration signatureDuration;
+
+    @Value("${b2.presigned-url.upload-signature-duration}")
+    private Duration uploadSignatureDuration;
+
+    @Value("${b2.presigned-url.minimum-validity}")
+    private Duration minimumValidity;
+
+    @Value("${spring.cache.redis.time-to-live}")
+    private Duration cacheTimeToLive;
+
+    @Value("${app.cache.local.time-to-live}")
+    private Duration localCacheTimeToLive;
+
+    @Value("${b2.presigned-url.cache-maximum-size}")
+    private long cacheMaximumSize;
+
+    @Value("${b2.upload.part-size}")
+    private DataSize partSize;
+
+    @Value("${b2.upload.max-parts-in-flight}")
+    private int maxPartsInFlight;
+
+    private ThreadPoolTaskExecutor partUploadExecutor;
+
+    private Cache<String, String> presignedUrls;
+
+    private Counter signatures;
+
+    @PostConstruct
+    public void init() {
+        // URLs end up inside cached DTOs, so a URL handed out by this cache can still be served
+        // for the Redis and local cache TTLs before the client gets its minimum validity
+        Duration urlTimeToLive = signatureDuration.minus(minimumValidity).minus(cacheTimeToLive).minus(localCacheTimeToLive);
+        if (!urlTimeToLive.isPositive()) {
+            throw new IllegalStateException("b2.presigned-url.signature-duration must exceed minimum-validity plus the cache time-to-live");
+        }
+        presignedUrls = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(urlTimeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, presignedUrls, "presigned-urls");
+        signatures = meterRegistry.counter("presigned.urls.signatures");
+
+        partUploadExecutor = new ThreadPoolTaskExecutor();
+        partUploadExecutor.setCorePoolSize(maxPartsInFlight);
+        partUploadExecutor.setMaxPoolSize(maxPartsInFlight);
+        partUploadExecutor.setQueueCapacity(maxPartsInFlight);
+        partUploadExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        partUploadExecutor.setThreadNamePrefix("upload-part-");
+        partUploadExecutor.initialize();
+    }
+
+    @PreDestroy
+    public void stop() {
+        partUploadExecutor.shutdown();
+    }
+
     @Override
     public String uploadFile(MultipartFile file) {
         String originalFilename = file.getOriginalFilename();
         String extension = fileValidationService.getFileExtension(originalFilename);
         String filename =  UUID.randomUUID() + "." + extension;
+        uploadFile(file, filename);
+        return filename;
+    }
+
+    @Override
+    public void uploadFile(MultipartFile file, String filename) {
+        try (InputStream inputStream = file.getInputStream()) {
+            upload(filename, file.getContentType(), inputStream);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void uploadFile(InputStream inputStream, String contentType, String filename) {
         try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(filename)
-                    .build();
-            s3Client.putObject(putObjectRequest,  RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+            upload(filename, contentType, inputStream);
         }
         catch (IOException e) {
             throw new RuntimeException(e.getMessage());
         }
-        return filename;
+    }
+
+    @Override
+    public InputStream getFile(String filename) {
+        return s3Client.getObject(GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(filename)
+                .build());
     }
 
     @Override
     public String getFileUrl(String filename) {
         if (filename == null || filename.isBlank()) return null;
+        return presignedUrls.get(filename, this::presignGetObject);
+    }
+
+    @Override
+    public Map<String, String> getFileUrls(Collection<String> filenames) {
+        Set<String> keys = filenames.stream()
+                .filter(filename -> filename != null && !filename.isBlank())
+                .collect(Collectors.toSet());
+        if (keys.isEmpty()) return Collections.emptyMap();
+        return presignedUrls.getAll(keys, missing -> missing.stream()
+                .collect(Collectors.toMap(Function.identity(), this::presignGetObject)));
+    }
+
+    @Override
+    public void deleteFiles(Collection<String> filenames) {
+        if (filenames.isEmpty()) return;
+        List<ObjectIdentifier> objects = filenames.stream()
+                .map(filename -> ObjectIdentifier.builder().key(filename).build())
+                .toList();
+        DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder().objects(objects).quiet(true).build())
+                .build());
+        presignedUrls.invalidateAll(filenames);
+        if (response.hasErrors() && !response.errors().isEmpty()) {
+            S3Error error = response.errors().getFirst();
+            throw new RuntimeException("Failed to delete " + response.errors().size() + " files, first error on " + error.key() + ": " + error.message());
+        }
+    }
+
+    @Override
+    public String getUploadUrl(String filename, String contentType, Long contentLength) {
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(filename)
+                .contentType(contentType)
+                .contentLength(contentLength)
+                .build();
+
+        PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
+                .signatureDuration(uploadSignatureDuration)
+                .putObjectRequest(putObjectRequest)
+                .build();
+
+        signatures.increment();
+        return s3Presigner.presignPutObject(presignRequest).url().toString();
+    }
+
+    @Override
+    public FileMetadata getFileMetadata(String filename) {
+        try {
+            HeadObjectResponse response = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(filename)
+                    .build());
+            return new FileMetadata(response.contentLength(), response.contentType(), response.eTag());
+        }
+        catch (NoSuchKeyException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String copyFile(String sourceFilename, String targetFilename, String eTag) {
+        try {
+            return s3Client.copyObject(CopyObjectRequest.builder()
+                    .sourceBucket(bucketName)
+                    .sourceKey(sourceFilename)
+                    .destinationBucket(bucketName)
+                    .destinationKey(targetFilename)
+                    .copySourceIfMatch(eTag)
+                    .build()).copyObjectResult().eTag();
+        }
+        catch (NoSuchKeyException e) {
+            return null;
+        }
+        catch (S3Exception e) {
+            if (e.statusCode() == HttpStatus.PRECONDITION_FAILED.value()) return null;
+            throw e;
+        }
+    }
+
+    @Override
+    public byte[] getFilePrefix(String filename, int length) {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(filename)
+                .range("bytes=0-" + (length - 1))
+                .build();
+        try (InputStream inputStream = s3Client.getObject(getObjectRequest)) {
+            return inputStream.readNBytes(length);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public byte[] getFileRange(String filename, long offset, int length) {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(filename)
+                .range("bytes=" + offset + "-" + (offset + length - 1))
+                .build();
+        try (InputStream inputStream = s3Client.getObject(getObjectRequest)) {
+            return inputStream.readNBytes(length);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public String createMultipartUpload(String filename, String contentType) {
+        return s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(filename)
+                .contentType(contentType)
+                .build()).uploadId();
+    }
+
+    @Override
+    public String uploadPart(String filename, String uploadId, int partNumber, byte[] bytes) {
+        return uploadCompletedPart(filename, uploadId, partNumber, bytes).eTag();
+    }
+
+    @Override
+    public String completeMultipartUpload(String filename, String uploadId, Map<Integer, String> eTags) {
+        List<CompletedPart> completedParts = new TreeMap<>(eTags).entrySet().stream()
+                .map(entry -> CompletedPart.builder().partNumber(entry.getKey()).eTag(entry.getValue()).build())
+                .toList();
+        return s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(filename)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                .build()).eTag();
+    }
+
+    @Override
+    public void abortMultipartUpload(String filename, String uploadId) {
+        abortUpload(filename, uploadId);
+    }
+
+    private void upload(String key, String contentType, InputStream inputStream) throws IOException {
+        int partBytes = (int) partSize.toBytes();
+        byte[] part = inputStream.readNBytes(partBytes);
+        if (part.length < partBytes) {
+            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .contentType(contentType)
+                    .contentMD5(md5(part))
+                    .build();
+            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(part));
+            return;
+        }
+
+        String uploadId = createMultipartUpload(key, contentType);
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        Semaphore partsInFlight = new Semaphore(maxPartsInFlight);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try {
+            int partNumber = 1;
+            while (part.length > 0 && failure.get() == null) {
+                partsInFlight.acquire();
+                byte[] bytes = part;
+                int number = partNumber++;
+                parts.add(CompletableFuture
+                        .supplyAsync(() -> uploadCompletedPart(key, uploadId, number, bytes), partUploadExecutor)
+                        .whenComplete((completedPart, e) -> {
+                            if (e != null) failure.compareAndSet(null, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                            partsInFlight.release();
+                        }));
+                part = inputStream.readNBytes(partBytes);
+            }
+            CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+            if (failure.get() instanceof RuntimeException e) throw e;
+            if (failure.get() != null) throw new IOException("Failed to upload part", failure.get());
+            List<CompletedPart> completedParts = parts.stream().map(CompletableFuture::join).toList();
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            IOException exception = new IOException("Upload interrupted", e);
+            abortUpload(key, uploadId, exception);
+            throw exception;
+        }
+        catch (IOException | RuntimeException e) {
+            abortUpload(key, uploadId, e);
+            throw e;
+        }
+    }
+
+    private CompletedPart uploadCompletedPart(String key, String uploadId, int partNumber, byte[] bytes) {
+        UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentMD5(md5(bytes))
+                .build();
+        String eTag = s3Client.uploadPart(uploadPartRequest, RequestBody.fromBytes(bytes)).eTag();
+        return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+    }
+
+    private void abortUpload(String key, String uploadId) {
+        s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .build());
+    }
+
+    private void abortUpload(String key, String uploadId, Exception failure) {
+        try {
+            abortUpload(key, uploadId);
+        }
+        catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private String md5(byte[] bytes) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(bytes));
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String presignGetObject(String filename) {
         GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                 .bucket(bucketName)
                 .key(filename)
                 .build();
 
         GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                .signatureDuration(Duration.ofHours(1))
+                .signatureDuration(signatureDuration)
                 .getObjectRequest(getObjectRequest)
                 .build();
 
+        signatures.increment();
         return s3Presigner.presignGetObject(presignRequest).url().toString();
     }
+
 }
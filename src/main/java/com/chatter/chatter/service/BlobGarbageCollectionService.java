@@ -0,0 +1,110 @@
+package com.chatter.chatter.service;
+
+import com.chatter.chatter.model.Blob;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BlobGarbageCollectionService {
+
+    private static final int MAX_DELETE_BATCH_SIZE = 1000;
+
+    private final BlobService blobService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.blob-gc.grace-period}")
+    private Duration gracePeriod;
+
+    @Value("${app.blob-gc.batch-size}")
+    private int batchSize;
+
+    @Value("${app.blob-gc.deletes-per-second}")
+    private long deletesPerSecond;
+
+    @Value("${app.blob-gc.dry-run}")
+    private boolean dryRun;
+
+    private Bucket deleteRateLimit;
+
+    private Counter collectedBlobs;
+
+    private Counter collectedBytes;
+
+    private Timer runTimer;
+
+    @PostConstruct
+    public void init() {
+        batchSize = Math.min(batchSize, MAX_DELETE_BATCH_SIZE);
+        deleteRateLimit = Bucket.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(Math.max(deletesPerSecond, batchSize))
+                        .refillGreedy(deletesPerSecond, Duration.ofSeconds(1))
+                        .build())
+                .build();
+        String mode = dryRun ? "dry-run" : "delete";
+        collectedBlobs = Counter.builder("blob.gc.blobs").tag("mode", mode).register(meterRegistry);
+        collectedBytes = Counter.builder("blob.gc.bytes").tag("mode", mode).baseUnit("bytes").register(meterRegistry);
+        runTimer = Timer.builder("blob.gc.runs").tag("mode", mode).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelay = 6 * 60 * 60 * 1000, initialDelay = 10 * 60 * 1000)
+    public void collectGarbage() {
+        runTimer.record(() -> collectGarbage(Instant.now().minus(gracePeriod)));
+    }
+
+    private void collectGarbage(Instant before) {
+        long after = 0L;
+        long blobsCount = 0L;
+        long bytesCount = 0L;
+        List<Blob> blobs;
+        do {
+            if (dryRun) {
+                blobs = blobService.getUnreferencedBlobs(before, after, batchSize);
+            }
+            else {
+                try {
+                    deleteRateLimit.asBlocking().consume(batchSize);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                try {
+                    blobs = blobService.deleteUnreferencedBlobs(before, after, batchSize);
+                }
+                catch (RuntimeException e) {
+                    log.error("Blob garbage collection stopped after {} blobs", blobsCount, e);
+                    break;
+                }
+            }
+            if (blobs.isEmpty()) break;
+            long batchBytes = 0L;
+            for (Blob blob : blobs) {
+                log.debug("{} unreferenced blob {} ({} bytes)", dryRun ? "Found" : "Deleted", blob.getFilePath(), blob.getFileSize());
+                batchBytes += blob.getFileSize();
+            }
+            blobsCount += blobs.size();
+            bytesCount += batchBytes;
+            collectedBlobs.increment(blobs.size());
+            collectedBytes.increment(batchBytes);
+            after = blobs.getLast().getId();
+        } while (blobs.size() == batchSize);
+        log.info("{} {} unreferenced blobs ({} bytes) older than {}", dryRun ? "Found" : "Deleted", blobsCount, bytesCount, before);
+    }
+
+}
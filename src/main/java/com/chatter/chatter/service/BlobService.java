@@ -0,0 +1,181 @@
+package com.chatter.chatter.service;
+
+import com.chatter.chatter.model.Blob;
+import com.chatter.chatter.repository.BlobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BlobService {
+
+    private static final String ETAG_HASH_PREFIX = "etag:";
+
+    private final BlobRepository blobRepository;
+    private final FileUploadService fileUploadService;
+    private final FileValidationService fileValidationService;
+
+    // The spooled upload is read once, the hash is taken from the same stream that feeds the
+    // storage parts and a duplicate is dropped after the fact in favour of the stored blob
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String uploadFile(MultipartFile file) {
+        String extension = fileValidationService.getFileExtension(file.getOriginalFilename());
+        String filePath = createFilePath(extension);
+        String contentHash;
+        try (DigestInputStream digestInputStream = new DigestInputStream(file.getInputStream(), createDigest())) {
+            fileUploadService.uploadFile(digestInputStream, file.getContentType(), filePath);
+            contentHash = HexFormat.of().formatHex(digestInputStream.getMessageDigest().digest());
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        Optional<String> storedFilePath = findStoredFile(contentHash);
+        if (storedFilePath.isPresent()) {
+            fileUploadService.deleteFiles(List.of(filePath));
+            return storedFilePath.get();
+        }
+        return save(contentHash, filePath, file.getSize(), file.getContentType());
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String uploadFile(byte[] content, String contentType, String extension) {
+        String contentHash;
+        try (InputStream inputStream = new ByteArrayInputStream(content)) {
+            contentHash = getContentHash(inputStream);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        return store(contentHash, extension, (long) content.length, contentType,
+                filePath -> fileUploadService.uploadFile(new ByteArrayInputStream(content), contentType, filePath));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String registerFile(String filePath, String eTag, Long fileSize, String contentType) {
+        String contentHash = ETAG_HASH_PREFIX + eTag.replace("\"", "");
+        Optional<String> storedFilePath = findStoredFile(contentHash);
+        if (storedFilePath.isPresent()) {
+            fileUploadService.deleteFiles(List.of(filePath));
+            return storedFilePath.get();
+        }
+        return save(contentHash, filePath, fileSize, contentType);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Blob> getUnreferencedBlobs(Instant before, Long after, int limit) {
+        return blobRepository.findUnreferencedBlobs(before, after, PageRequest.of(0, limit));
+    }
+
+    @Transactional
+    public List<Blob> deleteUnreferencedBlobs(Instant before, Long after, int limit) {
+        List<Blob> blobs = blobRepository.findUnreferencedBlobsForUpdate(before, after, PageRequest.of(0, limit));
+        if (blobs.isEmpty()) return blobs;
+        blobRepository.deleteAllInBatch(blobs);
+        List<String> filePaths = blobs.stream().map(Blob::getFilePath).toList();
+        runAfterCommit(() -> deleteFiles(filePaths));
+        return blobs;
+    }
+
+    private String store(String contentHash, String extension, Long fileSize, String contentType, Consumer<String> upload) {
+        Optional<String> storedFilePath = findStoredFile(contentHash);
+        if (storedFilePath.isPresent()) return storedFilePath.get();
+        String filePath = createFilePath(extension);
+        upload.accept(filePath);
+        return save(contentHash, filePath, fileSize, contentType);
+    }
+
+    // Keys are never reused, so an object deleted after its row is collected cannot be a new upload
+    private String createFilePath(String extension) {
+        return extension.isBlank() ? UUID.randomUUID().toString() : UUID.randomUUID() + "." + extension;
+    }
+
+    private Optional<String> findStoredFile(String contentHash) {
+        return blobRepository.findByContentHash(contentHash)
+                .filter(blob -> blobRepository.touch(blob.getId(), Instant.now()) > 0)
+                .map(Blob::getFilePath);
+    }
+
+    // Runs outside the caller's transaction so a concurrent upload of the same content that
+    // wins the unique constraint is visible here and its row is reused instead of failing
+    private String save(String contentHash, String filePath, Long fileSize, String contentType) {
+        Blob blob = Blob.builder()
+                .contentHash(contentHash)
+                .filePath(filePath)
+                .fileSize(fileSize)
+                .contentType(contentType)
+                .lastUploadedAt(Instant.now())
+                .build();
+        try {
+            blobRepository.save(blob);
+            return filePath;
+        }
+        catch (DataIntegrityViolationException e) {
+            String storedFilePath = findStoredFile(contentHash).orElseThrow(() -> e);
+            fileUploadService.deleteFiles(List.of(filePath));
+            return storedFilePath;
+        }
+    }
+
+    private void deleteFiles(List<String> filePaths) {
+        try {
+            fileUploadService.deleteFiles(filePaths);
+        }
+        catch (RuntimeException e) {
+            log.error("Failed to delete {} collected blob files, they are no longer tracked: {}", filePaths.size(), filePaths, e);
+        }
+    }
+
+    private void runAfterCommit(Runnable runnable) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
+                }
+            });
+        }
+        else {
+            runnable.run();
+        }
+    }
+
+    private String getContentHash(InputStream inputStream) throws IOException {
+        try (DigestInputStream digestInputStream = new DigestInputStream(inputStream, createDigest())) {
+            digestInputStream.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(digestInputStream.getMessageDigest().digest());
+        }
+    }
+
+    private MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.chatter.chatter.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BroadcastService {
+
+    @Value("${app.broadcast.queue-capacity}")
+    private int queueCapacity;
+
+    private final SimpMessagingTemplate simpMessagingTemplate;
+
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("broadcast-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    public void broadcast(String destination, Object payload) {
+        enqueue(new Object(), destination, payload);
+    }
+
+    public void broadcastLatest(String destination, Object key, Object payload) {
+        enqueue(List.of(destination, key), destination, payload);
+    }
+
+    private void enqueue(Object eventKey, String destination, Object payload) {
+        BroadcastEvent event = new BroadcastEvent(destination, payload);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(List.of(event));
+            return;
+        }
+        getPendingEvents().put(eventKey, event);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, BroadcastEvent> getPendingEvents() {
+        Map<Object, BroadcastEvent> events = (Map<Object, BroadcastEvent>) TransactionSynchronizationManager.getResource(this);
+        if (events != null) {
+            return events;
+        }
+        Map<Object, BroadcastEvent> pendingEvents = new LinkedHashMap<>();
+        TransactionSynchronizationManager.bindResource(this, pendingEvents);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(new ArrayList<>(pendingEvents.values()));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(BroadcastService.this);
+            }
+        });
+        return pendingEvents;
+    }
+
+    private void dispatch(List<BroadcastEvent> events) {
+        executor.execute(() -> {
+            for (BroadcastEvent event : events) {
+                try {
+                    simpMessagingTemplate.convertAndSend(event.destination(), event.payload());
+                }
+                catch (RuntimeException e) {
+                    log.warn("Failed to broadcast to {}: {}", event.destination(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    private record BroadcastEvent(String destination, Object payload) {}
+
+}
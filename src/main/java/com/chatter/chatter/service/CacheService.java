@@ -1,54 +1,137 @@
 package com.chatter.chatter.service;
 
+import com.chatter.chatter.cache.CacheGenerationMessage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.redis.core.Cursor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class CacheService {
 
+    private static final String GENERATION_KEY_PREFIX = "cache-generation:";
+
+    @Value("${spring.cache.redis.time-to-live}")
+    private Duration timeToLive;
+
+    @Value("${app.cache.local.maximum-size}")
+    private long localMaximumSize;
+
+    @Value("${app.cache.local.time-to-live}")
+    private Duration localTimeToLive;
+
     private final RedisTemplate<String, Object> redisTemplate;
 
-    public void evictCache(String pattern) {
-        ScanOptions options = ScanOptions.scanOptions()
-                .match(pattern)
-                .count(100)
+    private Cache<String, Long> localGenerations;
+
+    @PostConstruct
+    public void init() {
+        localGenerations = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTimeToLive)
                 .build();
-        try (Cursor<String> cursor = redisTemplate.scan(options)) {
-            List<String> keys = new ArrayList<>();
-            while (cursor.hasNext()) {
-                keys.add(cursor.next());
-                if (keys.size() >= 100) {
-                    redisTemplate.unlink(keys);
-                    keys.clear();
-                }
-            }
-            if (!keys.isEmpty()) {
-                redisTemplate.unlink(keys);
+    }
+
+    public long getGeneration(String namespace) {
+        return localGenerations.get(namespace, this::loadGeneration);
+    }
+
+    // Folds the generations of several namespaces into one key component, a bump of any of them changes it
+    public long getGenerations(List<String> namespaces) {
+        if (namespaces.isEmpty()) return 0L;
+        Map<String, Long> generations = localGenerations.getAll(namespaces, this::loadGenerations);
+        long combined = 1L;
+        for (String namespace : namespaces) {
+            combined = 31 * combined + generations.getOrDefault(namespace, 0L);
+        }
+        return combined;
+    }
+
+    public void handleInvalidation(CacheGenerationMessage message) {
+        if (message.getNamespaces() != null) {
+            localGenerations.invalidateAll(message.getNamespaces());
+        }
+    }
+
+    public void incrementGeneration(String namespace) {
+        incrementGenerations(List.of(namespace));
+    }
+
+    public void incrementGenerations(Collection<String> namespaces) {
+        if (namespaces.isEmpty()) return;
+        long seconds = getGenerationTimeToLive().toSeconds();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String namespace : namespaces) {
+                incrementGeneration(connection, namespace, seconds);
             }
+            return null;
+        });
+        localGenerations.invalidateAll(namespaces);
+        try {
+            redisTemplate.convertAndSend(CacheGenerationMessage.CHANNEL, new CacheGenerationMessage(new ArrayList<>(namespaces)));
+        }
+        catch (RuntimeException e) {
+            log.warn("Failed to publish cache generation invalidation: {}", e.getMessage());
         }
     }
 
-    public void evictCacheSynchronized(String pattern) {
+    public void incrementGenerationSynchronized(String namespace) {
         if (TransactionSynchronizationManager.isActualTransactionActive()) {
             TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
                 @Override
                 public void afterCommit() {
-                    evictCache(pattern);
+                    incrementGeneration(namespace);
                 }
             });
         }
         else {
-            evictCache(pattern);
+            incrementGeneration(namespace);
+        }
+    }
+
+    private long loadGeneration(String namespace) {
+        Object generation = redisTemplate.opsForValue().getAndExpire(GENERATION_KEY_PREFIX + namespace, getGenerationTimeToLive());
+        return generation instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private Map<String, Long> loadGenerations(Set<? extends String> namespaces) {
+        List<String> keys = new ArrayList<>(namespaces);
+        List<Object> values = redisTemplate.opsForValue().multiGet(keys.stream().map(namespace -> GENERATION_KEY_PREFIX + namespace).toList());
+        Map<String, Long> generations = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            Object generation = values != null ? values.get(i) : null;
+            generations.put(keys.get(i), generation instanceof Number number ? number.longValue() : 0L);
         }
+        return generations;
+    }
+
+    private void incrementGeneration(RedisConnection connection, String namespace, long seconds) {
+        byte[] key = (GENERATION_KEY_PREFIX + namespace).getBytes(StandardCharsets.UTF_8);
+        connection.stringCommands().incr(key);
+        connection.keyCommands().expire(key, seconds);
+    }
+
+    private Duration getGenerationTimeToLive() {
+        return timeToLive.multipliedBy(2);
     }
 
 }
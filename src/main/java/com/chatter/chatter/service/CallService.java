@@ -0,0 +1,210 @@
+package com.chatter.chatter.service;
+
+import com.chatter.chatter.dto.CallDto;
+import com.chatter.chatter.dto.CallSignalDto;
+import com.chatter.chatter.exception.BadRequestException;
+import com.chatter.chatter.exception.ForbiddenException;
+import com.chatter.chatter.exception.NotFoundException;
+import com.chatter.chatter.model.CallSignalType;
+import com.chatter.chatter.model.Chat;
+import com.chatter.chatter.model.MessageType;
+import com.chatter.chatter.request.CallPostRequest;
+import com.chatter.chatter.request.CallSignalRequest;
+import com.chatter.chatter.request.SingleMessageRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CallService {
+
+    private static final String CALL_KEY = "call:";
+    private static final String EXPIRATIONS_KEY = "calls_expirations";
+    private static final String CALLS_DESTINATION = "/queue/calls";
+
+    private static final Set<CallSignalType> CLIENT_SIGNAL_TYPES = EnumSet.of(
+            CallSignalType.ACCEPT,
+            CallSignalType.DECLINE,
+            CallSignalType.OFFER,
+            CallSignalType.ANSWER,
+            CallSignalType.CANDIDATE
+    );
+
+    private static final String CHAT_ID = "chatId";
+    private static final String CALLER_ID = "callerId";
+    private static final String CALLER_EMAIL = "callerEmail";
+    private static final String PARTICIPANTS_IDS = "participantsIds";
+    private static final String CREATED_AT = "createdAt";
+    private static final String ANSWERED_AT = "answeredAt";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ChatService chatService;
+    private final MemberService memberService;
+    private final MessageService messageService;
+    private final EphemeralEventBus ephemeralEventBus;
+
+    @Value("${app.call.ring-timeout}")
+    private Duration ringTimeout;
+
+    @Value("${app.call.max-duration}")
+    private Duration maxDuration;
+
+    public CallDto createCall(Long userId, String email, CallPostRequest request) {
+        Chat chat = chatService.getChatEntityIfMember(email, request.getChatId());
+        List<Long> participantsIds = memberService.getMembersEntitiesByChat(chat.getId(), null, null).stream()
+                .map(member -> member.getUser().getId())
+                .toList();
+        if (participantsIds.size() < 2) {
+            throw new BadRequestException("chatId", "A call requires at least two participants");
+        }
+        String callId = UUID.randomUUID().toString();
+        Map<String, String> call = new HashMap<>();
+        call.put(CHAT_ID, chat.getId().toString());
+        call.put(CALLER_ID, userId.toString());
+        call.put(CALLER_EMAIL, email);
+        call.put(PARTICIPANTS_IDS, String.join(",", participantsIds.stream().map(String::valueOf).toList()));
+        call.put(CREATED_AT, String.valueOf(Instant.now().toEpochMilli()));
+        redisTemplate.opsForHash().putAll(CALL_KEY + callId, call);
+        redisTemplate.expire(CALL_KEY + callId, maxDuration.plus(ringTimeout));
+        redisTemplate.opsForZSet().add(EXPIRATIONS_KEY, callId, Instant.now().plus(ringTimeout).toEpochMilli());
+        sendSignal(callId, call, userId, CallSignalType.RING, null, null);
+        return toDto(callId, call);
+    }
+
+    public CallDto getCall(Long userId, String callId) {
+        return toDto(callId, getCallEntries(userId, callId));
+    }
+
+    public void signal(Long userId, String callId, CallSignalRequest request) {
+        if (request.getType() == null || !CLIENT_SIGNAL_TYPES.contains(request.getType())) {
+            throw new BadRequestException("type", "Unsupported signal type");
+        }
+        Map<String, String> call = getCallEntries(userId, callId);
+        boolean isCaller = userId.toString().equals(call.get(CALLER_ID));
+        if (request.getType() == CallSignalType.ACCEPT && !isCaller && !call.containsKey(ANSWERED_AT)) {
+            answerCall(callId, call);
+        }
+        if (request.getType() == CallSignalType.DECLINE && !call.containsKey(ANSWERED_AT) && getParticipantsIds(call).size() == 2) {
+            endCall(callId, call, userId);
+            return;
+        }
+        sendSignal(callId, call, userId, request.getType(), request.getTargetUserId(), request.getPayload());
+    }
+
+    // Socket signals have no response, so a rejected signal is reported on the sender's call queue
+    public void handleSignal(Long userId, String callId, CallSignalRequest request) {
+        try {
+            signal(userId, callId, request);
+        }
+        catch (BadRequestException | NotFoundException | ForbiddenException e) {
+            CallSignalDto error = CallSignalDto.builder()
+                    .callId(callId)
+                    .type(CallSignalType.ERROR)
+                    .payload(e.getMessage())
+                    .build();
+            ephemeralEventBus.publishToUser(userId, CALLS_DESTINATION, error);
+        }
+    }
+
+    public void endCall(Long userId, String callId) {
+        endCall(callId, getCallEntries(userId, callId), userId);
+    }
+
+    @Scheduled(fixedDelay = 10 * 1000, initialDelay = 10 * 1000)
+    public void endExpiredCalls() {
+        Set<String> callIds = redisTemplate.opsForZSet().rangeByScore(EXPIRATIONS_KEY, 0, Instant.now().toEpochMilli());
+        if (callIds == null) return;
+        for (String callId : callIds) {
+            try {
+                Map<String, String> call = redisTemplate.<String, String>opsForHash().entries(CALL_KEY + callId);
+                if (call.isEmpty()) {
+                    redisTemplate.opsForZSet().remove(EXPIRATIONS_KEY, callId);
+                    continue;
+                }
+                endCall(callId, call, null);
+            }
+            catch (RuntimeException e) {
+                log.warn("Failed to end expired call {}", callId, e);
+            }
+        }
+    }
+
+    private void answerCall(String callId, Map<String, String> call) {
+        String answeredAt = String.valueOf(Instant.now().toEpochMilli());
+        if (!redisTemplate.opsForHash().putIfAbsent(CALL_KEY + callId, ANSWERED_AT, answeredAt)) return;
+        call.put(ANSWERED_AT, answeredAt);
+        redisTemplate.opsForZSet().add(EXPIRATIONS_KEY, callId, Instant.now().plus(maxDuration).toEpochMilli());
+    }
+
+    private void endCall(String callId, Map<String, String> call, Long userId) {
+        Long removed = redisTemplate.opsForZSet().remove(EXPIRATIONS_KEY, callId);
+        if (removed == null || removed == 0) return;
+        redisTemplate.delete(CALL_KEY + callId);
+        sendSignal(callId, call, userId, CallSignalType.END, null, null);
+        SingleMessageRequest request = new SingleMessageRequest();
+        request.setChatId(Long.parseLong(call.get(CHAT_ID)));
+        request.setMessageType(MessageType.CALL);
+        String answeredAt = call.get(ANSWERED_AT);
+        request.setMissed(answeredAt == null);
+        if (answeredAt != null) {
+            request.setDuration(Duration.between(Instant.ofEpochMilli(Long.parseLong(answeredAt)), Instant.now()).toSeconds());
+        }
+        messageService.createMessage(call.get(CALLER_EMAIL), request);
+    }
+
+    private void sendSignal(String callId, Map<String, String> call, Long fromUserId, CallSignalType type, Long targetUserId, String payload) {
+        CallSignalDto signal = CallSignalDto.builder()
+                .callId(callId)
+                .chatId(Long.parseLong(call.get(CHAT_ID)))
+                .type(type)
+                .fromUserId(fromUserId)
+                .payload(payload)
+                .build();
+        List<Long> participantsIds = getParticipantsIds(call);
+        if (targetUserId != null) {
+            if (!participantsIds.contains(targetUserId) || targetUserId.equals(fromUserId)) {
+                throw new BadRequestException("targetUserId", "User is not a participant of the call");
+            }
+            ephemeralEventBus.publishToUser(targetUserId, CALLS_DESTINATION, signal);
+            return;
+        }
+        for (Long participantId : participantsIds) {
+            if (participantId.equals(fromUserId)) continue;
+            ephemeralEventBus.publishToUser(participantId, CALLS_DESTINATION, signal);
+        }
+    }
+
+    private Map<String, String> getCallEntries(Long userId, String callId) {
+        Map<String, String> call = new HashMap<>(redisTemplate.<String, String>opsForHash().entries(CALL_KEY + callId));
+        if (call.isEmpty() || !getParticipantsIds(call).contains(userId)) {
+            throw new NotFoundException("call", "Call not found");
+        }
+        return call;
+    }
+
+    private List<Long> getParticipantsIds(Map<String, String> call) {
+        return Arrays.stream(call.get(PARTICIPANTS_IDS).split(",")).map(Long::parseLong).toList();
+    }
+
+    private CallDto toDto(String callId, Map<String, String> call) {
+        String answeredAt = call.get(ANSWERED_AT);
+        return CallDto.builder()
+                .id(callId)
+                .chatId(Long.parseLong(call.get(CHAT_ID)))
+                .callerId(Long.parseLong(call.get(CALLER_ID)))
+                .participantsIds(getParticipantsIds(call))
+                .createdAt(Instant.ofEpochMilli(Long.parseLong(call.get(CREATED_AT))))
+                .answeredAt(answeredAt != null ? Instant.ofEpochMilli(Long.parseLong(answeredAt)) : null)
+                .build();
+    }
+
+}
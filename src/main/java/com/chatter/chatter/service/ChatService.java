@@ -14,10 +14,6 @@ import com.chatter.chatter.specification.ChatSpecification;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.redis.core.Cursor;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ScanOptions;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -37,11 +33,11 @@ public class ChatService {
 
     private final ChatRepository chatRepository;
     private final MemberService memberService;
-    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final BroadcastService broadcastService;
     private final ChatMapper chatMapper;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheService cacheService;
     private final FileValidationService fileValidationService;
-    private final FileUploadService fileUploadService;
+    private final BlobService blobService;
 
     @Transactional
     public Chat createChat(Set<Long> usersIds) {
@@ -54,7 +50,7 @@ public class ChatService {
         for (Member member : createdChat.getMembers()) {
             broadcastCreatedChat(member.getUser(), createdChat);
         }
-        evictChatCache(createdChat);
+        evictChatCacheForMembers(createdChat);
         return createdChat;
     }
 
@@ -77,7 +73,7 @@ public class ChatService {
             if (!fileValidationService.isSizeValid(imageFile, maxImageSize)) {
                 throw new BadRequestException("groupImage", "File size exceeds maximum size");
             }
-            String filePath = fileUploadService.uploadFile(imageFile);
+            String filePath = blobService.uploadFile(imageFile);
             groupChat.setImage(filePath);
         }
         else {
@@ -85,7 +81,7 @@ public class ChatService {
         }
         GroupChat createdChat = chatRepository.save(groupChat);
         Member member = memberService.createMember(email, createdChat, MemberRole.OWNER);
-        evictChatCache(createdChat);
+        evictChatCacheForUser(email);
         broadcastCreatedChat(member.getUser(), createdChat);
         return createdChat;
     }
@@ -137,7 +133,7 @@ public class ChatService {
             if (!fileValidationService.isSizeValid(imageFile, maxImageSize)) {
                 throw new BadRequestException("groupImage", imageFile.getOriginalFilename() + " exceeds the maximum allowed size of " + (maxImageSize / (1024 * 1024)) + " MB.");
             }
-            String filePath = fileUploadService.uploadFile(imageFile);
+            String filePath = blobService.uploadFile(imageFile);
             groupChat.setImage(filePath);
         }
         else {
@@ -176,7 +172,9 @@ public class ChatService {
 
     @Cacheable(
             value = "chats",
-            key = "'email:' + #userEmail + ':searchEmail:' + (#email != null ? #email : 'null') + ':description:' + (#description != null ? #description : 'null')"
+            key = "'email:' + #userEmail + ':searchEmail:' + (#email != null ? #email : 'null') + ':description:' + (#description != null ? #description : 'null') + " +
+                    "':generation:' + @cacheService.getGeneration('chats:email:' + #userEmail) + " +
+                    "':chatsGeneration:' + @cacheService.getGenerations(@chatService.getChatNamespaces(#userEmail))"
     )
     public List<ChatDto> getAllChatsByEmail(String userEmail, String email, String description) {
         List<Chat> chats = chatRepository.findAll(ChatSpecification.withFilters(userEmail, email, description));
@@ -185,7 +183,11 @@ public class ChatService {
         return chatMapper.toDtoList(chats, chatStatusProjections, userEmail);
     }
 
-    @Cacheable(value = "chats", key = "'email:' + #email + ':chatId:' + #chatId")
+    @Cacheable(
+            value = "chats",
+            key = "'email:' + #email + ':chatId:' + #chatId + ':generation:' + @cacheService.getGeneration('chats:email:' + #email) + " +
+                    "':chatGeneration:' + @cacheService.getGeneration('chats:chatId:' + #chatId)"
+    )
     public ChatDto getChat(String email, Long chatId) {
         Chat chat = getChatEntityIfMember(email, chatId);
         List<ChatStatusProjection> chatStatusProjections = getChatStatusProjections(Set.of(email), Set.of(chatId));
@@ -218,18 +220,18 @@ public class ChatService {
         Set<String> emails = members.stream().map(member -> member.getUser().getEmail()).collect(Collectors.toSet());
         List<ChatStatusProjection> projections = getChatStatusProjections(emails, Set.of(chat.getId()));
         for (ChatStatusProjection projection : projections) {
-            simpMessagingTemplate.convertAndSend("/topic/users." + projection.getUserId() + ".updated-chats", chatMapper.toDto(chat, projection, projection.getUserEmail()));
+            broadcastService.broadcastLatest("/topic/users." + projection.getUserId() + ".updated-chats", chat.getId(), chatMapper.toDto(chat, projection, projection.getUserEmail()));
         }
     }
 
     public void broadcastChatDelete(User user, Chat chat) {
-        simpMessagingTemplate.convertAndSend("/topic/users." + user.getId() + ".deleted-chats", chat.getId());
+        broadcastService.broadcast("/topic/users." + user.getId() + ".deleted-chats", chat.getId());
     }
 
     public void broadcastCreatedChat(User user, Chat chat) {
         List<ChatStatusProjection> projections = getChatStatusProjections(Set.of(user.getEmail()), Set.of(chat.getId()));
         if (!projections.isEmpty()) {
-            simpMessagingTemplate.convertAndSend("/topic/users." + user.getId() + ".created-chats", chatMapper.toDto(chat, projections.getFirst(), user.getEmail()));
+            broadcastService.broadcast("/topic/users." + user.getId() + ".created-chats", chatMapper.toDto(chat, projections.getFirst(), user.getEmail()));
         }
     }
 
@@ -237,37 +239,29 @@ public class ChatService {
         return chatRepository.findChatStatus(emails, chatsIds);
     }
 
+    // Chat lists are keyed by the generations of the chats they contain, so a change to one chat
+    // is a single bump however many members it has
+    @Cacheable(value = "chat-namespaces", key = "'email:' + #email + ':generation:' + @cacheService.getGeneration('chats:email:' + #email)")
+    public List<String> getChatNamespaces(String email) {
+        return memberService.getChatIds(email).stream()
+                .sorted()
+                .map(chatId -> "chats:chatId:" + chatId)
+                .toList();
+    }
+
     public void evictChatCache(Chat chat) {
-        Set<Member> members = chat.getMembers();
-        for (Member member : members) {
-            String pattern = "chats::email:" + member.getUser().getEmail() + "*";
-            evictCache(pattern);
-        }
+        cacheService.incrementGeneration("chats:chatId:" + chat.getId());
     }
 
-    public void evictChatCacheForUser(String email) {
-        String pattern = "chats::email:" + email + "*";
-        evictCache(pattern);
+    public void evictChatCacheForMembers(Chat chat) {
+        Set<String> namespaces = chat.getMembers().stream()
+                .map(member -> "chats:email:" + member.getUser().getEmail())
+                .collect(Collectors.toSet());
+        cacheService.incrementGenerations(namespaces);
     }
 
-    private void evictCache(String pattern) {
-        ScanOptions options = ScanOptions.scanOptions()
-                .match(pattern)
-                .count(100)
-                .build();
-        try (Cursor<String> cursor = redisTemplate.scan(options)) {
-            List<String> keys = new ArrayList<>();
-            while (cursor.hasNext()) {
-                keys.add(cursor.next());
-                if (keys.size() >= 100) {
-                    redisTemplate.delete(keys);
-                    keys.clear();
-                }
-            }
-            if (!keys.isEmpty()) {
-                redisTemplate.delete(keys);
-            }
-        }
+    public void evictChatCacheForUser(String email) {
+        cacheService.incrementGeneration("chats:email:" + email);
     }
 
 }
\ No newline at end of file
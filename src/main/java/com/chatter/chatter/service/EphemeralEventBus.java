@@ -0,0 +1,271 @@
+package com.chatter.chatter.service;
+
+import com.chatter.chatter.event.EphemeralEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Service
+public class EphemeralEventBus {
+
+    public static final String CHANNEL = "ephemeral-events";
+
+    private static final String TEXT_CONTENT_TYPE = "text/plain;charset=UTF-8";
+
+    private static final List<Pattern> EPHEMERAL_DESTINATIONS = List.of(
+            Pattern.compile("/topic/users\\.\\d+"),
+            Pattern.compile("/topic/chat\\.\\d+\\.(added|removed)-typing-users")
+    );
+
+    private static final String USER_DESTINATION_PREFIX = "/user/";
+
+    private static final Set<String> EPHEMERAL_USER_DESTINATIONS = Set.of("/queue/calls", "/queue/message-acks");
+
+    // Call signaling breaks if a signal is lost, so these run on their own lanes and wait a bounded
+    // time for queue space instead of being dropped behind a burst of typing events
+    private static final Set<String> RELIABLE_USER_DESTINATIONS = Set.of("/queue/calls");
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final MessageChannel clientOutboundChannel;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Set<Subscription>> subscriptionsByDestination = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Map<String, String>> destinationsBySession = new ConcurrentHashMap<>();
+
+    @Value("${app.ephemeral.pool-size}")
+    private int poolSize;
+
+    @Value("${app.ephemeral.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${app.ephemeral.reliable-offer-timeout}")
+    private Duration reliableOfferTimeout;
+
+    // One single-threaded lane per destination hash keeps events for a destination in publish order
+    private final List<ThreadPoolTaskExecutor> executors = new ArrayList<>();
+
+    private final List<ThreadPoolTaskExecutor> reliableExecutors = new ArrayList<>();
+
+    private Counter droppedEvents;
+
+    private Counter rejectedReliableEvents;
+
+    public EphemeralEventBus(
+            @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+            RedisTemplate<String, String> redisTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        droppedEvents = meterRegistry.counter("ephemeral.events.dropped");
+        rejectedReliableEvents = meterRegistry.counter("ephemeral.events.reliable.rejected");
+        for (int i = 0; i < poolSize; i++) {
+            executors.add(createExecutor("ephemeral-events-" + i, (_, _) -> droppedEvents.increment()));
+            // The Redis listener hands events over on a single thread, so a full reliable lane
+            // is waited on for a bounded time only and a signal that still does not fit is reported
+            reliableExecutors.add(createExecutor("ephemeral-reliable-events-" + i, (task, pool) -> {
+                try {
+                    if (!pool.isShutdown() && pool.getQueue().offer(task, reliableOfferTimeout.toMillis(), TimeUnit.MILLISECONDS)) return;
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                rejectedReliableEvents.increment();
+                log.warn("Rejected a reliable ephemeral event, its lane stayed full for {}", reliableOfferTimeout);
+            }));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executors.forEach(ThreadPoolTaskExecutor::shutdown);
+        reliableExecutors.forEach(ThreadPoolTaskExecutor::shutdown);
+    }
+
+    public void publish(String destination, Object payload) {
+        EphemeralEvent event;
+        try {
+            event = payload instanceof String text
+                    ? new EphemeralEvent(nodeId, destination, TEXT_CONTENT_TYPE, text)
+                    : new EphemeralEvent(nodeId, destination, MimeTypeUtils.APPLICATION_JSON_VALUE, objectMapper.writeValueAsString(payload));
+        }
+        catch (JsonProcessingException e) {
+            log.warn("Failed to serialize ephemeral event for {}: {}", destination, e.getMessage());
+            return;
+        }
+        execute(destination, () -> {
+            deliver(event);
+            try {
+                redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(event));
+            }
+            catch (JsonProcessingException | RuntimeException e) {
+                log.warn("Failed to publish ephemeral event for {}: {}", destination, e.getMessage());
+            }
+        });
+    }
+
+    public void publishToUser(Long userId, String destination, Object payload) {
+        publish(USER_DESTINATION_PREFIX + userId + destination, payload);
+    }
+
+    public void handleMessage(String message) {
+        EphemeralEvent event;
+        try {
+            event = objectMapper.readValue(message, EphemeralEvent.class);
+        }
+        catch (JsonProcessingException e) {
+            log.warn("Failed to read ephemeral event: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(event.getOrigin()) || !subscriptionsByDestination.containsKey(event.getDestination())) return;
+        execute(event.getDestination(), () -> deliver(event));
+    }
+
+    public boolean subscribe(String sessionId, String subscriptionId, String subscribedDestination, Long userId) {
+        String destination = resolveDestination(subscribedDestination, userId);
+        if (sessionId == null || subscriptionId == null || destination == null) return false;
+        destinationsBySession.computeIfAbsent(sessionId, _ -> new ConcurrentHashMap<>()).put(subscriptionId, destination);
+        subscriptionsByDestination.compute(destination, (_, subscriptions) -> {
+            Set<Subscription> destinationSubscriptions = subscriptions != null ? subscriptions : ConcurrentHashMap.newKeySet();
+            destinationSubscriptions.add(new Subscription(sessionId, subscriptionId));
+            return destinationSubscriptions;
+        });
+        return true;
+    }
+
+    public boolean unsubscribe(String sessionId, String subscriptionId) {
+        if (sessionId == null || subscriptionId == null) return false;
+        Map<String, String> destinations = destinationsBySession.get(sessionId);
+        String destination = destinations != null ? destinations.remove(subscriptionId) : null;
+        if (destination == null) return false;
+        removeSubscription(destination, new Subscription(sessionId, subscriptionId));
+        return true;
+    }
+
+    // Subscriptions claimed here never reach the broker, so a RECEIPT the client asked for has to come from us
+    public void sendReceipt(String sessionId, String receiptId) {
+        if (sessionId == null || receiptId == null) return;
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.RECEIPT);
+        accessor.setSessionId(sessionId);
+        accessor.setReceiptId(receiptId);
+        accessor.setLeaveMutable(true);
+        clientOutboundChannel.send(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+    }
+
+    public void removeSession(String sessionId) {
+        Map<String, String> destinations = destinationsBySession.remove(sessionId);
+        if (destinations == null) return;
+        destinations.forEach((subscriptionId, destination) -> removeSubscription(destination, new Subscription(sessionId, subscriptionId)));
+    }
+
+    private ThreadPoolTaskExecutor createExecutor(String name, RejectedExecutionHandler rejectedExecutionHandler) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(name + "-");
+        executor.setRejectedExecutionHandler(rejectedExecutionHandler);
+        executor.initialize();
+        ExecutorServiceMetrics.monitor(meterRegistry, executor.getThreadPoolExecutor(), name);
+        return executor;
+    }
+
+    private void execute(String destination, Runnable task) {
+        List<ThreadPoolTaskExecutor> lanes = isReliable(destination) ? reliableExecutors : executors;
+        lanes.get(Math.floorMod(destination.hashCode(), lanes.size())).execute(task);
+    }
+
+    private boolean isReliable(String destination) {
+        return destination.startsWith(USER_DESTINATION_PREFIX)
+                && RELIABLE_USER_DESTINATIONS.contains(destination.substring(destination.indexOf('/', USER_DESTINATION_PREFIX.length())));
+    }
+
+    private String resolveDestination(String destination, Long userId) {
+        if (destination == null) return null;
+        if (destination.startsWith(USER_DESTINATION_PREFIX)) {
+            String userDestination = destination.substring(USER_DESTINATION_PREFIX.length() - 1);
+            return userId != null && EPHEMERAL_USER_DESTINATIONS.contains(userDestination)
+                    ? USER_DESTINATION_PREFIX + userId + userDestination
+                    : null;
+        }
+        return EPHEMERAL_DESTINATIONS.stream().anyMatch(pattern -> pattern.matcher(destination).matches()) ? destination : null;
+    }
+
+    private String toClientDestination(String destination) {
+        if (!destination.startsWith(USER_DESTINATION_PREFIX)) return destination;
+        return "/user" + destination.substring(destination.indexOf('/', USER_DESTINATION_PREFIX.length()));
+    }
+
+    private void removeSubscription(String destination, Subscription subscription) {
+        subscriptionsByDestination.computeIfPresent(destination, (_, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+
+    private void deliver(EphemeralEvent event) {
+        Set<Subscription> subscriptions = subscriptionsByDestination.get(event.getDestination());
+        if (subscriptions == null) return;
+        byte[] payload = event.getPayload().getBytes(StandardCharsets.UTF_8);
+        MimeType contentType = MimeType.valueOf(event.getContentType());
+        String destination = toClientDestination(event.getDestination());
+        for (Subscription subscription : subscriptions) {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setSessionId(subscription.sessionId());
+            accessor.setSubscriptionId(subscription.subscriptionId());
+            accessor.setDestination(destination);
+            accessor.setContentType(contentType);
+            accessor.setLeaveMutable(true);
+            try {
+                clientOutboundChannel.send(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+            }
+            catch (RuntimeException e) {
+                log.debug("Failed to deliver ephemeral event to session {}: {}", subscription.sessionId(), e.getMessage());
+            }
+        }
+    }
+
+    private record Subscription(String sessionId, String subscriptionId) {}
+
+}
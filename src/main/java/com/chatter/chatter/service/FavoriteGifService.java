@@ -38,7 +38,7 @@ public class FavoriteGifService {
     @Value("${spring.cache.redis.time-to-live}")
     private Long timeToLive;
 
-    @Cacheable(value = "favorite-gifs-page", key = "'userId:' + #userId + ':pageNumber:' + #pageable.pageNumber + ':pageSize:' + #pageable.pageSize + ':sort:' + (#pageable.sort != null ? #pageable.sort : 'unsorted')")
+    @Cacheable(value = "favorite-gifs-page", key = "'userId:' + #userId + ':pageNumber:' + #pageable.pageNumber + ':pageSize:' + #pageable.pageSize + ':sort:' + (#pageable.sort != null ? #pageable.sort : 'unsorted') + ':generation:' + @cacheService.getGeneration('favorite-gifs-page:userId:' + #userId)")
     public PageDto<FavoriteGifDto> getFavoriteGifs(Long userId, Pageable pageable) {
         Page<FavoriteGifDto> favoriteGifsPage = favoriteGifRepository.findAllByUserId(userId, pageable).map(favoriteGifMapper::toDto);
         return new PageDto<>(favoriteGifsPage.getContent(), favoriteGifsPage.getTotalElements());
@@ -99,7 +99,7 @@ public class FavoriteGifService {
                 .gifId(request.getGifId())
                 .build();
         FavoriteGif created = favoriteGifRepository.save(favoriteGif);
-        cacheService.evictCacheSynchronized("favorite-gifs-page::userId:" + userId + "*");
+        cacheService.incrementGenerationSynchronized("favorite-gifs-page:userId:" + userId);
         return created;
     }
 
@@ -113,7 +113,7 @@ public class FavoriteGifService {
         if (count == 0) {
             throw new NotFoundException("favoriteGif", "not found");
         }
-        cacheService.evictCacheSynchronized("favorite-gifs-page::userId:" + userId + "*");
+        cacheService.incrementGenerationSynchronized("favorite-gifs-page:userId:" + userId);
     }
 
 }
@@ -1,11 +1,53 @@
 package com.chatter.chatter.service;
 
+import com.chatter.chatter.dto.FileMetadata;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 public interface FileUploadService {
 
     String uploadFile(MultipartFile file);
 
+    void uploadFile(MultipartFile file, String fileName);
+
+    void uploadFile(InputStream inputStream, String contentType, String fileName);
+
+    InputStream getFile(String fileName);
+
     String getFileUrl(String fileName);
 
+    void deleteFiles(Collection<String> fileNames);
+
+    String getUploadUrl(String fileName, String contentType, Long contentLength);
+
+    FileMetadata getFileMetadata(String fileName);
+
+    String copyFile(String sourceFileName, String targetFileName, String eTag);
+
+    byte[] getFilePrefix(String fileName, int length);
+
+    byte[] getFileRange(String fileName, long offset, int length);
+
+    String createMultipartUpload(String fileName, String contentType);
+
+    String uploadPart(String fileName, String uploadId, int partNumber, byte[] bytes);
+
+    String completeMultipartUpload(String fileName, String uploadId, Map<Integer, String> eTags);
+
+    void abortMultipartUpload(String fileName, String uploadId);
+
+    default Map<String, String> getFileUrls(Collection<String> fileNames) {
+        Map<String, String> fileUrls = new HashMap<>();
+        for (String fileName : fileNames) {
+            if (fileName != null && !fileName.isBlank()) {
+                fileUrls.put(fileName, getFileUrl(fileName));
+            }
+        }
+        return fileUrls;
+    }
+
 }
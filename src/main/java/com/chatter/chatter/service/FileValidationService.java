@@ -6,6 +6,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Set;
 
 @Service
@@ -14,20 +15,49 @@ public class FileValidationService {
 
     private static final Set<String> allowedImageMimeTypes = Set.of("image/jpeg", "image/png", "image/gif", "image/bmp", "image/webp", "image/tiff", "image/svg+xml");
     private static final Set<String> allowedVideoMimeTypes = Set.of("video/mp4", "video/quicktime", "video/x-msvideo", "video/x-matroska", "video/webm");
-    private static final Set<String> allowedAudioMimeTypes = Set.of("audio/mpeg", "audio/wav", "audio/ogg", "audio/aac", "audio/flac", "audio/webm");
+    private static final Set<String> allowedAudioMimeTypes = Set.of("audio/mpeg", "audio/wav", "audio/vnd.wave", "audio/ogg", "audio/aac", "audio/flac", "audio/webm");
+
+    public static final int MIME_TYPE_DETECTION_PREFIX_SIZE = 64 * 1024;
 
     private final Tika tika;
 
     public boolean isImage(MultipartFile file) {
-        return validateType(file, allowedImageMimeTypes);
+        return isImage(detectMimeType(file));
     }
 
     public boolean isVideo(MultipartFile file) {
-        return validateType(file, allowedVideoMimeTypes);
+        return isVideo(detectMimeType(file));
     }
 
     public boolean isAudio(MultipartFile file) {
-        return validateType(file, allowedAudioMimeTypes);
+        return isAudio(detectMimeType(file));
+    }
+
+    public boolean isImage(String mimeType) {
+        return mimeType != null && allowedImageMimeTypes.contains(mimeType);
+    }
+
+    public boolean isVideo(String mimeType) {
+        return mimeType != null && allowedVideoMimeTypes.contains(mimeType);
+    }
+
+    public boolean isAudio(String mimeType) {
+        return mimeType != null && allowedAudioMimeTypes.contains(mimeType);
+    }
+
+    public String detectMimeType(MultipartFile file) {
+        if (file == null || file.getContentType() == null || file.isEmpty()) return null;
+        try (InputStream inputStream = file.getInputStream()) {
+            return tika.detect(inputStream.readNBytes(MIME_TYPE_DETECTION_PREFIX_SIZE));
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    public String detectMimeType(byte[] prefix) {
+        if (prefix == null || prefix.length == 0) return null;
+        return tika.detect(prefix);
     }
 
     public boolean isSizeValid(MultipartFile file, Long size) {
@@ -40,15 +70,4 @@ public class FileValidationService {
         return (dotIndex == -1) ? "" : fileName.substring(dotIndex + 1);
     }
 
-    private boolean validateType(MultipartFile file, Set<String> mimeTypes) {
-        if (file == null || file.getContentType() == null || file.isEmpty()) return false;
-        try {
-            String mimeType = tika.detect(file.getInputStream());
-            return mimeTypes.contains(mimeType);
-        }
-        catch (IOException e) {
-            return false;
-        }
-    }
-
 }
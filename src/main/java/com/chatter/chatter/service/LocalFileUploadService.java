@@ -0,0 +1,457 @@
+package com.chatter.chatter.service;
+
+import com.chatter.chatter.dto.FileMetadata;
+import com.chatter.chatter.dto.MediaStreamResult;
+import com.chatter.chatter.exception.BadRequestException;
+import com.chatter.chatter.exception.ForbiddenException;
+import com.chatter.chatter.exception.NotFoundException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UriUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Primary
+@Profile("local-storage")
+public class LocalFileUploadService implements FileUploadService {
+
+    private static final String MULTIPART_DIRECTORY = ".multipart";
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+
+    private final FileValidationService fileValidationService;
+
+    @Value("${app.storage.local.root}")
+    private Path root;
+
+    @Value("${app.storage.local.base-url}")
+    private String baseUrl;
+
+    @Value("${app.storage.local.signing-key}")
+    private String signingKey;
+
+    @Value("${app.storage.local.url-expiry}")
+    private Duration urlExpiry;
+
+    private SecretKeySpec secretKey;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = root.toAbsolutePath().normalize();
+        Files.createDirectories(root.resolve(MULTIPART_DIRECTORY));
+        // A per-process key would break urls signed by other instances or before a restart
+        if (signingKey == null || signingKey.isBlank()) {
+            throw new IllegalStateException("app.storage.local.signing-key must be set when using local storage");
+        }
+        secretKey = new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), SIGNATURE_ALGORITHM);
+    }
+
+    @Override
+    public String uploadFile(MultipartFile file) {
+        String extension = fileValidationService.getFileExtension(file.getOriginalFilename());
+        String filename = UUID.randomUUID() + "." + extension;
+        uploadFile(file, filename);
+        return filename;
+    }
+
+    @Override
+    public void uploadFile(MultipartFile file, String filename) {
+        try (InputStream inputStream = file.getInputStream()) {
+            write(filename, inputStream);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void uploadFile(InputStream inputStream, String contentType, String filename) {
+        try {
+            write(filename, inputStream);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public InputStream getFile(String filename) {
+        try {
+            return Files.newInputStream(resolve(filename));
+        }
+        catch (NoSuchFileException e) {
+            throw new NotFoundException("file", "File not found");
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public String getFileUrl(String filename) {
+        if (filename == null || filename.isBlank()) return null;
+        long expires = getUrlExpiration();
+        return baseUrl + "/files/" + UriUtils.encodePath(filename, StandardCharsets.UTF_8)
+                + "?expires=" + expires + "&signature=" + sign("GET", filename, String.valueOf(expires));
+    }
+
+    @Override
+    public void deleteFiles(Collection<String> filenames) {
+        for (String filename : filenames) {
+            try {
+                Files.deleteIfExists(resolve(filename));
+            }
+            catch (IOException e) {
+                throw new RuntimeException("Failed to delete " + filename + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public String getUploadUrl(String filename, String contentType, Long contentLength) {
+        long expires = getUrlExpiration();
+        return baseUrl + "/files/" + UriUtils.encodePath(filename, StandardCharsets.UTF_8)
+                + "?expires=" + expires + "&signature=" + sign("PUT", filename, contentType, contentLength.toString(), String.valueOf(expires));
+    }
+
+    @Override
+    public FileMetadata getFileMetadata(String filename) {
+        Path path = resolve(filename);
+        if (!Files.isRegularFile(path)) return null;
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            String contentType = MediaTypeFactory.getMediaType(filename).map(MediaType::toString).orElse(null);
+            return new FileMetadata(Files.size(path), contentType, "\"" + HexFormat.of().formatHex(digest.digest()) + "\"");
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String copyFile(String sourceFilename, String targetFilename, String eTag) {
+        Path source = resolve(sourceFilename);
+        Path target = resolve(targetFilename);
+        try {
+            Files.createDirectories(target.getParent());
+            Path temporary = Files.createTempFile(target.getParent(), ".copy-", ".tmp");
+            try {
+                MessageDigest digest = MessageDigest.getInstance("MD5");
+                try (InputStream inputStream = new DigestInputStream(Files.newInputStream(source), digest)) {
+                    Files.copy(inputStream, temporary, StandardCopyOption.REPLACE_EXISTING);
+                }
+                String copiedETag = "\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+                if (!copiedETag.equals(eTag)) return null;
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                return copiedETag;
+            }
+            finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+        catch (NoSuchFileException e) {
+            return null;
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public byte[] getFilePrefix(String filename, int length) {
+        try (InputStream inputStream = getFile(filename)) {
+            return inputStream.readNBytes(length);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public byte[] getFileRange(String filename, long offset, int length) {
+        try (InputStream inputStream = getFile(filename)) {
+            inputStream.skipNBytes(offset);
+            return inputStream.readNBytes(length);
+        }
+        catch (EOFException e) {
+            return new byte[0];
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public String createMultipartUpload(String filename, String contentType) {
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            Files.createDirectories(getMultipartDirectory(uploadId));
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        return uploadId;
+    }
+
+    @Override
+    public String uploadPart(String filename, String uploadId, int partNumber, byte[] bytes) {
+        Path directory = getMultipartDirectory(uploadId);
+        if (!Files.isDirectory(directory)) {
+            throw new NotFoundException("uploadId", "Multipart upload not found");
+        }
+        try {
+            Path temporary = Files.createTempFile(directory, "part-", ".tmp");
+            Files.write(temporary, bytes);
+            Files.move(temporary, directory.resolve(String.valueOf(partNumber)), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(bytes)) + "\"";
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String completeMultipartUpload(String filename, String uploadId, Map<Integer, String> eTags) {
+        Path directory = getMultipartDirectory(uploadId);
+        Path target = resolve(filename);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            Files.createDirectories(target.getParent());
+            Path temporary = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+            try (FileChannel output = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                for (Map.Entry<Integer, String> entry : new TreeMap<>(eTags).entrySet()) {
+                    try (FileChannel part = FileChannel.open(directory.resolve(String.valueOf(entry.getKey())), StandardOpenOption.READ)) {
+                        long position = 0;
+                        long size = part.size();
+                        while (position < size) {
+                            position += part.transferTo(position, size - position, output);
+                        }
+                    }
+                    digest.update(HexFormat.of().parseHex(entry.getValue().replace("\"", "")));
+                }
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            deleteDirectory(directory);
+            return "\"" + HexFormat.of().formatHex(digest.digest()) + "-" + eTags.size() + "\"";
+        }
+        catch (NoSuchFileException e) {
+            throw new BadRequestException("uploadId", "Multipart upload is missing parts");
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String filename, String uploadId) {
+        try {
+            deleteDirectory(getMultipartDirectory(uploadId));
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    public MediaStreamResult streamFile(String filename, Long expires, String signature, String range, String ifNoneMatch) {
+        verifySignature(expires, signature, "GET", filename, String.valueOf(expires));
+        Path path = resolve(filename);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        }
+        catch (IOException e) {
+            throw new NotFoundException("file", "File not found");
+        }
+        long length = attributes.size();
+        String eTag = "\"" + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "-" + Long.toHexString(length) + "\"";
+        MediaType contentType = MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        MediaStreamResult result = MediaStreamResult.builder()
+                .resource(new FileSystemResource(path))
+                .contentType(contentType)
+                .eTag(eTag)
+                .totalLength(length)
+                .contentLength(length)
+                .build();
+        if (ifNoneMatch != null && (ifNoneMatch.equals("*") || Arrays.stream(ifNoneMatch.split(",")).map(String::trim).map(tag -> tag.replaceFirst("^W/", "")).anyMatch(eTag::equals))) {
+            result.setNotModified(true);
+            return result;
+        }
+        List<HttpRange> ranges;
+        try {
+            ranges = range != null ? HttpRange.parseRanges(range) : List.of();
+        }
+        catch (IllegalArgumentException e) {
+            return result;
+        }
+        if (ranges.size() == 1) {
+            try {
+                long start = ranges.getFirst().getRangeStart(length);
+                long end = ranges.getFirst().getRangeEnd(length);
+                result.setRangeStart(start);
+                result.setContentLength(end - start + 1);
+                result.setPartialContent(true);
+            }
+            catch (IllegalArgumentException e) {
+                result.setContentLength(0);
+                result.setRangeNotSatisfiable(true);
+            }
+        }
+        return result;
+    }
+
+    public void writeFile(MediaStreamResult result, OutputStream outputStream) throws IOException {
+        try (FileChannel channel = FileChannel.open(result.getResource().getFile().toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long position = result.getRangeStart();
+            long end = position + result.getContentLength();
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
+        }
+    }
+
+    public void storeFile(String filename, Long expires, String signature, String contentType, long contentLength, InputStream inputStream) {
+        verifySignature(expires, signature, "PUT", filename, contentType, String.valueOf(contentLength), String.valueOf(expires));
+        try {
+            write(filename, new LimitedInputStream(inputStream, contentLength));
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    private void write(String filename, InputStream inputStream) throws IOException {
+        Path target = resolve(filename);
+        Files.createDirectories(target.getParent());
+        Path temporary = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            Files.copy(inputStream, temporary, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private Path resolve(String filename) {
+        Path key = Path.of(filename).normalize();
+        if (filename.isBlank() || key.isAbsolute() || key.startsWith("..") || key.startsWith(MULTIPART_DIRECTORY)) {
+            throw new BadRequestException("file", "Invalid file name");
+        }
+        String name = key.getFileName().toString();
+        Path directory = key.getParent() != null ? root.resolve(key.getParent()) : root;
+        if (name.length() >= 4) {
+            directory = directory.resolve(name.substring(0, 2)).resolve(name.substring(2, 4));
+        }
+        return directory.resolve(name);
+    }
+
+    private Path getMultipartDirectory(String uploadId) {
+        return root.resolve(MULTIPART_DIRECTORY).resolve(UUID.fromString(uploadId).toString());
+    }
+
+    private void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) return;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private long getUrlExpiration() {
+        long window = urlExpiry.toSeconds();
+        return (Instant.now().getEpochSecond() / window + 2) * window;
+    }
+
+    private void verifySignature(Long expires, String signature, String... values) {
+        if (expires == null || signature == null || expires < Instant.now().getEpochSecond()) {
+            throw new ForbiddenException("Link has expired");
+        }
+        if (!MessageDigest.isEqual(sign(values).getBytes(StandardCharsets.UTF_8), signature.getBytes(StandardCharsets.UTF_8))) {
+            throw new ForbiddenException("Invalid signature");
+        }
+    }
+
+    private String sign(String... values) {
+        try {
+            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(secretKey);
+            byte[] signature = mac.doFinal(String.join("\n", values).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        }
+        catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class LimitedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        LimitedInputStream(InputStream inputStream, long limit) {
+            super(inputStream);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1 && --remaining < 0) throw new IOException("Content exceeds the declared length");
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0 && (remaining -= read) < 0) throw new IOException("Content exceeds the declared length");
+            return read;
+        }
+
+    }
+
+}
@@ -0,0 +1,231 @@
+package com.chatter.chatter.service;
+
+import com.chatter.chatter.dto.MessageSearchDocument;
+import com.chatter.chatter.model.MessageType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class LuceneMessageSearchIndex implements MessageSearchIndex {
+
+    private static final String KEY_FIELD = "key";
+    private static final String ID_FIELD = "id";
+    private static final String CHAT_ID_FIELD = "chatId";
+    private static final String MESSAGE_TYPE_FIELD = "messageType";
+    private static final String CONTENT_FIELD = "content";
+    private static final String GENERATION_FIELD = "generation";
+    private static final String CHECKPOINT_DATA = "checkpoint";
+    private static final String GENERATION_DATA = "generation";
+
+    @Value("${app.search.index-path}")
+    private String indexPath;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private FSDirectory directory;
+    private IndexWriter indexWriter;
+    private SearcherManager searcherManager;
+    private volatile long generation;
+    private volatile String checkpoint;
+
+    @PostConstruct
+    public void open() throws IOException {
+        directory = FSDirectory.open(Path.of(indexPath));
+        indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(indexWriter, null);
+        Map<String, String> commitData = new HashMap<>();
+        Iterable<Map.Entry<String, String>> liveCommitData = indexWriter.getLiveCommitData();
+        if (liveCommitData != null) {
+            liveCommitData.forEach(entry -> commitData.put(entry.getKey(), entry.getValue()));
+        }
+        generation = Long.parseLong(commitData.getOrDefault(GENERATION_DATA, "0"));
+        checkpoint = commitData.get(CHECKPOINT_DATA);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+
+    @Override
+    public void indexMessages(Collection<MessageSearchDocument> documents) {
+        if (documents.isEmpty()) return;
+        try {
+            for (MessageSearchDocument document : documents) {
+                Term key = new Term(KEY_FIELD, document.getId().toString());
+                if (document.getContent() == null || document.getContent().isBlank()) {
+                    indexWriter.deleteDocuments(key);
+                }
+                else {
+                    indexWriter.updateDocument(key, toDocument(document));
+                }
+            }
+            searcherManager.maybeRefresh();
+        }
+        catch (IOException e) {
+            log.error("Failed to index {} messages", documents.size(), e);
+        }
+    }
+
+    @Override
+    public void removeMessages(Collection<Long> messagesIds) {
+        if (messagesIds.isEmpty()) return;
+        try {
+            Term[] keys = messagesIds.stream().map(id -> new Term(KEY_FIELD, id.toString())).toArray(Term[]::new);
+            indexWriter.deleteDocuments(keys);
+            searcherManager.maybeRefresh();
+        }
+        catch (IOException e) {
+            log.error("Failed to remove messages {} from index", messagesIds, e);
+        }
+    }
+
+    @Override
+    public List<Long> search(String text, Collection<Long> chatIds, MessageType messageType, Long before, Long after, int size) {
+        if (chatIds == null || chatIds.isEmpty() || size <= 0) return Collections.emptyList();
+        Query textQuery = buildTextQuery(text);
+        if (textQuery == null) return Collections.emptyList();
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder()
+                .add(textQuery, BooleanClause.Occur.MUST)
+                .add(LongPoint.newSetQuery(CHAT_ID_FIELD, chatIds), BooleanClause.Occur.FILTER);
+        if (messageType != null) {
+            builder.add(new TermQuery(new Term(MESSAGE_TYPE_FIELD, messageType.name())), BooleanClause.Occur.FILTER);
+        }
+        if (before != null) {
+            builder.add(LongPoint.newRangeQuery(ID_FIELD, Long.MIN_VALUE, before - 1), BooleanClause.Occur.FILTER);
+        }
+        if (after != null) {
+            builder.add(LongPoint.newRangeQuery(ID_FIELD, after + 1, Long.MAX_VALUE), BooleanClause.Occur.FILTER);
+        }
+        Sort sort = new Sort(new SortField(ID_FIELD, SortField.Type.LONG, after == null));
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(builder.build(), size, sort);
+                StoredFields storedFields = searcher.storedFields();
+                List<Long> ids = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    ids.add(storedFields.document(scoreDoc.doc).getField(ID_FIELD).numericValue().longValue());
+                }
+                return ids;
+            }
+            finally {
+                searcherManager.release(searcher);
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public synchronized long startRebuild() {
+        generation++;
+        updateCommitData();
+        return generation;
+    }
+
+    @Override
+    public void finishRebuild(long rebuildGeneration) {
+        try {
+            indexWriter.deleteDocuments(LongPoint.newRangeQuery(GENERATION_FIELD, Long.MIN_VALUE, rebuildGeneration - 1));
+            indexWriter.commit();
+            searcherManager.maybeRefresh();
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public String getCheckpoint() {
+        return checkpoint;
+    }
+
+    @Override
+    public synchronized void setCheckpoint(String checkpoint) {
+        this.checkpoint = checkpoint;
+        updateCommitData();
+    }
+
+    @Scheduled(fixedDelay = 30000)
+    public void commit() {
+        if (!indexWriter.hasUncommittedChanges()) return;
+        try {
+            indexWriter.commit();
+        }
+        catch (IOException e) {
+            log.error("Failed to commit message search index", e);
+        }
+    }
+
+    private void updateCommitData() {
+        Map<String, String> commitData = new HashMap<>();
+        commitData.put(GENERATION_DATA, String.valueOf(generation));
+        if (checkpoint != null) {
+            commitData.put(CHECKPOINT_DATA, checkpoint);
+        }
+        indexWriter.setLiveCommitData(commitData.entrySet());
+    }
+
+    private Document toDocument(MessageSearchDocument messageDocument) {
+        Document document = new Document();
+        document.add(new StringField(KEY_FIELD, messageDocument.getId().toString(), Field.Store.NO));
+        document.add(new LongPoint(ID_FIELD, messageDocument.getId()));
+        document.add(new NumericDocValuesField(ID_FIELD, messageDocument.getId()));
+        document.add(new StoredField(ID_FIELD, messageDocument.getId()));
+        document.add(new LongPoint(CHAT_ID_FIELD, messageDocument.getChatId()));
+        document.add(new LongPoint(GENERATION_FIELD, generation));
+        document.add(new StringField(MESSAGE_TYPE_FIELD, messageDocument.getMessageType().name(), Field.Store.NO));
+        document.add(new TextField(CONTENT_FIELD, messageDocument.getContent(), Field.Store.NO));
+        return document;
+    }
+
+    private Query buildTextQuery(String text) {
+        if (text == null || text.isBlank()) return null;
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        int clauses = 0;
+        try (TokenStream tokenStream = analyzer.tokenStream(CONTENT_FIELD, text)) {
+            CharTermAttribute termAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+            tokenStream.reset();
+            while (tokenStream.incrementToken() && clauses < IndexSearcher.getMaxClauseCount()) {
+                builder.add(new PrefixQuery(new Term(CONTENT_FIELD, termAttribute.toString())), BooleanClause.Occur.MUST);
+                clauses++;
+            }
+            tokenStream.end();
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return clauses == 0 ? null : builder.build();
+    }
+
+}
@@ -0,0 +1,265 @@
+package com.chatter.chatter.service;
+
+import com.chatter.chatter.dto.MediaMetadata;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaMetadataService {
+
+    private static final Set<String> ISO_MEDIA_MIME_TYPES = Set.of("video/mp4", "video/quicktime");
+    private static final String BASE83_CHARACTERS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+    private static final int PLACEHOLDER_SAMPLE_SIZE = 32;
+    private static final int PLACEHOLDER_COMPONENTS_X = 4;
+    private static final int PLACEHOLDER_COMPONENTS_Y = 3;
+    // Stored videos are read by range, the header window covers ftyp and a front moov,
+    // a moov behind mdat is found by hopping over top-level box headers
+    private static final int ISO_MEDIA_RANGE_SIZE = 64 * 1024;
+    private static final int ISO_MEDIA_BOX_HEADER_SIZE = 16;
+    private static final int ISO_MEDIA_MAX_TOP_LEVEL_BOXES = 32;
+
+    private final FileValidationService fileValidationService;
+    private final FileUploadService fileUploadService;
+
+    public MediaMetadata extract(MultipartFile file, String mimeType) {
+        MediaMetadata metadata = new MediaMetadata();
+        try (InputStream inputStream = file.getInputStream()) {
+            readMetadata(inputStream, mimeType, metadata);
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn("Failed to extract metadata from {}", file.getOriginalFilename(), e);
+        }
+        return metadata;
+    }
+
+    public MediaMetadata extract(String filePath, String mimeType) {
+        MediaMetadata metadata = new MediaMetadata();
+        if (!fileValidationService.isImage(mimeType) && !ISO_MEDIA_MIME_TYPES.contains(mimeType)) return metadata;
+        try {
+            if (ISO_MEDIA_MIME_TYPES.contains(mimeType)) {
+                metadata.setDurationMillis(readStoredIsoMediaDuration(filePath));
+                return metadata;
+            }
+            try (InputStream inputStream = fileUploadService.getFile(filePath)) {
+                readMetadata(inputStream, mimeType, metadata);
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn("Failed to extract metadata from {}", filePath, e);
+        }
+        return metadata;
+    }
+
+    private void readMetadata(InputStream inputStream, String mimeType, MediaMetadata metadata) throws IOException {
+        if (fileValidationService.isImage(mimeType)) {
+            readImageMetadata(inputStream, metadata);
+        }
+        else if (ISO_MEDIA_MIME_TYPES.contains(mimeType)) {
+            metadata.setDurationMillis(readIsoMediaDuration(new DataInputStream(inputStream), Long.MAX_VALUE));
+        }
+    }
+
+    private void readImageMetadata(InputStream inputStream, MediaMetadata metadata) throws IOException {
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            if (imageInputStream == null) return;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) return;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                metadata.setWidth(width);
+                metadata.setHeight(height);
+                int subsampling = Math.max(1, Math.max(width, height) / PLACEHOLDER_SAMPLE_SIZE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                metadata.setPlaceholder(encodePlaceholder(reader.read(0, param)));
+            }
+            finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private Long readStoredIsoMediaDuration(String filePath) throws IOException {
+        byte[] header = fileUploadService.getFileRange(filePath, 0, ISO_MEDIA_RANGE_SIZE);
+        long offset = 0;
+        for (int i = 0; i < ISO_MEDIA_MAX_TOP_LEVEL_BOXES; i++) {
+            byte[] boxHeader = readRange(filePath, header, offset, ISO_MEDIA_BOX_HEADER_SIZE);
+            if (boxHeader.length < 8) return null;
+            DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(boxHeader));
+            long size = Integer.toUnsignedLong(inputStream.readInt());
+            String type = new String(inputStream.readNBytes(4), StandardCharsets.ISO_8859_1);
+            long headerSize = 8;
+            if (size == 1) {
+                if (boxHeader.length < 16) return null;
+                size = inputStream.readLong();
+                headerSize = 16;
+            }
+            else if (size == 0 && !type.equals("moov")) {
+                return null;
+            }
+            if (type.equals("moov")) {
+                // mvhd leads the movie box, a bounded window of it is enough for the duration
+                int length = size == 0 ? ISO_MEDIA_RANGE_SIZE : (int) Math.min(size - headerSize, ISO_MEDIA_RANGE_SIZE);
+                byte[] body = readRange(filePath, header, offset + headerSize, length);
+                return readIsoMediaDuration(new DataInputStream(new ByteArrayInputStream(body)), body.length);
+            }
+            if (size < headerSize) return null;
+            offset += size;
+        }
+        return null;
+    }
+
+    private byte[] readRange(String filePath, byte[] header, long offset, int length) {
+        // A short header window already holds the whole file
+        if (offset + length <= header.length || header.length < ISO_MEDIA_RANGE_SIZE) {
+            int from = (int) Math.min(offset, header.length);
+            return Arrays.copyOfRange(header, from, (int) Math.min(offset + length, header.length));
+        }
+        return fileUploadService.getFileRange(filePath, offset, length);
+    }
+
+    private Long readIsoMediaDuration(DataInputStream inputStream, long remaining) throws IOException {
+        while (remaining >= 8) {
+            long size;
+            String type;
+            try {
+                size = Integer.toUnsignedLong(inputStream.readInt());
+                type = new String(inputStream.readNBytes(4), StandardCharsets.ISO_8859_1);
+            }
+            catch (EOFException e) {
+                return null;
+            }
+            long headerSize = 8;
+            if (size == 1) {
+                size = inputStream.readLong();
+                headerSize = 16;
+            }
+            else if (size == 0) {
+                if (!type.equals("moov")) return null;
+                size = remaining;
+            }
+            if (size < headerSize || size > remaining) return null;
+            long bodySize = size - headerSize;
+            if (type.equals("moov")) {
+                return readIsoMediaDuration(inputStream, bodySize);
+            }
+            if (type.equals("mvhd")) {
+                int version = inputStream.readUnsignedByte();
+                inputStream.skipNBytes(3);
+                long timescale;
+                long duration;
+                if (version == 1) {
+                    inputStream.skipNBytes(16);
+                    timescale = Integer.toUnsignedLong(inputStream.readInt());
+                    duration = inputStream.readLong();
+                }
+                else {
+                    inputStream.skipNBytes(8);
+                    timescale = Integer.toUnsignedLong(inputStream.readInt());
+                    duration = Integer.toUnsignedLong(inputStream.readInt());
+                }
+                return timescale == 0 ? null : duration * 1000 / timescale;
+            }
+            inputStream.skipNBytes(bodySize);
+            remaining -= size;
+        }
+        return null;
+    }
+
+    private String encodePlaceholder(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double[][] factors = new double[PLACEHOLDER_COMPONENTS_X * PLACEHOLDER_COMPONENTS_Y][3];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = image.getRGB(x, y);
+                double r = toLinear((rgb >> 16) & 0xff);
+                double g = toLinear((rgb >> 8) & 0xff);
+                double b = toLinear(rgb & 0xff);
+                for (int j = 0; j < PLACEHOLDER_COMPONENTS_Y; j++) {
+                    for (int i = 0; i < PLACEHOLDER_COMPONENTS_X; i++) {
+                        double basis = Math.cos(Math.PI * i * x / width) * Math.cos(Math.PI * j * y / height);
+                        double[] factor = factors[j * PLACEHOLDER_COMPONENTS_X + i];
+                        factor[0] += basis * r;
+                        factor[1] += basis * g;
+                        factor[2] += basis * b;
+                    }
+                }
+            }
+        }
+        for (int k = 0; k < factors.length; k++) {
+            double scale = (k == 0 ? 1.0 : 2.0) / (width * height);
+            for (int c = 0; c < 3; c++) {
+                factors[k][c] *= scale;
+            }
+        }
+
+        StringBuilder placeholder = new StringBuilder();
+        encodeBase83((PLACEHOLDER_COMPONENTS_X - 1) + (PLACEHOLDER_COMPONENTS_Y - 1) * 9, 1, placeholder);
+        double maximumValue = 0;
+        for (int k = 1; k < factors.length; k++) {
+            for (int c = 0; c < 3; c++) {
+                maximumValue = Math.max(maximumValue, Math.abs(factors[k][c]));
+            }
+        }
+        int quantisedMaximumValue = (int) Math.max(0, Math.min(82, Math.floor(maximumValue * 166 - 0.5)));
+        double acMaximum = (quantisedMaximumValue + 1) / 166.0;
+        encodeBase83(quantisedMaximumValue, 1, placeholder);
+        encodeBase83((toSrgb(factors[0][0]) << 16) + (toSrgb(factors[0][1]) << 8) + toSrgb(factors[0][2]), 4, placeholder);
+        for (int k = 1; k < factors.length; k++) {
+            int r = quantiseAc(factors[k][0], acMaximum);
+            int g = quantiseAc(factors[k][1], acMaximum);
+            int b = quantiseAc(factors[k][2], acMaximum);
+            encodeBase83(r * 19 * 19 + g * 19 + b, 2, placeholder);
+        }
+        return placeholder.toString();
+    }
+
+    private int quantiseAc(double value, double maximum) {
+        double normalised = value / maximum;
+        double signedRoot = Math.copySign(Math.sqrt(Math.abs(normalised)), normalised);
+        return (int) Math.max(0, Math.min(18, Math.floor(signedRoot * 9 + 9.5)));
+    }
+
+    private double toLinear(int value) {
+        double v = value / 255.0;
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private int toSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        return v <= 0.0031308
+                ? (int) Math.round(v * 12.92 * 255)
+                : (int) Math.round((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255);
+    }
+
+    private void encodeBase83(int value, int length, StringBuilder builder) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (int) (value / Math.pow(83, length - i)) % 83;
+            builder.append(BASE83_CHARACTERS.charAt(digit));
+        }
+    }
+
+}
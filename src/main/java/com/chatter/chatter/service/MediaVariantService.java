@@ -0,0 +1,156 @@
+package com.chatter.chatter.service;
+
+import com.chatter.chatter.dto.MediaVariants;
+import com.chatter.chatter.repository.AttachmentRepository;
+import com.chatter.chatter.repository.StoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.*;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaVariantService {
+
+    private static final String VARIANT_CONTENT_TYPE = "image/jpeg";
+    private static final String VARIANT_EXTENSION = "jpg";
+
+    private final FileUploadService fileUploadService;
+    private final BlobService blobService;
+    private final AttachmentRepository attachmentRepository;
+    private final StoryRepository storyRepository;
+
+    @Value("${app.media.thumbnail-size}")
+    private int thumbnailSize;
+
+    @Value("${app.media.medium-size}")
+    private int mediumSize;
+
+    @Value("${app.media.variant-quality}")
+    private float variantQuality;
+
+    @Transactional(readOnly = true)
+    public Optional<MediaVariants> findVariants(String filePath) {
+        return attachmentRepository.findVariants(filePath, PageRequest.of(0, 1)).stream().findFirst()
+                .or(() -> storyRepository.findVariants(filePath, PageRequest.of(0, 1)).stream().findFirst());
+    }
+
+    // Runs outside of a transaction, the download, resize and uploads can take seconds and each
+    // variant update commits on its own once the files are stored
+    public void createVariants(String filePath) throws IOException {
+        Optional<MediaVariants> existingVariants = findVariants(filePath);
+        if (existingVariants.isPresent()) {
+            updateVariants(filePath, existingVariants.get().getThumbnailPath(), existingVariants.get().getMediumPath());
+            return;
+        }
+        BufferedImage image;
+        try (InputStream inputStream = fileUploadService.getFile(filePath)) {
+            image = readImage(inputStream);
+        }
+        if (image == null) {
+            log.warn("Skipping media variants for {}, image format is not supported", filePath);
+            return;
+        }
+
+        int side = Math.min(image.getWidth(), image.getHeight());
+        int thumbnailSide = Math.min(side, thumbnailSize);
+        BufferedImage thumbnail = resize(image, (image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side, thumbnailSide, thumbnailSide);
+        String thumbnailPath = blobService.uploadFile(writeJpeg(thumbnail), VARIANT_CONTENT_TYPE, VARIANT_EXTENSION);
+
+        String mediumPath = null;
+        int longestSide = Math.max(image.getWidth(), image.getHeight());
+        if (longestSide > mediumSize) {
+            double scale = (double) mediumSize / longestSide;
+            int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+            BufferedImage medium = resize(image, 0, 0, image.getWidth(), image.getHeight(), width, height);
+            mediumPath = blobService.uploadFile(writeJpeg(medium), VARIANT_CONTENT_TYPE, VARIANT_EXTENSION);
+        }
+
+        updateVariants(filePath, thumbnailPath, mediumPath);
+    }
+
+    private void updateVariants(String filePath, String thumbnailPath, String mediumPath) {
+        attachmentRepository.updateVariants(filePath, thumbnailPath, mediumPath);
+        storyRepository.updateVariants(filePath, thumbnailPath, mediumPath);
+    }
+
+    private BufferedImage readImage(InputStream inputStream) throws IOException {
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            if (imageInputStream == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longestSide / (mediumSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            }
+            finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int x, int y, int sourceWidth, int sourceHeight, int width, int height) {
+        BufferedImage current = source;
+        while (sourceWidth / 2 >= width && sourceHeight / 2 >= height) {
+            current = draw(current, x, y, sourceWidth, sourceHeight, sourceWidth / 2, sourceHeight / 2);
+            x = 0;
+            y = 0;
+            sourceWidth /= 2;
+            sourceHeight /= 2;
+        }
+        return draw(current, x, y, sourceWidth, sourceHeight, width, height);
+    }
+
+    private BufferedImage draw(BufferedImage source, int x, int y, int sourceWidth, int sourceHeight, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, x, y, x + sourceWidth, y + sourceHeight, null);
+        }
+        finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] writeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(VARIANT_EXTENSION).next();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream)) {
+            writer.setOutput(imageOutputStream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(variantQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        }
+        finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+
+}
@@ -10,27 +10,49 @@ import com.chatter.chatter.model.*;
 import com.chatter.chatter.repository.MemberRepository;
 import com.chatter.chatter.specification.MemberSpecification;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class MemberService {
 
+    private static final int UNREAD_COUNTERS_RECONCILE_BATCH_SIZE = 500;
+    private static final String UNREAD_COUNTERS_RECONCILE_LOCK_KEY = "unread_counters_reconcile_lock";
+    private static final Duration UNREAD_COUNTERS_RECONCILE_LOCK_TIMEOUT = Duration.ofMinutes(55);
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = RedisScript.of("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
     private final MemberRepository memberRepository;
     private final UserService userService;
     private final CacheManager cacheManager;
     private final SimpMessagingTemplate simpMessagingTemplate;
     private final MemberMapper memberMapper;
+    private final RedisTemplate<String, String> redisTemplate;
 
     public List<Member> getMembersEntitiesByChat(Long chatId, String username, String email) {
         Specification<Member> specification = MemberSpecification.withFilters(chatId, username, email);
@@ -132,6 +154,74 @@ public class MemberService {
         return memberRepository.existsByChatIdAndUserId(chatId, userId);
     }
 
+    @Transactional
+    public boolean advanceReadWatermark(String email, Long chatId, Long messageId) {
+        return memberRepository.advanceReadWatermark(email, chatId, messageId, Instant.now()) > 0;
+    }
+
+    public List<Member> getReaders(Long chatId, Long messageId, Long senderId) {
+        return memberRepository.findReaders(chatId, messageId, senderId);
+    }
+
+    @Transactional
+    public void incrementUnreadCounters(Message message) {
+        Long chatId = message.getChat().getId();
+        Long senderId = getSenderId(message);
+        memberRepository.incrementUnreadCounters(chatId, senderId, message.getId(), message.getCreatedAt());
+        if (Boolean.TRUE.equals(message.getIsEveryoneMentioned())) {
+            memberRepository.markEveryoneMentioned(chatId, senderId, message.getId(), message.getCreatedAt());
+        }
+        else if (message.getMentions() != null && !message.getMentions().isEmpty()) {
+            Set<Long> usersIds = message.getMentions().stream().map(mention -> mention.getUser().getId()).collect(Collectors.toSet());
+            memberRepository.markMentioned(chatId, senderId, message.getId(), message.getCreatedAt(), usersIds);
+        }
+    }
+
+    @Transactional
+    public void decrementUnreadCounters(Message message) {
+        memberRepository.decrementUnreadCounters(message.getChat().getId(), getSenderId(message), message.getId(), message.getCreatedAt());
+    }
+
+    // The messages of a deleted user keep a null sender and still count as unread for everyone
+    private Long getSenderId(Message message) {
+        return message.getUser() != null ? message.getUser().getId() : null;
+    }
+
+    // Every node schedules the recount, the lock outlives the run so only one of them recounts per interval,
+    // it is only released early when the run fails so another node can retry
+    @Scheduled(fixedDelay = 60 * 60 * 1000, initialDelay = 60 * 1000)
+    public void reconcileUnreadCounters() {
+        String lockToken = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(UNREAD_COUNTERS_RECONCILE_LOCK_KEY, lockToken, UNREAD_COUNTERS_RECONCILE_LOCK_TIMEOUT))) {
+            log.debug("Unread counters reconciliation is running on another node");
+            return;
+        }
+        try {
+            recountUnreadCounters();
+        }
+        catch (RuntimeException e) {
+            redisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(UNREAD_COUNTERS_RECONCILE_LOCK_KEY), lockToken);
+            throw e;
+        }
+    }
+
+    private void recountUnreadCounters() {
+        long after = 0L;
+        int recounted = 0;
+        List<Long> membersIds;
+        do {
+            membersIds = memberRepository.findIdsAfter(after, PageRequest.of(0, UNREAD_COUNTERS_RECONCILE_BATCH_SIZE));
+            if (membersIds.isEmpty()) break;
+            recounted += memberRepository.recountUnreadCounters(membersIds);
+            after = membersIds.getLast();
+        } while (membersIds.size() == UNREAD_COUNTERS_RECONCILE_BATCH_SIZE);
+        log.debug("Reconciled unread counters for {} members", recounted);
+    }
+
+    public Set<Long> getChatIds(String email) {
+        return memberRepository.findChatIdsByUserEmail(email);
+    }
+
     public boolean isAdmin(String email, Long chatId) {
         return memberRepository.existsByChatIdAndUserEmailAndMemberRole(chatId, email, MemberRole.OWNER) ||
                 memberRepository.existsByChatIdAndUserEmailAndMemberRole(chatId, email, MemberRole.ADMIN);
@@ -0,0 +1,137 @@
+package com.chatter.chatter.service;
+
+import com.chatter.chatter.dto.MessageSearchDocument;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MessageIndexStream {
+
+    public static final String STREAM_KEY = "message_index_updates";
+
+    public static final String INITIAL_CHECKPOINT = "0-0";
+    private static final String TYPE = "type";
+    private static final String PAYLOAD = "payload";
+    private static final String INDEX = "index";
+    private static final String REMOVE = "remove";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MessageSearchIndex messageSearchIndex;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.search.stream-max-length}")
+    private long maxLength;
+
+    @Value("${app.search.stream-batch-size}")
+    private int batchSize;
+
+    private boolean gapChecked;
+
+    public void publishIndex(Collection<MessageSearchDocument> documents) {
+        if (!documents.isEmpty()) publish(INDEX, documents);
+    }
+
+    public void publishRemove(Collection<Long> messagesIds) {
+        if (!messagesIds.isEmpty()) publish(REMOVE, messagesIds);
+    }
+
+    public String getCheckpoint() {
+        String checkpoint = messageSearchIndex.getCheckpoint();
+        return checkpoint != null ? checkpoint : INITIAL_CHECKPOINT;
+    }
+
+    // A fresh index is rebuilt from the database, so it only has to replay what was published after
+    // the rebuild started, anything up to the current end of the stream is already committed
+    public String getRebuildCheckpoint() {
+        String checkpoint = getCheckpoint();
+        if (!INITIAL_CHECKPOINT.equals(checkpoint) || !Boolean.TRUE.equals(redisTemplate.hasKey(STREAM_KEY))) return checkpoint;
+        return redisTemplate.opsForStream().info(STREAM_KEY).lastGeneratedId();
+    }
+
+    public synchronized void rewind(String checkpoint) {
+        messageSearchIndex.setCheckpoint(checkpoint);
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public synchronized void applyUpdates() {
+        String checkpoint = getCheckpoint();
+        checkForGap(checkpoint);
+        List<MapRecord<String, Object, Object>> records;
+        do {
+            records = redisTemplate.opsForStream().read(
+                    StreamReadOptions.empty().count(batchSize),
+                    StreamOffset.create(STREAM_KEY, ReadOffset.from(checkpoint))
+            );
+            if (records == null || records.isEmpty()) return;
+            for (MapRecord<String, Object, Object> record : records) {
+                apply(record.getValue());
+                checkpoint = record.getId().getValue();
+            }
+            messageSearchIndex.setCheckpoint(checkpoint);
+        } while (records.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelay = 60 * 1000, initialDelay = 60 * 1000)
+    public void trim() {
+        redisTemplate.opsForStream().trim(STREAM_KEY, maxLength, true);
+    }
+
+    private void publish(String type, Object payload) {
+        try {
+            Map<String, String> fields = Map.of(TYPE, type, PAYLOAD, objectMapper.writeValueAsString(payload));
+            redisTemplate.opsForStream().add(StreamRecords.string(fields).withStreamKey(STREAM_KEY));
+        }
+        catch (JsonProcessingException | RuntimeException e) {
+            log.error("Failed to publish message index update", e);
+        }
+    }
+
+    private void apply(Map<Object, Object> fields) {
+        try {
+            String payload = (String) fields.get(PAYLOAD);
+            if (INDEX.equals(fields.get(TYPE))) {
+                messageSearchIndex.indexMessages(objectMapper.readValue(payload, new TypeReference<List<MessageSearchDocument>>() {}));
+            }
+            else if (REMOVE.equals(fields.get(TYPE))) {
+                messageSearchIndex.removeMessages(objectMapper.readValue(payload, new TypeReference<List<Long>>() {}));
+            }
+        }
+        catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable message index update: {}", e.getMessage());
+        }
+    }
+
+    private void checkForGap(String checkpoint) {
+        if (gapChecked) return;
+        gapChecked = true;
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(STREAM_KEY))) return;
+        StreamInfo.XInfoStream info = redisTemplate.opsForStream().info(STREAM_KEY);
+        if (info.firstEntryId() == null) return;
+        RecordId firstEntryId = RecordId.of(info.firstEntryId());
+        RecordId lastAppliedId = RecordId.of(checkpoint);
+        // A fresh index replays the stream from its start, which only covers every update if the
+        // stream was never trimmed, trimming keeps at least maxLength entries
+        boolean missedUpdates = INITIAL_CHECKPOINT.equals(checkpoint)
+                ? info.streamLength() >= maxLength
+                : firstEntryId.getTimestamp() > lastAppliedId.getTimestamp()
+                        || (firstEntryId.getTimestamp().equals(lastAppliedId.getTimestamp()) && firstEntryId.getSequence() > lastAppliedId.getSequence());
+        if (missedUpdates) {
+            log.warn("Message index checkpoint {} is older than the update stream and may have missed updates, run with --reindex-messages to rebuild", checkpoint);
+        }
+    }
+
+}
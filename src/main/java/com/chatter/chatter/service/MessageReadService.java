@@ -4,13 +4,11 @@ import com.chatter.chatter.dto.MessageReadDto;
 import com.chatter.chatter.exception.BadRequestException;
 import com.chatter.chatter.mapper.MessageReadMapper;
 import com.chatter.chatter.model.*;
-import com.chatter.chatter.repository.MessageReadRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -18,120 +16,97 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MessageReadService {
 
-    private final MessageReadRepository messageReadRepository;
-    private final UserService userService;
     private final MessageService messageService;
     private final ChatService chatService;
+    private final MemberService memberService;
     private final MessageReadMapper messageReadMapper;
 
     @Transactional
-    @CacheEvict(value = "messageReads", key = "'messageId:' + #messageId")
-    public MessageRead createMessageRead(String email, Long messageId) {
-        if (existsByEmailAndMessageId(email, messageId)) {
-            throw new BadRequestException("messageRead", "User already read this message");
-        }
-        User user = userService.getUserEntityByEmail(email);
+    public MessageReadDto createMessageRead(String email, Long messageId) {
         Message message = messageService.getMessageEntity(email, messageId);
-        if (email.equals(message.getUser().getEmail())) {
+        if (message.getUser() != null && email.equals(message.getUser().getEmail())) {
             throw new BadRequestException("messageRead", "User cannot mark their own messages as read");
         }
-        MessageRead messageRead = MessageRead.builder()
-                .user(user)
-                .message(message)
-                .showRead((user.getShowMessageReads() && message.getUser().getShowMessageReads()) || message.getChat().getChatType().equals(ChatType.GROUP))
-                .build();
-        MessageRead createdMessageRead = messageReadRepository.save(messageRead);
-        messageService.broadcastMessageUpdate(createdMessageRead.getMessage());
-        messageService.evictMessagesCachesForUser(email);
-        if (message.getChat().getChatType().equals(ChatType.INDIVIDUAL)) {
-            User otherUser = message.getChat().getOtherUser(email);
-            if (otherUser != null) {
-                messageService.evictMessagesCachesForUser(message.getChat().getOtherUser(email).getEmail());
-            }
+        MessageReadDto messageRead = advanceReadWatermark(email, message.getChat(), messageId);
+        if (messageRead == null) {
+            throw new BadRequestException("messageRead", "User already read this message");
         }
-        chatService.broadcastChatUpdate(createdMessageRead.getMessage().getChat());
-        chatService.evictChatCacheForUser(email);
-        return createdMessageRead;
+        return messageRead;
     }
 
     @Transactional
-    public List<MessageRead> batchCreateMessageReads(String email, Iterable<Long> messageIds) {
-        User user = userService.getUserEntityByEmail(email);
+    public List<MessageReadDto> batchCreateMessageReads(String email, Iterable<Long> messageIds) {
         List<Message> messages = messageService.getUnreadMessagesByIds(email, messageIds);
-        List<MessageRead> messageReads = new ArrayList<>();
-        for (Message message : messages) {
-            MessageRead messageRead = MessageRead.builder()
-                    .user(user)
-                    .message(message)
-                    .showRead((user.getShowMessageReads() && (message.getUser() == null || message.getUser().getShowMessageReads())) || message.getChat().getChatType().equals(ChatType.GROUP))
-                    .build();
-            messageReads.add(messageRead);
-        }
-        List<MessageRead> createdMessageReads = new ArrayList<>();
-        if (!messageReads.isEmpty()) {
-            createdMessageReads = messageReadRepository.saveAll(messageReads);
-        }
-        Map<Chat, List<Message>> messagesByChat = createdMessageReads.stream()
-            .collect(Collectors.groupingBy(
-                    read -> read.getMessage().getChat(),
-                    Collectors.mapping(MessageRead::getMessage, Collectors.toList())
-            ));
-        messagesByChat.forEach((chat, readMessages) -> {
-            messageService.batchBroadcastMessageUpdate(chat, readMessages);
-            messageService.evictMessagesCachesForUser(email);
-            if (chat.getChatType().equals(ChatType.INDIVIDUAL)) {
-                User otherUser = chat.getOtherUser(email);
-                if (otherUser != null) {
-                    messageService.evictMessagesCachesForUser(otherUser.getEmail());
-                }
+        Map<Chat, Long> lastMessageIdByChat = messages.stream()
+                .collect(Collectors.toMap(Message::getChat, Message::getId, Math::max));
+        List<MessageReadDto> messageReads = new ArrayList<>();
+        lastMessageIdByChat.forEach((chat, messageId) -> {
+            MessageReadDto messageRead = advanceReadWatermark(email, chat, messageId);
+            if (messageRead != null) {
+                messageReads.add(messageRead);
             }
-            chatService.broadcastChatUpdate(chat);
-            chatService.evictChatCacheForUser(email);
         });
-        return createdMessageReads;
+        return messageReads;
     }
 
     @Transactional
-    public List<MessageRead> readChatMessages(String email, Long chatId) {
-        List<MessageRead> messageReads = new ArrayList<>();
-        User user = userService.getUserEntityByEmail(email);
-        List<Message> unreadMessages = messageService.getUnreadMessages(email, chatId);
-        if (unreadMessages.isEmpty()) {
+    public List<MessageReadDto> readChatMessages(String email, Long chatId) {
+        if (!memberService.isMember(email, chatId)) {
             return Collections.emptyList();
         }
-        for (Message message : unreadMessages) {
-            MessageRead messageRead = MessageRead.builder()
-                    .user(user)
-                    .message(message)
-                    .showRead(user.getShowMessageReads())
-                    .build();
-            messageReads.add(messageRead);
+        Long lastMessageId = messageService.getLastMessageId(chatId);
+        if (lastMessageId == null) {
+            return Collections.emptyList();
         }
-        messageReadRepository.saveAll(messageReads);
-        for (Message message : unreadMessages) {
-            messageService.broadcastMessageUpdate(message);
+        Chat chat = chatService.getChatEntity(chatId);
+        MessageReadDto messageRead = advanceReadWatermark(email, chat, lastMessageId);
+        return messageRead != null ? List.of(messageRead) : Collections.emptyList();
+    }
+
+    @Transactional
+    public void markChatAsRead(String email, Long chatId) {
+        Long lastMessageId = messageService.getLastMessageId(chatId);
+        if (lastMessageId != null && memberService.advanceReadWatermark(email, chatId, lastMessageId)) {
             messageService.evictMessagesCachesForUser(email);
-            if (message.getChat().getChatType().equals(ChatType.INDIVIDUAL)) {
-                User otherUser = message.getChat().getOtherUser(email);
-                if (otherUser != null) {
-                    messageService.evictMessagesCachesForUser(otherUser.getEmail());
-                }
-            }
+            chatService.evictChatCacheForUser(email);
         }
-        Chat chat = messageReads.getFirst().getMessage().getChat();
-        chatService.broadcastChatUpdate(chat);
-        chatService.evictChatCacheForUser(email);
-        return messageReads;
     }
 
-    @Cacheable(value = "messageReads", key = "'messageId:' + #messageId")
     public List<MessageReadDto> getMessageReads(String email, Long messageId) {
-        messageService.getMessageEntity(email, messageId);
-        return messageReadMapper.toDtoList(messageReadRepository.findByMessageId(messageId));
+        Message message = messageService.getMessageEntity(email, messageId);
+        Long senderId = message.getUser() != null ? message.getUser().getId() : null;
+        return memberService.getReaders(message.getChat().getId(), messageId, senderId).stream()
+                .map(member -> messageReadMapper.toDto(member, messageId, isReadVisible(message.getChat(), member.getUser(), message.getUser())))
+                .collect(Collectors.toList());
+    }
+
+    private MessageReadDto advanceReadWatermark(String email, Chat chat, Long messageId) {
+        Member member = memberService.getCurrentChatMemberEntity(email, chat.getId());
+        Long previousMessageId = member.getLastReadMessageId() != null ? member.getLastReadMessageId() : 0L;
+        if (!memberService.advanceReadWatermark(email, chat.getId(), messageId)) {
+            return null;
+        }
+        List<Message> readMessages = messageService.getMessagesReadBetween(email, chat.getId(), previousMessageId, messageId);
+        messageService.batchBroadcastMessageUpdate(chat, readMessages);
+        messageService.evictMessagesCachesForUser(email);
+        if (chat.getChatType().equals(ChatType.INDIVIDUAL)) {
+            User otherUser = chat.getOtherUser(email);
+            if (otherUser != null) {
+                messageService.evictMessagesCachesForUser(otherUser.getEmail());
+            }
+        }
+        chatService.broadcastChatUpdate(chat);
+        chatService.evictChatCacheForUser(email);
+        member.setLastReadMessageId(messageId);
+        member.setLastReadAt(Instant.now());
+        return messageReadMapper.toDto(member, messageId, isReadVisible(chat, member.getUser(), chat.getOtherUser(email)));
     }
 
-    public boolean existsByEmailAndMessageId(String email, Long messageId) {
-        return messageReadRepository.existsByUserEmailAndMessageId(email, messageId);
+    private boolean isReadVisible(Chat chat, User reader, User sender) {
+        if (chat.getChatType().equals(ChatType.GROUP)) {
+            return true;
+        }
+        return reader.getShowMessageReads() && (sender == null || sender.getShowMessageReads());
     }
 
 }
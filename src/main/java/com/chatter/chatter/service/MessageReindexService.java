@@ -0,0 +1,58 @@
+package com.chatter.chatter.service;
+
+import com.chatter.chatter.dto.MessageSearchDocument;
+import com.chatter.chatter.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MessageReindexService implements ApplicationRunner {
+
+    private static final String REINDEX_OPTION = "reindex-messages";
+    private static final int BATCH_SIZE = 1000;
+
+    private final MessageRepository messageRepository;
+    private final MessageSearchIndex messageSearchIndex;
+    private final MessageIndexStream messageIndexStream;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(REINDEX_OPTION)) {
+            reindexAll();
+        }
+        else if (MessageIndexStream.INITIAL_CHECKPOINT.equals(messageIndexStream.getCheckpoint())
+                && !messageRepository.findSearchDocuments(0L, PageRequest.of(0, 1)).isEmpty()) {
+            log.warn("Message index is empty but messages already exist, rebuilding it");
+            reindexAll();
+        }
+    }
+
+    public long reindexAll() {
+        String checkpoint = messageIndexStream.getRebuildCheckpoint();
+        long generation = messageSearchIndex.startRebuild();
+        long indexed = 0;
+        Long after = 0L;
+        List<MessageSearchDocument> documents;
+        do {
+            documents = messageRepository.findSearchDocuments(after, PageRequest.of(0, BATCH_SIZE));
+            if (!documents.isEmpty()) {
+                messageSearchIndex.indexMessages(documents);
+                after = documents.getLast().getId();
+                indexed += documents.size();
+            }
+        } while (documents.size() == BATCH_SIZE);
+        messageSearchIndex.finishRebuild(generation);
+        messageIndexStream.rewind(checkpoint);
+        log.info("Re-indexed {} messages", indexed);
+        return indexed;
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.chatter.chatter.service;
+
+import com.chatter.chatter.dto.MessageSearchDocument;
+import com.chatter.chatter.model.MessageType;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface MessageSearchIndex {
+
+    void indexMessages(Collection<MessageSearchDocument> documents);
+
+    void removeMessages(Collection<Long> messagesIds);
+
+    List<Long> search(String text, Collection<Long> chatIds, MessageType messageType, Long before, Long after, int size);
+
+    long startRebuild();
+
+    void finishRebuild(long generation);
+
+    String getCheckpoint();
+
+    void setCheckpoint(String checkpoint);
+
+}
@@ -19,15 +19,14 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.data.redis.core.Cursor;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.expression.spel.ast.Projection;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
 import java.util.function.Function;
@@ -44,12 +43,14 @@ public class MessageService {
     private final MemberService memberService;
     private final ChatService chatService;
     private final MessageFactory messageFactory;
-    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final BroadcastService broadcastService;
     private final MessageMapper messageMapper;
     private final OptionService optionService;
     private final InviteService inviteService;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheService cacheService;
     private final MentionService mentionService;
+    private final MessageSearchIndex messageSearchIndex;
+    private final MessageIndexStream messageIndexStream;
 
     @Transactional
     public Message createMessage(String email, SingleMessageRequest request) {
@@ -78,20 +79,23 @@ public class MessageService {
         message.setUser(sender);
         message.setContent(request.getContent());
         message.setContentJson(request.getContentJson());
+        message.setClientMessageId(request.getClientMessageId());
         if (request.getIsEveryoneMentioned() != null) message.setIsEveryoneMentioned(request.getIsEveryoneMentioned());
         if (request.getMentionedUsersIds() != null) {
             message.setMentions(mentionService.createMentions(message, request.getMentionedUsersIds()));
         }
         Message createdMessage = messageRepository.save(message);
-        chat.addMessage(createdMessage);
+        chat.updateLastMessage(createdMessage);
+        memberService.incrementUnreadCounters(createdMessage);
 
         MessageDto messageDto = messageMapper.toDto(new MessageProjection(createdMessage, false, false), email, true);
-        simpMessagingTemplate.convertAndSend("/topic/chat." + chat.getId() + ".created-messages", messageDto);
+        broadcastService.broadcast("/topic/chat." + chat.getId() + ".created-messages", messageDto);
         chatService.broadcastChatUpdate(chat);
         broadcastLastMessageId(chat);
 
         chatService.evictChatCache(chat);
         evictMessageCaches(createdMessage);
+        indexMessages(List.of(createdMessage));
         return createdMessage;
     }
 
@@ -104,7 +108,9 @@ public class MessageService {
                     "':starred:' + (#starred != null ? #starred : 'null') + " +
                     "':before:' + (#before != null ? #before : 'null') + " +
                     "':after:' + (#after != null ? #after : 'null') + " +
-                    "':size:' + #size"
+                    "':size:' + #size + " +
+                    "':generation:' + @cacheService.getGeneration('messages:email:' + #email) + " +
+                    "':' + (#chatId != null ? @cacheService.getGeneration('messages:chatId:' + #chatId) : 0)"
     )
     public List<MessageDto> getAllMessages(
             String email,
@@ -117,14 +123,34 @@ public class MessageService {
             Long after,
             int size
     ) {
-        Pageable pageable = PageRequest.of(0, size,
-                after != null ? Sort.by("id").ascending() : Sort.by("id").descending());
-
-        Specification<Message> specification = MessageSpecification.withFilters(
-                chatId, content, messageType, pinned, starred, email, before, after
-        );
-        Page<Message> messages = messageRepository.findAll(specification, pageable);
-        List<Message> messageList = messages.getContent();
+        List<Message> messageList;
+        if (isTimelineRequest(chatId, content, messageType, pinned, starred)) {
+            messageList = getTimelineMessages(email, chatId, before, after, size);
+        }
+        else if (isSearchRequest(chatId, content, pinned, starred)) {
+            messageList = memberService.isMember(email, chatId)
+                    ? searchMessageEntities(content, Set.of(chatId), messageType, before, after, size)
+                    : Collections.emptyList();
+        }
+        else {
+            Pageable pageable = PageRequest.of(0, size,
+                    after != null ? Sort.by("id").ascending() : Sort.by("id").descending());
+
+            Specification<Message> specification = MessageSpecification.withFilters(
+                    chatId, content, messageType, pinned, starred, email, before, after
+            );
+            Page<Message> messages = messageRepository.findAll(specification, pageable);
+            messageList = messages.getContent();
+        }
+        return toDtoList(email, messageList);
+    }
+
+    public List<MessageDto> searchMessages(String email, String query, MessageType messageType, Long before, int size) {
+        Set<Long> chatIds = memberService.getChatIds(email);
+        return toDtoList(email, searchMessageEntities(query, chatIds, messageType, before, null, size));
+    }
+
+    private List<MessageDto> toDtoList(String email, List<Message> messageList) {
         if (messageList.isEmpty()) {
             return Collections.emptyList();
         }
@@ -152,6 +178,38 @@ public class MessageService {
         return messageMapper.toDtoListFromProjections(messageProjections, email);
     }
 
+    private boolean isTimelineRequest(Long chatId, String content, MessageType messageType, Boolean pinned, Boolean starred) {
+        return chatId != null && (content == null || content.isBlank()) && messageType == null && pinned == null && starred == null;
+    }
+
+    private List<Message> getTimelineMessages(String email, Long chatId, Long before, Long after, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<Long> messageIds = after != null
+                ? messageRepository.findTimelineIdsAfter(email, chatId, after, pageable)
+                : messageRepository.findTimelineIdsBefore(email, chatId, before != null ? before : Long.MAX_VALUE, pageable);
+        return getMessagesInOrder(messageIds.getContent());
+    }
+
+    private boolean isSearchRequest(Long chatId, String content, Boolean pinned, Boolean starred) {
+        return chatId != null && content != null && !content.isBlank() && pinned == null && starred == null;
+    }
+
+    private List<Message> searchMessageEntities(String query, Set<Long> chatIds, MessageType messageType, Long before, Long after, int size) {
+        return getMessagesInOrder(messageSearchIndex.search(query, chatIds, messageType, before, after, size));
+    }
+
+    private List<Message> getMessagesInOrder(List<Long> messageIds) {
+        if (messageIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Message> messagesById = messageRepository.findByIdIn(messageIds).stream()
+                .collect(Collectors.toMap(Message::getId, Function.identity()));
+        return messageIds.stream()
+                .map(messagesById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     public Message getMessageEntity(String email, Long id) {
         Message message = messageRepository.findById(id).orElseThrow(() -> new NotFoundException("message", "not found"));
         boolean isMember = memberService.isMember(email, message.getChat().getId());
@@ -161,7 +219,17 @@ public class MessageService {
         return message;
     }
 
-    @Cacheable(value = "messages", key = "'email:' + #email + ':messageId:' + #id")
+    @Transactional(readOnly = true)
+    public Optional<Long> findMessageIdByClientMessageId(Long userId, String clientMessageId) {
+        return messageRepository.findIdByUserIdAndClientMessageId(userId, clientMessageId);
+    }
+
+    @Cacheable(
+            value = "messages",
+            key = "'email:' + #email + ':messageId:' + #id + " +
+                    "':generation:' + @cacheService.getGeneration('messages:email:' + #email) + " +
+                    "':' + @cacheService.getGeneration('messages:messageId:' + #id)"
+    )
     public MessageDto getMessage(String email, Long id) {
         Message message = getMessageEntity(email, id);
         MessageStatusProjection projection =  getMessagesProjections(Set.of(email), Set.of(id)).getFirst();
@@ -183,6 +251,7 @@ public class MessageService {
         chatService.broadcastChatUpdate(chat);
         chatService.evictChatCache(chat);
         evictMessageCaches(message);
+        indexMessages(List.of(updatedMessage));
         return updatedMessage;
     }
 
@@ -218,6 +287,8 @@ public class MessageService {
                 AudioMessage audioMessage = (AudioMessage) message;
                 createdMessage = new AudioMessage();
                 ((AudioMessage) createdMessage).setFileUrl(audioMessage.getFileUrl());
+                ((AudioMessage) createdMessage).setDurationMillis(audioMessage.getDurationMillis());
+                ((AudioMessage) createdMessage).setWaveform(audioMessage.getWaveform());
             } else if (message.getMessageType().equals(MessageType.POLL)) {
                 PollMessage pollMessage = (PollMessage) message;
                 createdMessage = new PollMessage();
@@ -232,16 +303,21 @@ public class MessageService {
             createdMessage.setForwarded(true);
             createdMessage.setUser(user);
             createdMessage.setMessageType(message.getMessageType());
-            simpMessagingTemplate.convertAndSend("/topic/chat." + chat.getId() + ".created-messages", messageMapper.toDto(new MessageProjection(createdMessage, false, false), email, true));
             messages.add(createdMessage);
-            evictMessageCaches(createdMessage);
         }
         List<Message> createdMessages = messageRepository.saveAll(messages);
+        for (Message createdMessage : createdMessages) {
+            evictMessageCaches(createdMessage);
+            createdMessage.getChat().updateLastMessage(createdMessage);
+            memberService.incrementUnreadCounters(createdMessage);
+            broadcastService.broadcast("/topic/chat." + createdMessage.getChat().getId() + ".created-messages", messageMapper.toDto(new MessageProjection(createdMessage, false, false), email, true));
+        }
         for (Chat chat : chats) {
             chatService.broadcastChatUpdate(chat);
             broadcastLastMessageId(chat);
             chatService.evictChatCache(chat);
         }
+        indexMessages(createdMessages);
         return createdMessages;
     }
 
@@ -278,15 +354,20 @@ public class MessageService {
             message.setContentJson(request.getContentJson());
             message.setMessageType(message.getMessageType());
             messages.add(message);
-            evictMessageCaches(message);
-            simpMessagingTemplate.convertAndSend("/topic/chat." + targetChat.getId() + ".created-messages", messageMapper.toDto(new MessageProjection(message, false, false), email, true));
         }
         messageRepository.saveAll(messages);
+        for (Message message : messages) {
+            evictMessageCaches(message);
+            message.getChat().updateLastMessage(message);
+            memberService.incrementUnreadCounters(message);
+            broadcastService.broadcast("/topic/chat." + message.getChat().getId() + ".created-messages", messageMapper.toDto(new MessageProjection(message, false, false), email, true));
+        }
         for (Chat targetChat : chats) {
             chatService.broadcastChatUpdate(targetChat);
             broadcastLastMessageId(targetChat);
             chatService.evictChatCache(targetChat);
         }
+        indexMessages(messages);
         return messages;
     }
 
@@ -311,12 +392,17 @@ public class MessageService {
             }
         }
         Chat chat = message.getChat();
-        simpMessagingTemplate.convertAndSend("/topic/chat." + message.getChat().getId() + ".deleted-messages", message.getId());
+        if (chat.getLastMessage() != null && message.getId().equals(chat.getLastMessage().getId())) {
+            chat.updateLastMessage(messageRepository.findFirstByChatIdAndIdLessThanOrderByIdDesc(chat.getId(), message.getId()).orElse(null));
+        }
+        broadcastService.broadcast("/topic/chat." + message.getChat().getId() + ".deleted-messages", message.getId());
         chatService.evictChatCache(chat);
 
         evictMessageCaches(message);
         messageRepository.delete(message);
         messageRepository.flush();
+        memberService.decrementUnreadCounters(message);
+        removeFromIndex(message.getId());
         chatService.broadcastChatUpdate(chat);
         broadcastLastMessageId(chat);
     }
@@ -352,7 +438,7 @@ public class MessageService {
         Set<String> emails = members.stream().map(member -> member.getUser().getEmail()).collect(Collectors.toSet());
         List<MessageStatusProjection> projections = getMessagesProjections(emails, Set.of(message.getId()));
         for (MessageStatusProjection projection : projections) {
-            simpMessagingTemplate.convertAndSend("/topic/chat." + message.getChat().getId() + ".edited-messages?userId=" + projection.getUserId(), messageMapper.toDto(new MessageProjection(message, projection.getIsStarred(), projection.getIsSeen()), projection.getEmail(), true));
+            broadcastService.broadcastLatest("/topic/chat." + message.getChat().getId() + ".edited-messages?userId=" + projection.getUserId(), message.getId(), messageMapper.toDto(new MessageProjection(message, projection.getIsStarred(), projection.getIsSeen()), projection.getEmail(), true));
         }
     }
 
@@ -395,15 +481,19 @@ public class MessageService {
                     ))
                     .collect(Collectors.toList());
 
-            simpMessagingTemplate.convertAndSend(
+            broadcastService.broadcast(
                     "/topic/chat." + chat.getId() + ".edited-messages-batch?userId=" + userId,
                     messageMapper.toDtoListFromProjections(messageProjections, userEmail)
             );
         }
     }
 
-    public List<Message> getUnreadMessages(String email, Long chatId) {
-        return messageRepository.findUnreadMessages(email, chatId);
+    public List<Message> getMessagesReadBetween(String email, Long chatId, Long after, Long upTo) {
+        return messageRepository.findMessagesReadBetween(email, chatId, after, upTo);
+    }
+
+    public Long getLastMessageId(Long chatId) {
+        return messageRepository.findLastMessageId(chatId).orElse(null);
     }
 
     public List<Message> getUnreadMessagesByIds(String email, Iterable<Long> messagesIds) {
@@ -411,28 +501,34 @@ public class MessageService {
     }
 
     public void evictMessageCaches(Message message) {
-        Long chatId = message.getChat().getId();
-        evictCache("messages::*:chatId:" + chatId + "*");
-        evictCache("messages::*:messageId:" + message.getId() + "*");
+        cacheService.incrementGenerations(List.of(
+                "messages:chatId:" + message.getChat().getId(),
+                "messages:messageId:" + message.getId()
+        ));
     }
 
-    private void evictCache(String pattern) {
-        ScanOptions options = ScanOptions.scanOptions()
-                .match(pattern)
-                .count(100)
-                .build();
-        try (Cursor<String> cursor = redisTemplate.scan(options)) {
-            List<String> keys = new ArrayList<>();
-            while (cursor.hasNext()) {
-                keys.add(cursor.next());
-                if (keys.size() >= 100) {
-                    redisTemplate.delete(keys);
-                    keys.clear();
+    private void indexMessages(Collection<Message> messages) {
+        List<MessageSearchDocument> documents = messages.stream()
+                .map(message -> new MessageSearchDocument(message.getId(), message.getChat().getId(), message.getMessageType(), message.getContent()))
+                .collect(Collectors.toList());
+        runAfterCommit(() -> messageIndexStream.publishIndex(documents));
+    }
+
+    private void removeFromIndex(Long messageId) {
+        runAfterCommit(() -> messageIndexStream.publishRemove(List.of(messageId)));
+    }
+
+    private void runAfterCommit(Runnable runnable) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
                 }
-            }
-            if (!keys.isEmpty()) {
-                redisTemplate.delete(keys);
-            }
+            });
+        }
+        else {
+            runnable.run();
         }
     }
 
@@ -443,12 +539,11 @@ public class MessageService {
     private void broadcastLastMessageId(Chat chat) {
         Message lastMessage = chat.getLastMessage();
         if (lastMessage != null) {
-            simpMessagingTemplate.convertAndSend("/topic/chat." + chat.getId() + ".last-message-id", lastMessage.getId());
+            broadcastService.broadcastLatest("/topic/chat." + chat.getId() + ".last-message-id", chat.getId(), lastMessage.getId());
         }
     }
 
     public void evictMessagesCachesForUser(String email) {
-        String pattern = "messages::email:" + email + "*";
-        evictCache(pattern);
+        cacheService.incrementGeneration("messages:email:" + email);
     }
 }
\ No newline at end of file
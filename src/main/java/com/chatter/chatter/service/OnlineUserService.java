@@ -1,62 +1,238 @@
 package com.chatter.chatter.service;
 
-import com.chatter.chatter.model.Option;
-import com.chatter.chatter.model.User;
-import com.chatter.chatter.repository.UserRepository;
+import com.chatter.chatter.exception.BadRequestException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisOperations;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.SessionCallback;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Date;
-import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class OnlineUserService {
 
-    private static final String ONLINE_USERS_KEY = "online_users";
+    private static final String ONLINE_USERS_KEY = "presence_online";
+    private static final String SESSIONS_KEY_PREFIX = "presence_sessions:";
+    private static final String SESSION_EXPIRATIONS_KEY = "presence_session_expirations";
+    private static final String PENDING_BROADCASTS_KEY = "presence_pending_broadcasts";
+    private static final String BROADCAST_ONLINE_KEY = "presence_broadcast_online";
+    private static final String LAST_ONLINE_KEY = "presence_last_online";
+    private static final String LAST_ONLINE_FLUSHING_KEY = "presence_last_online_flushing";
+    private static final int MAX_STATUS_BATCH_SIZE = 1000;
+    private static final String UPDATE_LAST_ONLINE_SQL = "UPDATE users SET last_online = ? WHERE user_id = ?";
+
+    // Only moves a new batch in once the previous one is fully flushed, so concurrent flushes see the same batch
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_LAST_ONLINE_SCRIPT = RedisScript.of("""
+            if redis.call('exists', KEYS[2]) == 0 then
+                if redis.call('exists', KEYS[1]) == 0 then
+                    return {}
+                end
+                redis.call('rename', KEYS[1], KEYS[2])
+            end
+            return redis.call('hgetall', KEYS[2])
+            """, List.class);
+
+    // Removes only the entries that were flushed, in case another node already moved in a newer batch
+    private static final RedisScript<Long> RELEASE_LAST_ONLINE_SCRIPT = RedisScript.of("""
+            local deleted = 0
+            for i = 1, #ARGV, 2 do
+                if redis.call('hget', KEYS[1], ARGV[i]) == ARGV[i + 1] then
+                    deleted = deleted + redis.call('hdel', KEYS[1], ARGV[i])
+                end
+            end
+            return deleted
+            """, Long.class);
 
     private final RedisTemplate<String, String> redisTemplate;
-    private final UserRepository userRepository;
-    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final EphemeralEventBus ephemeralEventBus;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.presence.session-ttl}")
+    private Duration sessionTtl;
+
+    @Value("${app.presence.heartbeat-interval}")
+    private Duration heartbeatInterval;
+
+    @Value("${app.presence.debounce-window}")
+    private Duration debounceWindow;
+
+    private final Map<String, Long> lastHeartbeats = new ConcurrentHashMap<>();
 
-    public void userConnected(String email) {
-        Optional<User> optUser = userRepository.findByEmail(email);
-        if (optUser.isEmpty()) return;
-        User user = optUser.get();
-        if (!user.getShowOnlineStatus()) return;
+    private final Map<String, Long> sessionsWithoutHeartbeats = new ConcurrentHashMap<>();
 
-        Long addedCount = redisTemplate.opsForSet().add(ONLINE_USERS_KEY, user.getId().toString());
-        if (addedCount != null && addedCount > 0) {
-            user.setLastOnline(null);
-            userRepository.save(user);
-            broadcastUserOnlineStatus(user.getId(), true);
+    public void sessionConnected(Long userId, String sessionId, boolean showOnlineStatus, boolean sendsHeartbeats) {
+        long now = System.currentTimeMillis();
+        lastHeartbeats.put(sessionId, now);
+        if (!sendsHeartbeats) {
+            sessionsWithoutHeartbeats.put(sessionId, userId);
         }
+        refreshSession(userId, sessionId, now + sessionTtl.toMillis());
+        if (showOnlineStatus) {
+            markOnline(userId);
+        }
+    }
+
+    public void sessionHeartbeat(Long userId, String sessionId) {
+        long now = System.currentTimeMillis();
+        Long lastHeartbeat = lastHeartbeats.get(sessionId);
+        if (lastHeartbeat == null || now - lastHeartbeat < heartbeatInterval.toMillis()) return;
+        lastHeartbeats.put(sessionId, now);
+        if (redisTemplate.opsForZSet().score(SESSIONS_KEY_PREFIX + userId, sessionId) == null) return;
+        refreshSession(userId, sessionId, now + sessionTtl.toMillis());
+    }
+
+    public void sessionDisconnected(Long userId, String sessionId) {
+        lastHeartbeats.remove(sessionId);
+        sessionsWithoutHeartbeats.remove(sessionId);
+        redisTemplate.opsForZSet().remove(SESSION_EXPIRATIONS_KEY, getSessionMember(userId, sessionId));
+        endSession(userId, sessionId);
     }
 
-    public void userDisconnected(String email) {
-        Optional<User> optUser = userRepository.findByEmail(email);
-        if (optUser.isEmpty()) return;
-        User user = optUser.get();
-        Long removed = redisTemplate.opsForSet().remove(ONLINE_USERS_KEY, user.getId().toString());
-        if (removed != null && removed > 0) {
-            user.setLastOnline(Instant.now());
-            userRepository.save(user);
-            broadcastUserOnlineStatus(user.getId(), false);
+    public void userConnected(Long userId) {
+        if (hasLiveSessions(userId)) {
+            markOnline(userId);
         }
     }
 
+    public void userDisconnected(Long userId) {
+        markOffline(userId);
+    }
+
     public boolean isOnline(Long userId) {
-        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(ONLINE_USERS_KEY, userId.toString()));
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().getBit(ONLINE_USERS_KEY, userId));
+    }
+
+    public Map<Long, Boolean> getOnlineStatuses(Collection<Long> userIds) {
+        if (userIds.size() > MAX_STATUS_BATCH_SIZE) {
+            throw new BadRequestException("userIds", "At most " + MAX_STATUS_BATCH_SIZE + " users can be queried at once");
+        }
+        List<Long> distinctUserIds = userIds.stream().distinct().filter(userId -> userId != null && userId > 0).toList();
+        Map<Long, Boolean> statuses = new LinkedHashMap<>();
+        if (distinctUserIds.isEmpty()) return statuses;
+        BitFieldSubCommands commands = BitFieldSubCommands.create();
+        for (Long userId : distinctUserIds) {
+            commands = commands.get(BitFieldSubCommands.BitFieldType.unsigned(1)).valueAt(userId);
+        }
+        List<Long> bits = redisTemplate.opsForValue().bitField(ONLINE_USERS_KEY, commands);
+        for (int i = 0; i < distinctUserIds.size(); i++) {
+            statuses.put(distinctUserIds.get(i), bits != null && Long.valueOf(1).equals(bits.get(i)));
+        }
+        return statuses;
+    }
+
+    // Idle clients that negotiated no heart-beats stay alive for as long as this node holds their connection
+    @Scheduled(fixedDelay = 30 * 1000, initialDelay = 30 * 1000)
+    public void refreshSessionsWithoutHeartbeats() {
+        long expiresAt = System.currentTimeMillis() + sessionTtl.toMillis();
+        sessionsWithoutHeartbeats.forEach((sessionId, userId) -> {
+            if (redisTemplate.opsForZSet().score(SESSIONS_KEY_PREFIX + userId, sessionId) == null) return;
+            refreshSession(userId, sessionId, expiresAt);
+        });
+    }
+
+    @Scheduled(fixedDelay = 30 * 1000, initialDelay = 30 * 1000)
+    public void expireSessions() {
+        ZSetOperations<String, String> zSetOperations = redisTemplate.opsForZSet();
+        Set<String> expiredSessions = zSetOperations.rangeByScore(SESSION_EXPIRATIONS_KEY, 0, System.currentTimeMillis());
+        if (expiredSessions == null) return;
+        for (String member : expiredSessions) {
+            Long claimed = zSetOperations.remove(SESSION_EXPIRATIONS_KEY, member);
+            if (claimed == null || claimed == 0) continue;
+            int separator = member.indexOf(':');
+            endSession(Long.valueOf(member.substring(0, separator)), member.substring(separator + 1));
+        }
+    }
+
+    @Scheduled(fixedDelay = 1000, initialDelay = 1000)
+    public void broadcastStatusChanges() {
+        ZSetOperations<String, String> zSetOperations = redisTemplate.opsForZSet();
+        Set<String> dueUserIds = zSetOperations.rangeByScore(PENDING_BROADCASTS_KEY, 0, System.currentTimeMillis());
+        if (dueUserIds == null) return;
+        for (String userId : dueUserIds) {
+            Long claimed = zSetOperations.remove(PENDING_BROADCASTS_KEY, userId);
+            if (claimed == null || claimed == 0) continue;
+            boolean online = isOnline(Long.valueOf(userId));
+            Boolean broadcastOnline = redisTemplate.opsForValue().setBit(BROADCAST_ONLINE_KEY, Long.parseLong(userId), online);
+            if (online == Boolean.TRUE.equals(broadcastOnline)) continue;
+            ephemeralEventBus.publish("/topic/users." + userId, online);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60 * 1000, initialDelay = 60 * 1000)
+    public void flushLastOnline() {
+        List<?> entries = redisTemplate.execute(CLAIM_LAST_ONLINE_SCRIPT, List.of(LAST_ONLINE_KEY, LAST_ONLINE_FLUSHING_KEY));
+        if (entries == null || entries.isEmpty()) return;
+        List<Object[]> updates = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i += 2) {
+            String lastOnline = (String) entries.get(i + 1);
+            updates.add(new Object[] {
+                    lastOnline.isEmpty() ? null : Timestamp.from(Instant.ofEpochMilli(Long.parseLong(lastOnline))),
+                    Long.valueOf((String) entries.get(i))
+            });
+        }
+        jdbcTemplate.batchUpdate(UPDATE_LAST_ONLINE_SQL, updates);
+        redisTemplate.execute(RELEASE_LAST_ONLINE_SCRIPT, List.of(LAST_ONLINE_FLUSHING_KEY), entries.toArray());
+        log.debug("Flushed last online timestamps for {} users", updates.size());
+    }
+
+    private void refreshSession(Long userId, String sessionId, long expiresAt) {
+        String sessionsKey = SESSIONS_KEY_PREFIX + userId;
+        redisTemplate.opsForZSet().add(sessionsKey, sessionId, expiresAt);
+        redisTemplate.expire(sessionsKey, sessionTtl);
+        redisTemplate.opsForZSet().add(SESSION_EXPIRATIONS_KEY, getSessionMember(userId, sessionId), expiresAt);
+    }
+
+    private void endSession(Long userId, String sessionId) {
+        redisTemplate.opsForZSet().remove(SESSIONS_KEY_PREFIX + userId, sessionId);
+        if (!hasLiveSessions(userId)) {
+            markOffline(userId);
+        }
+    }
+
+    private boolean hasLiveSessions(Long userId) {
+        Long count = redisTemplate.opsForZSet().count(SESSIONS_KEY_PREFIX + userId, System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+        return count != null && count > 0;
+    }
+
+    private void markOnline(Long userId) {
+        Boolean wasOnline = redisTemplate.opsForValue().setBit(ONLINE_USERS_KEY, userId, true);
+        if (!Boolean.TRUE.equals(wasOnline)) {
+            redisTemplate.opsForHash().put(LAST_ONLINE_KEY, userId.toString(), "");
+            scheduleBroadcast(userId);
+        }
+    }
+
+    private void markOffline(Long userId) {
+        Boolean wasOnline = redisTemplate.opsForValue().setBit(ONLINE_USERS_KEY, userId, false);
+        if (Boolean.TRUE.equals(wasOnline)) {
+            redisTemplate.opsForHash().put(LAST_ONLINE_KEY, userId.toString(), String.valueOf(System.currentTimeMillis()));
+            scheduleBroadcast(userId);
+        }
+    }
+
+    private void scheduleBroadcast(Long userId) {
+        redisTemplate.opsForZSet().addIfAbsent(PENDING_BROADCASTS_KEY, userId.toString(), System.currentTimeMillis() + debounceWindow.toMillis());
     }
 
-    private void broadcastUserOnlineStatus(Long userId, boolean isOnline) {
-        simpMessagingTemplate.convertAndSend("/topic/users." + userId, isOnline);
+    private String getSessionMember(Long userId, String sessionId) {
+        return userId + ":" + sessionId;
     }
 }
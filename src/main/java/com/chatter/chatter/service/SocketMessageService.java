@@ -0,0 +1,129 @@
+package com.chatter.chatter.service;
+
+import com.chatter.chatter.dto.MessageAckDto;
+import com.chatter.chatter.dto.MessageProjection;
+import com.chatter.chatter.exception.BadRequestException;
+import com.chatter.chatter.exception.ForbiddenException;
+import com.chatter.chatter.exception.NotFoundException;
+import com.chatter.chatter.mapper.MessageMapper;
+import com.chatter.chatter.model.Message;
+import com.chatter.chatter.model.MessageType;
+import com.chatter.chatter.request.SingleMessageRequest;
+import com.chatter.chatter.request.SocketMessageRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.BindingResult;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class SocketMessageService {
+
+    private static final String MESSAGE_REQUEST_KEY = "message_request:";
+    private static final String PENDING = "pending";
+    private static final String ACKS_DESTINATION = "/queue/message-acks";
+
+    private static final Set<MessageType> SOCKET_MESSAGE_TYPES = EnumSet.of(MessageType.TEXT, MessageType.POLL);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MessageService messageService;
+    private final MessageMapper messageMapper;
+    private final EphemeralEventBus ephemeralEventBus;
+    private final ObjectProvider<RateLimitingService> rateLimitingServiceProvider;
+
+    @Value("${app.message.pending-ttl}")
+    private Duration pendingTtl;
+
+    public void sendMessage(Long userId, String email, SocketMessageRequest request) {
+        String clientMessageId = request.getClientMessageId();
+        try {
+            if (!SOCKET_MESSAGE_TYPES.contains(request.getMessageType())) {
+                throw new BadRequestException("messageType", "Only TEXT and POLL messages can be sent over the websocket");
+            }
+            RateLimitingService rateLimitingService = rateLimitingServiceProvider.getIfAvailable();
+            if (rateLimitingService != null && !rateLimitingService.resolveBucket(email, null).tryConsume(1)) {
+                throw new BadRequestException("message", "Too Many Requests");
+            }
+            acknowledge(userId, createMessageOnce(userId, email, request));
+        }
+        catch (BadRequestException e) {
+            acknowledge(userId, MessageAckDto.builder().clientMessageId(clientMessageId).errors(e.getErrorMessages()).build());
+        }
+        catch (NotFoundException | ForbiddenException e) {
+            acknowledge(userId, MessageAckDto.builder().clientMessageId(clientMessageId).errors(Map.of("message", e.getMessage())).build());
+        }
+    }
+
+    public void rejectMessage(Long userId, SocketMessageRequest request, BindingResult bindingResult) {
+        Map<String, String> errors = new HashMap<>();
+        bindingResult.getFieldErrors().forEach(error -> errors.put(error.getField(), error.getDefaultMessage()));
+        acknowledge(userId, MessageAckDto.builder().clientMessageId(request.getClientMessageId()).errors(errors).build());
+    }
+
+    // The client message id is stored with the message and unique per sender, so a retry is resolved
+    // from the database, the short Redis claim only tells a retry that the original is still in flight
+    private MessageAckDto createMessageOnce(Long userId, String email, SocketMessageRequest request) {
+        String clientMessageId = request.getClientMessageId();
+        Optional<MessageAckDto> existingAck = findExistingAck(userId, email, clientMessageId);
+        if (existingAck.isPresent()) return existingAck.get();
+        String key = MESSAGE_REQUEST_KEY + userId + ":" + clientMessageId;
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, PENDING, pendingTtl))) {
+            return MessageAckDto.builder().clientMessageId(clientMessageId).pending(true).build();
+        }
+        try {
+            Message message = messageService.createMessage(email, toMessageRequest(request));
+            return MessageAckDto.builder()
+                    .clientMessageId(clientMessageId)
+                    .message(messageMapper.toDto(new MessageProjection(message, false, false), email, true))
+                    .build();
+        }
+        catch (DataIntegrityViolationException e) {
+            // The claim expired while the original was still being written and both reached the database
+            return findExistingAck(userId, email, clientMessageId).orElseThrow(() -> e);
+        }
+        finally {
+            redisTemplate.delete(key);
+        }
+    }
+
+    private Optional<MessageAckDto> findExistingAck(Long userId, String email, String clientMessageId) {
+        return messageService.findMessageIdByClientMessageId(userId, clientMessageId)
+                .map(messageId -> MessageAckDto.builder()
+                        .clientMessageId(clientMessageId)
+                        .message(messageService.getMessage(email, messageId))
+                        .build());
+    }
+
+    private SingleMessageRequest toMessageRequest(SocketMessageRequest request) {
+        SingleMessageRequest messageRequest = new SingleMessageRequest();
+        messageRequest.setUserId(request.getUserId());
+        messageRequest.setChatId(request.getChatId());
+        messageRequest.setMessageType(request.getMessageType());
+        messageRequest.setContent(request.getContent());
+        messageRequest.setContentJson(request.getContentJson());
+        messageRequest.setReplyMessageId(request.getReplyMessageId());
+        messageRequest.setIsEveryoneMentioned(request.getIsEveryoneMentioned());
+        messageRequest.setMentionedUsersIds(request.getMentionedUsersIds());
+        messageRequest.setTitle(request.getTitle());
+        messageRequest.setOptions(request.getOptions());
+        messageRequest.setEndsAt(request.getEndsAt());
+        messageRequest.setMultiple(request.getMultiple());
+        messageRequest.setClientMessageId(request.getClientMessageId());
+        return messageRequest;
+    }
+
+    private void acknowledge(Long userId, MessageAckDto ack) {
+        ephemeralEventBus.publishToUser(userId, ACKS_DESTINATION, ack);
+    }
+
+}
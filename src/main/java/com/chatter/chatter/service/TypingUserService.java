@@ -1,67 +1,176 @@
 package com.chatter.chatter.service;
 
+import com.chatter.chatter.dto.MemberDto;
 import com.chatter.chatter.dto.UserDto;
-import com.chatter.chatter.mapper.UserMapper;
-import com.chatter.chatter.model.User;
+import com.chatter.chatter.exception.NotFoundException;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
 @Service
 @RequiredArgsConstructor
 public class TypingUserService {
 
-    private final String TYPING_USERS_KEY = "typing_users_chat:";
+    private static final long TICK_MILLIS = 500;
+
     private final MemberService memberService;
-    private final UserService userService;
-    private final SimpMessagingTemplate simpMessagingTemplate;
-    private final RedisTemplate<String, String> redisTemplate;
-    private final UserMapper userMapper;
+    private final EphemeralEventBus ephemeralEventBus;
+
+    @Value("${app.typing.ttl}")
+    private Duration ttl;
+
+    @Value("${app.typing.throttle}")
+    private Duration throttle;
+
+    private final ConcurrentMap<Long, Map<Long, TypingUser>> typingUsersByChat = new ConcurrentHashMap<>();
+
+    private List<Queue<TypingExpiration>> wheel;
+
+    private long lastTick;
+
+    @PostConstruct
+    public void init() {
+        int wheelSize = (int) Math.ceilDiv(ttl.toMillis(), TICK_MILLIS) + 2;
+        wheel = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            wheel.add(new ConcurrentLinkedQueue<>());
+        }
+        lastTick = System.currentTimeMillis() / TICK_MILLIS;
+    }
 
     public void addTypingUser(Long chatId, String email) {
-        boolean isMember = memberService.isMember(email, chatId);
-        if (!isMember) return;
-        User user = userService.getUserEntityByEmail(email);
-        String key = TYPING_USERS_KEY + chatId.toString();
-        Long added = redisTemplate.opsForSet().add(key, user.getId().toString());
-        if (added != null && added > 0) {
-            redisTemplate.expire(key, 30, TimeUnit.MINUTES);
-            broadcastNewTypingUser(chatId, userMapper.toDto(user));
+        long now = System.currentTimeMillis();
+        TypingUser typingUser = findTypingUser(chatId, email);
+        if (typingUser != null) {
+            if (now - typingUser.refreshedAt >= throttle.toMillis()) {
+                scheduleExpiration(chatId, typingUser, now);
+            }
+            return;
+        }
+        MemberDto member = getMember(chatId, email);
+        if (member == null) return;
+        TypingUser newTypingUser = new TypingUser(member.getUser());
+        TypingUser existing = putIfAbsent(chatId, newTypingUser);
+        scheduleExpiration(chatId, existing != null ? existing : newTypingUser, now);
+        if (existing == null) {
+            broadcastNewTypingUser(chatId, newTypingUser.user);
         }
     }
 
     public void removeTypingUser(Long chatId, String email) {
-        User user = userService.getUserEntityByEmail(email);
-        String key = TYPING_USERS_KEY + chatId.toString();
-        Long removed = redisTemplate.opsForSet().remove(key, user.getId().toString());
-        if (removed != null && removed > 0) {
-            broadcastRemoveTypingUser(chatId, user.getId());
+        TypingUser typingUser = findTypingUser(chatId, email);
+        if (typingUser != null && remove(chatId, typingUser)) {
+            broadcastRemoveTypingUser(chatId, typingUser.user.getId());
         }
     }
 
-    public List<User> getTypingUsers(Long chatId, String email) {
-        if (email == null || !memberService.isMember(email, chatId)) {
+    public List<UserDto> getTypingUsers(Long chatId, String email) {
+        if (email == null || getMember(chatId, email) == null) {
             return Collections.emptyList();
         }
-        String key = TYPING_USERS_KEY + chatId;
-        Set<String> usersIdsStrings = redisTemplate.opsForSet().members(key);
-        if (usersIdsStrings == null || usersIdsStrings.isEmpty()) {
+        Map<Long, TypingUser> typingUsers = typingUsersByChat.get(chatId);
+        if (typingUsers == null) {
             return Collections.emptyList();
         }
-        List<Long> userIds = usersIdsStrings.stream().map(Long::parseLong).toList();
-        return userService.getUsersEntities(userIds);
+        return typingUsers.values().stream().map(typingUser -> typingUser.user).toList();
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void expireTypingUsers() {
+        long currentTick = System.currentTimeMillis() / TICK_MILLIS;
+        for (long tick = Math.max(lastTick + 1, currentTick - wheel.size() + 1); tick <= currentTick; tick++) {
+            Queue<TypingExpiration> bucket = wheel.get((int) (tick % wheel.size()));
+            for (int pending = bucket.size(); pending > 0; pending--) {
+                TypingExpiration expiration = bucket.poll();
+                if (expiration == null) break;
+                if (expiration.tick() > tick) {
+                    bucket.add(expiration);
+                    continue;
+                }
+                Map<Long, TypingUser> typingUsers = typingUsersByChat.get(expiration.chatId());
+                TypingUser typingUser = typingUsers != null ? typingUsers.get(expiration.userId()) : null;
+                if (typingUser == null || typingUser.expirationTick != expiration.tick()) continue;
+                if (remove(expiration.chatId(), typingUser)) {
+                    broadcastRemoveTypingUser(expiration.chatId(), expiration.userId());
+                }
+            }
+        }
+        lastTick = currentTick;
+    }
+
+    private void scheduleExpiration(Long chatId, TypingUser typingUser, long now) {
+        typingUser.refreshedAt = now;
+        long tick = Math.ceilDiv(now + ttl.toMillis(), TICK_MILLIS);
+        if (tick == typingUser.expirationTick) return;
+        typingUser.expirationTick = tick;
+        wheel.get((int) (tick % wheel.size())).add(new TypingExpiration(chatId, typingUser.user.getId(), tick));
+    }
+
+    private TypingUser findTypingUser(Long chatId, String email) {
+        Map<Long, TypingUser> typingUsers = typingUsersByChat.get(chatId);
+        if (typingUsers == null) return null;
+        return typingUsers.values().stream()
+                .filter(typingUser -> email.equals(typingUser.user.getEmail()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private TypingUser putIfAbsent(Long chatId, TypingUser typingUser) {
+        TypingUser[] existing = new TypingUser[1];
+        typingUsersByChat.compute(chatId, (_, typingUsers) -> {
+            Map<Long, TypingUser> chatTypingUsers = typingUsers != null ? typingUsers : new ConcurrentHashMap<>();
+            existing[0] = chatTypingUsers.putIfAbsent(typingUser.user.getId(), typingUser);
+            return chatTypingUsers;
+        });
+        return existing[0];
+    }
+
+    private boolean remove(Long chatId, TypingUser typingUser) {
+        boolean[] removed = new boolean[1];
+        typingUsersByChat.computeIfPresent(chatId, (_, typingUsers) -> {
+            removed[0] = typingUsers.remove(typingUser.user.getId(), typingUser);
+            return typingUsers.isEmpty() ? null : typingUsers;
+        });
+        return removed[0];
+    }
+
+    private MemberDto getMember(Long chatId, String email) {
+        try {
+            return memberService.getCurrentChatMember(email, chatId);
+        }
+        catch (NotFoundException e) {
+            return null;
+        }
     }
 
     private void broadcastNewTypingUser(Long chatId, UserDto user) {
-        simpMessagingTemplate.convertAndSend("/topic/chat." + chatId + ".added-typing-users", user);
+        ephemeralEventBus.publish("/topic/chat." + chatId + ".added-typing-users", user);
     }
 
     private void broadcastRemoveTypingUser(Long chatId, Long userId) {
-        simpMessagingTemplate.convertAndSend("/topic/chat." + chatId + ".removed-typing-users", userId);
+        ephemeralEventBus.publish("/topic/chat." + chatId + ".removed-typing-users", userId);
+    }
+
+    private static final class TypingUser {
+
+        private final UserDto user;
+        private volatile long refreshedAt;
+        private volatile long expirationTick;
+
+        private TypingUser(UserDto user) {
+            this.user = user;
+        }
+
     }
 
+    private record TypingExpiration(Long chatId, Long userId, long tick) {}
+
 }
@@ -0,0 +1,277 @@
+package com.chatter.chatter.service;
+
+import com.chatter.chatter.dto.FileMetadata;
+import com.chatter.chatter.dto.UploadSessionDto;
+import com.chatter.chatter.dto.UploadedFile;
+import com.chatter.chatter.exception.BadRequestException;
+import com.chatter.chatter.exception.NotFoundException;
+import com.chatter.chatter.request.UploadSessionPostRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadSessionService {
+
+    private static final String SESSION_KEY = "upload_session:";
+    private static final String PARTS_KEY = "upload_session_parts:";
+    private static final String LOCK_KEY = "upload_session_lock:";
+    private static final String EXPIRATIONS_KEY = "upload_sessions_expirations";
+    private static final String UPLOADS_DIRECTORY = "uploads/";
+    private static final Duration LOCK_TIMEOUT = Duration.ofMinutes(5);
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = RedisScript.of("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private static final String EMAIL = "email";
+    private static final String FILE_NAME = "fileName";
+    private static final String FILE_SIZE = "fileSize";
+    private static final String CONTENT_TYPE = "contentType";
+    private static final String FILE_PATH = "filePath";
+    private static final String MULTIPART_UPLOAD_ID = "multipartUploadId";
+    private static final String UPLOADED_BYTES = "uploadedBytes";
+    private static final String BLOB_PATH = "blobPath";
+    private static final String DIRECT = "direct";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final FileUploadService fileUploadService;
+    private final FileValidationService fileValidationService;
+    private final BlobService blobService;
+
+    @Value("${app.upload.max-file-size}")
+    private Long maxFileSize;
+
+    @Value("${app.upload.part-size}")
+    private DataSize partSize;
+
+    @Value("${app.upload.session-ttl}")
+    private Duration sessionTtl;
+
+    public UploadSessionDto createSession(String email, UploadSessionPostRequest request) {
+        String sessionId = UUID.randomUUID().toString();
+        Map<String, String> session = createSessionEntries(sessionId, email, request);
+        session.put(MULTIPART_UPLOAD_ID, fileUploadService.createMultipartUpload(session.get(FILE_PATH), session.get(CONTENT_TYPE)));
+        saveSession(sessionId, session);
+        return toDto(sessionId, session);
+    }
+
+    public UploadSessionDto createDirectSession(String email, UploadSessionPostRequest request) {
+        String sessionId = UUID.randomUUID().toString();
+        Map<String, String> session = createSessionEntries(sessionId, email, request);
+        session.put(DIRECT, Boolean.TRUE.toString());
+        saveSession(sessionId, session);
+        UploadSessionDto uploadSessionDto = toDto(sessionId, session);
+        uploadSessionDto.setUploadUrl(fileUploadService.getUploadUrl(session.get(FILE_PATH), session.get(CONTENT_TYPE), request.getFileSize()));
+        return uploadSessionDto;
+    }
+
+    public UploadSessionDto getSession(String email, String sessionId) {
+        return toDto(sessionId, getSessionEntries(email, sessionId));
+    }
+
+    public UploadSessionDto uploadChunk(String email, String sessionId, Long offset, InputStream inputStream) {
+        Map<String, String> session = getSessionEntries(email, sessionId);
+        String lockToken = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_KEY + sessionId, lockToken, LOCK_TIMEOUT))) {
+            throw new BadRequestException("uploadSession", "Another chunk is being uploaded");
+        }
+        try {
+            session = getSessionEntries(email, sessionId);
+            if (session.containsKey(BLOB_PATH)) {
+                throw new BadRequestException("uploadSession", "Upload is already completed");
+            }
+            if (session.containsKey(DIRECT)) {
+                throw new BadRequestException("uploadSession", "Direct uploads must be sent to the upload url");
+            }
+            long uploadedBytes = Long.parseLong(session.get(UPLOADED_BYTES));
+            if (offset == null || offset != uploadedBytes) {
+                throw new BadRequestException("offset", "Expected offset " + uploadedBytes);
+            }
+            long fileSize = Long.parseLong(session.get(FILE_SIZE));
+            int partBytes = (int) partSize.toBytes();
+            try {
+                while (uploadedBytes < fileSize) {
+                    int expectedBytes = (int) Math.min(partBytes, fileSize - uploadedBytes);
+                    byte[] part = inputStream.readNBytes(expectedBytes);
+                    if (part.length < expectedBytes) break;
+                    int partNumber = (int) (uploadedBytes / partBytes) + 1;
+                    String eTag = fileUploadService.uploadPart(session.get(FILE_PATH), session.get(MULTIPART_UPLOAD_ID), partNumber, part);
+                    uploadedBytes += part.length;
+                    redisTemplate.opsForHash().put(PARTS_KEY + sessionId, String.valueOf(partNumber), eTag);
+                    redisTemplate.opsForHash().put(SESSION_KEY + sessionId, UPLOADED_BYTES, String.valueOf(uploadedBytes));
+                    redisTemplate.expire(LOCK_KEY + sessionId, LOCK_TIMEOUT);
+                }
+            }
+            catch (IOException e) {
+                log.debug("Upload session {} interrupted at offset {}", sessionId, uploadedBytes, e);
+            }
+            session.put(UPLOADED_BYTES, String.valueOf(uploadedBytes));
+        }
+        finally {
+            // Only release our own lock, a chunk that outlived LOCK_TIMEOUT must not drop the next holder's
+            redisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(LOCK_KEY + sessionId), lockToken);
+        }
+        touch(sessionId);
+        return toDto(sessionId, session);
+    }
+
+    public UploadedFile completeSession(String email, String sessionId) {
+        Map<String, String> session = getSessionEntries(email, sessionId);
+        if (!session.containsKey(BLOB_PATH)) {
+            boolean direct = session.containsKey(DIRECT);
+            String filePath = direct ? session.get(FILE_PATH).substring(UPLOADS_DIRECTORY.length()) : session.get(FILE_PATH);
+            long fileSize = Long.parseLong(session.get(FILE_SIZE));
+            String eTag = direct ? copyDirectUpload(session, filePath, fileSize) : completeMultipartUpload(sessionId, session);
+            String contentType = fileValidationService.detectMimeType(fileUploadService.getFilePrefix(filePath, FileValidationService.MIME_TYPE_DETECTION_PREFIX_SIZE));
+            if (contentType != null) {
+                session.put(CONTENT_TYPE, contentType);
+            }
+            session.put(BLOB_PATH, blobService.registerFile(filePath, eTag, fileSize, session.get(CONTENT_TYPE)));
+            redisTemplate.opsForHash().putAll(SESSION_KEY + sessionId, Map.of(BLOB_PATH, session.get(BLOB_PATH), CONTENT_TYPE, session.get(CONTENT_TYPE)));
+            redisTemplate.delete(PARTS_KEY + sessionId);
+            touch(sessionId);
+        }
+        return UploadedFile.builder()
+                .fileName(session.get(FILE_NAME))
+                .filePath(session.get(BLOB_PATH))
+                .fileSize(Long.parseLong(session.get(FILE_SIZE)))
+                .contentType(session.get(CONTENT_TYPE))
+                .build();
+    }
+
+    public void abortSession(String email, String sessionId) {
+        deleteSession(sessionId, getSessionEntries(email, sessionId));
+    }
+
+    @Scheduled(fixedDelay = 15 * 60 * 1000, initialDelay = 5 * 60 * 1000)
+    public void abortExpiredSessions() {
+        Set<String> sessionIds = redisTemplate.opsForZSet().rangeByScore(EXPIRATIONS_KEY, 0, Instant.now().toEpochMilli());
+        if (sessionIds == null) return;
+        for (String sessionId : sessionIds) {
+            try {
+                deleteSession(sessionId, redisTemplate.<String, String>opsForHash().entries(SESSION_KEY + sessionId));
+            }
+            catch (RuntimeException e) {
+                log.warn("Failed to abort expired upload session {}", sessionId, e);
+            }
+        }
+    }
+
+    private void deleteSession(String sessionId, Map<String, String> session) {
+        if (!session.isEmpty()) {
+            if (session.containsKey(DIRECT)) {
+                // The upload url stays valid after completion, so the staging key is cleaned up either way
+                fileUploadService.deleteFiles(List.of(session.get(FILE_PATH)));
+            }
+            else if (!session.containsKey(BLOB_PATH)) {
+                fileUploadService.abortMultipartUpload(session.get(FILE_PATH), session.get(MULTIPART_UPLOAD_ID));
+            }
+        }
+        redisTemplate.delete(Set.of(SESSION_KEY + sessionId, PARTS_KEY + sessionId));
+        redisTemplate.opsForZSet().remove(EXPIRATIONS_KEY, sessionId);
+    }
+
+    private Map<String, String> createSessionEntries(String sessionId, String email, UploadSessionPostRequest request) {
+        if (request.getFileSize() > maxFileSize) {
+            throw new BadRequestException("fileSize", request.getFileName() + " exceeds the maximum allowed size of " + (maxFileSize / (1024 * 1024)) + " MB.");
+        }
+        String extension = fileValidationService.getFileExtension(request.getFileName());
+        Map<String, String> session = new HashMap<>();
+        session.put(EMAIL, email);
+        session.put(FILE_NAME, request.getFileName());
+        session.put(FILE_SIZE, request.getFileSize().toString());
+        session.put(CONTENT_TYPE, request.getContentType() != null ? request.getContentType() : "application/octet-stream");
+        session.put(FILE_PATH, UPLOADS_DIRECTORY + (extension.isBlank() ? sessionId : sessionId + "." + extension));
+        session.put(UPLOADED_BYTES, "0");
+        return session;
+    }
+
+    private void saveSession(String sessionId, Map<String, String> session) {
+        redisTemplate.opsForHash().putAll(SESSION_KEY + sessionId, session);
+        touch(sessionId);
+    }
+
+    private String completeMultipartUpload(String sessionId, Map<String, String> session) {
+        if (!session.get(UPLOADED_BYTES).equals(session.get(FILE_SIZE))) {
+            throw new BadRequestException("uploadSessionIds", session.get(FILE_NAME) + " is not fully uploaded");
+        }
+        // A previous attempt may have completed the upload and failed before registering it,
+        // the multipart upload is gone by then so the assembled object is used as is
+        FileMetadata metadata = fileUploadService.getFileMetadata(session.get(FILE_PATH));
+        if (metadata != null) {
+            return metadata.getETag();
+        }
+        Map<Integer, String> eTags = new HashMap<>();
+        redisTemplate.<String, String>opsForHash().entries(PARTS_KEY + sessionId)
+                .forEach((partNumber, eTag) -> eTags.put(Integer.parseInt(partNumber), eTag));
+        return fileUploadService.completeMultipartUpload(session.get(FILE_PATH), session.get(MULTIPART_UPLOAD_ID), eTags);
+    }
+
+    // The client can keep writing to the staging key until its upload url expires, so the verified
+    // version is copied to a key only the server writes to and only that copy is registered
+    private String copyDirectUpload(Map<String, String> session, String filePath, long fileSize) {
+        FileMetadata copiedMetadata = fileUploadService.getFileMetadata(filePath);
+        if (copiedMetadata != null) {
+            return copiedMetadata.getETag();
+        }
+        String stagingPath = session.get(FILE_PATH);
+        FileMetadata metadata = fileUploadService.getFileMetadata(stagingPath);
+        if (metadata == null) {
+            throw new BadRequestException("uploadSessionIds", session.get(FILE_NAME) + " is not uploaded");
+        }
+        if (metadata.getContentLength() != fileSize) {
+            fileUploadService.deleteFiles(List.of(stagingPath));
+            throw new BadRequestException("uploadSessionIds", session.get(FILE_NAME) + " does not match the declared size");
+        }
+        String eTag = fileUploadService.copyFile(stagingPath, filePath, metadata.getETag());
+        if (eTag == null) {
+            throw new BadRequestException("uploadSessionIds", session.get(FILE_NAME) + " changed while it was being completed");
+        }
+        fileUploadService.deleteFiles(List.of(stagingPath));
+        return eTag;
+    }
+
+    private Map<String, String> getSessionEntries(String email, String sessionId) {
+        Map<String, String> session = new HashMap<>(redisTemplate.<String, String>opsForHash().entries(SESSION_KEY + sessionId));
+        if (session.isEmpty() || !email.equals(session.get(EMAIL))) {
+            throw new NotFoundException("uploadSession", "Upload session not found");
+        }
+        return session;
+    }
+
+    private void touch(String sessionId) {
+        redisTemplate.opsForZSet().add(EXPIRATIONS_KEY, sessionId, Instant.now().plus(sessionTtl).toEpochMilli());
+    }
+
+    private UploadSessionDto toDto(String sessionId, Map<String, String> session) {
+        return UploadSessionDto.builder()
+                .id(sessionId)
+                .fileName(session.get(FILE_NAME))
+                .fileSize(Long.parseLong(session.get(FILE_SIZE)))
+                .uploadedBytes(Long.parseLong(session.get(UPLOADED_BYTES)))
+                .partSize(partSize.toBytes())
+                .completed(session.containsKey(BLOB_PATH))
+                .build();
+    }
+
+}
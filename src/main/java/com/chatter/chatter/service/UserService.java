@@ -57,7 +57,7 @@ public class UserService {
     private final UserMapper userMapper;
     private final CacheManager cacheManager;
     private final FileValidationService fileValidationService;
-    private final FileUploadService fileUploadService;
+    private final BlobService blobService;
     private final RabbitTemplate rabbitTemplate;
     private final ApplicationEventPublisher applicationEventPublisher;
     private final RedisTemplate<String, Object> redisTemplate;
@@ -150,7 +150,7 @@ public class UserService {
             if (!fileValidationService.isSizeValid(imageFile, maxImageSize)) {
                 throw new BadRequestException("image", imageFile.getOriginalFilename() + " exceeds the maximum allowed size of " + (maxImageSize / (1024 * 1024)) + " MB.");
             }
-            String imagePath = fileUploadService.uploadFile(imageFile);
+            String imagePath = blobService.uploadFile(imageFile);
             user.setImage(imagePath);
             sendEvent = true;
         }
@@ -170,10 +170,10 @@ public class UserService {
         if (request.getShowOnlineStatus() != null) {
             user.setShowOnlineStatus(request.getShowOnlineStatus());
             if (user.getShowOnlineStatus()) {
-                onlineUserService.userConnected(user.getEmail());
+                onlineUserService.userConnected(user.getId());
             }
             else {
-                onlineUserService.userDisconnected(user.getEmail());
+                onlineUserService.userDisconnected(user.getId());
             }
         }
         if (request.getShowMessageReads() != null) {
@@ -234,7 +234,7 @@ public class UserService {
         User user = getUserEntity(userId);
         evictUserContactsCache(userId);
         evictUserCacheByEmail(user.getEmail());
-        onlineUserService.userDisconnected(user.getEmail());
+        onlineUserService.userDisconnected(user.getId());
         userRepository.delete(user);
         rabbitTemplate.convertAndSend(RabbitMQConfig.DELETED_USERS, new UserDeletedEvent(userId));
     }
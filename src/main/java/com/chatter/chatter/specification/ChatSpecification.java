@@ -62,9 +62,22 @@ public class ChatSpecification {
         };
     }
 
+    public static Specification<Chat> orderByLastActivity() {
+        return (root, query, cb) -> {
+            if (!Long.class.equals(query.getResultType())) {
+                query.orderBy(
+                        cb.desc(cb.coalesce(root.get("lastActivityAt"), root.get("createdAt"))),
+                        cb.desc(root.get("id"))
+                );
+            }
+            return cb.conjunction();
+        };
+    }
+
     public static Specification<Chat> withFilters(String userEmail, String name, String description) {
         return Specification
                 .where(hasMemberWithEmail(userEmail))
-                .and(hasName(name, userEmail).or(hasDescription(description)));
+                .and(hasName(name, userEmail).or(hasDescription(description)))
+                .and(orderByLastActivity());
     }
 }
@@ -0,0 +1 @@
+create index idx_messages_chat_id_message_id on messages (chat_id, message_id);
@@ -0,0 +1,17 @@
+alter table members
+    add last_read_message_id BIGINT NULL;
+
+alter table members
+    add last_read_at datetime NULL;
+
+update members mem
+    join (
+        select mr.user_id, m.chat_id, max(mr.message_id) as last_read_message_id, max(mr.created_at) as last_read_at
+        from message_reads mr
+        join messages m on m.message_id = mr.message_id
+        group by mr.user_id, m.chat_id
+    ) r on r.user_id = mem.user_id and r.chat_id = mem.chat_id
+set mem.last_read_message_id = r.last_read_message_id,
+    mem.last_read_at = r.last_read_at;
+
+drop table message_reads;
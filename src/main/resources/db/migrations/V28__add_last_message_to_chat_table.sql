@@ -0,0 +1,18 @@
+alter table chat
+    add last_message_id BIGINT NULL;
+
+alter table chat
+    add last_activity_at datetime NULL;
+
+alter table chat
+    add CONSTRAINT FK_CHAT_ON_LAST_MESSAGE FOREIGN KEY (last_message_id) REFERENCES messages (message_id) ON delete SET NULL;
+
+update chat c
+    join (
+        select m.chat_id, max(m.message_id) as last_message_id
+        from messages m
+        group by m.chat_id
+    ) lm on lm.chat_id = c.chat_id
+    join messages m on m.message_id = lm.last_message_id
+set c.last_message_id = m.message_id,
+    c.last_activity_at = m.created_at;
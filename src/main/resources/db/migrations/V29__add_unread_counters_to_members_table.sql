@@ -0,0 +1,32 @@
+alter table members
+    add unread_messages_count BIGINT DEFAULT 0 NOT NULL;
+
+alter table members
+    add first_unread_message_id BIGINT NULL;
+
+alter table members
+    add last_mentioned_message_id BIGINT NULL;
+
+update members mem
+set mem.unread_messages_count = (
+        select count(*) from messages m
+        where m.chat_id = mem.chat_id
+        and m.user_id != mem.user_id
+        and m.message_id > coalesce(mem.last_read_message_id, 0)
+    ),
+    mem.first_unread_message_id = (
+        select min(m.message_id) from messages m
+        where m.chat_id = mem.chat_id
+        and m.user_id != mem.user_id
+        and m.message_id > coalesce(mem.last_read_message_id, 0)
+    ),
+    mem.last_mentioned_message_id = (
+        select max(m.message_id) from messages m
+        where m.chat_id = mem.chat_id
+        and m.user_id != mem.user_id
+        and m.message_id > coalesce(mem.last_read_message_id, 0)
+        and (m.is_everyone_mentioned or exists (
+            select 1 from mentions mn
+            where mn.message_id = m.message_id and mn.user_id = mem.user_id
+        ))
+    );
@@ -0,0 +1,17 @@
+create TABLE IF NOT EXISTS blobs
+(
+    blob_id         BIGINT AUTO_INCREMENT NOT NULL,
+    content_hash    VARCHAR(64)           NOT NULL,
+    file_path       VARCHAR(255)          NOT NULL,
+    file_size       BIGINT                NOT NULL,
+    content_type    VARCHAR(255)          NULL,
+    reference_count BIGINT DEFAULT 0      NOT NULL,
+    created_at      datetime              NOT NULL,
+    CONSTRAINT pk_blobs PRIMARY KEY (blob_id)
+);
+
+alter table blobs
+    add CONSTRAINT uc_blobs_content_hash UNIQUE (content_hash);
+
+alter table blobs
+    add CONSTRAINT uc_blobs_file_path UNIQUE (file_path);
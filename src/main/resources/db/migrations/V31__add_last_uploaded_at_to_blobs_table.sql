@@ -0,0 +1,20 @@
+alter table blobs
+    add last_uploaded_at datetime NULL;
+
+update blobs
+set last_uploaded_at = created_at;
+
+alter table blobs
+    modify last_uploaded_at datetime NOT NULL;
+
+create index idx_attachments_file_path on attachments (file_path);
+
+create index idx_file_messages_file_path on file_messages (file_path);
+
+create index idx_audio_messages_file_url on audio_messages (file_url);
+
+create index idx_media_stories_file_path on media_stories (file_path);
+
+create index idx_users_image on users (image);
+
+create index idx_group_chats_image on group_chats (image);
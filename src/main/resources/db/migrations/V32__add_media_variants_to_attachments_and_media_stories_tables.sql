@@ -0,0 +1,19 @@
+alter table attachments
+    add thumbnail_path VARCHAR(255) NULL;
+
+alter table attachments
+    add medium_path VARCHAR(255) NULL;
+
+alter table media_stories
+    add thumbnail_path VARCHAR(255) NULL;
+
+alter table media_stories
+    add medium_path VARCHAR(255) NULL;
+
+create index idx_attachments_thumbnail_path on attachments (thumbnail_path);
+
+create index idx_attachments_medium_path on attachments (medium_path);
+
+create index idx_media_stories_thumbnail_path on media_stories (thumbnail_path);
+
+create index idx_media_stories_medium_path on media_stories (medium_path);
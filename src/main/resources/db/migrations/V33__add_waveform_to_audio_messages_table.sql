@@ -0,0 +1,5 @@
+alter table audio_messages
+    add duration BIGINT NULL;
+
+alter table audio_messages
+    add waveform VARBINARY(255) NULL;
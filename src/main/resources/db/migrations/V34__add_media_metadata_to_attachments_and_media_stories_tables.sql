@@ -0,0 +1,23 @@
+alter table attachments
+    add width INT NULL;
+
+alter table attachments
+    add height INT NULL;
+
+alter table attachments
+    add duration BIGINT NULL;
+
+alter table attachments
+    add placeholder VARCHAR(64) NULL;
+
+alter table media_stories
+    add width INT NULL;
+
+alter table media_stories
+    add height INT NULL;
+
+alter table media_stories
+    add duration BIGINT NULL;
+
+alter table media_stories
+    add placeholder VARCHAR(64) NULL;
@@ -0,0 +1,2 @@
+alter table blobs
+    drop column reference_count;
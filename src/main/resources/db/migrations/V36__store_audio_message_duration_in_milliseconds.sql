@@ -0,0 +1,6 @@
+alter table audio_messages
+    rename column duration to duration_millis;
+
+update audio_messages
+set duration_millis = duration_millis * 1000
+where duration_millis is not null;
@@ -0,0 +1,5 @@
+alter table messages
+    add client_message_id VARCHAR(64) NULL;
+
+alter table messages
+    add CONSTRAINT uc_messages_user_id_client_message_id UNIQUE (user_id, client_message_id);
@@ -0,0 +1,78 @@
+package com.chatter.chatter.integration.repository;
+
+import com.chatter.chatter.model.Blob;
+import com.chatter.chatter.repository.BlobRepository;
+import com.chatter.chatter.service.BlobService;
+import com.chatter.chatter.service.FileUploadService;
+import com.chatter.chatter.service.FileValidationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(BlobService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BlobRepositoryTests {
+
+    @Autowired
+    private BlobRepository blobRepository;
+
+    @Autowired
+    private BlobService blobService;
+
+    @MockitoBean
+    private FileUploadService fileUploadService;
+
+    @MockitoBean
+    private FileValidationService fileValidationService;
+
+    @AfterEach
+    public void tearDown() {
+        blobRepository.deleteAll();
+    }
+
+    @Test
+    void uploadFile_ShouldReuseStoredBlob_WhenSameContentIsUploadedTwice() {
+        byte[] content = "hello world".getBytes(StandardCharsets.UTF_8);
+
+        String first = blobService.uploadFile(content, "text/plain", "txt");
+        String second = blobService.uploadFile(content, "text/plain", "txt");
+
+        assertEquals(first, second);
+        assertEquals(1, blobRepository.count());
+        verify(fileUploadService, times(1)).uploadFile(any(InputStream.class), eq("text/plain"), eq(first));
+    }
+
+    @Test
+    void touch_ShouldUpdateLastUploadedAt_OutsideOfATransaction() {
+        Blob blob = blobRepository.save(Blob.builder()
+                .contentHash("hash")
+                .filePath("file.txt")
+                .fileSize(1L)
+                .lastUploadedAt(Instant.now().minusSeconds(3600))
+                .build());
+        Instant uploadedAt = Instant.now();
+
+        assertEquals(1, blobRepository.touch(blob.getId(), uploadedAt));
+
+        List<Blob> blobs = blobRepository.findAll();
+        assertTrue(blobs.getFirst().getLastUploadedAt().isAfter(uploadedAt.minusSeconds(1)));
+    }
+
+}
@@ -3,7 +3,9 @@ package com.chatter.chatter.integration.repository;
 import com.chatter.chatter.model.*;
 import com.chatter.chatter.repository.ChatRepository;
 import com.chatter.chatter.repository.MemberRepository;
+import com.chatter.chatter.repository.MessageRepository;
 import com.chatter.chatter.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +13,8 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +32,12 @@ public class MemberRepositoryTests {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private User user;
     private User user2;
     private Chat chat;
@@ -214,4 +224,140 @@ public class MemberRepositoryTests {
         Optional<Member> result = memberRepository.findFirstMemberExcludingMember(chat.getId(), member.getId(), MemberRole.ADMIN);
         assertFalse(result.isPresent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldAdvanceReadWatermark_OnlyForward() {
+        Member member = memberRepository.save(Member.builder()
+                .user(user)
+                .chat(chat)
+                .build());
+
+        assertEquals(1, memberRepository.advanceReadWatermark(user.getEmail(), chat.getId(), 10L, Instant.now()));
+        assertEquals(0, memberRepository.advanceReadWatermark(user.getEmail(), chat.getId(), 5L, Instant.now()));
+        assertEquals(0, memberRepository.advanceReadWatermark(user.getEmail(), chat.getId(), 10L, Instant.now()));
+
+        entityManager.clear();
+        Member result = memberRepository.findById(member.getId()).orElseThrow();
+        assertEquals(10L, result.getLastReadMessageId());
+        assertNotNull(result.getLastReadAt());
+    }
+
+    @Test
+    void shouldFindReaders_WhenWatermarkPastMessage() {
+        memberRepository.save(Member.builder()
+                .user(user)
+                .chat(chat)
+                .lastReadMessageId(10L)
+                .lastReadAt(Instant.now())
+                .build());
+        Member reader = memberRepository.save(Member.builder()
+                .user(user2)
+                .chat(chat)
+                .lastReadMessageId(10L)
+                .lastReadAt(Instant.now())
+                .build());
+
+        List<Member> readers = memberRepository.findReaders(chat.getId(), 10L, user.getId());
+        assertEquals(1, readers.size());
+        assertEquals(reader.getId(), readers.getFirst().getId());
+        assertTrue(memberRepository.findReaders(chat.getId(), 11L, user.getId()).isEmpty());
+    }
+
+    @Test
+    void shouldMaintainUnreadCounters_WhenMessagesSentAndRead() {
+        Member reader = memberRepository.save(Member.builder()
+                .user(user)
+                .chat(chat)
+                .build());
+        memberRepository.save(Member.builder()
+                .user(user2)
+                .chat(chat)
+                .build());
+        Message first = messageRepository.save(TextMessage.builder().messageType(MessageType.TEXT).content("Test message").user(user2).chat(chat).build());
+        Message second = messageRepository.save(TextMessage.builder().messageType(MessageType.TEXT).content("Test message").user(user2).chat(chat).build());
+
+        memberRepository.incrementUnreadCounters(chat.getId(), user2.getId(), first.getId(), first.getCreatedAt());
+        memberRepository.incrementUnreadCounters(chat.getId(), user2.getId(), second.getId(), second.getCreatedAt());
+        memberRepository.markMentioned(chat.getId(), user2.getId(), second.getId(), second.getCreatedAt(), List.of(user.getId()));
+        entityManager.clear();
+
+        Member result = memberRepository.findById(reader.getId()).orElseThrow();
+        assertEquals(2L, result.getUnreadMessagesCount());
+        assertEquals(first.getId(), result.getFirstUnreadMessageId());
+        assertEquals(second.getId(), result.getLastMentionedMessageId());
+
+        memberRepository.advanceReadWatermark(user.getEmail(), chat.getId(), first.getId(), Instant.now());
+        entityManager.clear();
+
+        result = memberRepository.findById(reader.getId()).orElseThrow();
+        assertEquals(1L, result.getUnreadMessagesCount());
+        assertEquals(second.getId(), result.getFirstUnreadMessageId());
+    }
+
+    @Test
+    void shouldRecountUnreadCounters_WhenDrifted() {
+        Member reader = memberRepository.save(Member.builder()
+                .user(user)
+                .chat(chat)
+                .unreadMessagesCount(42L)
+                .firstUnreadMessageId(1L)
+                .lastMentionedMessageId(1L)
+                .build());
+        Message message = messageRepository.save(TextMessage.builder().messageType(MessageType.TEXT).content("Test message").user(user2).chat(chat).build());
+
+        memberRepository.recountUnreadCounters(chat.getId());
+        entityManager.clear();
+
+        Member result = memberRepository.findById(reader.getId()).orElseThrow();
+        assertEquals(1L, result.getUnreadMessagesCount());
+        assertEquals(message.getId(), result.getFirstUnreadMessageId());
+        assertNull(result.getLastMentionedMessageId());
+    }
+
+    @Test
+    void shouldRecountUnreadCounters_ForDeletedSendersAndOnlySinceJoining() {
+        messageRepository.save(TextMessage.builder().messageType(MessageType.TEXT).content("before").user(user2).chat(chat).build());
+        Member reader = memberRepository.save(Member.builder().user(user).chat(chat).build());
+        Message orphaned = messageRepository.save(TextMessage.builder().messageType(MessageType.TEXT).content("orphaned").chat(chat).build());
+
+        memberRepository.recountUnreadCounters(chat.getId());
+        entityManager.clear();
+
+        Member result = memberRepository.findById(reader.getId()).orElseThrow();
+        assertEquals(1L, result.getUnreadMessagesCount());
+        assertEquals(orphaned.getId(), result.getFirstUnreadMessageId());
+    }
+
+    @Test
+    void shouldIncrementUnreadCounters_OnlyForMembersThatJoinedBeforeTheMessage() {
+        Message message = messageRepository.save(TextMessage.builder().messageType(MessageType.TEXT).content("before").user(user2).chat(chat).build());
+        Member reader = memberRepository.save(Member.builder().user(user).chat(chat).build());
+
+        memberRepository.incrementUnreadCounters(chat.getId(), user2.getId(), message.getId(), message.getCreatedAt());
+        entityManager.clear();
+
+        Member result = memberRepository.findById(reader.getId()).orElseThrow();
+        assertEquals(0L, result.getUnreadMessagesCount());
+        assertNull(result.getFirstUnreadMessageId());
+    }
+
+    @Test
+    void shouldDecrementUnreadCounters_OnlyForMembersThatHaveNotReadTheMessage() {
+        Member reader = memberRepository.save(Member.builder().user(user).chat(chat).build());
+        Message first = messageRepository.save(TextMessage.builder().messageType(MessageType.TEXT).content("first").user(user2).chat(chat).build());
+        Message second = messageRepository.save(TextMessage.builder().messageType(MessageType.TEXT).content("second").user(user2).chat(chat).build());
+        memberRepository.incrementUnreadCounters(chat.getId(), user2.getId(), first.getId(), first.getCreatedAt());
+        memberRepository.incrementUnreadCounters(chat.getId(), user2.getId(), second.getId(), second.getCreatedAt());
+        memberRepository.markMentioned(chat.getId(), user2.getId(), first.getId(), first.getCreatedAt(), List.of(user.getId()));
+        messageRepository.delete(first);
+        messageRepository.flush();
+
+        memberRepository.decrementUnreadCounters(chat.getId(), user2.getId(), first.getId(), first.getCreatedAt());
+        entityManager.clear();
+
+        Member result = memberRepository.findById(reader.getId()).orElseThrow();
+        assertEquals(1L, result.getUnreadMessagesCount());
+        assertEquals(second.getId(), result.getFirstUnreadMessageId());
+        assertNull(result.getLastMentionedMessageId());
+    }
+}
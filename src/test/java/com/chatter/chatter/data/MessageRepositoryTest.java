@@ -7,6 +7,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 
@@ -31,9 +33,6 @@ public class MessageRepositoryTest {
     @Autowired
     private MemberRepository memberRepository;
 
-    @Autowired
-    private MessageReadRepository messageReadRepository;
-
     @Autowired
     private StarredMessageRepository starredMessageRepository;
 
@@ -55,6 +54,7 @@ public class MessageRepositoryTest {
     private User user1;
     private User user2;
     private Chat chat;
+    private Member member1;
     private Message message1;
     private Message message2;
     private Message message3;
@@ -62,7 +62,6 @@ public class MessageRepositoryTest {
     @BeforeEach
     public void setup() {
         starredMessageRepository.deleteAll();
-        messageReadRepository.deleteAll();
         reactRepository.deleteAll();
         attachmentRepository.deleteAll();
         optionRepository.deleteAll();
@@ -89,7 +88,7 @@ public class MessageRepositoryTest {
                 .chatType(ChatType.GROUP)
                 .build());
 
-        memberRepository.save(Member.builder()
+        member1 = memberRepository.save(Member.builder()
                 .user(user1)
                 .chat(chat)
                 .memberRole(MemberRole.MEMBER)
@@ -125,10 +124,7 @@ public class MessageRepositoryTest {
 
     @Test
     void findMessageStatus_ShouldReturnCorrectStatus() {
-        messageReadRepository.save(MessageRead.builder()
-                .message(message2)
-                .user(user1)
-                .build());
+        markAsRead(member1, message2);
 
         starredMessageRepository.save(StarredMessage.builder()
                 .message(message3)
@@ -174,11 +170,7 @@ public class MessageRepositoryTest {
 
     @Test
     void findMessageStatus_ShouldReturnCorrectStatus_ForMixedUsers() {
-        messageReadRepository.save(MessageRead.builder()
-                .message(message2)
-                .user(user1)
-                .showRead(true)
-                .build());
+        markAsRead(member1, message2);
 
         starredMessageRepository.save(StarredMessage.builder()
                 .message(message3)
@@ -212,10 +204,7 @@ public class MessageRepositoryTest {
 
     @Test
     void findMessageStatus_ShouldWorkWithMultipleUsers() {
-        messageReadRepository.save(MessageRead.builder()
-                .message(message2)
-                .user(user1)
-                .build());
+        markAsRead(member1, message2);
 
         starredMessageRepository.save(StarredMessage.builder()
                 .message(message3)
@@ -250,37 +239,68 @@ public class MessageRepositoryTest {
     }
 
     @Test
-    void findUnreadMessages_ShouldReturnUnreadMessages() {
-        List<Message> result = messageRepository.findUnreadMessages(user1.getId(), chat.getId());
+    void findTimelineIdsBefore_ShouldReturnIdsDescending() {
+        Slice<Long> result = messageRepository.findTimelineIdsBefore(user1.getEmail(), chat.getId(), Long.MAX_VALUE, PageRequest.of(0, 2));
 
-        assertEquals(2, result.size());
-        assertTrue(result.stream().anyMatch(m -> m.getId().equals(message2.getId())));
-        assertTrue(result.stream().anyMatch(m -> m.getId().equals(message3.getId())));
+        assertEquals(List.of(message3.getId(), message2.getId()), result.getContent());
+        assertTrue(result.hasNext());
     }
 
     @Test
-    void findUnreadMessages_ShouldReturnEmpty_WhenUserNotMember() {
-        List<Message> result = messageRepository.findUnreadMessages(999L, chat.getId());
-        assertTrue(result.isEmpty());
+    void findTimelineIdsBefore_ShouldRespectCursor() {
+        Slice<Long> result = messageRepository.findTimelineIdsBefore(user1.getEmail(), chat.getId(), message2.getId(), PageRequest.of(0, 10));
+
+        assertEquals(List.of(message1.getId()), result.getContent());
+        assertFalse(result.hasNext());
     }
 
     @Test
-    void findUnreadMessages_ShouldReturnEmpty_WhenAllMessagesRead() {
-        messageReadRepository.save(MessageRead.builder()
-                .message(message2)
-                .user(user1)
-                .build());
+    void findTimelineIdsAfter_ShouldReturnIdsAscending() {
+        Slice<Long> result = messageRepository.findTimelineIdsAfter(user1.getEmail(), chat.getId(), message1.getId(), PageRequest.of(0, 10));
 
-        messageReadRepository.save(MessageRead.builder()
-                .message(message3)
-                .user(user1)
-                .build());
+        assertEquals(List.of(message2.getId(), message3.getId()), result.getContent());
+    }
 
-        List<Message> result = messageRepository.findUnreadMessages(user1.getId(), chat.getId());
+    @Test
+    void findTimelineIdsBefore_ShouldReturnEmpty_WhenUserNotMember() {
+        Slice<Long> result = messageRepository.findTimelineIdsBefore("nonmember@example.com", chat.getId(), Long.MAX_VALUE, PageRequest.of(0, 10));
 
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void findByIdIn_ShouldReturnMessages() {
+        List<Message> result = messageRepository.findByIdIn(List.of(message1.getId(), message3.getId()));
+
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    void findMessagesReadBetween_ShouldReturnMessagesFromOtherUsersInRange() {
+        List<Message> result = messageRepository.findMessagesReadBetween(user1.getEmail(), chat.getId(), 0L, message3.getId());
+
+        assertEquals(List.of(message2.getId(), message3.getId()), result.stream().map(Message::getId).toList());
+    }
+
+    @Test
+    void findMessagesReadBetween_ShouldExcludeMessagesAtOrBeforeWatermark() {
+        List<Message> result = messageRepository.findMessagesReadBetween(user1.getEmail(), chat.getId(), message2.getId(), message3.getId());
+
+        assertEquals(List.of(message3.getId()), result.stream().map(Message::getId).toList());
+    }
+
+    @Test
+    void findLastMessageId_ShouldReturnLatestMessageId() {
+        assertEquals(Optional.of(message3.getId()), messageRepository.findLastMessageId(chat.getId()));
+    }
+
+    @Test
+    void findLastMessageId_ShouldReturnEmpty_WhenChatHasNoMessages() {
+        Chat emptyChat = chatRepository.save(Chat.builder().chatType(ChatType.GROUP).build());
+
+        assertTrue(messageRepository.findLastMessageId(emptyChat.getId()).isEmpty());
+    }
+
     @Test
     void findUnreadMessagesByIds_ShouldReturnUnreadMessages() {
         List<Long> messageIds = List.of(message2.getId(), message3.getId());
@@ -293,10 +313,7 @@ public class MessageRepositoryTest {
 
     @Test
     void findUnreadMessagesByIds_ShouldReturnEmpty_WhenMessagesRead() {
-        messageReadRepository.save(MessageRead.builder()
-                .message(message2)
-                .user(user1)
-                .build());
+        markAsRead(member1, message2);
 
         List<Long> messageIds = List.of(message2.getId(), message3.getId());
         List<Message> result = messageRepository.findUnreadMessagesByIds(user1.getId(), messageIds);
@@ -421,4 +438,10 @@ public class MessageRepositoryTest {
                 .findFirst()
                 .orElseThrow(() -> new AssertionError("Status not found for message ID: " + messageId + " and email: " + email));
     }
-}
\ No newline at end of file
+
+    private void markAsRead(Member member, Message message) {
+        member.setLastReadMessageId(message.getId());
+        memberRepository.save(member);
+    }
+
+}
@@ -22,6 +22,8 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.util.List;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -104,6 +106,7 @@ public class ChatControllerTests extends BaseIntegrationTest {
 
         c.addMessage(message);
         chat = chatRepository.save(c);
+        memberRepository.recountUnreadCounters(List.of(member1.getId(), member2.getId()));
 
         groupChat = GroupChat.builder()
                 .image("groupImage")
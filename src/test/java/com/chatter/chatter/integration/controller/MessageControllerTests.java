@@ -51,9 +51,6 @@ public class MessageControllerTests extends BaseIntegrationTest {
     @Autowired
     private MessageRepository messageRepository;
 
-    @Autowired
-    private MessageReadRepository messageReadRepository;
-
     @Autowired
     private InviteRepository inviteRepository;
 
@@ -68,7 +65,6 @@ public class MessageControllerTests extends BaseIntegrationTest {
 
     @BeforeEach
     public void setup() {
-        messageReadRepository.deleteAll();
         messageRepository.deleteAll();
         memberRepository.deleteAll();
         chatRepository.deleteAll();
@@ -22,6 +22,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.Instant;
 import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -52,20 +53,16 @@ public class MessageReadControllerTest extends BaseIntegrationTest {
     @Autowired
     private MemberRepository memberRepository;
 
-    @Autowired
-    private MessageReadRepository messageReadRepository;
-
     private User user1;
     private User user2;
     private Chat chat;
     private Message message;
-    private MessageRead messageRead;
+    private Member member2;
     private String user1AccessToken;
     private String user2AccessToken;
 
     @BeforeEach
     public void setup() {
-        messageReadRepository.deleteAll();
         messageRepository.deleteAll();
         memberRepository.deleteAll();
         chatRepository.deleteAll();
@@ -95,7 +92,7 @@ public class MessageReadControllerTest extends BaseIntegrationTest {
                 .memberRole(MemberRole.MEMBER)
                 .build();
 
-        Member member2 = Member.builder()
+        member2 = Member.builder()
                 .user(user2)
                 .chat(chat)
                 .memberRole(MemberRole.MEMBER)
@@ -114,23 +111,23 @@ public class MessageReadControllerTest extends BaseIntegrationTest {
         chat.addMember(member2);
         chatRepository.save(chat);
 
-        messageRead = messageReadRepository.save(MessageRead.builder()
-                .user(user1)
-                .message(message)
-                .showRead(true)
-                .build());
-
         user1AccessToken = "Bearer " + jwtService.generateToken(user1.getEmail()).getAccessToken();
         user2AccessToken = "Bearer " + jwtService.generateToken(user2.getEmail()).getAccessToken();
     }
 
     @Test
     void getMessageReads_ShouldReturnMessageReads() throws Exception {
+        member2.setLastReadMessageId(message.getId());
+        member2.setLastReadAt(Instant.now());
+        memberRepository.save(member2);
+
         mockMvc.perform(get("/api/message-reads")
                         .param("messageId", message.getId().toString())
                         .header("Authorization", user1AccessToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(messageRead.getId()));
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(member2.getId()))
+                .andExpect(jsonPath("$[0].user.id").value(user2.getId()));
     }
 
     @Test
@@ -159,7 +156,11 @@ public class MessageReadControllerTest extends BaseIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.id").exists());
+                .andExpect(jsonPath("$.id").exists())
+                .andExpect(jsonPath("$.messageId").value(message.getId()));
+
+        Member updatedMember = memberRepository.findById(member2.getId()).orElseThrow();
+        assertEquals(message.getId(), updatedMember.getLastReadMessageId());
     }
 
     @Test
@@ -195,11 +196,14 @@ public class MessageReadControllerTest extends BaseIntegrationTest {
 
     @Test
     void createMessageRead_ShouldReturnBadRequest_WhenAlreadyRead() throws Exception {
+        member2.setLastReadMessageId(message.getId());
+        memberRepository.save(member2);
+
         MessageReadPostRequest request = new MessageReadPostRequest();
         request.setMessageId(message.getId());
 
         mockMvc.perform(post("/api/message-reads")
-                        .header("Authorization", user1AccessToken)
+                        .header("Authorization", user2AccessToken)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
@@ -0,0 +1,105 @@
+package com.chatter.chatter.unit.cache;
+
+import com.chatter.chatter.cache.CacheInvalidationMessage;
+import com.chatter.chatter.cache.TwoTierCache;
+import com.chatter.chatter.cache.TwoTierCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class TwoTierCacheManagerTests {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ConcurrentMapCacheManager remoteCacheManager;
+
+    private TwoTierCacheManager cacheManager;
+
+    @BeforeEach
+    public void setup() {
+        remoteCacheManager = new ConcurrentMapCacheManager();
+        cacheManager = new TwoTierCacheManager(remoteCacheManager, redisTemplate, meterRegistry, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void get_ShouldServeFromLocalCache_AfterFirstRemoteHit() {
+        remoteCacheManager.getCache("users").put("email:test@example.com", "user");
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache("users");
+
+        assertEquals("user", cache.get("email:test@example.com").get());
+        remoteCacheManager.getCache("users").evict("email:test@example.com");
+
+        assertEquals("user", cache.get("email:test@example.com").get());
+        assertEquals(1, cache.getLocalCache().stats().hitCount());
+        assertEquals(1, cache.getLocalCache().stats().missCount());
+    }
+
+    @Test
+    void getCache_ShouldRegisterLocalCacheMeters_WhenCacheIsCreatedLazily() {
+        Cache cache = cacheManager.getCache("users");
+        cache.get("id:1");
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "miss").functionCounter().count());
+        assertNotNull(meterRegistry.get("cache.size").tag("cache", "users").tag("cache.manager", "cacheManager").gauge());
+    }
+
+    @Test
+    void put_ShouldWriteBothTiers_AndPublishInvalidation() {
+        Cache cache = cacheManager.getCache("users");
+
+        cache.put("id:1", "user");
+
+        assertEquals("user", remoteCacheManager.getCache("users").get("id:1").get());
+        assertEquals("user", ((TwoTierCache) cache).getLocalCache().getIfPresent("id:1"));
+        verify(redisTemplate).convertAndSend(eq(CacheInvalidationMessage.CHANNEL), any(CacheInvalidationMessage.class));
+    }
+
+    @Test
+    void handleInvalidation_ShouldEvictLocalEntry_WhenPublishedByAnotherNode() {
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache("isBlocked");
+        cache.getLocalCache().put("userId:1:email:test@example.com", true);
+
+        cacheManager.handleInvalidation(CacheInvalidationMessage.key("other-node", "isBlocked", "userId:1:email:test@example.com"));
+
+        assertNull(cache.getLocalCache().getIfPresent("userId:1:email:test@example.com"));
+    }
+
+    @Test
+    void handleInvalidation_ShouldIgnoreMessages_PublishedBySameNode() {
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache("users");
+        cache.getLocalCache().put("id:1", "user");
+
+        cacheManager.handleInvalidation(CacheInvalidationMessage.key(cacheManager.getNodeId(), "users", "id:1"));
+
+        assertEquals("user", cache.getLocalCache().getIfPresent("id:1"));
+    }
+
+    @Test
+    void handleInvalidation_ShouldClearLocalCache_WhenNoKeyGiven() {
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache("usersSearch");
+        cache.getLocalCache().put("search:a", "page");
+
+        cacheManager.handleInvalidation(CacheInvalidationMessage.clear("other-node", "usersSearch"));
+
+        assertEquals(0, cache.getLocalCache().estimatedSize());
+    }
+
+}
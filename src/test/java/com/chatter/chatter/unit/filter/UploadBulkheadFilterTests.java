@@ -0,0 +1,105 @@
+package com.chatter.chatter.unit.filter;
+
+import com.chatter.chatter.filter.UploadBulkheadFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UploadBulkheadFilterTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UploadBulkheadFilter uploadBulkheadFilter;
+
+    @BeforeEach
+    public void setUp() {
+        uploadBulkheadFilter = new UploadBulkheadFilter(meterRegistry);
+        ReflectionTestUtils.setField(uploadBulkheadFilter, "maxConcurrent", 1);
+        uploadBulkheadFilter.start();
+    }
+
+    @Test
+    void doFilter_ShouldRunUploadOnRequestThread() throws Exception {
+        AtomicReference<Thread> thread = new AtomicReference<>();
+
+        uploadBulkheadFilter.doFilter(createUploadRequest(), new MockHttpServletResponse(), (_, _) -> thread.set(Thread.currentThread()));
+
+        assertSame(Thread.currentThread(), thread.get());
+        assertEquals(0.0, meterRegistry.get("upload.bulkhead.active").gauge().value());
+    }
+
+    @Test
+    void doFilter_ShouldShedUpload_WhenBulkheadIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blockingChain = (_, _) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        Thread upload = Thread.ofVirtual().start(() -> {
+            try {
+                uploadBulkheadFilter.doFilter(createUploadRequest(), new MockHttpServletResponse(), blockingChain);
+            }
+            catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        uploadBulkheadFilter.doFilter(createUploadRequest(), response, new MockFilterChain());
+        release.countDown();
+        upload.join();
+
+        assertEquals(503, response.getStatus());
+        assertEquals("5", response.getHeader("Retry-After"));
+        assertEquals(1.0, meterRegistry.counter("upload.bulkhead.rejected").count());
+    }
+
+    @Test
+    void doFilter_ShouldReleasePermit_WhenUploadFails() {
+        FilterChain failingChain = (_, _) -> {
+            throw new IllegalStateException("failed");
+        };
+
+        assertThrows(IllegalStateException.class, () -> uploadBulkheadFilter.doFilter(createUploadRequest(), new MockHttpServletResponse(), failingChain));
+
+        assertEquals(0.0, meterRegistry.get("upload.bulkhead.active").gauge().value());
+    }
+
+    @Test
+    void doFilter_ShouldPassThroughInteractiveRequests() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/chats");
+        MockFilterChain filterChain = new MockFilterChain();
+
+        uploadBulkheadFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        assertNotNull(filterChain.getRequest());
+        assertEquals(0.0, meterRegistry.counter("upload.bulkhead.rejected").count());
+    }
+
+    private MockHttpServletRequest createUploadRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/messages");
+        request.setContentType(MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=test");
+        return request;
+    }
+
+}
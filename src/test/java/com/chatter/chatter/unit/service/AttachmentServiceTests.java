@@ -1,13 +1,18 @@
 package com.chatter.chatter.unit.service;
 
+import com.chatter.chatter.dto.MediaMetadata;
+import com.chatter.chatter.dto.MediaVariants;
+import com.chatter.chatter.dto.UploadedFile;
 import com.chatter.chatter.exception.BadRequestException;
 import com.chatter.chatter.model.Attachment;
 import com.chatter.chatter.model.AttachmentType;
 import com.chatter.chatter.model.MediaMessage;
 import com.chatter.chatter.repository.AttachmentRepository;
 import com.chatter.chatter.service.AttachmentService;
-import com.chatter.chatter.service.FileUploadService;
+import com.chatter.chatter.service.BlobService;
 import com.chatter.chatter.service.FileValidationService;
+import com.chatter.chatter.service.MediaMetadataService;
+import com.chatter.chatter.service.MediaVariantService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,6 +23,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,11 +36,17 @@ public class AttachmentServiceTests {
     private AttachmentRepository attachmentRepository;
 
     @Mock
-    private FileUploadService fileUploadService;
+    private BlobService blobService;
 
     @Mock
     private FileValidationService fileValidationService;
 
+    @Mock
+    private MediaMetadataService mediaMetadataService;
+
+    @Mock
+    private MediaVariantService mediaVariantService;
+
     @InjectMocks
     private AttachmentService attachmentService;
 
@@ -71,17 +83,21 @@ public class AttachmentServiceTests {
 
     @Test
     void createAttachments_ShouldCreateMultipleAttachments()  {
-        when(fileValidationService.isImage(imageFile)).thenReturn(true);
+        when(fileValidationService.detectMimeType(imageFile)).thenReturn("image/jpeg");
+        when(fileValidationService.isImage("image/jpeg")).thenReturn(true);
         when(fileValidationService.isSizeValid(imageFile, maxFileSize)).thenReturn(true);
-        when(fileUploadService.uploadFile(imageFile)).thenReturn("image.jpg");
-        when(fileValidationService.isVideo(videoFile)).thenReturn(true);
+        when(blobService.uploadFile(imageFile)).thenReturn("image.jpg");
+        when(fileValidationService.detectMimeType(videoFile)).thenReturn("video/mp4");
+        when(fileValidationService.isVideo("video/mp4")).thenReturn(true);
         when(fileValidationService.isSizeValid(videoFile, maxFileSize)).thenReturn(true);
-        when(fileUploadService.uploadFile(videoFile)).thenReturn("video.mp4");
+        when(blobService.uploadFile(videoFile)).thenReturn("video.mp4");
+        when(mediaMetadataService.extract(imageFile, "image/jpeg")).thenReturn(new MediaMetadata());
+        when(mediaMetadataService.extract(videoFile, "video/mp4")).thenReturn(new MediaMetadata());
 
         List<Attachment> result = attachmentService.createAttachments(mediaMessage, List.of(imageFile, videoFile));
 
         assertEquals(2, result.size());
-        verify(fileUploadService, times(2)).uploadFile(any(MultipartFile.class));
+        verify(blobService, times(2)).uploadFile(any(MultipartFile.class));
         result.forEach(att -> assertEquals(mediaMessage, att.getMessage()));
     }
 
@@ -90,34 +106,37 @@ public class AttachmentServiceTests {
         List<Attachment> result = attachmentService.createAttachments(mediaMessage, List.of());
 
         assertTrue(result.isEmpty());
-        verify(fileUploadService, never()).uploadFile(any(MultipartFile.class));
+        verify(blobService, never()).uploadFile(any(MultipartFile.class));
     }
 
     @Test
     void createAttachments_ShouldThrowException_WhenInvalidFileType()  {
-        when(fileValidationService.isImage(invalidFile)).thenReturn(false);
-        when(fileValidationService.isVideo(invalidFile)).thenReturn(false);
+        when(fileValidationService.detectMimeType(invalidFile)).thenReturn("application/octet-stream");
+        when(fileValidationService.isImage("application/octet-stream")).thenReturn(false);
+        when(fileValidationService.isVideo("application/octet-stream")).thenReturn(false);
 
         assertThrows(BadRequestException.class, () -> attachmentService.createAttachments(mediaMessage, List.of(invalidFile)));
-        verify(fileUploadService, never()).uploadFile(any(MultipartFile.class));
+        verify(blobService, never()).uploadFile(any(MultipartFile.class));
     }
 
     @Test
     void createAttachments_ShouldThrowException_WhenImageExceedsSize()  {
-        when(fileValidationService.isImage(imageFile)).thenReturn(true);
+        when(fileValidationService.detectMimeType(imageFile)).thenReturn("image/jpeg");
+        when(fileValidationService.isImage("image/jpeg")).thenReturn(true);
         when(fileValidationService.isSizeValid(imageFile, maxFileSize)).thenReturn(false);
         when(imageFile.getOriginalFilename()).thenReturn("large-image.jpg");
 
         BadRequestException exception = assertThrows(BadRequestException.class, () -> attachmentService.createAttachments(mediaMessage, List.of(imageFile)));
 
         assertTrue(exception.getMessage().contains("exceeds the maximum allowed size"));
-        verify(fileUploadService, never()).uploadFile(any(MultipartFile.class));
+        verify(blobService, never()).uploadFile(any(MultipartFile.class));
     }
 
     @Test
     void createAttachments_ShouldThrowException_WhenVideoExceedsSize()  {
-        when(fileValidationService.isImage(videoFile)).thenReturn(false);
-        when(fileValidationService.isVideo(videoFile)).thenReturn(true);
+        when(fileValidationService.detectMimeType(videoFile)).thenReturn("video/mp4");
+        when(fileValidationService.isImage("video/mp4")).thenReturn(false);
+        when(fileValidationService.isVideo("video/mp4")).thenReturn(true);
         when(fileValidationService.isSizeValid(videoFile, maxFileSize)).thenReturn(false);
         when(videoFile.getOriginalFilename()).thenReturn("large-video.mp4");
 
@@ -126,40 +145,64 @@ public class AttachmentServiceTests {
         });
 
         assertTrue(exception.getMessage().contains("exceeds the maximum allowed size"));
-        verify(fileUploadService, never()).uploadFile(any(MultipartFile.class));
+        verify(blobService, never()).uploadFile(any(MultipartFile.class));
     }
 
     @Test
     void createAttachment_ShouldCreateAttachmentFromMultipartFile()  {
-        when(fileValidationService.isImage(imageFile)).thenReturn(true);
+        when(fileValidationService.detectMimeType(imageFile)).thenReturn("image/jpeg");
+        when(fileValidationService.isImage("image/jpeg")).thenReturn(true);
         when(fileValidationService.isSizeValid(imageFile, maxFileSize)).thenReturn(true);
-        when(fileUploadService.uploadFile(imageFile)).thenReturn("image.jpg");
+        when(blobService.uploadFile(imageFile)).thenReturn("image.jpg");
+        when(mediaMetadataService.extract(imageFile, "image/jpeg")).thenReturn(MediaMetadata.builder().width(1920).height(1080).placeholder("LEHV6nWB2yk8").build());
 
         Attachment result = attachmentService.createAttachment(imageFile);
 
         assertNotNull(result);
         assertEquals(AttachmentType.IMAGE, result.getAttachmentType());
         assertEquals("image.jpg", result.getFilePath());
-        verify(fileUploadService).uploadFile(imageFile);
+        assertEquals(1920, result.getWidth());
+        assertEquals(1080, result.getHeight());
+        assertEquals("LEHV6nWB2yk8", result.getPlaceholder());
+        verify(blobService).uploadFile(imageFile);
+    }
+
+    @Test
+    void createAttachment_ShouldReuseVariants_WhenImageWasAlreadyProcessed()  {
+        when(fileValidationService.detectMimeType(imageFile)).thenReturn("image/jpeg");
+        when(fileValidationService.isImage("image/jpeg")).thenReturn(true);
+        when(fileValidationService.isSizeValid(imageFile, maxFileSize)).thenReturn(true);
+        when(blobService.uploadFile(imageFile)).thenReturn("image.jpg");
+        when(mediaMetadataService.extract(imageFile, "image/jpeg")).thenReturn(MediaMetadata.builder().build());
+        when(mediaVariantService.findVariants("image.jpg")).thenReturn(Optional.of(new MediaVariants("thumbnail.jpg", "medium.jpg")));
+
+        Attachment result = attachmentService.createAttachment(imageFile);
+
+        assertEquals("thumbnail.jpg", result.getThumbnailPath());
+        assertEquals("medium.jpg", result.getMediumPath());
     }
 
     @Test
     void createAttachment_ShouldSetVideoType_ForVideoFile()  {
-        when(fileValidationService.isImage(videoFile)).thenReturn(false);
-        when(fileValidationService.isVideo(videoFile)).thenReturn(true);
+        when(fileValidationService.detectMimeType(videoFile)).thenReturn("video/mp4");
+        when(fileValidationService.isImage("video/mp4")).thenReturn(false);
+        when(fileValidationService.isVideo("video/mp4")).thenReturn(true);
         when(fileValidationService.isSizeValid(videoFile, maxFileSize)).thenReturn(true);
-        when(fileUploadService.uploadFile(videoFile)).thenReturn("video.mp4");
+        when(blobService.uploadFile(videoFile)).thenReturn("video.mp4");
+        when(mediaMetadataService.extract(videoFile, "video/mp4")).thenReturn(MediaMetadata.builder().durationMillis(12600L).build());
 
         Attachment result = attachmentService.createAttachment(videoFile);
 
         assertEquals(AttachmentType.VIDEO, result.getAttachmentType());
         assertEquals("video.mp4", result.getFilePath());
+        assertEquals(13L, result.getDuration());
     }
 
     @Test
     void createAttachment_ShouldThrowException_ForUnsupportedFileType()  {
-        when(fileValidationService.isImage(invalidFile)).thenReturn(false);
-        when(fileValidationService.isVideo(invalidFile)).thenReturn(false);
+        when(fileValidationService.detectMimeType(invalidFile)).thenReturn("application/octet-stream");
+        when(fileValidationService.isImage("application/octet-stream")).thenReturn(false);
+        when(fileValidationService.isVideo("application/octet-stream")).thenReturn(false);
         when(invalidFile.getOriginalFilename()).thenReturn("invalid.exe");
 
         BadRequestException exception = assertThrows(BadRequestException.class, () -> {
@@ -167,12 +210,13 @@ public class AttachmentServiceTests {
         });
 
         assertTrue(exception.getMessage().contains("is not a supported file type"));
-        verify(fileUploadService, never()).uploadFile(any(MultipartFile.class));
+        verify(blobService, never()).uploadFile(any(MultipartFile.class));
     }
 
     @Test
     void createAttachment_ShouldThrowException_ForOversizedImage()  {
-        when(fileValidationService.isImage(oversizedFile)).thenReturn(true);
+        when(fileValidationService.detectMimeType(oversizedFile)).thenReturn("image/jpeg");
+        when(fileValidationService.isImage("image/jpeg")).thenReturn(true);
         when(fileValidationService.isSizeValid(oversizedFile, maxFileSize)).thenReturn(false);
         when(oversizedFile.getOriginalFilename()).thenReturn("huge-image.jpg");
 
@@ -181,13 +225,14 @@ public class AttachmentServiceTests {
         });
 
         assertTrue(exception.getMessage().contains("exceeds the maximum allowed size"));
-        verify(fileUploadService, never()).uploadFile(any(MultipartFile.class));
+        verify(blobService, never()).uploadFile(any(MultipartFile.class));
     }
 
     @Test
     void createAttachment_ShouldThrowException_ForOversizedVideo()  {
-        when(fileValidationService.isImage(oversizedFile)).thenReturn(false);
-        when(fileValidationService.isVideo(oversizedFile)).thenReturn(true);
+        when(fileValidationService.detectMimeType(oversizedFile)).thenReturn("video/mp4");
+        when(fileValidationService.isImage("video/mp4")).thenReturn(false);
+        when(fileValidationService.isVideo("video/mp4")).thenReturn(true);
         when(fileValidationService.isSizeValid(oversizedFile, maxFileSize)).thenReturn(false);
         when(oversizedFile.getOriginalFilename()).thenReturn("huge-video.mp4");
 
@@ -196,7 +241,7 @@ public class AttachmentServiceTests {
         });
 
         assertTrue(exception.getMessage().contains("exceeds the maximum allowed size"));
-        verify(fileUploadService, never()).uploadFile(any(MultipartFile.class));
+        verify(blobService, never()).uploadFile(any(MultipartFile.class));
     }
 
     @Test
@@ -231,4 +276,29 @@ public class AttachmentServiceTests {
         assertEquals(AttachmentType.VIDEO, result.getAttachmentType());
         assertEquals(mediaMessage, result.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void createAttachment_ShouldUseStoredUpload_WhenUploadIsVideo() {
+        UploadedFile uploadedFile = new UploadedFile("video.mp4", "uploads/session.mp4", 1024L, "video/mp4");
+        when(fileValidationService.isImage("video/mp4")).thenReturn(false);
+        when(fileValidationService.isVideo("video/mp4")).thenReturn(true);
+        when(mediaMetadataService.extract("uploads/session.mp4", "video/mp4")).thenReturn(MediaMetadata.builder().durationMillis(12400L).build());
+
+        Attachment result = attachmentService.createAttachment(uploadedFile);
+
+        assertEquals(AttachmentType.VIDEO, result.getAttachmentType());
+        assertEquals("uploads/session.mp4", result.getFilePath());
+        assertEquals(12L, result.getDuration());
+        verifyNoInteractions(blobService);
+    }
+
+    @Test
+    void createAttachment_ShouldThrowBadRequest_WhenUploadIsNotMedia() {
+        UploadedFile uploadedFile = new UploadedFile("file.pdf", "uploads/session.pdf", 1024L, "application/pdf");
+        when(fileValidationService.isImage("application/pdf")).thenReturn(false);
+        when(fileValidationService.isVideo("application/pdf")).thenReturn(false);
+
+        assertThrows(BadRequestException.class, () -> attachmentService.createAttachment(uploadedFile));
+    }
+
+}
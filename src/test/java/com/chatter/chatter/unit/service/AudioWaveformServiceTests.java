@@ -0,0 +1,111 @@
+package com.chatter.chatter.unit.service;
+
+import com.chatter.chatter.model.AudioMessage;
+import com.chatter.chatter.service.AudioWaveformService;
+import com.chatter.chatter.service.FileValidationService;
+import org.apache.tika.Tika;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AudioWaveformServiceTests {
+
+    private AudioWaveformService audioWaveformService;
+
+    @BeforeEach
+    public void setUp() {
+        audioWaveformService = new AudioWaveformService();
+        ReflectionTestUtils.setField(audioWaveformService, "waveformBuckets", 64);
+    }
+
+    @Test
+    void analyze_ShouldComputeDurationAndWaveform_WhenWav() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "voice.wav", "audio/wav", createRampWav(8000, 3));
+        AudioMessage audioMessage = new AudioMessage();
+
+        audioWaveformService.analyze(file, "audio/wav", audioMessage);
+
+        assertEquals(3000L, audioMessage.getDurationMillis());
+        assertEquals(64, audioMessage.getWaveform().length);
+        assertTrue((audioMessage.getWaveform()[0] & 0xff) < (audioMessage.getWaveform()[63] & 0xff));
+        assertEquals(255, audioMessage.getWaveform()[63] & 0xff);
+    }
+
+    @Test
+    void analyze_ShouldComputeWaveform_WhenMimeTypeComesFromDetection() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "voice.wav", "audio/wav", createRampWav(8000, 2));
+        FileValidationService fileValidationService = new FileValidationService(new Tika());
+        String mimeType = fileValidationService.detectMimeType(file);
+        AudioMessage audioMessage = new AudioMessage();
+
+        audioWaveformService.analyze(file, mimeType, audioMessage);
+
+        assertEquals("audio/vnd.wave", mimeType);
+        assertTrue(fileValidationService.isAudio(mimeType));
+        assertTrue(audioWaveformService.supports(mimeType));
+        assertEquals(2000L, audioMessage.getDurationMillis());
+        assertEquals(64, audioMessage.getWaveform().length);
+    }
+
+    @Test
+    void analyze_ShouldLeaveMessageUntouched_WhenFormatIsNotSupported() {
+        MockMultipartFile file = new MockMultipartFile("file", "voice.ogg", "audio/ogg", "OggS not really audio".getBytes());
+        AudioMessage audioMessage = new AudioMessage();
+
+        audioWaveformService.analyze(file, "audio/ogg", audioMessage);
+
+        assertNull(audioMessage.getDurationMillis());
+        assertNull(audioMessage.getWaveform());
+    }
+
+    @Test
+    void analyze_ShouldKeepMilliseconds_WhenDurationIsFractional() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "voice.wav", "audio/wav", createRampWav(8000, 1, 4000));
+        AudioMessage audioMessage = new AudioMessage();
+
+        audioWaveformService.analyze(file, "audio/wav", audioMessage);
+
+        assertEquals(1500L, audioMessage.getDurationMillis());
+    }
+
+    @Test
+    void analyze_ShouldSkipDecoding_WhenMimeTypeIsNotSupported() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "voice.wav", "audio/mpeg", createRampWav(8000, 3));
+        AudioMessage audioMessage = new AudioMessage();
+
+        audioWaveformService.analyze(file, "audio/mpeg", audioMessage);
+
+        assertNull(audioMessage.getWaveform());
+    }
+
+    private byte[] createRampWav(int sampleRate, int seconds) throws IOException {
+        return createRampWav(sampleRate, seconds, 0);
+    }
+
+    private byte[] createRampWav(int sampleRate, int seconds, int extraSamples) throws IOException {
+        int samples = sampleRate * seconds + extraSamples;
+        byte[] pcm = new byte[samples * 2];
+        for (int i = 0; i < samples; i++) {
+            double amplitude = (double) i / samples * Short.MAX_VALUE;
+            short sample = (short) (amplitude * Math.sin(2 * Math.PI * 440 * i / sampleRate));
+            pcm[i * 2] = (byte) sample;
+            pcm[i * 2 + 1] = (byte) (sample >> 8);
+        }
+        AudioFormat format = new AudioFormat(sampleRate, 16, 1, true, false);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(pcm), format, samples), AudioFileFormat.Type.WAVE, outputStream);
+        return outputStream.toByteArray();
+    }
+
+}
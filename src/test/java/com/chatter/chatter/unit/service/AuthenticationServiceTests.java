@@ -156,7 +156,7 @@ public class AuthenticationServiceTests {
 
         authenticationService.logout(refreshTokenRequest, email);
 
-        verify(onlineUserService).userDisconnected(email);
+        verify(onlineUserService).userDisconnected(user.getId());
         verify(refreshTokenRepository).delete(refreshToken);
     }
 
@@ -170,7 +170,7 @@ public class AuthenticationServiceTests {
         assertThrows(BadRequestException.class,
                 () -> authenticationService.logout(refreshTokenRequest, email));
 
-        verify(onlineUserService, never()).userDisconnected(anyString());
+        verify(onlineUserService, never()).userDisconnected(anyLong());
         verify(refreshTokenRepository, never()).delete(any());
     }
 
@@ -191,7 +191,7 @@ public class AuthenticationServiceTests {
         assertThrows(BadRequestException.class,
                 () -> authenticationService.logout(refreshTokenRequest, email));
 
-        verify(onlineUserService, never()).userDisconnected(anyString());
+        verify(onlineUserService, never()).userDisconnected(anyLong());
         verify(refreshTokenRepository, never()).delete(any());
     }
 
@@ -1,29 +1,42 @@
 package com.chatter.chatter.unit.service;
 
+import com.chatter.chatter.dto.FileMetadata;
 import com.chatter.chatter.service.BackblazeUploadService;
 import com.chatter.chatter.service.FileValidationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,11 +55,43 @@ public class BackblazeUploadServiceTests {
     @Mock
     private MultipartFile multipartFile;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private BackblazeUploadService backblazeUploadService;
 
     private final String testBucketName = "test-bucket";
 
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(backblazeUploadService, "bucketName", testBucketName);
+        ReflectionTestUtils.setField(backblazeUploadService, "signatureDuration", Duration.ofHours(1));
+        ReflectionTestUtils.setField(backblazeUploadService, "uploadSignatureDuration", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(backblazeUploadService, "minimumValidity", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(backblazeUploadService, "cacheTimeToLive", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(backblazeUploadService, "localCacheTimeToLive", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(backblazeUploadService, "cacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(backblazeUploadService, "partSize", DataSize.ofBytes(1024));
+        ReflectionTestUtils.setField(backblazeUploadService, "maxPartsInFlight", 2);
+        backblazeUploadService.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        backblazeUploadService.stop();
+    }
+
+    @Test
+    public void init_ShouldFail_WhenCachedUrlsCouldOutliveTheirSignature() {
+        backblazeUploadService.stop();
+        ReflectionTestUtils.setField(backblazeUploadService, "cacheTimeToLive", Duration.ofMinutes(50));
+
+        assertThrows(IllegalStateException.class, () -> backblazeUploadService.init());
+        ReflectionTestUtils.setField(backblazeUploadService, "cacheTimeToLive", Duration.ofMinutes(30));
+        backblazeUploadService.init();
+    }
+
     @Test
     public void uploadFile_ShouldReturnFilename_WhenFileIsValid() throws IOException {
         String originalFilename = "test-image.jpg";
@@ -55,8 +100,7 @@ public class BackblazeUploadServiceTests {
 
         when(multipartFile.getOriginalFilename()).thenReturn(originalFilename);
         when(fileValidationService.getFileExtension(originalFilename)).thenReturn(extension);
-        when(multipartFile.getInputStream()).thenReturn(mock(InputStream.class));
-        when(multipartFile.getSize()).thenReturn(1024L);
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[16]));
 
         UUID fixedUUID = UUID.randomUUID();
         try (var mockedUUID = mockStatic(UUID.class)) {
@@ -74,6 +118,61 @@ public class BackblazeUploadServiceTests {
         }
     }
 
+    @Test
+    public void uploadFile_ShouldUseMultipartUpload_WhenFileIsLargerThanPartSize() throws IOException {
+        when(multipartFile.getOriginalFilename()).thenReturn("video.mp4");
+        when(fileValidationService.getFileExtension("video.mp4")).thenReturn("mp4");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[2500]));
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-id").build());
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("etag").build());
+
+        backblazeUploadService.uploadFile(multipartFile);
+
+        verify(s3Client, times(3)).uploadPart(any(UploadPartRequest.class), any(RequestBody.class));
+        verify(s3Client).completeMultipartUpload(argThat((CompleteMultipartUploadRequest request) ->
+                request.uploadId().equals("upload-id") && request.multipartUpload().parts().size() == 3));
+        verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(multipartFile, times(1)).getInputStream();
+    }
+
+    @Test
+    public void uploadFile_ShouldAbortMultipartUpload_WhenPartUploadFails() throws IOException {
+        when(multipartFile.getOriginalFilename()).thenReturn("video.mp4");
+        when(fileValidationService.getFileExtension("video.mp4")).thenReturn("mp4");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[2500]));
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-id").build());
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenThrow(S3Exception.builder().message("failed").build());
+
+        assertThrows(RuntimeException.class, () -> backblazeUploadService.uploadFile(multipartFile));
+
+        verify(s3Client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3Client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    public void uploadFile_ShouldKeepPartFailure_WhenAbortFails() throws IOException {
+        ReflectionTestUtils.setField(backblazeUploadService, "maxPartsInFlight", 1);
+        when(multipartFile.getOriginalFilename()).thenReturn("video.mp4");
+        when(fileValidationService.getFileExtension("video.mp4")).thenReturn("mp4");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[5000]));
+        when(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-id").build());
+        S3Exception partFailure = (S3Exception) S3Exception.builder().message("part failed").build();
+        S3Exception abortFailure = (S3Exception) S3Exception.builder().message("abort failed").build();
+        when(s3Client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class))).thenThrow(partFailure);
+        when(s3Client.abortMultipartUpload(any(AbortMultipartUploadRequest.class))).thenThrow(abortFailure);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> backblazeUploadService.uploadFile(multipartFile));
+
+        assertSame(partFailure, exception);
+        assertArrayEquals(new Throwable[] { abortFailure }, exception.getSuppressed());
+        verify(s3Client, atMost(2)).uploadPart(any(UploadPartRequest.class), any(RequestBody.class));
+    }
+
     @Test
     public void uploadFile_ShouldThrowRuntimeException_WhenIOExceptionOccurs() throws IOException {
         String originalFilename = "test-image.jpg";
@@ -96,8 +195,7 @@ public class BackblazeUploadServiceTests {
 
         when(multipartFile.getOriginalFilename()).thenReturn(null);
         when(fileValidationService.getFileExtension(null)).thenReturn(extension);
-        when(multipartFile.getInputStream()).thenReturn(mock(InputStream.class));
-        when(multipartFile.getSize()).thenReturn(1024L);
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[16]));
 
         when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
                 .thenReturn(PutObjectResponse.builder().build());
@@ -107,6 +205,26 @@ public class BackblazeUploadServiceTests {
         verify(s3Client).putObject(any(PutObjectRequest.class), any(RequestBody.class));
     }
 
+    @Test
+    public void deleteFiles_ShouldDeleteAllKeysInOneRequest() {
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenReturn(DeleteObjectsResponse.builder().build());
+
+        backblazeUploadService.deleteFiles(List.of("a.png", "b.png"));
+
+        verify(s3Client).deleteObjects(argThat((DeleteObjectsRequest request) ->
+                request.bucket().equals(testBucketName) &&
+                request.delete().objects().stream().map(ObjectIdentifier::key).toList().equals(List.of("a.png", "b.png"))));
+    }
+
+    @Test
+    public void deleteFiles_ShouldThrow_WhenSomeKeysFail() {
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class))).thenReturn(DeleteObjectsResponse.builder()
+                .errors(S3Error.builder().key("a.png").message("Access Denied").build())
+                .build());
+
+        assertThrows(RuntimeException.class, () -> backblazeUploadService.deleteFiles(List.of("a.png")));
+    }
+
     @Test
     public void getFileUrl_ShouldReturnPresignedUrl_WhenFilenameIsValid() {
         String filename = "test-file.jpg";
@@ -124,6 +242,70 @@ public class BackblazeUploadServiceTests {
         verify(s3Presigner).presignGetObject(any(GetObjectPresignRequest.class));
     }
 
+    @Test
+    public void getFileUrl_ShouldReuseCachedUrl_WhenCalledAgain() throws Exception {
+        PresignedGetObjectRequest presignedRequest = mock(PresignedGetObjectRequest.class);
+        when(s3Presigner.presignGetObject(any(GetObjectPresignRequest.class))).thenReturn(presignedRequest);
+        when(presignedRequest.url()).thenReturn(new URL("https://s3.test.com/test-file.jpg"));
+
+        String first = backblazeUploadService.getFileUrl("test-file.jpg");
+        String second = backblazeUploadService.getFileUrl("test-file.jpg");
+
+        assertEquals(first, second);
+        verify(s3Presigner, times(1)).presignGetObject(any(GetObjectPresignRequest.class));
+        assertEquals(1.0, meterRegistry.counter("presigned.urls.signatures").count());
+    }
+
+    @Test
+    public void getFileUrls_ShouldSignOnlyMissingUrls() throws Exception {
+        PresignedGetObjectRequest presignedRequest = mock(PresignedGetObjectRequest.class);
+        when(s3Presigner.presignGetObject(any(GetObjectPresignRequest.class))).thenReturn(presignedRequest);
+        when(presignedRequest.url()).thenReturn(new URL("https://s3.test.com/file"));
+
+        backblazeUploadService.getFileUrl("a.jpg");
+        Map<String, String> result = backblazeUploadService.getFileUrls(List.of("a.jpg", "b.jpg", "c.jpg", " "));
+
+        assertEquals(3, result.size());
+        verify(s3Presigner, times(3)).presignGetObject(any(GetObjectPresignRequest.class));
+    }
+
+    @Test
+    public void getUploadUrl_ShouldSignContentTypeAndLength() throws Exception {
+        PresignedPutObjectRequest presignedRequest = mock(PresignedPutObjectRequest.class);
+        when(s3Presigner.presignPutObject(any(PutObjectPresignRequest.class))).thenReturn(presignedRequest);
+        when(presignedRequest.url()).thenReturn(new URL("https://s3.test.com/uploads/file.mp4"));
+
+        String result = backblazeUploadService.getUploadUrl("uploads/file.mp4", "video/mp4", 2048L);
+
+        assertEquals("https://s3.test.com/uploads/file.mp4", result);
+        verify(s3Presigner).presignPutObject(argThat((PutObjectPresignRequest request) ->
+                request.putObjectRequest().key().equals("uploads/file.mp4")
+                        && request.putObjectRequest().contentType().equals("video/mp4")
+                        && request.putObjectRequest().contentLength() == 2048L
+                        && request.signatureDuration().equals(Duration.ofMinutes(15))));
+    }
+
+    @Test
+    public void getFileMetadata_ShouldReturnHeadResponse() {
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder()
+                .contentLength(2048L)
+                .contentType("video/mp4")
+                .eTag("\"etag\"")
+                .build());
+
+        FileMetadata result = backblazeUploadService.getFileMetadata("uploads/file.mp4");
+
+        assertEquals(2048L, result.getContentLength());
+        assertEquals("\"etag\"", result.getETag());
+    }
+
+    @Test
+    public void getFileMetadata_ShouldReturnNull_WhenFileIsMissing() {
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+
+        assertNull(backblazeUploadService.getFileMetadata("uploads/file.mp4"));
+    }
+
     @Test
     public void getFileUrl_ShouldReturnNull_WhenFilenameIsNull() {
         String result = backblazeUploadService.getFileUrl(null);
@@ -152,8 +334,7 @@ public class BackblazeUploadServiceTests {
 
         when(multipartFile.getOriginalFilename()).thenReturn(originalFilename);
         when(fileValidationService.getFileExtension(originalFilename)).thenReturn(extension);
-        when(multipartFile.getInputStream()).thenReturn(mock(InputStream.class));
-        when(multipartFile.getSize()).thenReturn(100L);
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[16]));
 
         when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
                 .thenReturn(PutObjectResponse.builder().build());
@@ -169,8 +350,7 @@ public class BackblazeUploadServiceTests {
                 "image.png", "document.pdf", "video.mp4", "archive.zip"
         };
 
-        when(multipartFile.getInputStream()).thenReturn(mock(InputStream.class));
-        when(multipartFile.getSize()).thenReturn(1024L);
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[16]));
         when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
                 .thenReturn(PutObjectResponse.builder().build());
 
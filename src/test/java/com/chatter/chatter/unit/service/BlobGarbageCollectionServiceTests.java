@@ -0,0 +1,86 @@
+package com.chatter.chatter.unit.service;
+
+import com.chatter.chatter.model.Blob;
+import com.chatter.chatter.service.BlobGarbageCollectionService;
+import com.chatter.chatter.service.BlobService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BlobGarbageCollectionServiceTests {
+
+    @Mock
+    private BlobService blobService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private BlobGarbageCollectionService blobGarbageCollectionService;
+
+    private final List<Blob> blobs = List.of(
+            Blob.builder().id(1L).filePath("a.png").fileSize(10L).build(),
+            Blob.builder().id(2L).filePath("b.png").fileSize(20L).build()
+    );
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(blobGarbageCollectionService, "gracePeriod", Duration.ofHours(24));
+        ReflectionTestUtils.setField(blobGarbageCollectionService, "batchSize", 2);
+        ReflectionTestUtils.setField(blobGarbageCollectionService, "deletesPerSecond", 100L);
+    }
+
+    @Test
+    void collectGarbage_ShouldDeleteInBatches_UntilNoCandidatesLeft() {
+        ReflectionTestUtils.setField(blobGarbageCollectionService, "dryRun", false);
+        blobGarbageCollectionService.init();
+        when(blobService.deleteUnreferencedBlobs(any(Instant.class), eq(0L), eq(2))).thenReturn(blobs);
+        when(blobService.deleteUnreferencedBlobs(any(Instant.class), eq(2L), eq(2))).thenReturn(List.of());
+
+        blobGarbageCollectionService.collectGarbage();
+
+        verify(blobService, never()).getUnreferencedBlobs(any(), anyLong(), anyInt());
+        assertEquals(2.0, meterRegistry.get("blob.gc.blobs").tag("mode", "delete").counter().count());
+        assertEquals(30.0, meterRegistry.get("blob.gc.bytes").tag("mode", "delete").counter().count());
+    }
+
+    @Test
+    void collectGarbage_ShouldOnlyReport_WhenDryRun() {
+        ReflectionTestUtils.setField(blobGarbageCollectionService, "dryRun", true);
+        blobGarbageCollectionService.init();
+        when(blobService.getUnreferencedBlobs(any(Instant.class), eq(0L), eq(2))).thenReturn(blobs);
+        when(blobService.getUnreferencedBlobs(any(Instant.class), eq(2L), eq(2))).thenReturn(List.of());
+
+        blobGarbageCollectionService.collectGarbage();
+
+        verify(blobService, never()).deleteUnreferencedBlobs(any(), anyLong(), anyInt());
+        assertEquals(2.0, meterRegistry.get("blob.gc.blobs").tag("mode", "dry-run").counter().count());
+    }
+
+    @Test
+    void collectGarbage_ShouldStop_WhenDeleteFails() {
+        ReflectionTestUtils.setField(blobGarbageCollectionService, "dryRun", false);
+        blobGarbageCollectionService.init();
+        when(blobService.deleteUnreferencedBlobs(any(Instant.class), eq(0L), eq(2))).thenThrow(new RuntimeException("Storage unavailable"));
+
+        assertDoesNotThrow(() -> blobGarbageCollectionService.collectGarbage());
+        verify(blobService, times(1)).deleteUnreferencedBlobs(any(), anyLong(), anyInt());
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.chatter.chatter.unit.service;
+
+import com.chatter.chatter.model.Blob;
+import com.chatter.chatter.repository.BlobRepository;
+import com.chatter.chatter.service.BlobService;
+import com.chatter.chatter.service.FileUploadService;
+import com.chatter.chatter.service.FileValidationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BlobServiceTests {
+
+    private static final String CONTENT_HASH = "b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9";
+
+    @Mock
+    private BlobRepository blobRepository;
+
+    @Mock
+    private FileUploadService fileUploadService;
+
+    @Mock
+    private FileValidationService fileValidationService;
+
+    @InjectMocks
+    private BlobService blobService;
+
+    private final MockMultipartFile file = new MockMultipartFile("file", "hello.txt", "text/plain", "hello world".getBytes());
+
+    @Test
+    void uploadFile_ShouldStoreUnderNewKey_WhenNew() {
+        consumeUploads();
+        when(blobRepository.findByContentHash(CONTENT_HASH)).thenReturn(Optional.empty());
+        when(fileValidationService.getFileExtension("hello.txt")).thenReturn("txt");
+
+        String filePath = blobService.uploadFile(file);
+
+        assertTrue(filePath.endsWith(".txt"));
+        verify(fileUploadService).uploadFile(any(InputStream.class), eq("text/plain"), eq(filePath));
+        verify(fileUploadService, never()).deleteFiles(any());
+        ArgumentCaptor<Blob> captor = ArgumentCaptor.forClass(Blob.class);
+        verify(blobRepository).save(captor.capture());
+        assertEquals(CONTENT_HASH, captor.getValue().getContentHash());
+        assertEquals(filePath, captor.getValue().getFilePath());
+        assertEquals(11L, captor.getValue().getFileSize());
+    }
+
+    @Test
+    void uploadFile_ShouldDropUploadedCopy_WhenContentAlreadyStored() {
+        consumeUploads();
+        Blob blob = Blob.builder().id(1L).contentHash(CONTENT_HASH).filePath(CONTENT_HASH + ".txt").build();
+        when(blobRepository.findByContentHash(CONTENT_HASH)).thenReturn(Optional.of(blob));
+        when(blobRepository.touch(eq(1L), any(Instant.class))).thenReturn(1);
+        when(fileValidationService.getFileExtension("hello.txt")).thenReturn("txt");
+
+        String filePath = blobService.uploadFile(file);
+
+        assertEquals(CONTENT_HASH + ".txt", filePath);
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(fileUploadService).uploadFile(any(InputStream.class), eq("text/plain"), captor.capture());
+        verify(fileUploadService).deleteFiles(List.of(captor.getValue()));
+        verify(blobRepository, never()).save(any());
+    }
+
+    @Test
+    void uploadFile_ShouldUploadAgain_WhenExistingBlobWasCollected() {
+        consumeUploads();
+        Blob blob = Blob.builder().id(1L).contentHash(CONTENT_HASH).filePath(CONTENT_HASH + ".txt").build();
+        when(blobRepository.findByContentHash(CONTENT_HASH)).thenReturn(Optional.of(blob));
+        when(blobRepository.touch(eq(1L), any(Instant.class))).thenReturn(0);
+        when(fileValidationService.getFileExtension("hello.txt")).thenReturn("txt");
+
+        String filePath = blobService.uploadFile(file);
+
+        assertNotEquals(CONTENT_HASH + ".txt", filePath);
+        verify(fileUploadService).uploadFile(any(InputStream.class), eq("text/plain"), eq(filePath));
+        verify(blobRepository).save(any(Blob.class));
+    }
+
+    @Test
+    void uploadFile_ShouldReturnWinningBlob_WhenConcurrentUploadInsertedFirst() {
+        consumeUploads();
+        Blob blob = Blob.builder().id(1L).contentHash(CONTENT_HASH).filePath(CONTENT_HASH + ".txt").build();
+        when(blobRepository.findByContentHash(CONTENT_HASH)).thenReturn(Optional.empty(), Optional.of(blob));
+        when(blobRepository.touch(eq(1L), any(Instant.class))).thenReturn(1);
+        when(blobRepository.save(any(Blob.class))).thenThrow(new DataIntegrityViolationException("uc_blobs_content_hash"));
+        when(fileValidationService.getFileExtension("hello.txt")).thenReturn("txt");
+
+        String filePath = blobService.uploadFile(file);
+
+        assertEquals(CONTENT_HASH + ".txt", filePath);
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(fileUploadService).uploadFile(any(InputStream.class), eq("text/plain"), captor.capture());
+        verify(fileUploadService).deleteFiles(List.of(captor.getValue()));
+    }
+
+    @Test
+    void registerFile_ShouldDeleteUploadedFile_WhenConcurrentRegistrationInsertedFirst() {
+        Blob blob = Blob.builder().id(1L).contentHash("etag:abc-2").filePath("uploads/previous.mp4").build();
+        when(blobRepository.findByContentHash("etag:abc-2")).thenReturn(Optional.empty(), Optional.of(blob));
+        when(blobRepository.touch(eq(1L), any(Instant.class))).thenReturn(1);
+        when(blobRepository.save(any(Blob.class))).thenThrow(new DataIntegrityViolationException("uc_blobs_content_hash"));
+
+        String filePath = blobService.registerFile("uploads/session.mp4", "\"abc-2\"", 10L, "video/mp4");
+
+        assertEquals("uploads/previous.mp4", filePath);
+        verify(fileUploadService).deleteFiles(List.of("uploads/session.mp4"));
+    }
+
+    @Test
+    void registerFile_ShouldSaveBlobUnderUploadedPath_WhenNew() {
+        when(blobRepository.findByContentHash("etag:abc-2")).thenReturn(Optional.empty());
+
+        String filePath = blobService.registerFile("uploads/session.mp4", "\"abc-2\"", 10L, "video/mp4");
+
+        assertEquals("uploads/session.mp4", filePath);
+        ArgumentCaptor<Blob> captor = ArgumentCaptor.forClass(Blob.class);
+        verify(blobRepository).save(captor.capture());
+        assertEquals("etag:abc-2", captor.getValue().getContentHash());
+        assertEquals("uploads/session.mp4", captor.getValue().getFilePath());
+        verify(fileUploadService, never()).deleteFiles(any());
+    }
+
+    @Test
+    void registerFile_ShouldDeleteUploadedFile_WhenSameUploadAlreadyStored() {
+        Blob blob = Blob.builder().id(1L).contentHash("etag:abc-2").filePath("uploads/previous.mp4").build();
+        when(blobRepository.findByContentHash("etag:abc-2")).thenReturn(Optional.of(blob));
+        when(blobRepository.touch(eq(1L), any(Instant.class))).thenReturn(1);
+
+        String filePath = blobService.registerFile("uploads/session.mp4", "\"abc-2\"", 10L, "video/mp4");
+
+        assertEquals("uploads/previous.mp4", filePath);
+        verify(fileUploadService).deleteFiles(List.of("uploads/session.mp4"));
+        verify(blobRepository, never()).save(any());
+    }
+
+    @Test
+    void deleteUnreferencedBlobs_ShouldDeleteFilesAndRows() {
+        Instant before = Instant.now();
+        List<Blob> blobs = List.of(
+                Blob.builder().id(1L).filePath("a.png").fileSize(10L).build(),
+                Blob.builder().id(2L).filePath("b.png").fileSize(20L).build()
+        );
+        when(blobRepository.findUnreferencedBlobsForUpdate(before, 0L, PageRequest.of(0, 100))).thenReturn(blobs);
+
+        List<Blob> result = blobService.deleteUnreferencedBlobs(before, 0L, 100);
+
+        assertEquals(blobs, result);
+        var inOrder = inOrder(blobRepository, fileUploadService);
+        inOrder.verify(blobRepository).deleteAllInBatch(blobs);
+        inOrder.verify(fileUploadService).deleteFiles(List.of("a.png", "b.png"));
+    }
+
+    @Test
+    void deleteUnreferencedBlobs_ShouldDoNothing_WhenNoCandidates() {
+        Instant before = Instant.now();
+        when(blobRepository.findUnreferencedBlobsForUpdate(before, 0L, PageRequest.of(0, 100))).thenReturn(List.of());
+
+        assertTrue(blobService.deleteUnreferencedBlobs(before, 0L, 100).isEmpty());
+        verify(fileUploadService, never()).deleteFiles(any());
+        verify(blobRepository, never()).deleteAllInBatch(any());
+    }
+
+    private void consumeUploads() {
+        doAnswer(invocation -> invocation.<InputStream>getArgument(0).transferTo(OutputStream.nullOutputStream()))
+                .when(fileUploadService).uploadFile(any(InputStream.class), anyString(), anyString());
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.chatter.chatter.unit.service;
+
+import com.chatter.chatter.service.BroadcastService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BroadcastServiceTests {
+
+    @Mock
+    private SimpMessagingTemplate simpMessagingTemplate;
+
+    private BroadcastService broadcastService;
+
+    @BeforeEach
+    public void setup() {
+        broadcastService = new BroadcastService(simpMessagingTemplate);
+        ReflectionTestUtils.setField(broadcastService, "queueCapacity", 100);
+        broadcastService.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+        broadcastService.stop();
+    }
+
+    @Test
+    void broadcast_ShouldSendImmediately_WhenNoTransaction() {
+        broadcastService.broadcast("/topic/chat.1.created-messages", 1L);
+
+        verify(simpMessagingTemplate, timeout(1000)).convertAndSend("/topic/chat.1.created-messages", (Object) 1L);
+    }
+
+    @Test
+    void broadcast_ShouldSendAfterCommit_WhenTransactionActive() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        broadcastService.broadcast("/topic/chat.1.created-messages", 1L);
+
+        verify(simpMessagingTemplate, after(100).never()).convertAndSend(anyString(), any(Object.class));
+
+        commit();
+
+        verify(simpMessagingTemplate, timeout(1000)).convertAndSend("/topic/chat.1.created-messages", (Object) 1L);
+    }
+
+    @Test
+    void broadcast_ShouldNotSend_WhenTransactionRolledBack() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        broadcastService.broadcast("/topic/chat.1.created-messages", 1L);
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(simpMessagingTemplate, after(100).never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    void broadcastLatest_ShouldCoalesceEventsForSameDestinationAndKey() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        broadcastService.broadcast("/topic/chat.1.created-messages", 10L);
+        broadcastService.broadcastLatest("/topic/chat.1.last-message-id", 1L, 9L);
+        broadcastService.broadcastLatest("/topic/chat.1.last-message-id", 1L, 10L);
+        broadcastService.broadcastLatest("/topic/users.1.updated-chats", 1L, "first");
+        broadcastService.broadcastLatest("/topic/users.1.updated-chats", 2L, "second");
+        commit();
+
+        InOrder inOrder = inOrder(simpMessagingTemplate);
+        inOrder.verify(simpMessagingTemplate, timeout(1000)).convertAndSend("/topic/chat.1.created-messages", (Object) 10L);
+        inOrder.verify(simpMessagingTemplate, timeout(1000)).convertAndSend("/topic/chat.1.last-message-id", (Object) 10L);
+        verify(simpMessagingTemplate, timeout(1000)).convertAndSend("/topic/users.1.updated-chats", (Object) "first");
+        verify(simpMessagingTemplate, timeout(1000)).convertAndSend("/topic/users.1.updated-chats", (Object) "second");
+        verify(simpMessagingTemplate, never()).convertAndSend("/topic/chat.1.last-message-id", (Object) 9L);
+    }
+
+    private void commit() {
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+}
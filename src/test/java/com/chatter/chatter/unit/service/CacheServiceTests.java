@@ -1,5 +1,6 @@
 package com.chatter.chatter.unit.service;
 
+import com.chatter.chatter.cache.CacheGenerationMessage;
 import com.chatter.chatter.service.CacheService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,12 +11,23 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -26,7 +38,16 @@ class CacheServiceTests {
     private RedisTemplate<String, Object> redisTemplate;
 
     @Mock
-    private Cursor<String> cursor;
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisStringCommands stringCommands;
+
+    @Mock
+    private RedisKeyCommands keyCommands;
 
     @InjectMocks
     private CacheService cacheService;
@@ -36,6 +57,10 @@ class CacheServiceTests {
     @BeforeEach
     void setUp() {
         syncManagerMock = mockStatic(TransactionSynchronizationManager.class);
+        ReflectionTestUtils.setField(cacheService, "timeToLive", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(cacheService, "localMaximumSize", 100L);
+        ReflectionTestUtils.setField(cacheService, "localTimeToLive", Duration.ofSeconds(60));
+        cacheService.init();
     }
 
     @AfterEach
@@ -44,47 +69,117 @@ class CacheServiceTests {
     }
 
     @Test
-    void evictCache_Success() {
-        String pattern = "test:*";
-        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
-        when(cursor.hasNext()).thenReturn(true, true, false);
-        when(cursor.next()).thenReturn("key1", "key2");
+    void getGeneration_ShouldReturnStoredGeneration() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.getAndExpire("cache-generation:chats:email:test@example.com", Duration.ofMinutes(60))).thenReturn(3);
+
+        assertEquals(3L, cacheService.getGeneration("chats:email:test@example.com"));
+    }
+
+    @Test
+    void getGeneration_ShouldReturnZero_WhenGenerationMissing() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.getAndExpire(anyString(), any(Duration.class))).thenReturn(null);
+
+        assertEquals(0L, cacheService.getGeneration("chats:email:test@example.com"));
+    }
+
+    @Test
+    void getGeneration_ShouldServeFromLocalCache_UntilInvalidated() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.getAndExpire("cache-generation:chats:email:test@example.com", Duration.ofMinutes(60))).thenReturn(3, 4);
 
-        cacheService.evictCache(pattern);
+        assertEquals(3L, cacheService.getGeneration("chats:email:test@example.com"));
+        assertEquals(3L, cacheService.getGeneration("chats:email:test@example.com"));
+
+        cacheService.handleInvalidation(new CacheGenerationMessage(List.of("chats:email:test@example.com")));
+
+        assertEquals(4L, cacheService.getGeneration("chats:email:test@example.com"));
+        verify(valueOperations, times(2)).getAndExpire(anyString(), any(Duration.class));
+    }
+
+    @Test
+    void getGenerations_ShouldChange_WhenAnyNamespaceIsBumped() {
+        List<String> namespaces = List.of("chats:chatId:1", "chats:chatId:2");
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of("cache-generation:chats:chatId:1", "cache-generation:chats:chatId:2"))).thenReturn(Arrays.asList(2, null));
+        when(valueOperations.multiGet(List.of("cache-generation:chats:chatId:2"))).thenReturn(List.of(1));
+
+        long before = cacheService.getGenerations(namespaces);
+        cacheService.handleInvalidation(new CacheGenerationMessage(List.of("chats:chatId:2")));
+        long after = cacheService.getGenerations(namespaces);
+
+        assertNotEquals(before, after);
+        assertEquals(after, cacheService.getGenerations(namespaces));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void incrementGenerations_ShouldInvalidateLocallyAndPublish() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.getAndExpire("cache-generation:chats:email:test@example.com", Duration.ofMinutes(60))).thenReturn(3, 4);
+        cacheService.getGeneration("chats:email:test@example.com");
+
+        cacheService.incrementGenerations(List.of("chats:email:test@example.com"));
+
+        assertEquals(4L, cacheService.getGeneration("chats:email:test@example.com"));
+        ArgumentCaptor<CacheGenerationMessage> captor = ArgumentCaptor.forClass(CacheGenerationMessage.class);
+        verify(redisTemplate).convertAndSend(eq(CacheGenerationMessage.CHANNEL), captor.capture());
+        assertEquals(List.of("chats:email:test@example.com"), captor.getValue().getNamespaces());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void incrementGenerations_ShouldIncrementEachNamespace_InSinglePipeline() {
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            RedisCallback<Object> callback = invocation.getArgument(0);
+            callback.doInRedis(connection);
+            return List.of();
+        });
+
+        cacheService.incrementGenerations(List.of("chats:email:a@example.com", "chats:email:b@example.com"));
+
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(stringCommands).incr("cache-generation:chats:email:a@example.com".getBytes(StandardCharsets.UTF_8));
+        verify(stringCommands).incr("cache-generation:chats:email:b@example.com".getBytes(StandardCharsets.UTF_8));
+        verify(keyCommands, times(2)).expire(any(byte[].class), eq(3600L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void incrementGenerations_ShouldDoNothing_WhenNoNamespaces() {
+        cacheService.incrementGenerations(List.of());
 
-        verify(redisTemplate, atLeastOnce()).scan(any(ScanOptions.class));
-        verify(redisTemplate).unlink(anyList());
-        verify(cursor).close();
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
     }
 
     @Test
-    void evictCacheSynchronized_NoTransaction() {
-        String pattern = "test:*";
+    @SuppressWarnings("unchecked")
+    void incrementGenerationSynchronized_NoTransaction() {
         syncManagerMock.when(TransactionSynchronizationManager::isActualTransactionActive).thenReturn(false);
-        when(redisTemplate.scan(any())).thenReturn(cursor);
 
-        cacheService.evictCacheSynchronized(pattern);
+        cacheService.incrementGenerationSynchronized("favorite-gifs-page:userId:1");
 
-        verify(redisTemplate).scan(any());
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
         syncManagerMock.verify(() -> TransactionSynchronizationManager.registerSynchronization(any()), never());
     }
 
     @Test
-    void evictCacheSynchronized_WithTransaction() {
-        String pattern = "test:*";
+    @SuppressWarnings("unchecked")
+    void incrementGenerationSynchronized_WithTransaction() {
         syncManagerMock.when(TransactionSynchronizationManager::isActualTransactionActive).thenReturn(true);
-        when(redisTemplate.scan(any())).thenReturn(cursor);
 
-        cacheService.evictCacheSynchronized(pattern);
+        cacheService.incrementGenerationSynchronized("favorite-gifs-page:userId:1");
 
-        verify(redisTemplate, never()).scan(any());
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
 
         ArgumentCaptor<TransactionSynchronization> captor = ArgumentCaptor.forClass(TransactionSynchronization.class);
         syncManagerMock.verify(() -> TransactionSynchronizationManager.registerSynchronization(captor.capture()));
 
-        TransactionSynchronization sync = captor.getValue();
-        sync.afterCommit();
+        captor.getValue().afterCommit();
 
-        verify(redisTemplate).scan(any());
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
     }
-}
\ No newline at end of file
+}
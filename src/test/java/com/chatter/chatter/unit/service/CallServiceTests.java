@@ -0,0 +1,248 @@
+package com.chatter.chatter.unit.service;
+
+import com.chatter.chatter.dto.CallDto;
+import com.chatter.chatter.dto.CallSignalDto;
+import com.chatter.chatter.exception.BadRequestException;
+import com.chatter.chatter.exception.NotFoundException;
+import com.chatter.chatter.model.*;
+import com.chatter.chatter.request.CallPostRequest;
+import com.chatter.chatter.request.CallSignalRequest;
+import com.chatter.chatter.request.SingleMessageRequest;
+import com.chatter.chatter.service.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CallServiceTests {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private HashOperations<String, String, String> hashOperations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private ChatService chatService;
+
+    @Mock
+    private MemberService memberService;
+
+    @Mock
+    private MessageService messageService;
+
+    @Mock
+    private EphemeralEventBus ephemeralEventBus;
+
+    @InjectMocks
+    private CallService callService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(callService, "ringTimeout", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(callService, "maxDuration", Duration.ofHours(4));
+    }
+
+    @Test
+    void createCall_ShouldRingOtherParticipants() {
+        Chat chat = Chat.builder().id(1L).build();
+        when(chatService.getChatEntityIfMember("caller@example.com", 1L)).thenReturn(chat);
+        when(memberService.getMembersEntitiesByChat(1L, null, null)).thenReturn(List.of(
+                Member.builder().user(User.builder().id(1L).build()).build(),
+                Member.builder().user(User.builder().id(2L).build()).build()
+        ));
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+
+        CallDto result = callService.createCall(1L, "caller@example.com", new CallPostRequest(1L));
+
+        assertEquals(1L, result.getChatId());
+        assertEquals(1L, result.getCallerId());
+        assertEquals(List.of(1L, 2L), result.getParticipantsIds());
+        assertNull(result.getAnsweredAt());
+        verify(zSetOperations).add(eq("calls_expirations"), eq(result.getId()), anyDouble());
+        ArgumentCaptor<CallSignalDto> captor = ArgumentCaptor.forClass(CallSignalDto.class);
+        verify(ephemeralEventBus).publishToUser(eq(2L), eq("/queue/calls"), captor.capture());
+        verify(ephemeralEventBus, never()).publishToUser(eq(1L), anyString(), any());
+        assertEquals(CallSignalType.RING, captor.getValue().getType());
+        assertEquals(1L, captor.getValue().getFromUserId());
+    }
+
+    @Test
+    void createCall_ShouldThrowBadRequest_WhenNoOtherParticipants() {
+        Chat chat = Chat.builder().id(1L).build();
+        when(chatService.getChatEntityIfMember("caller@example.com", 1L)).thenReturn(chat);
+        when(memberService.getMembersEntitiesByChat(1L, null, null)).thenReturn(List.of(
+                Member.builder().user(User.builder().id(1L).build()).build()
+        ));
+
+        assertThrows(BadRequestException.class, () -> callService.createCall(1L, "caller@example.com", new CallPostRequest(1L)));
+        verifyNoInteractions(redisTemplate, ephemeralEventBus);
+    }
+
+    @Test
+    void getCall_ShouldThrowNotFound_WhenUserIsNotParticipant() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("call:call-id")).thenReturn(createCallEntries(null));
+
+        assertThrows(NotFoundException.class, () -> callService.getCall(3L, "call-id"));
+    }
+
+    @Test
+    void signal_ShouldOnlyRouteToTargetUser() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("call:call-id")).thenReturn(createCallEntries(null));
+
+        callService.signal(1L, "call-id", new CallSignalRequest(CallSignalType.OFFER, 2L, "sdp"));
+
+        ArgumentCaptor<CallSignalDto> captor = ArgumentCaptor.forClass(CallSignalDto.class);
+        verify(ephemeralEventBus).publishToUser(eq(2L), eq("/queue/calls"), captor.capture());
+        verifyNoMoreInteractions(ephemeralEventBus);
+        assertEquals(CallSignalType.OFFER, captor.getValue().getType());
+        assertEquals("sdp", captor.getValue().getPayload());
+    }
+
+    @Test
+    void signal_ShouldThrowBadRequest_WhenTargetIsNotParticipant() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("call:call-id")).thenReturn(createCallEntries(null));
+
+        assertThrows(BadRequestException.class, () -> callService.signal(1L, "call-id", new CallSignalRequest(CallSignalType.CANDIDATE, 3L, "candidate")));
+        verifyNoInteractions(ephemeralEventBus);
+    }
+
+    @Test
+    void signal_ShouldThrowBadRequest_WhenTypeIsReserved() {
+        assertThrows(BadRequestException.class, () -> callService.signal(1L, "call-id", new CallSignalRequest(CallSignalType.END, null, null)));
+        verifyNoInteractions(redisTemplate, ephemeralEventBus);
+    }
+
+    @Test
+    void handleSignal_ShouldReportErrorToSender_WhenSignalIsRejected() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("call:call-id")).thenReturn(Map.of());
+
+        callService.handleSignal(1L, "call-id", new CallSignalRequest(CallSignalType.OFFER, 2L, "sdp"));
+
+        ArgumentCaptor<CallSignalDto> captor = ArgumentCaptor.forClass(CallSignalDto.class);
+        verify(ephemeralEventBus).publishToUser(eq(1L), eq("/queue/calls"), captor.capture());
+        verifyNoMoreInteractions(ephemeralEventBus);
+        assertEquals(CallSignalType.ERROR, captor.getValue().getType());
+        assertEquals("call-id", captor.getValue().getCallId());
+        assertEquals("Call not found", captor.getValue().getPayload());
+    }
+
+    @Test
+    void signal_ShouldMarkCallAnswered_WhenCalleeAccepts() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(hashOperations.entries("call:call-id")).thenReturn(createCallEntries(null));
+        when(hashOperations.putIfAbsent(eq("call:call-id"), eq("answeredAt"), anyString())).thenReturn(true);
+
+        callService.signal(2L, "call-id", new CallSignalRequest(CallSignalType.ACCEPT, null, null));
+
+        verify(zSetOperations).add(eq("calls_expirations"), eq("call-id"), anyDouble());
+        verify(ephemeralEventBus).publishToUser(eq(1L), eq("/queue/calls"), any(CallSignalDto.class));
+    }
+
+    @Test
+    void signal_ShouldEndCallAsMissed_WhenCalleeDeclines() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(hashOperations.entries("call:call-id")).thenReturn(createCallEntries(null));
+        when(zSetOperations.remove("calls_expirations", "call-id")).thenReturn(1L);
+
+        callService.signal(2L, "call-id", new CallSignalRequest(CallSignalType.DECLINE, null, null));
+
+        ArgumentCaptor<SingleMessageRequest> captor = ArgumentCaptor.forClass(SingleMessageRequest.class);
+        verify(messageService).createMessage(eq("caller@example.com"), captor.capture());
+        assertTrue(captor.getValue().getMissed());
+        assertEquals(MessageType.CALL, captor.getValue().getMessageType());
+        verify(redisTemplate).delete("call:call-id");
+    }
+
+    @Test
+    void endCall_ShouldPersistDuration_WhenCallWasAnswered() {
+        Instant answeredAt = Instant.now().minusSeconds(30);
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(hashOperations.entries("call:call-id")).thenReturn(createCallEntries(answeredAt));
+        when(zSetOperations.remove("calls_expirations", "call-id")).thenReturn(1L);
+
+        callService.endCall(2L, "call-id");
+
+        ArgumentCaptor<SingleMessageRequest> captor = ArgumentCaptor.forClass(SingleMessageRequest.class);
+        verify(messageService).createMessage(eq("caller@example.com"), captor.capture());
+        assertFalse(captor.getValue().getMissed());
+        assertTrue(captor.getValue().getDuration() >= 30);
+        assertEquals(1L, captor.getValue().getChatId());
+        ArgumentCaptor<CallSignalDto> signalCaptor = ArgumentCaptor.forClass(CallSignalDto.class);
+        verify(ephemeralEventBus).publishToUser(eq(1L), eq("/queue/calls"), signalCaptor.capture());
+        assertEquals(CallSignalType.END, signalCaptor.getValue().getType());
+    }
+
+    @Test
+    void endCall_ShouldDoNothing_WhenCallAlreadyEnded() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(hashOperations.entries("call:call-id")).thenReturn(createCallEntries(null));
+        when(zSetOperations.remove("calls_expirations", "call-id")).thenReturn(0L);
+
+        callService.endCall(1L, "call-id");
+
+        verifyNoInteractions(messageService, ephemeralEventBus);
+    }
+
+    @Test
+    void endExpiredCalls_ShouldEndCallsAsMissed() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.rangeByScore(eq("calls_expirations"), eq(0.0), anyDouble())).thenReturn(Set.of("call-id"));
+        when(hashOperations.entries("call:call-id")).thenReturn(createCallEntries(null));
+        when(zSetOperations.remove("calls_expirations", "call-id")).thenReturn(1L);
+
+        callService.endExpiredCalls();
+
+        ArgumentCaptor<SingleMessageRequest> captor = ArgumentCaptor.forClass(SingleMessageRequest.class);
+        verify(messageService).createMessage(eq("caller@example.com"), captor.capture());
+        assertTrue(captor.getValue().getMissed());
+        verify(ephemeralEventBus).publishToUser(eq(1L), eq("/queue/calls"), any(CallSignalDto.class));
+        verify(ephemeralEventBus).publishToUser(eq(2L), eq("/queue/calls"), any(CallSignalDto.class));
+    }
+
+    private Map<String, String> createCallEntries(Instant answeredAt) {
+        Map<String, String> call = new HashMap<>();
+        call.put("chatId", "1");
+        call.put("callerId", "1");
+        call.put("callerEmail", "caller@example.com");
+        call.put("participantsIds", "1,2");
+        call.put("createdAt", String.valueOf(Instant.now().minusSeconds(60).toEpochMilli()));
+        if (answeredAt != null) {
+            call.put("answeredAt", String.valueOf(answeredAt.toEpochMilli()));
+        }
+        return call;
+    }
+
+}
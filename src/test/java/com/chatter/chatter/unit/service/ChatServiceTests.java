@@ -10,8 +10,10 @@ import com.chatter.chatter.model.*;
 import com.chatter.chatter.repository.ChatRepository;
 import com.chatter.chatter.request.GroupChatPatchRequest;
 import com.chatter.chatter.request.GroupChatPostRequest;
+import com.chatter.chatter.service.BlobService;
+import com.chatter.chatter.service.BroadcastService;
+import com.chatter.chatter.service.CacheService;
 import com.chatter.chatter.service.ChatService;
-import com.chatter.chatter.service.FileUploadService;
 import com.chatter.chatter.service.FileValidationService;
 import com.chatter.chatter.service.MemberService;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,10 +23,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.data.redis.core.Cursor;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ScanOptions;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -45,22 +43,19 @@ public class ChatServiceTests {
     private MemberService memberService;
 
     @Mock
-    private FileUploadService fileUploadService;
+    private BlobService blobService;
 
     @Mock
     private FileValidationService fileValidationService;
 
     @Mock
-    private SimpMessagingTemplate simpMessagingTemplate;
+    private BroadcastService broadcastService;
 
     @Mock
     private ChatMapper chatMapper;
 
     @Mock
-    private RedisTemplate<String, Object> redisTemplate;
-
-    @Mock
-    private Cursor<String> cursor;
+    private CacheService cacheService;
 
     @Mock
     private MultipartFile multipartFile;
@@ -154,14 +149,14 @@ public class ChatServiceTests {
 
         when(fileValidationService.isImage(multipartFile)).thenReturn(true);
         when(fileValidationService.isSizeValid(eq(multipartFile), any())).thenReturn(true);
-        when(fileUploadService.uploadFile(multipartFile)).thenReturn("/path/to/image.jpg");
+        when(blobService.uploadFile(multipartFile)).thenReturn("/path/to/image.jpg");
         when(memberService.createMember(eq(email), any(GroupChat.class), eq(MemberRole.OWNER))).thenReturn(member);
         when(chatRepository.save(any(GroupChat.class))).thenReturn(groupChat);
 
         GroupChat result = chatService.createGroupChat(email, request);
 
         assertNotNull(result);
-        verify(fileUploadService).uploadFile(multipartFile);
+        verify(blobService).uploadFile(multipartFile);
     }
 
     @Test
@@ -251,13 +246,14 @@ public class ChatServiceTests {
         when(memberService.getCurrentChatMemberEntity(email, 2L)).thenReturn(member);
         when(fileValidationService.isImage(multipartFile)).thenReturn(true);
         when(fileValidationService.isSizeValid(eq(multipartFile), any())).thenReturn(true);
-        when(fileUploadService.uploadFile(multipartFile)).thenReturn("/new/image/path.jpg");
+        when(blobService.uploadFile(multipartFile)).thenReturn("/new/image/path.jpg");
         when(chatRepository.save(any(GroupChat.class))).thenReturn(groupChat);
 
         Chat result = chatService.updateGroupChat(email, 2L, request);
 
         assertNotNull(result);
-        verify(fileUploadService).uploadFile(multipartFile);
+        verify(blobService).uploadFile(multipartFile);
+        assertEquals("/new/image/path.jpg", groupChat.getImage());
     }
 
     @Test
@@ -355,19 +351,37 @@ public class ChatServiceTests {
     }
 
     @Test
-    void shouldEvictChatCache() {
+    void shouldEvictChatCache_WithSingleGenerationBump() {
         User user1 = User.builder().id(1L).email("user1@example.com").build();
         User user2 = User.builder().id(2L).email("user2@example.com").build();
         Member member1 = Member.builder().user(user1).chat(chat).build();
         Member member2 = Member.builder().user(user2).chat(chat).build();
         chat.setMembers(Set.of(member1, member2));
 
-        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
-        when(cursor.hasNext()).thenReturn(false);
-
         chatService.evictChatCache(chat);
 
-        verify(redisTemplate, times(2)).scan(any(ScanOptions.class));
+        verify(cacheService).incrementGeneration("chats:chatId:" + chat.getId());
+        verify(cacheService, never()).incrementGenerations(any());
+    }
+
+    @Test
+    void shouldEvictChatCacheForMembers() {
+        User user1 = User.builder().id(1L).email("user1@example.com").build();
+        User user2 = User.builder().id(2L).email("user2@example.com").build();
+        Member member1 = Member.builder().user(user1).chat(chat).build();
+        Member member2 = Member.builder().user(user2).chat(chat).build();
+        chat.setMembers(Set.of(member1, member2));
+
+        chatService.evictChatCacheForMembers(chat);
+
+        verify(cacheService).incrementGenerations(Set.of("chats:email:user1@example.com", "chats:email:user2@example.com"));
+    }
+
+    @Test
+    void getChatNamespaces_ShouldListChatGenerationNamespaces() {
+        when(memberService.getChatIds("user1@example.com")).thenReturn(Set.of(2L, 1L));
+
+        assertEquals(List.of("chats:chatId:1", "chats:chatId:2"), chatService.getChatNamespaces("user1@example.com"));
     }
 
     @Test
@@ -460,15 +474,15 @@ public class ChatServiceTests {
 
         chatService.broadcastChatUpdate(chat);
 
-        verify(simpMessagingTemplate).convertAndSend("/topic/users.1.updated-chats", chatDto1);
-        verify(simpMessagingTemplate).convertAndSend("/topic/users.2.updated-chats", chatDto2);
+        verify(broadcastService).broadcastLatest("/topic/users.1.updated-chats", chat.getId(), chatDto1);
+        verify(broadcastService).broadcastLatest("/topic/users.2.updated-chats", chat.getId(), chatDto2);
     }
 
     @Test
     void shouldBroadcastChatDelete() {
         chatService.broadcastChatDelete(user, chat);
 
-        verify(simpMessagingTemplate).convertAndSend("/topic/users.1.deleted-chats", 1L);
+        verify(broadcastService).broadcast("/topic/users.1.deleted-chats", 1L);
     }
 
     @Test
@@ -480,7 +494,7 @@ public class ChatServiceTests {
         when(chatMapper.toDto(chat, projection, user.getEmail())).thenReturn(chatDto);
 
         chatService.broadcastCreatedChat(user, chat);
-        verify(simpMessagingTemplate).convertAndSend("/topic/users.1.created-chats", chatDto);
+        verify(broadcastService).broadcast("/topic/users.1.created-chats", chatDto);
     }
 
     @Test
@@ -0,0 +1,235 @@
+package com.chatter.chatter.unit.service;
+
+import com.chatter.chatter.event.EphemeralEvent;
+import com.chatter.chatter.service.EphemeralEventBus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EphemeralEventBusTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private MessageChannel clientOutboundChannel;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private EphemeralEventBus ephemeralEventBus;
+
+    @BeforeEach
+    public void setUp() {
+        ephemeralEventBus = new EphemeralEventBus(clientOutboundChannel, redisTemplate, objectMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(ephemeralEventBus, "poolSize", 1);
+        ReflectionTestUtils.setField(ephemeralEventBus, "queueCapacity", 10);
+        ReflectionTestUtils.setField(ephemeralEventBus, "reliableOfferTimeout", Duration.ofSeconds(5));
+        ephemeralEventBus.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ephemeralEventBus.stop();
+    }
+
+    @Test
+    void subscribe_ShouldOnlyAcceptEphemeralDestinations() {
+        assertTrue(ephemeralEventBus.subscribe("session", "sub-0", "/topic/users.1", 1L));
+        assertTrue(ephemeralEventBus.subscribe("session", "sub-1", "/topic/chat.1.added-typing-users", 1L));
+        assertTrue(ephemeralEventBus.subscribe("session", "sub-2", "/user/queue/calls", 1L));
+        assertFalse(ephemeralEventBus.subscribe("session", "sub-3", "/topic/users.1.created-chats", 1L));
+        assertFalse(ephemeralEventBus.subscribe("session", "sub-4", "/topic/chat.1.created-messages", 1L));
+        assertFalse(ephemeralEventBus.subscribe("session", "sub-5", "/user/queue/calls", null));
+        assertFalse(ephemeralEventBus.subscribe("session", "sub-6", "/user/2/queue/calls", 1L));
+    }
+
+    @Test
+    void unsubscribe_ShouldOnlyClaimEphemeralSubscriptions() {
+        ephemeralEventBus.subscribe("session", "sub-0", "/topic/users.1", 1L);
+
+        assertTrue(ephemeralEventBus.unsubscribe("session", "sub-0"));
+        assertFalse(ephemeralEventBus.unsubscribe("session", "sub-0"));
+        assertFalse(ephemeralEventBus.unsubscribe("session", "sub-1"));
+    }
+
+    @Test
+    void publish_ShouldDeliverLocallyAndFanOutOverRedis() {
+        ephemeralEventBus.subscribe("session", "sub-0", "/topic/users.1", 1L);
+
+        ephemeralEventBus.publish("/topic/users.1", true);
+
+        ArgumentCaptor<Message<?>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(clientOutboundChannel, timeout(5000)).send(captor.capture());
+        verify(redisTemplate, timeout(5000)).convertAndSend(eq(EphemeralEventBus.CHANNEL), anyString());
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(captor.getValue());
+        assertEquals("session", accessor.getSessionId());
+        assertEquals("sub-0", accessor.getSubscriptionId());
+        assertEquals("/topic/users.1", accessor.getDestination());
+        assertEquals("true", new String((byte[]) captor.getValue().getPayload(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void handleMessage_ShouldDeliverEventsFromOtherNodes() throws Exception {
+        ephemeralEventBus.subscribe("session", "sub-0", "/topic/users.1", 1L);
+        EphemeralEvent event = new EphemeralEvent("other-node", "/topic/users.1", "text/plain;charset=UTF-8", "offer");
+
+        ephemeralEventBus.handleMessage(objectMapper.writeValueAsString(event));
+
+        ArgumentCaptor<Message<?>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(clientOutboundChannel, timeout(5000)).send(captor.capture());
+        assertEquals("offer", new String((byte[]) captor.getValue().getPayload(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void publishToUser_ShouldOnlyDeliverToSubscribedUser() {
+        ephemeralEventBus.subscribe("session-1", "sub-0", "/user/queue/calls", 1L);
+        ephemeralEventBus.subscribe("session-2", "sub-0", "/user/queue/calls", 2L);
+
+        ephemeralEventBus.publishToUser(1L, "/queue/calls", "ring");
+
+        ArgumentCaptor<Message<?>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(redisTemplate, timeout(5000)).convertAndSend(eq(EphemeralEventBus.CHANNEL), anyString());
+        verify(clientOutboundChannel, times(1)).send(captor.capture());
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(captor.getValue());
+        assertEquals("session-1", accessor.getSessionId());
+        assertEquals("/user/queue/calls", accessor.getDestination());
+    }
+
+    @Test
+    void handleMessage_ShouldIgnoreEvents_WhenNoLocalSubscribers() throws Exception {
+        EphemeralEvent event = new EphemeralEvent("other-node", "/topic/users.1", "application/json", "true");
+
+        ephemeralEventBus.handleMessage(objectMapper.writeValueAsString(event));
+        ephemeralEventBus.stop();
+
+        verifyNoInteractions(clientOutboundChannel);
+    }
+
+    @Test
+    void publish_ShouldKeepOrderPerDestination() {
+        ephemeralEventBus.stop();
+        ephemeralEventBus = new EphemeralEventBus(clientOutboundChannel, redisTemplate, objectMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(ephemeralEventBus, "poolSize", 4);
+        ReflectionTestUtils.setField(ephemeralEventBus, "queueCapacity", 100);
+        ReflectionTestUtils.setField(ephemeralEventBus, "reliableOfferTimeout", Duration.ofSeconds(5));
+        ephemeralEventBus.start();
+        ephemeralEventBus.subscribe("session", "sub-0", "/topic/chat.1.added-typing-users", 1L);
+
+        for (int i = 0; i < 50; i++) {
+            ephemeralEventBus.publish("/topic/chat.1.added-typing-users", String.valueOf(i));
+        }
+
+        ArgumentCaptor<Message<?>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(clientOutboundChannel, timeout(5000).times(50)).send(captor.capture());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(String.valueOf(i), new String((byte[]) captor.getAllValues().get(i).getPayload(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void publishToUser_ShouldWaitForQueueSpace_WhenDestinationIsReliable() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(clientOutboundChannel.send(any())).thenAnswer(_ -> release.await(5, TimeUnit.SECONDS));
+        ephemeralEventBus.subscribe("session", "sub-0", "/user/queue/calls", 1L);
+
+        Thread publisher = Thread.ofVirtual().start(() -> {
+            for (int i = 0; i < 15; i++) {
+                ephemeralEventBus.publishToUser(1L, "/queue/calls", String.valueOf(i));
+            }
+        });
+        release.countDown();
+        publisher.join(5000);
+
+        ArgumentCaptor<Message<?>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(clientOutboundChannel, timeout(5000).times(15)).send(captor.capture());
+        assertEquals("14", new String((byte[]) captor.getAllValues().get(14).getPayload(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void handleMessage_ShouldNotBlockListener_WhenReliableLaneStaysFull() throws Exception {
+        ephemeralEventBus.stop();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ephemeralEventBus = new EphemeralEventBus(clientOutboundChannel, redisTemplate, objectMapper, meterRegistry);
+        ReflectionTestUtils.setField(ephemeralEventBus, "poolSize", 1);
+        ReflectionTestUtils.setField(ephemeralEventBus, "queueCapacity", 1);
+        ReflectionTestUtils.setField(ephemeralEventBus, "reliableOfferTimeout", Duration.ofMillis(50));
+        ephemeralEventBus.start();
+        CountDownLatch release = new CountDownLatch(1);
+        when(clientOutboundChannel.send(any())).thenAnswer(_ -> release.await(5, TimeUnit.SECONDS));
+        ephemeralEventBus.subscribe("session", "sub-0", "/user/queue/calls", 1L);
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            ephemeralEventBus.handleMessage(objectMapper.writeValueAsString(new EphemeralEvent("other-node", "/user/1/queue/calls", "text/plain;charset=UTF-8", String.valueOf(i))));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        release.countDown();
+
+        assertTrue(elapsedMillis < 2000);
+        assertEquals(3.0, meterRegistry.counter("ephemeral.events.reliable.rejected").count());
+        verify(clientOutboundChannel, timeout(5000).times(2)).send(any());
+    }
+
+    @Test
+    void publishToUser_ShouldNotQueueBehindTypingEvents_WhenDestinationIsReliable() {
+        CountDownLatch release = new CountDownLatch(1);
+        ephemeralEventBus.subscribe("session", "sub-0", "/topic/chat.1.added-typing-users", 1L);
+        ephemeralEventBus.subscribe("session", "sub-1", "/user/queue/calls", 1L);
+        // Only the typing lane is held, the call signal is stubbed by default
+        lenient().when(clientOutboundChannel.send(argThat(message -> message != null && "sub-0".equals(SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders())))))
+                .thenAnswer(_ -> release.await(5, TimeUnit.SECONDS));
+
+        ephemeralEventBus.publish("/topic/chat.1.added-typing-users", "typing");
+        ephemeralEventBus.publishToUser(1L, "/queue/calls", "offer");
+
+        verify(clientOutboundChannel, timeout(2000)).send(argThat(message -> "sub-1".equals(SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders()))));
+        release.countDown();
+    }
+
+    @Test
+    void sendReceipt_ShouldSendReceiptToSession() {
+        ephemeralEventBus.sendReceipt("session", "receipt-1");
+
+        ArgumentCaptor<Message<?>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(clientOutboundChannel).send(captor.capture());
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(captor.getValue());
+        assertEquals(StompCommand.RECEIPT, accessor.getCommand());
+        assertEquals("session", accessor.getSessionId());
+        assertEquals("receipt-1", accessor.getReceiptId());
+    }
+
+    @Test
+    void removeSession_ShouldStopDelivery() {
+        ephemeralEventBus.subscribe("session", "sub-0", "/topic/users.1", 1L);
+        ephemeralEventBus.removeSession("session");
+
+        ephemeralEventBus.publish("/topic/users.1", true);
+
+        verify(redisTemplate, timeout(5000)).convertAndSend(eq(EphemeralEventBus.CHANNEL), anyString());
+        verifyNoInteractions(clientOutboundChannel);
+    }
+
+}
@@ -129,7 +129,7 @@ public class FavoriteGifServiceTests {
 
         favoriteGifService.deleteFavoriteGif(user.getId(), favoriteGif1.getGifId());
 
-        verify(cacheService, times(1)).evictCacheSynchronized("favorite-gifs-page::userId:" + user.getId() + "*");
+        verify(cacheService, times(1)).incrementGenerationSynchronized("favorite-gifs-page:userId:" + user.getId());
     }
 
     @Test
@@ -137,7 +137,7 @@ public class FavoriteGifServiceTests {
         when(favoriteGifRepository.deleteByGifIdAndUserId(favoriteGif1.getGifId(), user.getId())).thenReturn(0);
 
         assertThrows(NotFoundException.class, () -> favoriteGifService.deleteFavoriteGif(user.getId(), favoriteGif1.getGifId()));
-        verify(cacheService, never()).evictCacheSynchronized(any());
+        verify(cacheService, never()).incrementGenerationSynchronized(any());
     }
 
     @Test
@@ -151,7 +151,7 @@ public class FavoriteGifServiceTests {
         assertEquals(result.getGifId(), favoriteGif1.getGifId());
         assertEquals(result.getUser(), user);
         assertEquals(result.getCreatedAt(), favoriteGif1.getCreatedAt());
-        verify(cacheService, times(1)).evictCacheSynchronized("favorite-gifs-page::userId:" + user.getId() + "*");
+        verify(cacheService, times(1)).incrementGenerationSynchronized("favorite-gifs-page:userId:" + user.getId());
     }
 
     @Test
@@ -160,7 +160,7 @@ public class FavoriteGifServiceTests {
 
         assertThrows(BadRequestException.class, () -> favoriteGifService.createFavoriteGif(user.getId(), new FavoriteGifRequest(gifId1)));
 
-        verify(cacheService, never()).evictCacheSynchronized(any());
+        verify(cacheService, never()).incrementGenerationSynchronized(any());
         verify(favoriteGifRepository, never()).save(any(FavoriteGif.class));
     }
 
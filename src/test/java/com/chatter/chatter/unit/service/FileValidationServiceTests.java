@@ -9,8 +9,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,21 +32,21 @@ public class FileValidationServiceTests {
     void isImage_ShouldReturnTrue_WhenFileIsValidImage() throws IOException {
         when(multipartFile.getContentType()).thenReturn("image/jpeg");
         when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getInputStream()).thenReturn(mock(InputStream.class));
-        when(tika.detect(any(InputStream.class))).thenReturn("image/jpeg");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[16]));
+        when(tika.detect(any(byte[].class))).thenReturn("image/jpeg");
 
         boolean result = fileValidationService.isImage(multipartFile);
 
         assertTrue(result);
-        verify(tika).detect(any(InputStream.class));
+        verify(tika).detect(any(byte[].class));
     }
 
     @Test
     void isImage_ShouldReturnFalse_WhenFileIsNotImage() throws IOException {
         when(multipartFile.getContentType()).thenReturn("text/plain");
         when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getInputStream()).thenReturn(mock(InputStream.class));
-        when(tika.detect(any(InputStream.class))).thenReturn("text/plain");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[16]));
+        when(tika.detect(any(byte[].class))).thenReturn("text/plain");
 
         boolean result = fileValidationService.isImage(multipartFile);
 
@@ -55,7 +55,7 @@ public class FileValidationServiceTests {
 
     @Test
     void isImage_ShouldReturnFalse_WhenFileIsNull() {
-        boolean result = fileValidationService.isImage(null);
+        boolean result = fileValidationService.isImage((MultipartFile) null);
 
         assertFalse(result);
     }
@@ -89,8 +89,8 @@ public class FileValidationServiceTests {
     void isVideo_ShouldReturnTrue_WhenFileIsValidVideo() throws IOException {
         when(multipartFile.getContentType()).thenReturn("video/mp4");
         when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getInputStream()).thenReturn(mock(InputStream.class));
-        when(tika.detect(any(InputStream.class))).thenReturn("video/mp4");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[16]));
+        when(tika.detect(any(byte[].class))).thenReturn("video/mp4");
 
         boolean result = fileValidationService.isVideo(multipartFile);
         assertTrue(result);
@@ -100,8 +100,8 @@ public class FileValidationServiceTests {
     void isVideo_ShouldReturnFalse_WhenFileIsNotVideo() throws IOException {
         when(multipartFile.getContentType()).thenReturn("image/jpeg");
         when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getInputStream()).thenReturn(mock(InputStream.class));
-        when(tika.detect(any(InputStream.class))).thenReturn("image/jpeg");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[16]));
+        when(tika.detect(any(byte[].class))).thenReturn("image/jpeg");
 
         boolean result = fileValidationService.isVideo(multipartFile);
         assertFalse(result);
@@ -111,8 +111,8 @@ public class FileValidationServiceTests {
     void isAudio_ShouldReturnTrue_WhenFileIsValidAudio() throws IOException {
         when(multipartFile.getContentType()).thenReturn("audio/mpeg");
         when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getInputStream()).thenReturn(mock(InputStream.class));
-        when(tika.detect(any(InputStream.class))).thenReturn("audio/mpeg");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[16]));
+        when(tika.detect(any(byte[].class))).thenReturn("audio/mpeg");
 
         boolean result = fileValidationService.isAudio(multipartFile);
         assertTrue(result);
@@ -122,13 +122,35 @@ public class FileValidationServiceTests {
     void isAudio_ShouldReturnFalse_WhenFileIsNotAudio() throws IOException {
         when(multipartFile.getContentType()).thenReturn("video/mp4");
         when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getInputStream()).thenReturn(mock(InputStream.class));
-        when(tika.detect(any(InputStream.class))).thenReturn("video/mp4");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[16]));
+        when(tika.detect(any(byte[].class))).thenReturn("video/mp4");
 
         boolean result = fileValidationService.isAudio(multipartFile);
         assertFalse(result);
     }
 
+    @Test
+    void detectMimeType_ShouldReadOnlyBoundedPrefix() throws IOException {
+        byte[] content = new byte[1024 * 1024];
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(content);
+        when(multipartFile.getContentType()).thenReturn("video/mp4");
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getInputStream()).thenReturn(inputStream);
+        when(tika.detect(any(byte[].class))).thenReturn("video/mp4");
+
+        String result = fileValidationService.detectMimeType(multipartFile);
+
+        assertEquals("video/mp4", result);
+        assertTrue(inputStream.available() > 0);
+    }
+
+    @Test
+    void isImage_ShouldCheckDetectedMimeType() {
+        assertTrue(fileValidationService.isImage("image/png"));
+        assertFalse(fileValidationService.isImage("video/mp4"));
+        assertFalse(fileValidationService.isImage((String) null));
+    }
+
     @Test
     void isSizeValid_ShouldReturnTrue_WhenFileSizeIsWithinLimit() {
         when(multipartFile.getSize()).thenReturn(1024L);
@@ -181,8 +203,8 @@ public class FileValidationServiceTests {
         for (String mimeType : imageMimeTypes) {
             when(multipartFile.getContentType()).thenReturn(mimeType);
             when(multipartFile.isEmpty()).thenReturn(false);
-            when(multipartFile.getInputStream()).thenReturn(mock(InputStream.class));
-            when(tika.detect(any(InputStream.class))).thenReturn(mimeType);
+            when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[16]));
+            when(tika.detect(any(byte[].class))).thenReturn(mimeType);
 
             boolean result = fileValidationService.isImage(multipartFile);
 
@@ -197,8 +219,8 @@ public class FileValidationServiceTests {
         for (String mimeType : videoMimeTypes) {
             when(multipartFile.getContentType()).thenReturn(mimeType);
             when(multipartFile.isEmpty()).thenReturn(false);
-            when(multipartFile.getInputStream()).thenReturn(mock(InputStream.class));
-            when(tika.detect(any(InputStream.class))).thenReturn(mimeType);
+            when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[16]));
+            when(tika.detect(any(byte[].class))).thenReturn(mimeType);
 
             boolean result = fileValidationService.isVideo(multipartFile);
 
@@ -213,8 +235,8 @@ public class FileValidationServiceTests {
         for (String mimeType : audioMimeTypes) {
             when(multipartFile.getContentType()).thenReturn(mimeType);
             when(multipartFile.isEmpty()).thenReturn(false);
-            when(multipartFile.getInputStream()).thenReturn(mock(InputStream.class));
-            when(tika.detect(any(InputStream.class))).thenReturn(mimeType);
+            when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[16]));
+            when(tika.detect(any(byte[].class))).thenReturn(mimeType);
 
             boolean result = fileValidationService.isAudio(multipartFile);
 
@@ -226,12 +248,12 @@ public class FileValidationServiceTests {
     void validateType_ShouldUseTikaDetectionOverContentType() throws IOException {
         when(multipartFile.getContentType()).thenReturn("image/jpeg");
         when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getInputStream()).thenReturn(mock(InputStream.class));
-        when(tika.detect(any(InputStream.class))).thenReturn("text/plain");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[16]));
+        when(tika.detect(any(byte[].class))).thenReturn("text/plain");
 
         boolean result = fileValidationService.isImage(multipartFile);
 
         assertFalse(result);
-        verify(tika).detect(any(InputStream.class));
+        verify(tika).detect(any(byte[].class));
     }
 }
\ No newline at end of file
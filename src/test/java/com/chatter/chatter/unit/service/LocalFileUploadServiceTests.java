@@ -0,0 +1,158 @@
+package com.chatter.chatter.unit.service;
+
+import com.chatter.chatter.dto.FileMetadata;
+import com.chatter.chatter.dto.MediaStreamResult;
+import com.chatter.chatter.exception.BadRequestException;
+import com.chatter.chatter.exception.ForbiddenException;
+import com.chatter.chatter.service.FileValidationService;
+import com.chatter.chatter.service.LocalFileUploadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LocalFileUploadServiceTests {
+
+    private static final String FILENAME = "b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9.txt";
+
+    @Mock
+    private FileValidationService fileValidationService;
+
+    @InjectMocks
+    private LocalFileUploadService localFileUploadService;
+
+    @TempDir
+    Path root;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        ReflectionTestUtils.setField(localFileUploadService, "root", root);
+        ReflectionTestUtils.setField(localFileUploadService, "baseUrl", "http://localhost:8080");
+        ReflectionTestUtils.setField(localFileUploadService, "signingKey", "test-signing-key");
+        ReflectionTestUtils.setField(localFileUploadService, "urlExpiry", Duration.ofHours(1));
+        localFileUploadService.init();
+    }
+
+    @Test
+    void uploadFile_ShouldStoreFileInShardedDirectory() throws IOException {
+        localFileUploadService.uploadFile(new ByteArrayInputStream("hello world".getBytes()), "text/plain", FILENAME);
+
+        assertTrue(Files.exists(root.resolve("b9").resolve("4d").resolve(FILENAME)));
+        assertArrayEquals("hello world".getBytes(), localFileUploadService.getFile(FILENAME).readAllBytes());
+    }
+
+    @Test
+    void uploadFile_ShouldRejectPathTraversal() {
+        assertThrows(BadRequestException.class, () -> localFileUploadService.uploadFile(new ByteArrayInputStream(new byte[1]), "text/plain", "../secret.txt"));
+    }
+
+    @Test
+    void completeMultipartUpload_ShouldConcatenatePartsInOrder() throws IOException {
+        String uploadId = localFileUploadService.createMultipartUpload("uploads/video.mp4", "video/mp4");
+        String second = localFileUploadService.uploadPart("uploads/video.mp4", uploadId, 2, "world".getBytes());
+        String first = localFileUploadService.uploadPart("uploads/video.mp4", uploadId, 1, "hello ".getBytes());
+
+        String eTag = localFileUploadService.completeMultipartUpload("uploads/video.mp4", uploadId, Map.of(2, second, 1, first));
+
+        assertTrue(eTag.endsWith("-2\""));
+        assertArrayEquals("hello world".getBytes(), localFileUploadService.getFile("uploads/video.mp4").readAllBytes());
+        FileMetadata metadata = localFileUploadService.getFileMetadata("uploads/video.mp4");
+        assertEquals(11L, metadata.getContentLength());
+        assertEquals("video/mp4", metadata.getContentType());
+    }
+
+    @Test
+    void streamFile_ShouldReturnRequestedRange() throws IOException {
+        localFileUploadService.uploadFile(new ByteArrayInputStream("hello world".getBytes()), "text/plain", FILENAME);
+        Map<String, String> query = getQuery(localFileUploadService.getFileUrl(FILENAME));
+
+        MediaStreamResult result = localFileUploadService.streamFile(FILENAME, Long.parseLong(query.get("expires")), query.get("signature"), "bytes=6-", null);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        localFileUploadService.writeFile(result, outputStream);
+
+        assertTrue(result.isPartialContent());
+        assertEquals(6L, result.getRangeStart());
+        assertEquals(5L, result.getContentLength());
+        assertEquals(11L, result.getTotalLength());
+        assertEquals("world", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void streamFile_ShouldMarkRangeNotSatisfiable_WhenRangeStartsPastEnd() throws IOException {
+        localFileUploadService.uploadFile(new ByteArrayInputStream("hello world".getBytes()), "text/plain", FILENAME);
+        Map<String, String> query = getQuery(localFileUploadService.getFileUrl(FILENAME));
+
+        MediaStreamResult result = localFileUploadService.streamFile(FILENAME, Long.parseLong(query.get("expires")), query.get("signature"), "bytes=20-", null);
+
+        assertTrue(result.isRangeNotSatisfiable());
+        assertFalse(result.isPartialContent());
+        assertEquals(11L, result.getTotalLength());
+    }
+
+    @Test
+    void init_ShouldFail_WhenSigningKeyIsBlank() {
+        ReflectionTestUtils.setField(localFileUploadService, "signingKey", " ");
+
+        assertThrows(IllegalStateException.class, () -> localFileUploadService.init());
+    }
+
+    @Test
+    void streamFile_ShouldReturnNotModified_WhenETagMatches() throws IOException {
+        localFileUploadService.uploadFile(new ByteArrayInputStream("hello world".getBytes()), "text/plain", FILENAME);
+        Map<String, String> query = getQuery(localFileUploadService.getFileUrl(FILENAME));
+        Long expires = Long.parseLong(query.get("expires"));
+        String eTag = localFileUploadService.streamFile(FILENAME, expires, query.get("signature"), null, null).getETag();
+
+        MediaStreamResult result = localFileUploadService.streamFile(FILENAME, expires, query.get("signature"), null, "W/" + eTag);
+
+        assertTrue(result.isNotModified());
+    }
+
+    @Test
+    void streamFile_ShouldThrowForbidden_WhenSignatureIsInvalid() {
+        Map<String, String> query = getQuery(localFileUploadService.getFileUrl(FILENAME));
+
+        assertThrows(ForbiddenException.class, () -> localFileUploadService.streamFile(FILENAME, Long.parseLong(query.get("expires")), "invalid", null, null));
+    }
+
+    @Test
+    void storeFile_ShouldRejectContentLongerThanSigned() {
+        Map<String, String> query = getQuery(localFileUploadService.getUploadUrl("uploads/file.txt", "text/plain", 4L));
+        Long expires = Long.parseLong(query.get("expires"));
+
+        assertThrows(RuntimeException.class, () -> localFileUploadService.storeFile("uploads/file.txt", expires, query.get("signature"), "text/plain", 4L, new ByteArrayInputStream("hello world".getBytes())));
+        assertNull(localFileUploadService.getFileMetadata("uploads/file.txt"));
+    }
+
+    @Test
+    void deleteFiles_ShouldRemoveStoredFiles() {
+        localFileUploadService.uploadFile(new ByteArrayInputStream("hello world".getBytes()), "text/plain", FILENAME);
+
+        localFileUploadService.deleteFiles(List.of(FILENAME, "missing.txt"));
+
+        assertNull(localFileUploadService.getFileMetadata(FILENAME));
+    }
+
+    private Map<String, String> getQuery(String url) {
+        return UriComponentsBuilder.fromUriString(url).build().getQueryParams().toSingleValueMap();
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.chatter.chatter.unit.service;
+
+import com.chatter.chatter.dto.MessageSearchDocument;
+import com.chatter.chatter.model.MessageType;
+import com.chatter.chatter.service.LuceneMessageSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LuceneMessageSearchIndexTests {
+
+    @TempDir
+    private Path indexDirectory;
+
+    private LuceneMessageSearchIndex messageSearchIndex;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        messageSearchIndex = new LuceneMessageSearchIndex();
+        ReflectionTestUtils.setField(messageSearchIndex, "indexPath", indexDirectory.toString());
+        messageSearchIndex.open();
+        messageSearchIndex.indexMessages(List.of(
+                new MessageSearchDocument(1L, 1L, MessageType.TEXT, "Hello world"),
+                new MessageSearchDocument(2L, 1L, MessageType.TEXT, "Meeting tomorrow at noon"),
+                new MessageSearchDocument(3L, 2L, MessageType.TEXT, "hello from another chat"),
+                new MessageSearchDocument(4L, 1L, MessageType.STORY, "Hello story")
+        ));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        messageSearchIndex.close();
+    }
+
+    @Test
+    void search_ShouldReturnMatchesNewestFirst_WithinGivenChats() {
+        List<Long> result = messageSearchIndex.search("hello", Set.of(1L), null, null, null, 10);
+
+        assertEquals(List.of(4L, 1L), result);
+    }
+
+    @Test
+    void search_ShouldSearchAcrossChats() {
+        List<Long> result = messageSearchIndex.search("hello", Set.of(1L, 2L), null, null, null, 10);
+
+        assertEquals(List.of(4L, 3L, 1L), result);
+    }
+
+    @Test
+    void search_ShouldMatchPrefixes() {
+        List<Long> result = messageSearchIndex.search("meet", Set.of(1L), null, null, null, 10);
+
+        assertEquals(List.of(2L), result);
+    }
+
+    @Test
+    void search_ShouldFilterByMessageTypeAndCursor() {
+        assertEquals(List.of(1L), messageSearchIndex.search("hello", Set.of(1L), MessageType.TEXT, null, null, 10));
+        assertEquals(List.of(1L), messageSearchIndex.search("hello", Set.of(1L), null, 4L, null, 10));
+        assertEquals(List.of(4L), messageSearchIndex.search("hello", Set.of(1L), null, null, 1L, 10));
+    }
+
+    @Test
+    void search_ShouldReturnEmpty_WhenNoChats() {
+        assertTrue(messageSearchIndex.search("hello", Set.of(), null, null, null, 10).isEmpty());
+    }
+
+    @Test
+    void indexMessages_ShouldReplaceExistingDocument() {
+        messageSearchIndex.indexMessages(List.of(new MessageSearchDocument(1L, 1L, MessageType.TEXT, "Goodbye")));
+
+        assertEquals(List.of(4L), messageSearchIndex.search("hello", Set.of(1L), null, null, null, 10));
+        assertEquals(List.of(1L), messageSearchIndex.search("goodbye", Set.of(1L), null, null, null, 10));
+    }
+
+    @Test
+    void removeMessages_ShouldRemoveDocuments() {
+        messageSearchIndex.removeMessages(List.of(1L, 4L));
+
+        assertTrue(messageSearchIndex.search("hello", Set.of(1L), null, null, null, 10).isEmpty());
+    }
+
+    @Test
+    void finishRebuild_ShouldOnlyRemoveDocumentsNotReindexed() {
+        long generation = messageSearchIndex.startRebuild();
+        messageSearchIndex.indexMessages(List.of(new MessageSearchDocument(1L, 1L, MessageType.TEXT, "Hello world")));
+
+        assertEquals(List.of(4L, 1L), messageSearchIndex.search("hello", Set.of(1L), null, null, null, 10));
+
+        messageSearchIndex.finishRebuild(generation);
+
+        assertEquals(List.of(1L), messageSearchIndex.search("hello", Set.of(1L, 2L), null, null, null, 10));
+    }
+
+    @Test
+    void setCheckpoint_ShouldSurviveReopen() throws Exception {
+        messageSearchIndex.setCheckpoint("5-0");
+        messageSearchIndex.commit();
+        messageSearchIndex.close();
+
+        messageSearchIndex.open();
+
+        assertEquals("5-0", messageSearchIndex.getCheckpoint());
+        assertEquals(List.of(4L, 1L), messageSearchIndex.search("hello", Set.of(1L), null, null, null, 10));
+    }
+}
@@ -0,0 +1,157 @@
+package com.chatter.chatter.unit.service;
+
+import com.chatter.chatter.dto.MediaMetadata;
+import com.chatter.chatter.service.FileUploadService;
+import com.chatter.chatter.service.FileValidationService;
+import com.chatter.chatter.service.MediaMetadataService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MediaMetadataServiceTests {
+
+    @Mock
+    private FileValidationService fileValidationService;
+
+    @Mock
+    private FileUploadService fileUploadService;
+
+    @InjectMocks
+    private MediaMetadataService mediaMetadataService;
+
+    @Test
+    void extract_ShouldReadDimensionsAndPlaceholder_WhenImage() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB), "png", outputStream);
+        MockMultipartFile file = new MockMultipartFile("file", "image.png", "image/png", outputStream.toByteArray());
+        when(fileValidationService.isImage("image/png")).thenReturn(true);
+
+        MediaMetadata metadata = mediaMetadataService.extract(file, "image/png");
+
+        assertEquals(640, metadata.getWidth());
+        assertEquals(480, metadata.getHeight());
+        assertEquals(28, metadata.getPlaceholder().length());
+        assertNull(metadata.getDurationMillis());
+    }
+
+    @Test
+    void extract_ShouldReadStoredFile_WhenGivenFilePath() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(320, 200, BufferedImage.TYPE_INT_RGB), "png", outputStream);
+        when(fileValidationService.isImage("image/png")).thenReturn(true);
+        when(fileUploadService.getFile("uploads/session.png")).thenReturn(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        MediaMetadata metadata = mediaMetadataService.extract("uploads/session.png", "image/png");
+
+        assertEquals(320, metadata.getWidth());
+        assertEquals(200, metadata.getHeight());
+    }
+
+    @Test
+    void extract_ShouldNotDownloadStoredFile_WhenFormatHasNoMetadata() {
+        when(fileValidationService.isImage("video/webm")).thenReturn(false);
+
+        MediaMetadata metadata = mediaMetadataService.extract("uploads/session.webm", "video/webm");
+
+        assertNull(metadata.getDurationMillis());
+        verifyNoInteractions(fileUploadService);
+    }
+
+    @Test
+    void extract_ShouldReadDuration_WhenMp4HasMoovAfterMdat() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(outputStream);
+        writeBox(data, "ftyp", new byte[8]);
+        writeBox(data, "mdat", new byte[1024]);
+        ByteArrayOutputStream mvhd = new ByteArrayOutputStream();
+        DataOutputStream mvhdData = new DataOutputStream(mvhd);
+        mvhdData.writeInt(0);
+        mvhdData.writeInt(0);
+        mvhdData.writeInt(0);
+        mvhdData.writeInt(1000);
+        mvhdData.writeInt(12500);
+        ByteArrayOutputStream moov = new ByteArrayOutputStream();
+        writeBox(new DataOutputStream(moov), "mvhd", mvhd.toByteArray());
+        writeBox(data, "moov", moov.toByteArray());
+        MockMultipartFile file = new MockMultipartFile("file", "video.mp4", "video/mp4", outputStream.toByteArray());
+        when(fileValidationService.isImage("video/mp4")).thenReturn(false);
+
+        MediaMetadata metadata = mediaMetadataService.extract(file, "video/mp4");
+
+        assertEquals(12500L, metadata.getDurationMillis());
+        assertNull(metadata.getWidth());
+    }
+
+    @Test
+    void extract_ShouldReadStoredMp4ByRange_WhenMoovIsAfterLargeMdat() throws IOException {
+        byte[] video = createMp4(4 * 1024 * 1024, 1000, 98000);
+        when(fileValidationService.isImage("video/mp4")).thenReturn(false);
+        when(fileUploadService.getFileRange(eq("uploads/session.mp4"), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long offset = invocation.getArgument(1);
+            int length = invocation.getArgument(2);
+            return Arrays.copyOfRange(video, (int) Math.min(offset, video.length), (int) Math.min(offset + length, video.length));
+        });
+
+        MediaMetadata metadata = mediaMetadataService.extract("uploads/session.mp4", "video/mp4");
+
+        assertEquals(98000L, metadata.getDurationMillis());
+        ArgumentCaptor<Integer> lengths = ArgumentCaptor.forClass(Integer.class);
+        verify(fileUploadService, atMost(4)).getFileRange(eq("uploads/session.mp4"), anyLong(), lengths.capture());
+        assertTrue(lengths.getAllValues().stream().allMatch(length -> length <= 64 * 1024));
+        verify(fileUploadService, never()).getFile(anyString());
+    }
+
+    @Test
+    void extract_ShouldReturnEmptyMetadata_WhenVideoIsNotIsoMedia() {
+        MockMultipartFile file = new MockMultipartFile("file", "video.webm", "video/webm", new byte[64]);
+        when(fileValidationService.isImage("video/webm")).thenReturn(false);
+
+        MediaMetadata metadata = mediaMetadataService.extract(file, "video/webm");
+
+        assertNull(metadata.getDurationMillis());
+        assertNull(metadata.getPlaceholder());
+    }
+
+    private byte[] createMp4(int mdatSize, int timescale, int duration) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(outputStream);
+        writeBox(data, "ftyp", new byte[8]);
+        writeBox(data, "mdat", new byte[mdatSize]);
+        ByteArrayOutputStream mvhd = new ByteArrayOutputStream();
+        DataOutputStream mvhdData = new DataOutputStream(mvhd);
+        mvhdData.writeInt(0);
+        mvhdData.writeInt(0);
+        mvhdData.writeInt(0);
+        mvhdData.writeInt(timescale);
+        mvhdData.writeInt(duration);
+        ByteArrayOutputStream moov = new ByteArrayOutputStream();
+        writeBox(new DataOutputStream(moov), "mvhd", mvhd.toByteArray());
+        writeBox(data, "moov", moov.toByteArray());
+        return outputStream.toByteArray();
+    }
+
+    private void writeBox(DataOutputStream data, String type, byte[] body) throws IOException {
+        data.writeInt(8 + body.length);
+        data.write(type.getBytes(StandardCharsets.ISO_8859_1));
+        data.write(body);
+    }
+
+}
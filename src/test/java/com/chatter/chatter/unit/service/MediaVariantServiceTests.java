@@ -0,0 +1,118 @@
+package com.chatter.chatter.unit.service;
+
+import com.chatter.chatter.dto.MediaVariants;
+import com.chatter.chatter.repository.AttachmentRepository;
+import com.chatter.chatter.repository.StoryRepository;
+import com.chatter.chatter.service.BlobService;
+import com.chatter.chatter.service.FileUploadService;
+import com.chatter.chatter.service.MediaVariantService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MediaVariantServiceTests {
+
+    @Mock
+    private FileUploadService fileUploadService;
+
+    @Mock
+    private BlobService blobService;
+
+    @Mock
+    private AttachmentRepository attachmentRepository;
+
+    @Mock
+    private StoryRepository storyRepository;
+
+    @InjectMocks
+    private MediaVariantService mediaVariantService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(mediaVariantService, "thumbnailSize", 320);
+        ReflectionTestUtils.setField(mediaVariantService, "mediumSize", 1280);
+        ReflectionTestUtils.setField(mediaVariantService, "variantQuality", 0.8f);
+    }
+
+    @Test
+    void createVariants_ShouldCreateThumbnailAndMedium_WhenImageIsLarge() throws IOException {
+        when(fileUploadService.getFile("original.png")).thenReturn(new ByteArrayInputStream(createPng(3000, 1500)));
+        when(blobService.uploadFile(any(byte[].class), eq("image/jpeg"), eq("jpg"))).thenReturn("thumbnail.jpg", "medium.jpg");
+        when(attachmentRepository.updateVariants("original.png", "thumbnail.jpg", "medium.jpg")).thenReturn(2);
+        when(storyRepository.updateVariants("original.png", "thumbnail.jpg", "medium.jpg")).thenReturn(0);
+
+        mediaVariantService.createVariants("original.png");
+
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(blobService, times(2)).uploadFile(captor.capture(), eq("image/jpeg"), eq("jpg"));
+        List<byte[]> variants = captor.getAllValues();
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(variants.get(0)));
+        BufferedImage medium = ImageIO.read(new ByteArrayInputStream(variants.get(1)));
+        assertEquals(320, thumbnail.getWidth());
+        assertEquals(320, thumbnail.getHeight());
+        assertEquals(1280, medium.getWidth());
+        assertEquals(640, medium.getHeight());
+    }
+
+    @Test
+    void createVariants_ShouldCopyExistingVariants_WhenOriginalWasAlreadyProcessed() throws IOException {
+        when(attachmentRepository.findVariants("original.png", PageRequest.of(0, 1))).thenReturn(List.of(new MediaVariants("thumbnail.jpg", "medium.jpg")));
+
+        mediaVariantService.createVariants("original.png");
+
+        verify(attachmentRepository).updateVariants("original.png", "thumbnail.jpg", "medium.jpg");
+        verify(storyRepository).updateVariants("original.png", "thumbnail.jpg", "medium.jpg");
+        verifyNoInteractions(fileUploadService, blobService);
+    }
+
+    @Test
+    void createVariants_ShouldSkipMedium_WhenImageIsSmall() throws IOException {
+        when(fileUploadService.getFile("original.png")).thenReturn(new ByteArrayInputStream(createPng(200, 100)));
+        when(blobService.uploadFile(any(byte[].class), eq("image/jpeg"), eq("jpg"))).thenReturn("thumbnail.jpg");
+        when(attachmentRepository.updateVariants("original.png", "thumbnail.jpg", null)).thenReturn(0);
+        when(storyRepository.updateVariants("original.png", "thumbnail.jpg", null)).thenReturn(1);
+
+        mediaVariantService.createVariants("original.png");
+
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(blobService, times(1)).uploadFile(captor.capture(), eq("image/jpeg"), eq("jpg"));
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(captor.getValue()));
+        assertEquals(100, thumbnail.getWidth());
+        assertEquals(100, thumbnail.getHeight());
+    }
+
+    @Test
+    void createVariants_ShouldDoNothing_WhenFormatIsNotSupported() throws IOException {
+        when(fileUploadService.getFile("original.webp")).thenReturn(new ByteArrayInputStream("not an image".getBytes()));
+
+        mediaVariantService.createVariants("original.webp");
+
+        verify(blobService, never()).uploadFile(any(byte[].class), anyString(), anyString());
+        verifyNoInteractions(attachmentRepository, storyRepository);
+    }
+
+    private byte[] createPng(int width, int height) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", outputStream);
+        return outputStream.toByteArray();
+    }
+
+}
@@ -16,12 +16,25 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +55,12 @@ public class MemberServiceTests {
     @Mock
     private Cache cache;
 
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
     @InjectMocks
     private MemberService memberService;
 
@@ -366,4 +385,74 @@ public class MemberServiceTests {
         verify(memberRepository).save(member);
     }
 
-}
\ No newline at end of file
+    @Test
+    void incrementUnreadCounters_ShouldMarkMentionedUsers() {
+        Message message = Message.builder().id(10L).chat(groupChat).user(testUser).build();
+        message.setMentions(Set.of(Mention.builder().message(message).user(memberUser).build()));
+
+        memberService.incrementUnreadCounters(message);
+
+        verify(memberRepository).incrementUnreadCounters(groupChat.getId(), testUser.getId(), 10L, message.getCreatedAt());
+        verify(memberRepository).markMentioned(groupChat.getId(), testUser.getId(), 10L, message.getCreatedAt(), Set.of(memberUser.getId()));
+        verify(memberRepository, never()).markEveryoneMentioned(anyLong(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void incrementUnreadCounters_ShouldMarkEveryone_WhenEveryoneMentioned() {
+        Message message = Message.builder().id(10L).chat(groupChat).user(testUser).isEveryoneMentioned(true).build();
+
+        memberService.incrementUnreadCounters(message);
+
+        verify(memberRepository).incrementUnreadCounters(groupChat.getId(), testUser.getId(), 10L, message.getCreatedAt());
+        verify(memberRepository).markEveryoneMentioned(groupChat.getId(), testUser.getId(), 10L, message.getCreatedAt());
+    }
+
+    @Test
+    void decrementUnreadCounters_ShouldCountForEveryone_WhenSenderWasDeleted() {
+        Message message = Message.builder().id(10L).chat(groupChat).createdAt(Instant.now()).build();
+
+        memberService.decrementUnreadCounters(message);
+
+        verify(memberRepository).decrementUnreadCounters(groupChat.getId(), null, 10L, message.getCreatedAt());
+    }
+
+    @Test
+    void reconcileUnreadCounters_ShouldRecountInBatches() {
+        List<Long> firstBatch = LongStream.rangeClosed(1, 500).boxed().toList();
+        List<Long> secondBatch = List.of(501L, 502L);
+
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("unread_counters_reconcile_lock"), anyString(), any(Duration.class))).thenReturn(true);
+        when(memberRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(firstBatch);
+        when(memberRepository.findIdsAfter(eq(500L), any(Pageable.class))).thenReturn(secondBatch);
+
+        memberService.reconcileUnreadCounters();
+
+        verify(memberRepository).recountUnreadCounters(firstBatch);
+        verify(memberRepository).recountUnreadCounters(secondBatch);
+        verify(memberRepository, never()).findIdsAfter(eq(502L), any(Pageable.class));
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any());
+    }
+
+    @Test
+    void reconcileUnreadCounters_ShouldSkip_WhenAnotherNodeHoldsTheLock() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("unread_counters_reconcile_lock"), anyString(), any(Duration.class))).thenReturn(false);
+
+        memberService.reconcileUnreadCounters();
+
+        verifyNoInteractions(memberRepository);
+    }
+
+    @Test
+    void reconcileUnreadCounters_ShouldReleaseLock_WhenRecountFails() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("unread_counters_reconcile_lock"), anyString(), any(Duration.class))).thenReturn(true);
+        when(memberRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenThrow(new IllegalStateException("failed"));
+
+        assertThrows(IllegalStateException.class, () -> memberService.reconcileUnreadCounters());
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("unread_counters_reconcile_lock")), anyString());
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.chatter.chatter.unit.service;
+
+import com.chatter.chatter.dto.MessageSearchDocument;
+import com.chatter.chatter.model.MessageType;
+import com.chatter.chatter.service.MessageIndexStream;
+import com.chatter.chatter.service.MessageSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MessageIndexStreamTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+
+    @Mock
+    private MessageSearchIndex messageSearchIndex;
+
+    private MessageIndexStream messageIndexStream;
+
+    @BeforeEach
+    public void setUp() {
+        messageIndexStream = new MessageIndexStream(redisTemplate, messageSearchIndex, objectMapper);
+        ReflectionTestUtils.setField(messageIndexStream, "maxLength", 1000L);
+        ReflectionTestUtils.setField(messageIndexStream, "batchSize", 10);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishIndex_ShouldAppendToStream() {
+        when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+
+        messageIndexStream.publishIndex(List.of(new MessageSearchDocument(1L, 1L, MessageType.TEXT, "Hello")));
+
+        ArgumentCaptor<MapRecord<String, Object, Object>> captor = ArgumentCaptor.forClass(MapRecord.class);
+        verify(streamOperations).add(captor.capture());
+        assertEquals(MessageIndexStream.STREAM_KEY, captor.getValue().getStream());
+        assertEquals("index", captor.getValue().getValue().get("type"));
+        verifyNoInteractions(messageSearchIndex);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyUpdates_ShouldApplyRecordsInOrderAndStoreCheckpoint() throws Exception {
+        when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+        String documents = objectMapper.writeValueAsString(List.of(new MessageSearchDocument(1L, 1L, MessageType.TEXT, "Hello")));
+        List<MapRecord<String, Object, Object>> records = List.of(
+                MapRecord.create(MessageIndexStream.STREAM_KEY, Map.<Object, Object>of("type", "index", "payload", documents)).withId(RecordId.of("1-0")),
+                MapRecord.create(MessageIndexStream.STREAM_KEY, Map.<Object, Object>of("type", "remove", "payload", "[1]")).withId(RecordId.of("2-0"))
+        );
+        when(streamOperations.read(any(StreamReadOptions.class), any(StreamOffset.class))).thenReturn(records);
+
+        messageIndexStream.applyUpdates();
+
+        ArgumentCaptor<Collection<MessageSearchDocument>> captor = ArgumentCaptor.forClass(Collection.class);
+        var inOrder = inOrder(messageSearchIndex);
+        inOrder.verify(messageSearchIndex).indexMessages(captor.capture());
+        inOrder.verify(messageSearchIndex).removeMessages(List.of(1L));
+        inOrder.verify(messageSearchIndex).setCheckpoint("2-0");
+        assertEquals("Hello", captor.getValue().iterator().next().getContent());
+    }
+
+    @Test
+    void getRebuildCheckpoint_ShouldStartFromStreamEnd_WhenIndexIsFresh() {
+        StreamInfo.XInfoStream info = mock(StreamInfo.XInfoStream.class);
+        when(redisTemplate.hasKey(MessageIndexStream.STREAM_KEY)).thenReturn(true);
+        when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+        when(streamOperations.info(MessageIndexStream.STREAM_KEY)).thenReturn(info);
+        when(info.lastGeneratedId()).thenReturn("5-0");
+
+        assertEquals("5-0", messageIndexStream.getRebuildCheckpoint());
+    }
+
+    @Test
+    void getRebuildCheckpoint_ShouldKeepAppliedCheckpoint_WhenIndexHasApplied() {
+        when(messageSearchIndex.getCheckpoint()).thenReturn("3-0");
+
+        assertEquals("3-0", messageIndexStream.getRebuildCheckpoint());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void applyUpdates_ShouldCheckFreshIndexAgainstStream() {
+        StreamInfo.XInfoStream info = mock(StreamInfo.XInfoStream.class);
+        when(redisTemplate.hasKey(MessageIndexStream.STREAM_KEY)).thenReturn(true);
+        when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+        when(streamOperations.info(MessageIndexStream.STREAM_KEY)).thenReturn(info);
+        when(info.firstEntryId()).thenReturn("4-0");
+        when(info.streamLength()).thenReturn(1000L);
+        when(streamOperations.read(any(StreamReadOptions.class), any(StreamOffset.class))).thenReturn(List.of());
+
+        messageIndexStream.applyUpdates();
+
+        verify(info).streamLength();
+    }
+
+    @Test
+    void applyUpdates_ShouldKeepCheckpoint_WhenStreamIsEmpty() {
+        when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+        when(streamOperations.read(any(StreamReadOptions.class), any(StreamOffset.class))).thenReturn(List.of());
+
+        messageIndexStream.applyUpdates();
+
+        verify(messageSearchIndex, never()).setCheckpoint(anyString());
+    }
+
+}
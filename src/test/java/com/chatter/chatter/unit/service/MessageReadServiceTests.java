@@ -5,11 +5,10 @@ import com.chatter.chatter.exception.BadRequestException;
 import com.chatter.chatter.exception.NotFoundException;
 import com.chatter.chatter.mapper.MessageReadMapper;
 import com.chatter.chatter.model.*;
-import com.chatter.chatter.repository.MessageReadRepository;
 import com.chatter.chatter.service.ChatService;
+import com.chatter.chatter.service.MemberService;
 import com.chatter.chatter.service.MessageReadService;
 import com.chatter.chatter.service.MessageService;
-import com.chatter.chatter.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,7 +16,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -28,18 +26,15 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class MessageReadServiceTests {
 
-    @Mock
-    private MessageReadRepository messageReadRepository;
-
-    @Mock
-    private UserService userService;
-
     @Mock
     private MessageService messageService;
 
     @Mock
     private ChatService chatService;
 
+    @Mock
+    private MemberService memberService;
+
     @Mock
     private MessageReadMapper messageReadMapper;
 
@@ -48,11 +43,11 @@ public class MessageReadServiceTests {
 
     private User user;
     private User messageUser;
-    private User otherUser;
+    private Member member;
     private Message message;
     private Chat individualChat;
     private Chat groupChat;
-    private MessageRead messageRead;
+    private MessageReadDto messageReadDto;
 
     @BeforeEach
     public void setUp() {
@@ -67,252 +62,160 @@ public class MessageReadServiceTests {
                 .id(2L)
                 .email("sender@example.com")
                 .username("sender")
-                .showMessageReads(true)
+                .showMessageReads(false)
                 .build();
 
-        otherUser = User.builder()
-                .id(3L)
-                .email("other@example.com")
-                .username("other")
-                .build();
+        member = Member.builder().id(1L).user(user).lastReadMessageId(5L).build();
 
         individualChat = Chat.builder()
                 .id(1L)
                 .chatType(ChatType.INDIVIDUAL)
                 .build();
 
-        individualChat.addMember(Member.builder().id(1L).user(user).build());
-        individualChat.addMember(Member.builder().id(2L).user(otherUser).build());
+        individualChat.addMember(member);
+        individualChat.addMember(Member.builder().id(2L).user(messageUser).build());
 
         groupChat = Chat.builder()
                 .id(2L)
                 .chatType(ChatType.GROUP)
                 .build();
 
-        groupChat.addMember(Member.builder().id(3L).user(user).build());
-        groupChat.addMember(Member.builder().id(4L).user(otherUser).build());
-        groupChat.addMember(Member.builder().id(5L).user(messageUser).build());
-
         message = Message.builder()
-                .id(1L)
+                .id(10L)
                 .content("Test message")
                 .user(messageUser)
                 .chat(individualChat)
                 .build();
 
-        messageRead = MessageRead.builder()
-                .id(1L)
-                .user(user)
-                .message(message)
-                .showRead(true)
-                .build();
+        messageReadDto = MessageReadDto.builder().id(1L).messageId(10L).build();
     }
 
     @Test
-    void createMessageRead_ShouldCreateMessageRead_WhenValid() {
-        when(messageReadRepository.existsByUserEmailAndMessageId("test@example.com", 1L)).thenReturn(false);
-        when(userService.getUserEntityByEmail("test@example.com")).thenReturn(user);
-        when(messageService.getMessageEntity("test@example.com", 1L)).thenReturn(message);
-        when(messageReadRepository.save(any(MessageRead.class))).thenReturn(messageRead);
-
-        MessageRead result = messageReadService.createMessageRead("test@example.com", 1L);
-
-        assertNotNull(result);
-        assertEquals(user, result.getUser());
-        assertEquals(message, result.getMessage());
-        verify(messageReadRepository).save(any(MessageRead.class));
-        verify(messageService).broadcastMessageUpdate(message);
+    void createMessageRead_ShouldAdvanceWatermark() {
+        when(messageService.getMessageEntity("test@example.com", 10L)).thenReturn(message);
+        when(memberService.getCurrentChatMemberEntity("test@example.com", 1L)).thenReturn(member);
+        when(memberService.advanceReadWatermark("test@example.com", 1L, 10L)).thenReturn(true);
+        when(messageService.getMessagesReadBetween("test@example.com", 1L, 5L, 10L)).thenReturn(List.of(message));
+        when(messageReadMapper.toDto(member, 10L, false)).thenReturn(messageReadDto);
+
+        MessageReadDto result = messageReadService.createMessageRead("test@example.com", 10L);
+
+        assertEquals(messageReadDto, result);
+        assertEquals(10L, member.getLastReadMessageId());
+        verify(messageService).batchBroadcastMessageUpdate(individualChat, List.of(message));
         verify(messageService).evictMessagesCachesForUser("test@example.com");
+        verify(messageService).evictMessagesCachesForUser("sender@example.com");
         verify(chatService).broadcastChatUpdate(individualChat);
         verify(chatService).evictChatCacheForUser("test@example.com");
     }
 
     @Test
-    void createMessageRead_ShouldThrowException_WhenAlreadyRead() {
-        when(messageReadRepository.existsByUserEmailAndMessageId("test@example.com", 1L)).thenReturn(true);
-
-        assertThrows(BadRequestException.class, () -> messageReadService.createMessageRead("test@example.com", 1L));
+    void createMessageRead_ShouldThrow_WhenAlreadyRead() {
+        when(messageService.getMessageEntity("test@example.com", 10L)).thenReturn(message);
+        when(memberService.getCurrentChatMemberEntity("test@example.com", 1L)).thenReturn(member);
+        when(memberService.advanceReadWatermark("test@example.com", 1L, 10L)).thenReturn(false);
 
-        verify(messageReadRepository, never()).save(any(MessageRead.class));
+        assertThrows(BadRequestException.class, () -> messageReadService.createMessageRead("test@example.com", 10L));
+        verify(messageService, never()).batchBroadcastMessageUpdate(any(), any());
     }
 
     @Test
-    void createMessageRead_ShouldThrowException_WhenOwnMessage() {
-        message.setUser(user);
-        when(messageReadRepository.existsByUserEmailAndMessageId("test@example.com", 1L)).thenReturn(false);
-        when(userService.getUserEntityByEmail("test@example.com")).thenReturn(user);
-        when(messageService.getMessageEntity("test@example.com", 1L)).thenReturn(message);
+    void createMessageRead_ShouldThrow_WhenOwnMessage() {
+        when(messageService.getMessageEntity("sender@example.com", 10L)).thenReturn(message);
 
-        assertThrows(BadRequestException.class, () -> messageReadService.createMessageRead("test@example.com", 1L));
-
-        verify(messageReadRepository, never()).save(any(MessageRead.class));
+        assertThrows(BadRequestException.class, () -> messageReadService.createMessageRead("sender@example.com", 10L));
+        verify(memberService, never()).advanceReadWatermark(anyString(), anyLong(), anyLong());
     }
 
     @Test
-    void createMessageRead_ShouldSetShowReadFalse_WhenUserDisabledReads() {
-        user.setShowMessageReads(false);
-        when(messageReadRepository.existsByUserEmailAndMessageId("test@example.com", 1L)).thenReturn(false);
-        when(userService.getUserEntityByEmail("test@example.com")).thenReturn(user);
-        when(messageService.getMessageEntity("test@example.com", 1L)).thenReturn(message);
-        when(messageReadRepository.save(any(MessageRead.class))).thenReturn(messageRead);
+    void batchCreateMessageReads_ShouldAdvanceWatermarkToHighestMessagePerChat() {
+        Message earlierMessage = Message.builder().id(7L).user(messageUser).chat(individualChat).build();
 
-        MessageRead result = messageReadService.createMessageRead("test@example.com", 1L);
+        when(messageService.getUnreadMessagesByIds("test@example.com", Set.of(7L, 10L))).thenReturn(List.of(earlierMessage, message));
+        when(memberService.getCurrentChatMemberEntity("test@example.com", 1L)).thenReturn(member);
+        when(memberService.advanceReadWatermark("test@example.com", 1L, 10L)).thenReturn(true);
+        when(messageService.getMessagesReadBetween("test@example.com", 1L, 5L, 10L)).thenReturn(List.of(earlierMessage, message));
+        when(messageReadMapper.toDto(member, 10L, false)).thenReturn(messageReadDto);
 
-        assertNotNull(result);
-        verify(messageReadRepository).save(argThat(read -> !read.getShowRead()));
-    }
+        List<MessageReadDto> result = messageReadService.batchCreateMessageReads("test@example.com", Set.of(7L, 10L));
 
-    @Test
-    void createMessageRead_ShouldSetShowReadTrue_ForGroupChat() {
-        message.setChat(groupChat);
-        when(messageReadRepository.existsByUserEmailAndMessageId("test@example.com", 1L)).thenReturn(false);
-        when(userService.getUserEntityByEmail("test@example.com")).thenReturn(user);
-        when(messageService.getMessageEntity("test@example.com", 1L)).thenReturn(message);
-        when(messageReadRepository.save(any(MessageRead.class))).thenReturn(messageRead);
-
-        MessageRead result = messageReadService.createMessageRead("test@example.com", 1L);
-
-        assertNotNull(result);
-        verify(messageReadRepository).save(argThat(MessageRead::getShowRead));
+        assertEquals(List.of(messageReadDto), result);
+        verify(memberService, never()).advanceReadWatermark("test@example.com", 1L, 7L);
     }
 
     @Test
-    void batchCreateMessageReads_ShouldCreateMultipleReads() {
-        List<Long> messageIds = List.of(1L, 2L);
-        Message message2 = Message.builder()
-                .id(2L)
-                .content("Another message")
-                .user(messageUser)
-                .chat(individualChat)
-                .build();
+    void batchCreateMessageReads_ShouldReturnEmpty_WhenNothingUnread() {
+        when(messageService.getUnreadMessagesByIds("test@example.com", Set.of(10L))).thenReturn(List.of());
 
-        when(userService.getUserEntityByEmail("test@example.com")).thenReturn(user);
-        when(messageService.getUnreadMessagesByIds("test@example.com", messageIds)).thenReturn(List.of(message, message2));
-        when(messageReadRepository.saveAll(anyList())).thenReturn(List.of(messageRead, messageRead));
-
-        List<MessageRead> result = messageReadService.batchCreateMessageReads("test@example.com", messageIds);
-
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        verify(messageReadRepository).saveAll(anyList());
-        verify(messageService).batchBroadcastMessageUpdate(individualChat, List.of(messageRead.getMessage(), messageRead.getMessage()));
-        verify(messageService).evictMessagesCachesForUser("test@example.com");
-        verify(chatService).broadcastChatUpdate(individualChat);
-        verify(chatService).evictChatCacheForUser("test@example.com");
+        assertTrue(messageReadService.batchCreateMessageReads("test@example.com", Set.of(10L)).isEmpty());
     }
 
     @Test
-    void batchCreateMessageReads_ShouldReturnEmpty_WhenNoUnreadMessages() {
-        List<Long> messageIds = List.of(1L, 2L);
+    void readChatMessages_ShouldAdvanceWatermarkToLastMessage() {
+        when(memberService.isMember("test@example.com", 1L)).thenReturn(true);
+        when(messageService.getLastMessageId(1L)).thenReturn(10L);
+        when(chatService.getChatEntity(1L)).thenReturn(individualChat);
+        when(memberService.getCurrentChatMemberEntity("test@example.com", 1L)).thenReturn(member);
+        when(memberService.advanceReadWatermark("test@example.com", 1L, 10L)).thenReturn(true);
+        when(messageService.getMessagesReadBetween("test@example.com", 1L, 5L, 10L)).thenReturn(List.of(message));
+        when(messageReadMapper.toDto(member, 10L, false)).thenReturn(messageReadDto);
 
-        when(userService.getUserEntityByEmail("test@example.com")).thenReturn(user);
-        when(messageService.getUnreadMessagesByIds("test@example.com", messageIds))
-                .thenReturn(Collections.emptyList());
+        List<MessageReadDto> result = messageReadService.readChatMessages("test@example.com", 1L);
 
-        List<MessageRead> result = messageReadService.batchCreateMessageReads("test@example.com", messageIds);
-
-        assertTrue(result.isEmpty());
-        verify(messageReadRepository, never()).saveAll(anyList());
+        assertEquals(List.of(messageReadDto), result);
     }
 
     @Test
-    void readChatMessages_ShouldReadAllUnreadMessages() {
-        List<Message> unreadMessages = List.of(message);
-        when(userService.getUserEntityByEmail("test@example.com")).thenReturn(user);
-        when(messageService.getUnreadMessages("test@example.com", 1L)).thenReturn(unreadMessages);
-        when(messageReadRepository.saveAll(anyList())).thenReturn(List.of(messageRead));
-
-        List<MessageRead> result = messageReadService.readChatMessages("test@example.com", 1L);
-
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(messageReadRepository).saveAll(anyList());
-        verify(messageService).broadcastMessageUpdate(message);
-        verify(messageService).evictMessagesCachesForUser("test@example.com");
-        verify(chatService).broadcastChatUpdate(individualChat);
-        verify(chatService).evictChatCacheForUser("test@example.com");
-    }
+    void readChatMessages_ShouldReturnEmpty_WhenNotMember() {
+        when(memberService.isMember("test@example.com", 1L)).thenReturn(false);
 
-    @Test
-    void readChatMessages_ShouldReturnEmpty_WhenNoUnreadMessages() {
-        when(userService.getUserEntityByEmail("test@example.com")).thenReturn(user);
-        when(messageService.getUnreadMessages("test@example.com", 1L)).thenReturn(Collections.emptyList());
-
-        List<MessageRead> result = messageReadService.readChatMessages("test@example.com", 1L);
-
-        assertTrue(result.isEmpty());
-        verify(messageReadRepository, never()).saveAll(anyList());
+        assertTrue(messageReadService.readChatMessages("test@example.com", 1L).isEmpty());
+        verify(memberService, never()).advanceReadWatermark(anyString(), anyLong(), anyLong());
     }
 
     @Test
-    void getMessageReads_ShouldReturnReads() {
-        List<MessageRead> messageReads = List.of(messageRead);
-        List<MessageReadDto> messageReadDtos = List.of(new MessageReadDto());
+    void readChatMessages_ShouldReturnEmpty_WhenAlreadyUpToDate() {
+        when(memberService.isMember("test@example.com", 1L)).thenReturn(true);
+        when(messageService.getLastMessageId(1L)).thenReturn(5L);
+        when(chatService.getChatEntity(1L)).thenReturn(individualChat);
+        when(memberService.getCurrentChatMemberEntity("test@example.com", 1L)).thenReturn(member);
+        when(memberService.advanceReadWatermark("test@example.com", 1L, 5L)).thenReturn(false);
 
-        when(messageService.getMessageEntity("test@example.com", 1L)).thenReturn(message);
-        when(messageReadRepository.findByMessageId(1L)).thenReturn(messageReads);
-        when(messageReadMapper.toDtoList(messageReads)).thenReturn(messageReadDtos);
-
-        List<MessageReadDto> result = messageReadService.getMessageReads("test@example.com", 1L);
-
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(messageService).getMessageEntity("test@example.com", 1L);
-        verify(messageReadRepository).findByMessageId(1L);
-        verify(messageReadMapper).toDtoList(messageReads);
+        assertTrue(messageReadService.readChatMessages("test@example.com", 1L).isEmpty());
+        verify(chatService, never()).broadcastChatUpdate(any());
     }
 
     @Test
-    void getMessageReads_ShouldThrowException_WhenMessageNotFound() {
-        when(messageService.getMessageEntity("test@example.com", 1L))
-                .thenThrow(new NotFoundException("message", "not found"));
+    void markChatAsRead_ShouldAdvanceWatermarkWithoutBroadcasting() {
+        when(messageService.getLastMessageId(2L)).thenReturn(100L);
+        when(memberService.advanceReadWatermark("test@example.com", 2L, 100L)).thenReturn(true);
 
-        assertThrows(NotFoundException.class, () -> messageReadService.getMessageReads("test@example.com", 1L));
+        messageReadService.markChatAsRead("test@example.com", 2L);
 
-        verify(messageReadRepository, never()).findByMessageId(anyLong());
+        verify(messageService).evictMessagesCachesForUser("test@example.com");
+        verify(chatService).evictChatCacheForUser("test@example.com");
+        verify(messageService, never()).batchBroadcastMessageUpdate(any(), any());
     }
 
     @Test
-    void existsByEmailAndMessageId_ShouldReturnTrue() {
-        when(messageReadRepository.existsByUserEmailAndMessageId("test@example.com", 1L)).thenReturn(true);
-
-        boolean result = messageReadService.existsByEmailAndMessageId("test@example.com", 1L);
-
-        assertTrue(result);
-    }
+    void getMessageReads_ShouldReturnMembersPastWatermark() {
+        Member reader = Member.builder().id(3L).user(user).lastReadMessageId(10L).build();
+        message.setChat(groupChat);
 
-    @Test
-    void existsByEmailAndMessageId_ShouldReturnFalse() {
-        when(messageReadRepository.existsByUserEmailAndMessageId("test@example.com", 1L)).thenReturn(false);
+        when(messageService.getMessageEntity("sender@example.com", 10L)).thenReturn(message);
+        when(memberService.getReaders(2L, 10L, 2L)).thenReturn(List.of(reader));
+        when(messageReadMapper.toDto(reader, 10L, true)).thenReturn(messageReadDto);
 
-        boolean result = messageReadService.existsByEmailAndMessageId("test@example.com", 1L);
+        List<MessageReadDto> result = messageReadService.getMessageReads("sender@example.com", 10L);
 
-        assertFalse(result);
+        assertEquals(List.of(messageReadDto), result);
     }
 
     @Test
-    void createMessageRead_ShouldEvictCachesForOtherUser_InIndividualChat() {
-        when(messageReadRepository.existsByUserEmailAndMessageId("test@example.com", 1L)).thenReturn(false);
-        when(userService.getUserEntityByEmail("test@example.com")).thenReturn(user);
-        when(messageService.getMessageEntity("test@example.com", 1L)).thenReturn(message);
-        when(messageReadRepository.save(any(MessageRead.class))).thenReturn(messageRead);
+    void getMessageReads_ShouldThrow_WhenMessageNotFound() {
+        when(messageService.getMessageEntity("test@example.com", 10L)).thenThrow(new NotFoundException("message", "not found"));
 
-        messageReadService.createMessageRead("test@example.com", 1L);
-
-        verify(messageService).evictMessagesCachesForUser("test@example.com");
-        verify(messageService).evictMessagesCachesForUser("other@example.com");
+        assertThrows(NotFoundException.class, () -> messageReadService.getMessageReads("test@example.com", 10L));
     }
 
-    @Test
-    void createMessageRead_ShouldNotEvictCachesForOtherUser_WhenOtherUserNull() {
-        individualChat.setMembers(Set.of(Member.builder().id(1L).user(user).build()));
-        when(messageReadRepository.existsByUserEmailAndMessageId("test@example.com", 1L)).thenReturn(false);
-        when(userService.getUserEntityByEmail("test@example.com")).thenReturn(user);
-        when(messageService.getMessageEntity("test@example.com", 1L)).thenReturn(message);
-        when(messageReadRepository.save(any(MessageRead.class))).thenReturn(messageRead);
-
-        messageReadService.createMessageRead("test@example.com", 1L);
-
-        verify(messageService, never()).evictMessagesCachesForUser(otherUser.getEmail());
-    }
-}
\ No newline at end of file
+}
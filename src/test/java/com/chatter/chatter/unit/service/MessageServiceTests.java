@@ -21,10 +21,6 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.data.redis.core.Cursor;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ScanOptions;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 import java.time.Instant;
 import java.util.*;
@@ -55,7 +51,7 @@ public class MessageServiceTests {
     private MessageFactory messageFactory;
 
     @Mock
-    private SimpMessagingTemplate simpMessagingTemplate;
+    private BroadcastService broadcastService;
 
     @Mock
     private MessageMapper messageMapper;
@@ -64,7 +60,13 @@ public class MessageServiceTests {
     private InviteService inviteService;
 
     @Mock
-    private RedisTemplate<String, Object> redisTemplate;
+    private CacheService cacheService;
+
+    @Mock
+    private MessageSearchIndex messageSearchIndex;
+
+    @Mock
+    private MessageIndexStream messageIndexStream;
 
     @InjectMocks
     private MessageService messageService;
@@ -138,9 +140,6 @@ public class MessageServiceTests {
         request.setMessageType(MessageType.TEXT);
 
         MessageCreator textMessageCreator = mock(MessageCreator.class);
-        Cursor<String> cursorMock = mock(Cursor.class);
-        when(cursorMock.hasNext()).thenReturn(false);
-        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursorMock);
         when(textMessageCreator.createMessage(any(), anyString())).thenReturn(message);
 
         when(userService.getUserEntityByEmail("test@example.com")).thenReturn(user);
@@ -155,8 +154,11 @@ public class MessageServiceTests {
         assertNotNull(result);
         assertEquals("Test message", result.getContent());
         verify(messageRepository).save(message);
-        verify(simpMessagingTemplate).convertAndSend("/topic/chat.1.created-messages", messageDto);
+        verify(broadcastService).broadcast("/topic/chat.1.created-messages", messageDto);
         verify(textMessageCreator).createMessage(any(), eq("test@example.com"));
+        assertEquals(message, individualChat.getLastMessage());
+        assertEquals(message.getCreatedAt(), individualChat.getLastActivityAt());
+        verify(broadcastService).broadcastLatest("/topic/chat.1.last-message-id", 1L, 1L);
     }
 
     @Test
@@ -167,9 +169,6 @@ public class MessageServiceTests {
         request.setMessageType(MessageType.TEXT);
 
         MessageCreator textMessageCreator = mock(MessageCreator.class);
-        Cursor<String> cursorMock = mock(Cursor.class);
-        when(cursorMock.hasNext()).thenReturn(false);
-        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursorMock);
         when(textMessageCreator.createMessage(any(), anyString())).thenReturn(message);
 
         when(userService.getUserEntityByEmail("test@example.com")).thenReturn(user);
@@ -240,11 +239,12 @@ public class MessageServiceTests {
 
     @Test
     void getAllMessages_ShouldReturnMessages_WhenValidRequest() {
-        Page<Message> messagePage = new PageImpl<>(List.of(message));
+        Slice<Long> idsSlice = new SliceImpl<>(List.of(message.getId()));
         MessageStatusProjection status = new MessageStatusProjection(message.getId(), user.getId(), "test@example.com", false, false);
         List<MessageDto> expectedDtos = List.of(messageDto);
 
-        when(messageRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(messagePage);
+        when(messageRepository.findTimelineIdsBefore(eq("test@example.com"), eq(1L), eq(Long.MAX_VALUE), any(Pageable.class))).thenReturn(idsSlice);
+        when(messageRepository.findByIdIn(List.of(message.getId()))).thenReturn(List.of(message));
         when(messageRepository.findMessageStatus(anySet(), anySet())).thenReturn(List.of(status));
         when(messageMapper.toDtoListFromProjections(anyList(), eq("test@example.com"))).thenReturn(expectedDtos);
 
@@ -255,16 +255,85 @@ public class MessageServiceTests {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(expectedDtos, result);
-        verify(messageRepository).findAll(any(Specification.class), any(Pageable.class));
+        verify(messageRepository, never()).findAll(any(Specification.class), any(Pageable.class));
         verify(messageRepository).findMessageStatus(anySet(), anySet());
         verify(messageMapper).toDtoListFromProjections(anyList(), eq("test@example.com"));
     }
 
     @Test
-    void getAllMessages_ShouldReturnEmpty_WhenNoMessagesFound() {
-        Page<Message> emptyPage = new PageImpl<>(List.of());
+    void getAllMessages_ShouldUseAfterCursor_WhenAfterProvided() {
+        when(messageRepository.findTimelineIdsAfter(eq("test@example.com"), eq(1L), eq(5L), any(Pageable.class))).thenReturn(new SliceImpl<>(List.of()));
+
+        List<MessageDto> result = messageService.getAllMessages(
+                "test@example.com", 1L, null, null, null, null, null, 5L, 10
+        );
+
+        assertTrue(result.isEmpty());
+        verify(messageRepository, never()).findByIdIn(any());
+    }
+
+    @Test
+    void getAllMessages_ShouldUseSpecification_WhenFiltersProvided() {
+        Page<Message> messagePage = new PageImpl<>(List.of(message));
+        MessageStatusProjection status = new MessageStatusProjection(message.getId(), user.getId(), "test@example.com", false, false);
+
+        when(messageRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(messagePage);
+        when(messageRepository.findMessageStatus(anySet(), anySet())).thenReturn(List.of(status));
+        when(messageMapper.toDtoListFromProjections(anyList(), eq("test@example.com"))).thenReturn(List.of(messageDto));
+
+        List<MessageDto> result = messageService.getAllMessages(
+                "test@example.com", 1L, null, null, true, null, null, null, 10
+        );
 
-        when(messageRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(emptyPage);
+        assertEquals(1, result.size());
+        verify(messageRepository).findAll(any(Specification.class), any(Pageable.class));
+        verify(messageRepository, never()).findTimelineIdsBefore(any(), any(), any(), any());
+    }
+
+    @Test
+    void getAllMessages_ShouldUseSearchIndex_WhenContentProvided() {
+        MessageStatusProjection status = new MessageStatusProjection(message.getId(), user.getId(), "test@example.com", false, false);
+
+        when(memberService.isMember("test@example.com", 1L)).thenReturn(true);
+        when(messageSearchIndex.search("Test", Set.of(1L), null, null, null, 10)).thenReturn(List.of(message.getId()));
+        when(messageRepository.findByIdIn(List.of(message.getId()))).thenReturn(List.of(message));
+        when(messageRepository.findMessageStatus(anySet(), anySet())).thenReturn(List.of(status));
+        when(messageMapper.toDtoListFromProjections(anyList(), eq("test@example.com"))).thenReturn(List.of(messageDto));
+
+        List<MessageDto> result = messageService.getAllMessages(
+                "test@example.com", 1L, "Test", null, null, null, null, null, 10
+        );
+
+        assertEquals(1, result.size());
+        verify(messageRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void getAllMessages_ShouldReturnEmpty_WhenSearchingChatUserIsNotMemberOf() {
+        when(memberService.isMember("test@example.com", 1L)).thenReturn(false);
+
+        List<MessageDto> result = messageService.getAllMessages(
+                "test@example.com", 1L, "Test", null, null, null, null, null, 10
+        );
+
+        assertTrue(result.isEmpty());
+        verify(messageSearchIndex, never()).search(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void searchMessages_ShouldSearchAcrossUserChats() {
+        when(memberService.getChatIds("test@example.com")).thenReturn(Set.of(1L, 2L));
+        when(messageSearchIndex.search("Test", Set.of(1L, 2L), null, null, null, 10)).thenReturn(List.of());
+
+        List<MessageDto> result = messageService.searchMessages("test@example.com", "Test", null, null, 10);
+
+        assertTrue(result.isEmpty());
+        verify(messageSearchIndex).search("Test", Set.of(1L, 2L), null, null, null, 10);
+    }
+
+    @Test
+    void getAllMessages_ShouldReturnEmpty_WhenNoMessagesFound() {
+        when(messageRepository.findTimelineIdsBefore(eq("test@example.com"), eq(1L), eq(Long.MAX_VALUE), any(Pageable.class))).thenReturn(new SliceImpl<>(List.of()));
 
         List<MessageDto> result = messageService.getAllMessages(
                 "test@example.com", 1L, null, null, null, null, null, null, 10
@@ -319,9 +388,6 @@ public class MessageServiceTests {
         MessagePatchRequest patchRequest = new MessagePatchRequest();
         patchRequest.setContent("Updated content");
 
-        Cursor<String> cursorMock = mock(Cursor.class);
-        when(cursorMock.hasNext()).thenReturn(false);
-        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursorMock);
         when(messageRepository.findByIdAndUserEmail(1L, "test@example.com")).thenReturn(Optional.of(message));
         when(memberService.isMember("test@example.com", 1L)).thenReturn(true);
         when(messageRepository.save(any(Message.class))).thenReturn(message);
@@ -343,15 +409,32 @@ public class MessageServiceTests {
 
     @Test
     void deleteMessage_ShouldDeleteMessage_WhenUserIsOwner() {
-        Cursor<String> cursorMock = mock(Cursor.class);
-        when(cursorMock.hasNext()).thenReturn(false);
-        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursorMock);
         when(messageRepository.findById(1L)).thenReturn(Optional.of(message));
 
         messageService.deleteMessage("test@example.com", 1L);
 
         verify(messageRepository).delete(message);
-        verify(simpMessagingTemplate).convertAndSend("/topic/chat.1.deleted-messages", 1L);
+        verify(memberService).decrementUnreadCounters(message);
+        verify(broadcastService).broadcast("/topic/chat.1.deleted-messages", 1L);
+    }
+
+    @Test
+    void deleteMessage_ShouldMoveLastMessagePointerBack_WhenDeletingLastMessage() {
+        Message previousMessage = TextMessage.builder()
+                .id(0L)
+                .chat(individualChat)
+                .createdAt(Instant.now().minusSeconds(60))
+                .build();
+        individualChat.updateLastMessage(message);
+
+        when(messageRepository.findById(1L)).thenReturn(Optional.of(message));
+        when(messageRepository.findFirstByChatIdAndIdLessThanOrderByIdDesc(1L, 1L)).thenReturn(Optional.of(previousMessage));
+
+        messageService.deleteMessage("test@example.com", 1L);
+
+        assertEquals(previousMessage, individualChat.getLastMessage());
+        assertEquals(previousMessage.getCreatedAt(), individualChat.getLastActivityAt());
+        verify(broadcastService).broadcastLatest("/topic/chat.1.last-message-id", 1L, 0L);
     }
 
     @Test
@@ -370,9 +453,6 @@ public class MessageServiceTests {
         User otherUser = User.builder().email("other@example.com").build();
         message.setUser(otherUser);
 
-        Cursor<String> cursorMock = mock(Cursor.class);
-        when(cursorMock.hasNext()).thenReturn(false);
-        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursorMock);
         when(messageRepository.findById(1L)).thenReturn(Optional.of(message));
         when(memberService.isAdmin("test@example.com", 1L)).thenReturn(true);
 
@@ -383,9 +463,6 @@ public class MessageServiceTests {
 
     @Test
     void updateMessagePin_ShouldUpdatePin_WhenUserHasPermission() {
-        Cursor<String> cursorMock = mock(Cursor.class);
-        when(cursorMock.hasNext()).thenReturn(false);
-        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursorMock);
         when(messageRepository.findById(1L)).thenReturn(Optional.of(message));
         when(memberService.isMember("test@example.com", 1L)).thenReturn(true);
         when(messageRepository.save(any(Message.class))).thenReturn(message);
@@ -415,16 +492,22 @@ public class MessageServiceTests {
     }
 
     @Test
-    void getUnreadMessages_ShouldReturnUnreadMessages() {
-        when(messageRepository.findUnreadMessages("test@example.com", 1L))
+    void getMessagesReadBetween_ShouldReturnMessagesInRange() {
+        when(messageRepository.findMessagesReadBetween("test@example.com", 1L, 0L, 1L))
                 .thenReturn(List.of(message));
 
-        List<Message> result = messageService.getUnreadMessages("test@example.com", 1L);
+        List<Message> result = messageService.getMessagesReadBetween("test@example.com", 1L, 0L, 1L);
 
-        assertNotNull(result);
         assertEquals(1, result.size());
     }
 
+    @Test
+    void getLastMessageId_ShouldReturnNull_WhenChatHasNoMessages() {
+        when(messageRepository.findLastMessageId(1L)).thenReturn(Optional.empty());
+
+        assertNull(messageService.getLastMessageId(1L));
+    }
+
     @Test
     void getUnreadMessagesByIds_ShouldReturnUnreadMessages() {
         when(messageRepository.findUnreadMessagesByIds("test@example.com", List.of(1L)))
@@ -446,9 +529,6 @@ public class MessageServiceTests {
                 .chat(individualChat)
                 .build();
 
-        Cursor<String> cursorMock = mock(Cursor.class);
-        when(cursorMock.hasNext()).thenReturn(false);
-        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursorMock);
         when(messageRepository.findById(1L)).thenReturn(Optional.of(inviteMessage));
 
         messageService.acceptInvite("test@example.com", 1L);
@@ -463,25 +543,18 @@ public class MessageServiceTests {
 
     @Test
     void evictMessageCaches_ShouldEvictCache() {
-        Cursor<String> cursorMock = mock(Cursor.class);
-        when(cursorMock.hasNext()).thenReturn(false);
-        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursorMock);
 
         messageService.evictMessageCaches(message);
 
-        verify(redisTemplate, atLeastOnce()).scan(any(ScanOptions.class));
+        verify(cacheService).incrementGenerations(List.of("messages:chatId:1", "messages:messageId:1"));
     }
 
     @Test
     void evictMessagesCachesForUser_ShouldEvictUserCache() {
-        Cursor<String> cursorMock = mock(Cursor.class);
-        when(cursorMock.hasNext()).thenReturn(false);
-        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursorMock);
 
         messageService.evictMessagesCachesForUser("test@example.com");
 
-        verify(redisTemplate, atLeastOnce()).scan(any(ScanOptions.class));
-        verify(cursorMock).close();
+        verify(cacheService).incrementGeneration("messages:email:test@example.com");
     }
 
     @Test
@@ -492,9 +565,6 @@ public class MessageServiceTests {
         request.setMessageType(MessageType.TEXT);
 
         MessageCreator textMessageCreator = mock(MessageCreator.class);
-        Cursor<String> cursorMock = mock(Cursor.class);
-        when(cursorMock.hasNext()).thenReturn(false);
-        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursorMock);
         when(textMessageCreator.createMessage(any(), anyString())).thenReturn(message);
 
         when(userService.getUserEntityByEmail("test@example.com")).thenReturn(user);
@@ -510,16 +580,13 @@ public class MessageServiceTests {
         assertNotNull(result);
         assertEquals(2, result.size());
         verify(messageRepository).saveAll(anyList());
-        verify(simpMessagingTemplate, times(2)).convertAndSend(anyString(), any(MessageDto.class));
+        verify(broadcastService, times(2)).broadcast(anyString(), any(MessageDto.class));
         verify(textMessageCreator, times(2)).createMessage(any(), eq("test@example.com"));
     }
 
     @Test
     void forwardMessage_ShouldForwardMessage_ToMultipleChats() {
         Set<Long> chatIds = Set.of(1L, 2L);
-        Cursor<String> cursorMock = mock(Cursor.class);
-        when(cursorMock.hasNext()).thenReturn(false);
-        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursorMock);
         when(messageRepository.findById(1L)).thenReturn(Optional.of(message));
         when(memberService.isMember("test@example.com", 1L)).thenReturn(true);
         when(userService.getUserEntityByEmail("test@example.com")).thenReturn(user);
@@ -533,7 +600,10 @@ public class MessageServiceTests {
 
         assertNotNull(result);
         assertEquals(2, result.size());
-        verify(messageRepository).saveAll(anyList());
+        var inOrder = inOrder(messageRepository, cacheService);
+        inOrder.verify(messageRepository).saveAll(anyList());
+        inOrder.verify(cacheService, times(2)).incrementGenerations(List.of("messages:chatId:" + message.getChat().getId(), "messages:messageId:" + message.getId()));
+        verify(cacheService, never()).incrementGenerations(List.of("messages:chatId:1", "messages:messageId:null"));
     }
 
     @Test
@@ -569,12 +639,12 @@ public class MessageServiceTests {
         when(messageMapper.toDtoListFromProjections(anyList(), eq("test@example.com"))).thenReturn(List.of(messageDto));
 
         messageService.batchBroadcastMessageUpdate(chat, messages);
-        verify(simpMessagingTemplate).convertAndSend(contains("/topic/chat.1.edited-messages-batch"), anyList());
+        verify(broadcastService).broadcast(contains("/topic/chat.1.edited-messages-batch"), anyList());
     }
 
     @Test
     void batchBroadcastMessageUpdate_ShouldNotSend_WhenEmptyMessages() {
         messageService.batchBroadcastMessageUpdate(individualChat, List.of());
-        verify(simpMessagingTemplate, never()).convertAndSend(anyString(), anyList());
+        verify(broadcastService, never()).broadcast(anyString(), anyList());
     }
 }
\ No newline at end of file
@@ -1,20 +1,30 @@
 package com.chatter.chatter.unit.service;
 
-import com.chatter.chatter.model.User;
-import com.chatter.chatter.repository.UserRepository;
+import com.chatter.chatter.exception.BadRequestException;
+import com.chatter.chatter.service.EphemeralEventBus;
 import com.chatter.chatter.service.OnlineUserService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.SetOperations;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-
-import java.time.Instant;
-import java.util.Optional;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,256 +36,252 @@ public class OnlineUserServiceTests {
     private RedisTemplate<String, String> redisTemplate;
 
     @Mock
-    private SetOperations<String, String> setOperations;
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
 
     @Mock
-    private UserRepository userRepository;
+    private HashOperations<String, Object, Object> hashOperations;
 
     @Mock
-    private SimpMessagingTemplate simpMessagingTemplate;
+    private EphemeralEventBus ephemeralEventBus;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
 
     @InjectMocks
     private OnlineUserService onlineUserService;
 
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(onlineUserService, "sessionTtl", Duration.ofSeconds(90));
+        ReflectionTestUtils.setField(onlineUserService, "heartbeatInterval", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(onlineUserService, "debounceWindow", Duration.ofSeconds(5));
+    }
+
     @Test
-    void userConnected_ShouldAddUserToOnlineSet_WhenUserExistsAndShowsOnlineStatus() {
-        User user = User.builder()
-                .id(1L)
-                .email("test@example.com")
-                .showOnlineStatus(true)
-                .build();
-
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
-        when(redisTemplate.opsForSet()).thenReturn(setOperations);
-        when(setOperations.add("online_users", "1")).thenReturn(1L);
-
-        onlineUserService.userConnected("test@example.com");
-
-        verify(setOperations).add("online_users", "1");
-        verify(userRepository).save(argThat(u -> u.getLastOnline() == null));
-        verify(simpMessagingTemplate).convertAndSend("/topic/users.1", true);
+    void sessionConnected_ShouldTrackSessionAndMarkOnline_WithoutBroadcastingImmediately() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(valueOperations.setBit("presence_online", 1L, true)).thenReturn(false);
+
+        onlineUserService.sessionConnected(1L, "session", true, true);
+
+        verify(zSetOperations).add(eq("presence_sessions:1"), eq("session"), anyDouble());
+        verify(zSetOperations).add(eq("presence_session_expirations"), eq("1:session"), anyDouble());
+        verify(hashOperations).put("presence_last_online", "1", "");
+        verify(zSetOperations).addIfAbsent(eq("presence_pending_broadcasts"), eq("1"), anyDouble());
+        verifyNoInteractions(ephemeralEventBus, jdbcTemplate);
     }
 
     @Test
-    void userConnected_ShouldNotAddUser_WhenUserDoesNotExist() {
-        when(userRepository.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
+    void sessionConnected_ShouldNotMarkOnline_WhenUserHidesOnlineStatus() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
 
-        onlineUserService.userConnected("nonexistent@example.com");
+        onlineUserService.sessionConnected(1L, "session", false, true);
 
-        verify(redisTemplate, never()).opsForSet();
-        verify(userRepository, never()).save(any());
-        verify(simpMessagingTemplate, never()).convertAndSend(anyString(), anyBoolean());
+        verify(zSetOperations).add(eq("presence_sessions:1"), eq("session"), anyDouble());
+        verify(redisTemplate, never()).opsForValue();
     }
 
     @Test
-    void userConnected_ShouldNotAddUser_WhenUserHidesOnlineStatus() {
-        User user = User.builder()
-                .id(1L)
-                .email("test@example.com")
-                .showOnlineStatus(false)
-                .build();
+    void sessionConnected_ShouldNotScheduleBroadcast_WhenUserAlreadyOnline() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setBit("presence_online", 1L, true)).thenReturn(true);
 
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        onlineUserService.sessionConnected(1L, "session", true, true);
 
-        onlineUserService.userConnected("test@example.com");
-
-        verify(redisTemplate, never()).opsForSet();
-        verify(userRepository, never()).save(any());
-        verify(simpMessagingTemplate, never()).convertAndSend(anyString(), anyBoolean());
+        verify(zSetOperations, never()).addIfAbsent(anyString(), anyString(), anyDouble());
+        verify(redisTemplate, never()).opsForHash();
     }
 
     @Test
-    void userConnected_ShouldNotBroadcast_WhenUserAlreadyOnline() {
-        User user = User.builder()
-                .id(1L)
-                .email("test@example.com")
-                .showOnlineStatus(true)
-                .build();
-
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
-        when(redisTemplate.opsForSet()).thenReturn(setOperations);
-        when(setOperations.add("online_users", "1")).thenReturn(0L);
-
-        onlineUserService.userConnected("test@example.com");
-
-        verify(setOperations).add("online_users", "1");
-        verify(userRepository, never()).save(any());
-        verify(simpMessagingTemplate, never()).convertAndSend(anyString(), anyBoolean());
-    }
+    void sessionHeartbeat_ShouldBeThrottledWithinHeartbeatInterval() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        onlineUserService.sessionConnected(1L, "session", false, true);
+        clearInvocations(zSetOperations);
 
-    @Test
-    void userDisconnected_ShouldRemoveUserFromOnlineSet_WhenUserExists() {
-        User user = User.builder()
-                .id(1L)
-                .email("test@example.com")
-                .showOnlineStatus(true)
-                .build();
-
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
-        when(redisTemplate.opsForSet()).thenReturn(setOperations);
-        when(setOperations.remove("online_users", "1")).thenReturn(1L);
-
-        onlineUserService.userDisconnected("test@example.com");
-
-        verify(setOperations).remove("online_users", "1");
-        verify(userRepository).save(argThat(u -> u.getLastOnline() != null));
-        verify(simpMessagingTemplate).convertAndSend("/topic/users.1", false);
+        onlineUserService.sessionHeartbeat(1L, "session");
+
+        verifyNoInteractions(zSetOperations);
     }
 
     @Test
-    void userDisconnected_ShouldNotRemoveUser_WhenUserDoesNotExist() {
-        when(userRepository.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
+    void sessionHeartbeat_ShouldRefreshSessionExpiry_WhenIntervalElapsed() {
+        ReflectionTestUtils.setField(onlineUserService, "heartbeatInterval", Duration.ZERO);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        onlineUserService.sessionConnected(1L, "session", false, true);
+        when(zSetOperations.score("presence_sessions:1", "session")).thenReturn(1.0);
 
-        onlineUserService.userDisconnected("nonexistent@example.com");
+        onlineUserService.sessionHeartbeat(1L, "session");
 
-        verify(redisTemplate, never()).opsForSet();
-        verify(userRepository, never()).save(any());
-        verify(simpMessagingTemplate, never()).convertAndSend(anyString(), anyBoolean());
+        verify(zSetOperations, times(2)).add(eq("presence_session_expirations"), eq("1:session"), anyDouble());
     }
 
     @Test
-    void userDisconnected_ShouldNotRemoveUser_WhenUserNotInOnlineSet() {
-        User user = User.builder()
-                .id(1L)
-                .email("test@example.com")
-                .showOnlineStatus(true)
-                .build();
-
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
-        when(redisTemplate.opsForSet()).thenReturn(setOperations);
-        when(setOperations.remove("online_users", "1")).thenReturn(0L);
-
-        onlineUserService.userDisconnected("test@example.com");
-
-        verify(setOperations).remove("online_users", "1");
-        verify(userRepository, never()).save(any());
-        verify(simpMessagingTemplate, never()).convertAndSend(anyString(), anyBoolean());
+    void refreshSessionsWithoutHeartbeats_ShouldOnlyRefreshLiveSessionsThatSendNoHeartbeats() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        onlineUserService.sessionConnected(1L, "silent", false, false);
+        onlineUserService.sessionConnected(2L, "expired", false, false);
+        onlineUserService.sessionConnected(3L, "beating", false, true);
+        clearInvocations(zSetOperations);
+        when(zSetOperations.score("presence_sessions:1", "silent")).thenReturn(1.0);
+        when(zSetOperations.score("presence_sessions:2", "expired")).thenReturn(null);
+
+        onlineUserService.refreshSessionsWithoutHeartbeats();
+
+        verify(zSetOperations).add(eq("presence_session_expirations"), eq("1:silent"), anyDouble());
+        verify(zSetOperations, never()).add(eq("presence_session_expirations"), eq("2:expired"), anyDouble());
+        verify(zSetOperations, never()).score("presence_sessions:3", "beating");
     }
 
     @Test
-    void userDisconnected_ShouldSetLastOnlineTimestamp() {
-        User user = User.builder()
-                .id(1L)
-                .email("test@example.com")
-                .showOnlineStatus(true)
-                .build();
-
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
-        when(redisTemplate.opsForSet()).thenReturn(setOperations);
-        when(setOperations.remove("online_users", "1")).thenReturn(1L);
+    void sessionDisconnected_ShouldMarkOfflineAndQueueLastOnline_WhenLastSessionEnds() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(zSetOperations.count(eq("presence_sessions:1"), anyDouble(), eq(Double.POSITIVE_INFINITY))).thenReturn(0L);
+        when(valueOperations.setBit("presence_online", 1L, false)).thenReturn(true);
+
+        onlineUserService.sessionDisconnected(1L, "session");
+
+        verify(zSetOperations).remove("presence_session_expirations", "1:session");
+        verify(zSetOperations).remove("presence_sessions:1", "session");
+        verify(hashOperations).put(eq("presence_last_online"), eq("1"), argThat(value -> !((String) value).isEmpty()));
+        verify(zSetOperations).addIfAbsent(eq("presence_pending_broadcasts"), eq("1"), anyDouble());
+        verifyNoInteractions(ephemeralEventBus, jdbcTemplate);
+    }
 
-        onlineUserService.userDisconnected("test@example.com");
+    @Test
+    void sessionDisconnected_ShouldKeepUserOnline_WhenOtherSessionsAreLive() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.count(eq("presence_sessions:1"), anyDouble(), eq(Double.POSITIVE_INFINITY))).thenReturn(1L);
 
-        ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(userCaptor.capture());
+        onlineUserService.sessionDisconnected(1L, "session");
 
-        assertNotNull(userCaptor.getValue().getLastOnline());
-        assertTrue(userCaptor.getValue().getLastOnline().isBefore(Instant.now().plusSeconds(1)));
-        assertTrue(userCaptor.getValue().getLastOnline().isAfter(Instant.now().minusSeconds(1)));
+        verify(redisTemplate, never()).opsForValue();
     }
 
     @Test
-    void isOnline_ShouldReturnTrue_WhenUserIsOnline() {
-        when(redisTemplate.opsForSet()).thenReturn(setOperations);
-        when(setOperations.isMember("online_users", "1")).thenReturn(true);
+    void userConnected_ShouldMarkOnline_OnlyWhenUserHasLiveSessions() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.count(eq("presence_sessions:1"), anyDouble(), eq(Double.POSITIVE_INFINITY))).thenReturn(0L);
+
+        onlineUserService.userConnected(1L);
 
-        boolean result = onlineUserService.isOnline(1L);
+        verify(redisTemplate, never()).opsForValue();
+    }
 
-        assertTrue(result);
-        verify(setOperations).isMember("online_users", "1");
+    @Test
+    void expireSessions_ShouldEndClaimedExpiredSessions() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(zSetOperations.rangeByScore(eq("presence_session_expirations"), eq(0.0), anyDouble())).thenReturn(Set.of("1:session", "2:other"));
+        when(zSetOperations.remove("presence_session_expirations", "1:session")).thenReturn(1L);
+        when(zSetOperations.remove("presence_session_expirations", "2:other")).thenReturn(0L);
+        when(zSetOperations.count(eq("presence_sessions:1"), anyDouble(), eq(Double.POSITIVE_INFINITY))).thenReturn(0L);
+        when(valueOperations.setBit("presence_online", 1L, false)).thenReturn(false);
+
+        onlineUserService.expireSessions();
+
+        verify(zSetOperations).remove("presence_sessions:1", "session");
+        verify(zSetOperations, never()).remove("presence_sessions:2", "other");
     }
 
     @Test
-    void isOnline_ShouldReturnFalse_WhenUserIsOffline() {
-        when(redisTemplate.opsForSet()).thenReturn(setOperations);
-        when(setOperations.isMember("online_users", "1")).thenReturn(false);
+    void broadcastStatusChanges_ShouldBroadcast_WhenStatusDiffersFromLastBroadcast() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(zSetOperations.rangeByScore(eq("presence_pending_broadcasts"), eq(0.0), anyDouble())).thenReturn(Set.of("1"));
+        when(zSetOperations.remove("presence_pending_broadcasts", "1")).thenReturn(1L);
+        when(valueOperations.getBit("presence_online", 1L)).thenReturn(true);
+        when(valueOperations.setBit("presence_broadcast_online", 1L, true)).thenReturn(false);
 
-        boolean result = onlineUserService.isOnline(1L);
+        onlineUserService.broadcastStatusChanges();
 
-        assertFalse(result);
-        verify(setOperations).isMember("online_users", "1");
+        verify(ephemeralEventBus).publish("/topic/users.1", true);
     }
 
     @Test
-    void isOnline_ShouldReturnFalse_WhenRedisReturnsNull() {
-        when(redisTemplate.opsForSet()).thenReturn(setOperations);
-        when(setOperations.isMember("online_users", "1")).thenReturn(null);
+    void broadcastStatusChanges_ShouldNotBroadcast_WhenUserFlappedBackToBroadcastStatus() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(zSetOperations.rangeByScore(eq("presence_pending_broadcasts"), eq(0.0), anyDouble())).thenReturn(Set.of("1"));
+        when(zSetOperations.remove("presence_pending_broadcasts", "1")).thenReturn(1L);
+        when(valueOperations.getBit("presence_online", 1L)).thenReturn(true);
+        when(valueOperations.setBit("presence_broadcast_online", 1L, true)).thenReturn(true);
 
-        boolean result = onlineUserService.isOnline(1L);
+        onlineUserService.broadcastStatusChanges();
 
-        assertFalse(result);
-        verify(setOperations).isMember("online_users", "1");
+        verifyNoInteractions(ephemeralEventBus);
     }
 
     @Test
-    void userConnected_ShouldHandleNullAddedCount() {
-        User user = User.builder()
-                .id(1L)
-                .email("test@example.com")
-                .showOnlineStatus(true)
-                .build();
-
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
-        when(redisTemplate.opsForSet()).thenReturn(setOperations);
-        when(setOperations.add("online_users", "1")).thenReturn(null);
-
-        onlineUserService.userConnected("test@example.com");
-
-        verify(setOperations).add("online_users", "1");
-        verify(userRepository, never()).save(any());
-        verify(simpMessagingTemplate, never()).convertAndSend(anyString(), anyBoolean());
+    @SuppressWarnings("unchecked")
+    void flushLastOnline_ShouldBatchUpdatePendingTimestampsAndReleaseFlushedEntries() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("presence_last_online", "presence_last_online_flushing"))))
+                .thenReturn(List.of("1", "1700000000000", "2", ""));
+
+        onlineUserService.flushLastOnline();
+
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE users SET last_online = ? WHERE user_id = ?"), captor.capture());
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("presence_last_online_flushing")), eq("1"), eq("1700000000000"), eq("2"), eq(""));
+        verify(redisTemplate, never()).delete(anyString());
+        assertEquals(2, captor.getValue().size());
+        assertEquals(new Timestamp(1700000000000L), captor.getValue().getFirst()[0]);
+        assertEquals(1L, captor.getValue().getFirst()[1]);
+        assertNull(captor.getValue().get(1)[0]);
     }
 
     @Test
-    void userDisconnected_ShouldHandleNullRemovedCount() {
-        User user = User.builder()
-                .id(1L)
-                .email("test@example.com")
-                .showOnlineStatus(true)
-                .build();
-
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
-        when(redisTemplate.opsForSet()).thenReturn(setOperations);
-        when(setOperations.remove("online_users", "1")).thenReturn(null);
-
-        onlineUserService.userDisconnected("test@example.com");
-
-        verify(setOperations).remove("online_users", "1");
-        verify(userRepository, never()).save(any());
-        verify(simpMessagingTemplate, never()).convertAndSend(anyString(), anyBoolean());
+    @SuppressWarnings("unchecked")
+    void flushLastOnline_ShouldDoNothing_WhenNothingIsPending() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("presence_last_online", "presence_last_online_flushing"))))
+                .thenReturn(List.of());
+
+        onlineUserService.flushLastOnline();
+
+        verifyNoInteractions(jdbcTemplate);
     }
 
     @Test
-    void userConnected_ShouldBroadcastOnlineStatus_ForDifferentUserIds() {
-        User user = User.builder()
-                .id(999L)
-                .email("user999@example.com")
-                .showOnlineStatus(true)
-                .build();
+    void isOnline_ShouldReturnTrue_WhenUserIsOnline() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.getBit("presence_online", 1L)).thenReturn(true);
 
-        when(userRepository.findByEmail("user999@example.com")).thenReturn(Optional.of(user));
-        when(redisTemplate.opsForSet()).thenReturn(setOperations);
-        when(setOperations.add("online_users", "999")).thenReturn(1L);
+        assertTrue(onlineUserService.isOnline(1L));
+    }
 
-        onlineUserService.userConnected("user999@example.com");
+    @Test
+    void isOnline_ShouldReturnFalse_WhenRedisReturnsNull() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.getBit("presence_online", 1L)).thenReturn(null);
 
-        verify(simpMessagingTemplate).convertAndSend("/topic/users.999", true);
+        assertFalse(onlineUserService.isOnline(1L));
     }
 
     @Test
-    void userDisconnected_ShouldBroadcastOfflineStatus_ForDifferentUserIds() {
-        User user = User.builder()
-                .id(999L)
-                .email("user999@example.com")
-                .showOnlineStatus(true)
-                .build();
+    void getOnlineStatuses_ShouldReadAllBitsInSingleBitField() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.bitField(eq("presence_online"), any(BitFieldSubCommands.class))).thenReturn(List.of(1L, 0L));
 
-        when(userRepository.findByEmail("user999@example.com")).thenReturn(Optional.of(user));
-        when(redisTemplate.opsForSet()).thenReturn(setOperations);
-        when(setOperations.remove("online_users", "999")).thenReturn(1L);
+        Map<Long, Boolean> statuses = onlineUserService.getOnlineStatuses(List.of(3L, 5L, 3L));
 
-        onlineUserService.userDisconnected("user999@example.com");
+        assertEquals(Map.of(3L, true, 5L, false), statuses);
+        ArgumentCaptor<BitFieldSubCommands> captor = ArgumentCaptor.forClass(BitFieldSubCommands.class);
+        verify(valueOperations).bitField(eq("presence_online"), captor.capture());
+        assertEquals(2, captor.getValue().getSubCommands().size());
+    }
+
+    @Test
+    void getOnlineStatuses_ShouldThrowBadRequest_WhenTooManyUsersRequested() {
+        List<Long> userIds = Collections.nCopies(1001, 1L);
 
-        verify(simpMessagingTemplate).convertAndSend("/topic/users.999", false);
+        assertThrows(BadRequestException.class, () -> onlineUserService.getOnlineStatuses(userIds));
+        verifyNoInteractions(redisTemplate);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,191 @@
+package com.chatter.chatter.unit.service;
+
+import com.chatter.chatter.dto.MessageAckDto;
+import com.chatter.chatter.dto.MessageDto;
+import com.chatter.chatter.dto.MessageProjection;
+import com.chatter.chatter.exception.NotFoundException;
+import com.chatter.chatter.mapper.MessageMapper;
+import com.chatter.chatter.model.Message;
+import com.chatter.chatter.model.MessageType;
+import com.chatter.chatter.request.SingleMessageRequest;
+import com.chatter.chatter.request.SocketMessageRequest;
+import com.chatter.chatter.service.EphemeralEventBus;
+import com.chatter.chatter.service.MessageService;
+import com.chatter.chatter.service.RateLimitingService;
+import com.chatter.chatter.service.SocketMessageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SocketMessageServiceTests {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private MessageService messageService;
+
+    @Mock
+    private MessageMapper messageMapper;
+
+    @Mock
+    private EphemeralEventBus ephemeralEventBus;
+
+    @Mock
+    private ObjectProvider<RateLimitingService> rateLimitingServiceProvider;
+
+    @InjectMocks
+    private SocketMessageService socketMessageService;
+
+    private SocketMessageRequest request;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(socketMessageService, "pendingTtl", Duration.ofSeconds(30));
+        request = new SocketMessageRequest();
+        request.setClientMessageId("client-id");
+        request.setChatId(1L);
+        request.setMessageType(MessageType.TEXT);
+        request.setContent("hi");
+    }
+
+    @Test
+    void sendMessage_ShouldCreateMessageAndAcknowledge() {
+        Message message = new Message();
+        message.setId(10L);
+        MessageDto messageDto = MessageDto.builder().id(10L).build();
+        when(messageService.findMessageIdByClientMessageId(1L, "client-id")).thenReturn(Optional.empty());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent("message_request:1:client-id", "pending", Duration.ofSeconds(30))).thenReturn(true);
+        when(messageService.createMessage(eq("test@example.com"), any(SingleMessageRequest.class))).thenReturn(message);
+        when(messageMapper.toDto(any(MessageProjection.class), eq("test@example.com"), eq(true))).thenReturn(messageDto);
+
+        socketMessageService.sendMessage(1L, "test@example.com", request);
+
+        ArgumentCaptor<SingleMessageRequest> requestCaptor = ArgumentCaptor.forClass(SingleMessageRequest.class);
+        verify(messageService).createMessage(eq("test@example.com"), requestCaptor.capture());
+        assertEquals(1L, requestCaptor.getValue().getChatId());
+        assertEquals(MessageType.TEXT, requestCaptor.getValue().getMessageType());
+        assertEquals("hi", requestCaptor.getValue().getContent());
+        assertEquals("client-id", requestCaptor.getValue().getClientMessageId());
+        verify(redisTemplate).delete("message_request:1:client-id");
+        ArgumentCaptor<MessageAckDto> captor = ArgumentCaptor.forClass(MessageAckDto.class);
+        verify(ephemeralEventBus).publishToUser(eq(1L), eq("/queue/message-acks"), captor.capture());
+        assertEquals("client-id", captor.getValue().getClientMessageId());
+        assertEquals(messageDto, captor.getValue().getMessage());
+        assertNull(captor.getValue().getErrors());
+    }
+
+    @Test
+    void sendMessage_ShouldAcknowledgeStoredMessage_WhenRetried() {
+        MessageDto messageDto = MessageDto.builder().id(10L).build();
+        when(messageService.findMessageIdByClientMessageId(1L, "client-id")).thenReturn(Optional.of(10L));
+        when(messageService.getMessage("test@example.com", 10L)).thenReturn(messageDto);
+
+        socketMessageService.sendMessage(1L, "test@example.com", request);
+
+        verify(messageService, never()).createMessage(anyString(), any());
+        verifyNoInteractions(redisTemplate);
+        ArgumentCaptor<MessageAckDto> captor = ArgumentCaptor.forClass(MessageAckDto.class);
+        verify(ephemeralEventBus).publishToUser(eq(1L), eq("/queue/message-acks"), captor.capture());
+        assertEquals(messageDto, captor.getValue().getMessage());
+    }
+
+    @Test
+    void sendMessage_ShouldAcknowledgePending_WhenOriginalIsInFlight() {
+        when(messageService.findMessageIdByClientMessageId(1L, "client-id")).thenReturn(Optional.empty());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent("message_request:1:client-id", "pending", Duration.ofSeconds(30))).thenReturn(false);
+
+        socketMessageService.sendMessage(1L, "test@example.com", request);
+
+        verify(messageService, never()).createMessage(anyString(), any());
+        verify(redisTemplate, never()).delete(anyString());
+        ArgumentCaptor<MessageAckDto> captor = ArgumentCaptor.forClass(MessageAckDto.class);
+        verify(ephemeralEventBus).publishToUser(eq(1L), eq("/queue/message-acks"), captor.capture());
+        assertEquals("client-id", captor.getValue().getClientMessageId());
+        assertTrue(captor.getValue().getPending());
+        assertNull(captor.getValue().getMessage());
+    }
+
+    @Test
+    void sendMessage_ShouldResolveFromDatabase_WhenConcurrentRetryStoredFirst() {
+        MessageDto messageDto = MessageDto.builder().id(10L).build();
+        when(messageService.findMessageIdByClientMessageId(1L, "client-id")).thenReturn(Optional.empty(), Optional.of(10L));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent("message_request:1:client-id", "pending", Duration.ofSeconds(30))).thenReturn(true);
+        when(messageService.createMessage(eq("test@example.com"), any(SingleMessageRequest.class))).thenThrow(new DataIntegrityViolationException("uc_messages_user_id_client_message_id"));
+        when(messageService.getMessage("test@example.com", 10L)).thenReturn(messageDto);
+
+        socketMessageService.sendMessage(1L, "test@example.com", request);
+
+        ArgumentCaptor<MessageAckDto> captor = ArgumentCaptor.forClass(MessageAckDto.class);
+        verify(ephemeralEventBus).publishToUser(eq(1L), eq("/queue/message-acks"), captor.capture());
+        assertEquals(messageDto, captor.getValue().getMessage());
+    }
+
+    @Test
+    void sendMessage_ShouldReleaseKeyAndAcknowledgeError_WhenCreationFails() {
+        when(messageService.findMessageIdByClientMessageId(1L, "client-id")).thenReturn(Optional.empty());
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent("message_request:1:client-id", "pending", Duration.ofSeconds(30))).thenReturn(true);
+        when(messageService.createMessage(eq("test@example.com"), any(SingleMessageRequest.class))).thenThrow(new NotFoundException("chat", "not found"));
+
+        socketMessageService.sendMessage(1L, "test@example.com", request);
+
+        verify(redisTemplate).delete("message_request:1:client-id");
+        ArgumentCaptor<MessageAckDto> captor = ArgumentCaptor.forClass(MessageAckDto.class);
+        verify(ephemeralEventBus).publishToUser(eq(1L), eq("/queue/message-acks"), captor.capture());
+        assertEquals("not found", captor.getValue().getErrors().get("message"));
+        assertNull(captor.getValue().getMessage());
+    }
+
+    @Test
+    void sendMessage_ShouldRejectUnsupportedMessageTypes() {
+        request.setMessageType(MessageType.MEDIA);
+
+        socketMessageService.sendMessage(1L, "test@example.com", request);
+
+        verifyNoInteractions(redisTemplate, messageService);
+        ArgumentCaptor<MessageAckDto> captor = ArgumentCaptor.forClass(MessageAckDto.class);
+        verify(ephemeralEventBus).publishToUser(eq(1L), eq("/queue/message-acks"), captor.capture());
+        assertTrue(captor.getValue().getErrors().containsKey("messageType"));
+    }
+
+    @Test
+    void rejectMessage_ShouldAcknowledgeFieldErrors() {
+        BindingResult bindingResult = new BeanPropertyBindingResult(request, "request");
+        bindingResult.rejectValue("content", "Size", "content is too long");
+
+        socketMessageService.rejectMessage(1L, request, bindingResult);
+
+        verifyNoInteractions(redisTemplate, messageService);
+        ArgumentCaptor<MessageAckDto> captor = ArgumentCaptor.forClass(MessageAckDto.class);
+        verify(ephemeralEventBus).publishToUser(eq(1L), eq("/queue/message-acks"), captor.capture());
+        assertEquals("client-id", captor.getValue().getClientMessageId());
+        assertEquals("content is too long", captor.getValue().getErrors().get("content"));
+    }
+
+}
@@ -0,0 +1,289 @@
+package com.chatter.chatter.unit.service;
+
+import com.chatter.chatter.dto.FileMetadata;
+import com.chatter.chatter.dto.UploadSessionDto;
+import com.chatter.chatter.dto.UploadedFile;
+import com.chatter.chatter.exception.BadRequestException;
+import com.chatter.chatter.exception.NotFoundException;
+import com.chatter.chatter.request.UploadSessionPostRequest;
+import com.chatter.chatter.service.BlobService;
+import com.chatter.chatter.service.FileUploadService;
+import com.chatter.chatter.service.FileValidationService;
+import com.chatter.chatter.service.UploadSessionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UploadSessionServiceTests {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private HashOperations<String, String, String> hashOperations;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private FileUploadService fileUploadService;
+
+    @Mock
+    private FileValidationService fileValidationService;
+
+    @Mock
+    private BlobService blobService;
+
+    @InjectMocks
+    private UploadSessionService uploadSessionService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(uploadSessionService, "maxFileSize", 1024L);
+        ReflectionTestUtils.setField(uploadSessionService, "partSize", DataSize.ofBytes(4));
+        ReflectionTestUtils.setField(uploadSessionService, "sessionTtl", Duration.ofHours(24));
+    }
+
+    @Test
+    void createSession_ShouldStartMultipartUpload() {
+        UploadSessionPostRequest request = new UploadSessionPostRequest("video.mp4", "video/mp4", 10L);
+        when(fileValidationService.getFileExtension("video.mp4")).thenReturn("mp4");
+        when(fileUploadService.createMultipartUpload(startsWith("uploads/"), eq("video/mp4"))).thenReturn("upload-id");
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+
+        UploadSessionDto result = uploadSessionService.createSession("test@example.com", request);
+
+        assertEquals(10L, result.getFileSize());
+        assertEquals(0L, result.getUploadedBytes());
+        assertEquals(4L, result.getPartSize());
+        assertFalse(result.getCompleted());
+        verify(fileUploadService).createMultipartUpload("uploads/" + result.getId() + ".mp4", "video/mp4");
+        verify(hashOperations).putAll(eq("upload_session:" + result.getId()), anyMap());
+        verify(zSetOperations).add(eq("upload_sessions_expirations"), eq(result.getId()), anyDouble());
+    }
+
+    @Test
+    void createSession_ShouldThrowBadRequest_WhenFileTooLarge() {
+        UploadSessionPostRequest request = new UploadSessionPostRequest("video.mp4", "video/mp4", 2048L);
+
+        assertThrows(BadRequestException.class, () -> uploadSessionService.createSession("test@example.com", request));
+
+        verifyNoInteractions(fileUploadService, redisTemplate);
+    }
+
+    @Test
+    void createDirectSession_ShouldReturnUploadUrl() {
+        UploadSessionPostRequest request = new UploadSessionPostRequest("video.mp4", "video/mp4", 10L);
+        when(fileValidationService.getFileExtension("video.mp4")).thenReturn("mp4");
+        when(fileUploadService.getUploadUrl(startsWith("uploads/"), eq("video/mp4"), eq(10L))).thenReturn("https://s3.test.com/upload");
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+
+        UploadSessionDto result = uploadSessionService.createDirectSession("test@example.com", request);
+
+        assertEquals("https://s3.test.com/upload", result.getUploadUrl());
+        verify(fileUploadService, never()).createMultipartUpload(anyString(), anyString());
+    }
+
+    @Test
+    void getSession_ShouldThrowNotFound_WhenOwnedByAnotherUser() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("upload_session:session")).thenReturn(createSession(0L));
+
+        assertThrows(NotFoundException.class, () -> uploadSessionService.getSession("other@example.com", "session"));
+    }
+
+    @Test
+    void uploadChunk_ShouldStoreCompleteParts_AndDropPartialTail() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(hashOperations.entries("upload_session:session")).thenReturn(createSession(0L));
+        when(valueOperations.setIfAbsent(eq("upload_session_lock:session"), anyString(), any(Duration.class))).thenReturn(true);
+        when(fileUploadService.uploadPart("uploads/session.mp4", "upload-id", 1, new byte[] {1, 2, 3, 4})).thenReturn("etag-1");
+
+        UploadSessionDto result = uploadSessionService.uploadChunk("test@example.com", "session", 0L, new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6}));
+
+        assertEquals(4L, result.getUploadedBytes());
+        verify(fileUploadService, times(1)).uploadPart(anyString(), anyString(), anyInt(), any());
+        verify(hashOperations).put("upload_session_parts:session", "1", "etag-1");
+        verify(hashOperations).put("upload_session:session", "uploadedBytes", "4");
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("upload_session_lock:session")), anyString());
+    }
+
+    @Test
+    void uploadChunk_ShouldStoreShortLastPart() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(hashOperations.entries("upload_session:session")).thenReturn(createSession(8L));
+        when(valueOperations.setIfAbsent(eq("upload_session_lock:session"), anyString(), any(Duration.class))).thenReturn(true);
+        when(fileUploadService.uploadPart("uploads/session.mp4", "upload-id", 3, new byte[] {9, 10})).thenReturn("etag-3");
+
+        UploadSessionDto result = uploadSessionService.uploadChunk("test@example.com", "session", 8L, new ByteArrayInputStream(new byte[] {9, 10}));
+
+        assertEquals(10L, result.getUploadedBytes());
+        verify(hashOperations).put("upload_session_parts:session", "3", "etag-3");
+    }
+
+    @Test
+    void uploadChunk_ShouldThrowBadRequest_WhenOffsetDoesNotMatch() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(hashOperations.entries("upload_session:session")).thenReturn(createSession(4L));
+        when(valueOperations.setIfAbsent(eq("upload_session_lock:session"), anyString(), any(Duration.class))).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> uploadSessionService.uploadChunk("test@example.com", "session", 0L, new ByteArrayInputStream(new byte[4])));
+
+        verify(fileUploadService, never()).uploadPart(anyString(), anyString(), anyInt(), any());
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("upload_session_lock:session")), anyString());
+    }
+
+    @Test
+    void completeSession_ShouldCompleteMultipartUploadAndRegisterBlob() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(hashOperations.entries("upload_session:session")).thenReturn(createSession(10L));
+        when(hashOperations.entries("upload_session_parts:session")).thenReturn(Map.of("1", "etag-1", "2", "etag-2", "3", "etag-3"));
+        when(fileUploadService.completeMultipartUpload("uploads/session.mp4", "upload-id", Map.of(1, "etag-1", 2, "etag-2", 3, "etag-3"))).thenReturn("\"etag-3\"");
+        when(fileUploadService.getFilePrefix("uploads/session.mp4", FileValidationService.MIME_TYPE_DETECTION_PREFIX_SIZE)).thenReturn(new byte[] {1});
+        when(fileValidationService.detectMimeType(new byte[] {1})).thenReturn("video/mp4");
+        when(blobService.registerFile("uploads/session.mp4", "\"etag-3\"", 10L, "video/mp4")).thenReturn("uploads/session.mp4");
+
+        UploadedFile result = uploadSessionService.completeSession("test@example.com", "session");
+
+        assertEquals("video.mp4", result.getFileName());
+        assertEquals("uploads/session.mp4", result.getFilePath());
+        assertEquals("video/mp4", result.getContentType());
+        verify(redisTemplate).delete("upload_session_parts:session");
+    }
+
+    @Test
+    void completeSession_ShouldRegisterAssembledObject_WhenMultipartUploadWasAlreadyCompleted() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(hashOperations.entries("upload_session:session")).thenReturn(createSession(10L));
+        when(fileUploadService.getFileMetadata("uploads/session.mp4")).thenReturn(new FileMetadata(10L, "video/mp4", "\"etag-3\""));
+        when(fileUploadService.getFilePrefix("uploads/session.mp4", FileValidationService.MIME_TYPE_DETECTION_PREFIX_SIZE)).thenReturn(new byte[] {1});
+        when(fileValidationService.detectMimeType(new byte[] {1})).thenReturn("video/mp4");
+        when(blobService.registerFile("uploads/session.mp4", "\"etag-3\"", 10L, "video/mp4")).thenReturn("uploads/session.mp4");
+
+        UploadedFile result = uploadSessionService.completeSession("test@example.com", "session");
+
+        assertEquals("uploads/session.mp4", result.getFilePath());
+        verify(fileUploadService, never()).completeMultipartUpload(anyString(), anyString(), anyMap());
+    }
+
+    @Test
+    void completeSession_ShouldVerifyDirectUpload() {
+        Map<String, String> session = createSession(0L);
+        session.put("direct", "true");
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(hashOperations.entries("upload_session:session")).thenReturn(session);
+        when(fileUploadService.getFileMetadata("session.mp4")).thenReturn(null);
+        when(fileUploadService.getFileMetadata("uploads/session.mp4")).thenReturn(new FileMetadata(10L, "video/mp4", "\"etag\""));
+        when(fileUploadService.copyFile("uploads/session.mp4", "session.mp4", "\"etag\"")).thenReturn("\"etag\"");
+        when(fileUploadService.getFilePrefix("session.mp4", FileValidationService.MIME_TYPE_DETECTION_PREFIX_SIZE)).thenReturn(new byte[] {1});
+        when(fileValidationService.detectMimeType(new byte[] {1})).thenReturn("video/mp4");
+        when(blobService.registerFile("session.mp4", "\"etag\"", 10L, "video/mp4")).thenReturn("session.mp4");
+
+        UploadedFile result = uploadSessionService.completeSession("test@example.com", "session");
+
+        assertEquals("session.mp4", result.getFilePath());
+        verify(fileUploadService).deleteFiles(List.of("uploads/session.mp4"));
+        verify(fileUploadService, never()).completeMultipartUpload(anyString(), anyString(), anyMap());
+    }
+
+    @Test
+    void completeSession_ShouldThrowBadRequest_WhenDirectUploadChangesBeforeCopy() {
+        Map<String, String> session = createSession(0L);
+        session.put("direct", "true");
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("upload_session:session")).thenReturn(session);
+        when(fileUploadService.getFileMetadata("session.mp4")).thenReturn(null);
+        when(fileUploadService.getFileMetadata("uploads/session.mp4")).thenReturn(new FileMetadata(10L, "video/mp4", "\"etag\""));
+        when(fileUploadService.copyFile("uploads/session.mp4", "session.mp4", "\"etag\"")).thenReturn(null);
+
+        assertThrows(BadRequestException.class, () -> uploadSessionService.completeSession("test@example.com", "session"));
+
+        verify(fileUploadService, never()).getFilePrefix(anyString(), anyInt());
+        verifyNoInteractions(blobService);
+    }
+
+    @Test
+    void completeSession_ShouldDeleteDirectUpload_WhenSizeDoesNotMatch() {
+        Map<String, String> session = createSession(0L);
+        session.put("direct", "true");
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("upload_session:session")).thenReturn(session);
+        when(fileUploadService.getFileMetadata("session.mp4")).thenReturn(null);
+        when(fileUploadService.getFileMetadata("uploads/session.mp4")).thenReturn(new FileMetadata(2048L, "video/mp4", "\"etag\""));
+
+        assertThrows(BadRequestException.class, () -> uploadSessionService.completeSession("test@example.com", "session"));
+
+        verify(fileUploadService).deleteFiles(List.of("uploads/session.mp4"));
+        verifyNoInteractions(blobService);
+    }
+
+    @Test
+    void completeSession_ShouldReturnStoredFile_WhenAlreadyCompleted() {
+        Map<String, String> session = createSession(10L);
+        session.put("blobPath", "uploads/previous.mp4");
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("upload_session:session")).thenReturn(session);
+
+        UploadedFile result = uploadSessionService.completeSession("test@example.com", "session");
+
+        assertEquals("uploads/previous.mp4", result.getFilePath());
+        verifyNoInteractions(fileUploadService, blobService);
+    }
+
+    @Test
+    void completeSession_ShouldThrowBadRequest_WhenUploadIsIncomplete() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("upload_session:session")).thenReturn(createSession(4L));
+
+        assertThrows(BadRequestException.class, () -> uploadSessionService.completeSession("test@example.com", "session"));
+
+        verifyNoInteractions(fileUploadService, blobService);
+    }
+
+    private Map<String, String> createSession(Long uploadedBytes) {
+        Map<String, String> session = new HashMap<>();
+        session.put("email", "test@example.com");
+        session.put("fileName", "video.mp4");
+        session.put("fileSize", "10");
+        session.put("contentType", "video/mp4");
+        session.put("filePath", "uploads/session.mp4");
+        session.put("multipartUploadId", "upload-id");
+        session.put("uploadedBytes", uploadedBytes.toString());
+        return session;
+    }
+
+}
@@ -10,7 +10,7 @@ import com.chatter.chatter.model.User;
 import com.chatter.chatter.repository.UserRepository;
 import com.chatter.chatter.request.UserPatchRequest;
 import com.chatter.chatter.request.UserRegisterRequest;
-import com.chatter.chatter.service.FileUploadService;
+import com.chatter.chatter.service.BlobService;
 import com.chatter.chatter.service.FileValidationService;
 import com.chatter.chatter.service.OnlineUserService;
 import com.chatter.chatter.service.UserService;
@@ -50,7 +50,7 @@ class UserServiceTests {
     @Mock
     private PasswordEncoder passwordEncoder;
     @Mock
-    private FileUploadService fileUploadService;
+    private BlobService blobService;
     @Mock
     private FileValidationService fileValidationService;
     @Mock
@@ -322,7 +322,7 @@ class UserServiceTests {
         when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
         when(fileValidationService.isImage(image)).thenReturn(true);
         when(fileValidationService.isSizeValid(eq(image), anyLong())).thenReturn(true);
-        when(fileUploadService.uploadFile(image)).thenReturn("imagePath");
+        when(blobService.uploadFile(image)).thenReturn("imagePath");
         when(userRepository.findContacts(user.getEmail(),  ChatType.INDIVIDUAL)).thenReturn(List.of(contact));
         when(cacheManager.getCache("users")).thenReturn(cache);
         when(cacheManager.getCache("userContacts")).thenReturn(cache);
@@ -331,7 +331,7 @@ class UserServiceTests {
 
         assertEquals("newTestUsername", updated.getUsername());
         assertEquals("imagePath", updated.getImage());
-        verify(onlineUserService).userConnected("testEmail@example.com");
+        verify(onlineUserService).userConnected(1L);
         verify(userRepository).save(user);
         verify(cache).evict("id:1");
         verify(cache).evict("email:" + contact.getEmail());
@@ -414,7 +414,7 @@ class UserServiceTests {
 
         userService.deleteUser(user.getEmail());
 
-        verify(onlineUserService).userDisconnected(user.getEmail());
+        verify(onlineUserService).userDisconnected(user.getId());
         verify(userRepository).delete(user);
         verify(cache).evict("id:1");
         verify(cache).evict("email:" + contact.getEmail());